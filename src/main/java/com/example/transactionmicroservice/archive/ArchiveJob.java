@@ -0,0 +1,126 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.config.ArchiveProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Moves the closed months of the {@code transactions} collection to the {@link ArchiveStore}.
+ * <p>
+ * Months are processed oldest first. A month is streamed from MongoDB in date order into a {@link SegmentWriter},
+ * the segment is written and reopened, and only when it holds as many rows as the month has documents is it
+ * published and are the documents deleted. The deletion waits twice the {@code refresh-interval} of the
+ * {@link ArchiveStore}, so the nodes sharing the directory have opened the segment by then. A crash between both
+ * steps leaves the month in the archive and in MongoDB; the history reads only take the archive up to
+ * {@link ArchiveStore#archivedUntil()} and the next run finishes the deletion.
+ * <p>
+ * The job deletes data, so it only runs when {@code transactions.archive.enabled} is set, and it should run on a
+ * single node.
+ */
+@Slf4j
+@Component
+public class ArchiveJob implements SmartLifecycle {
+
+    private static final Sort BY_DATE_ASC = Sort.by(Sort.Direction.ASC, "date");
+    private static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ArchiveStore archiveStore;
+    private final ArchiveProperties properties;
+    private final Scheduler blockingScheduler;
+    private Disposable subscription;
+
+    public ArchiveJob(ReactiveMongoTemplate mongoTemplate, ArchiveStore archiveStore, ArchiveProperties properties,
+                      @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveStore = archiveStore;
+        this.properties = properties;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        subscription = Flux.interval(INITIAL_DELAY, properties.getInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> archiveClosedMonths()
+                        .onErrorResume(e -> {
+                            log.error("Archiving failed, retrying in {}", properties.getInterval(), e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+    /**
+     * Archives every closed month older than the retained ones.
+     *
+     * @return A Mono that completes when there is nothing left to archive.
+     */
+    Mono<Void> archiveClosedMonths() {
+        YearMonth firstRetained = YearMonth.now().minusMonths(properties.getRetainMonths());
+        return mongoTemplate.findOne(new Query().with(BY_DATE_ASC), Transaction.class)
+                .map(oldest -> YearMonth.from(oldest.getDate()))
+                .filter(month -> month.isBefore(firstRetained))
+                .flatMapMany(oldest -> Flux.range(0, (int) oldest.until(firstRetained, ChronoUnit.MONTHS))
+                        .map(oldest::plusMonths))
+                .concatMap(this::archive)
+                .then();
+    }
+
+    private Mono<Void> archive(YearMonth month) {
+        Query range = Query.query(Criteria.where("date")
+                .gte(month.atDay(1).atStartOfDay())
+                .lt(month.plusMonths(1).atDay(1).atStartOfDay()));
+        // Los demás nodos abren el segmento en su siguiente escaneo: hasta entonces leen el mes de MongoDB
+        Mono<ArchiveSegment> archived = archiveStore.contains(month)
+                ? Mono.empty()
+                : write(month, range).delayUntil(segment -> Mono.delay(properties.getRefreshInterval().multipliedBy(2)));
+        // Si el segmento ya existía (fallo en la ejecución anterior) solo queda borrar los documentos
+        return archived
+                .then(Mono.defer(() -> mongoTemplate.remove(range, Transaction.class)))
+                .doOnNext(result -> log.info("Archived {}: {} transactions removed from MongoDB",
+                        month, result.getDeletedCount()))
+                .then();
+    }
+
+    private Mono<ArchiveSegment> write(YearMonth month, Query range) {
+        return mongoTemplate.count(range, Transaction.class)
+                .flatMap(expected -> mongoTemplate.find(Query.of(range).with(BY_DATE_ASC), Transaction.class)
+                        .collect(SegmentWriter::new, SegmentWriter::add)
+                        .filter(writer -> writer.getRows() > 0)
+                        .flatMap(writer -> writer.getRows() == expected
+                                ? Mono.fromCallable(() -> archiveStore.write(month, writer)).subscribeOn(blockingScheduler)
+                                : Mono.error(new IllegalStateException("Read " + writer.getRows() + " transactions of "
+                                        + month + " but MongoDB counted " + expected))));
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.model.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of an archive segment, memory-mapped so that scanning it does not copy the file to the heap
+ * and the page cache is shared with the rest of the node.
+ * <p>
+ * Instances are immutable and safe to share: every scan works on its own duplicates of the mapped buffer.
+ */
+public final class ArchiveSegment {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final long firstDate;
+    private final String[] dictionary;
+    private final Map<String, Integer> dictionaryIndex;
+    private final int[] columnOffsets = new int[SegmentFormat.COLUMN_COUNT];
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        ByteBuffer in = buffer.duplicate();
+        byte[] magic = new byte[SegmentFormat.MAGIC.length];
+        in.get(magic);
+        int columnCount;
+        if (Arrays.equals(magic, SegmentFormat.MAGIC)) {
+            columnCount = SegmentFormat.COLUMN_COUNT;
+        } else if (Arrays.equals(magic, SegmentFormat.MAGIC_V1)) {
+            columnCount = SegmentFormat.COLUMN_COUNT_V1;
+        } else {
+            throw new IllegalArgumentException("Not an archive segment: " + path);
+        }
+        rows = in.getInt();
+        firstDate = in.getLong();
+        dictionary = new String[(int) Varint.read(in)];
+        dictionaryIndex = new HashMap<>(dictionary.length * 2);
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[(int) Varint.read(in)];
+            in.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            dictionaryIndex.put(dictionary[i], i + 1);
+        }
+        Arrays.fill(columnOffsets, -1); // Columnas ausentes en segmentos de versiones anteriores
+        for (int column = 0; column < columnCount; column++) {
+            int length = in.getInt();
+            columnOffsets[column] = in.position();
+            in.position(in.position() + length);
+        }
+    }
+
+    /**
+     * Maps a segment file.
+     *
+     * @param path The segment file.
+     * @return The segment.
+     * @throws IOException If the file cannot be read.
+     */
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retrieves every transaction of the segment.
+     *
+     * @return The transactions, newest first.
+     */
+    public List<Transaction> findAll() {
+        return scan(0);
+    }
+
+    /**
+     * Retrieves the transactions where the account is the source or the destination. Segments that never
+     * mention the account are discarded with a dictionary lookup, without scanning their rows.
+     *
+     * @param accountId The ID of the account.
+     * @return The transactions of the account, newest first.
+     */
+    public List<Transaction> findByAccount(String accountId) {
+        Integer index = dictionaryIndex.get(accountId);
+        return index == null ? List.of() : scan(index);
+    }
+
+    private List<Transaction> scan(int accountIndex) {
+        Cursor cursor = new Cursor();
+        List<Transaction> matches = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            Transaction transaction = cursor.next();
+            if (accountIndex == 0 || cursor.source == accountIndex || cursor.destination == accountIndex) {
+                matches.add(transaction);
+            }
+        }
+        // Las filas se escriben en orden ascendente de fecha y el historial se sirve de la más nueva a la más vieja
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    /**
+     * Walks all the columns in lockstep, one row at a time.
+     */
+    private final class Cursor {
+
+        private final ByteBuffer[] columns = new ByteBuffer[SegmentFormat.COLUMN_COUNT];
+        private final boolean centAmounts;
+        private final boolean centDestinationAmounts;
+        private long date = firstDate;
+        private int source;
+        private int destination;
+
+        private Cursor() {
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = columnOffsets[column] < 0 ? null : buffer.duplicate().position(columnOffsets[column]);
+            }
+            centAmounts = columns[SegmentFormat.COLUMN_AMOUNT].get() == SegmentFormat.AMOUNT_CENTS;
+            centDestinationAmounts = columns[SegmentFormat.COLUMN_DESTINATION_AMOUNT].get() == SegmentFormat.AMOUNT_CENTS;
+        }
+
+        private Transaction next() {
+            date += Varint.unzigzag(Varint.read(columns[SegmentFormat.COLUMN_DATE]));
+            int type = columns[SegmentFormat.COLUMN_TYPE].get();
+            source = (int) Varint.read(columns[SegmentFormat.COLUMN_SOURCE]);
+            destination = (int) Varint.read(columns[SegmentFormat.COLUMN_DESTINATION]);
+            return Transaction.builder()
+                    .id(readId(columns[SegmentFormat.COLUMN_ID]))
+                    .type(SegmentFormat.type(type))
+                    .date(LocalDateTime.ofEpochSecond(Math.floorDiv(date, 1000L),
+                            (int) Math.floorMod(date, 1000L) * 1_000_000, ZoneOffset.UTC))
+                    .amount(readAmount(columns[SegmentFormat.COLUMN_AMOUNT], centAmounts))
+                    .sourceAccountId(lookup(source))
+                    .destinationAccountId(lookup(destination))
+                    .currency(lookup((int) Varint.read(columns[SegmentFormat.COLUMN_CURRENCY])))
+                    .destinationCurrency(lookup((int) Varint.read(columns[SegmentFormat.COLUMN_DESTINATION_CURRENCY])))
+                    .destinationAmount(readAmount(columns[SegmentFormat.COLUMN_DESTINATION_AMOUNT], centDestinationAmounts))
+                    .exchangeRate(readOptionalDouble(columns[SegmentFormat.COLUMN_EXCHANGE_RATE]))
+                    .parentTransactionId(readId(columns[SegmentFormat.COLUMN_PARENT_ID]))
+                    .build();
+        }
+
+        private String readId(ByteBuffer in) {
+            if (in == null) {
+                return null;
+            }
+            long header = Varint.read(in);
+            if (header == 0) {
+                return null;
+            }
+            int length = (int) (header >>> 2);
+            if ((header & 1) == 0) {
+                byte[] bytes = new byte[length];
+                in.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            char[] chars = new char[length * 2];
+            for (int i = 0; i < length; i++) {
+                int b = in.get() & 0xFF;
+                chars[2 * i] = Character.forDigit(b >>> 4, 16);
+                chars[2 * i + 1] = Character.forDigit(b & 0xF, 16);
+            }
+            return new String(chars);
+        }
+
+        private Double readAmount(ByteBuffer in, boolean cents) {
+            if (!cents) {
+                return readDouble(in);
+            }
+            long value = Varint.read(in);
+            return value == 0 ? null : Varint.unzigzag(value - 1) / 100.0;
+        }
+
+        private Double readOptionalDouble(ByteBuffer in) {
+            return in.get() == 0 ? null : in.getDouble();
+        }
+
+        private Double readDouble(ByteBuffer in) {
+            double value = in.getDouble();
+            return Double.isNaN(value) ? null : value;
+        }
+
+        private String lookup(int index) {
+            return index == 0 ? null : dictionary[index - 1];
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.config.ArchiveProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * The archived months, one memory-mapped {@link ArchiveSegment} per month, named
+ * {@code transactions-YYYY-MM.seg}.
+ * <p>
+ * Months are archived oldest first, so the archive always covers a prefix of the history: every transaction
+ * dated before {@link #archivedUntil()} lives in a segment and every later one lives in MongoDB.
+ * <p>
+ * The directory may be shared by several nodes while only one of them runs the {@link ArchiveJob}. Every
+ * {@code refresh-interval} the store opens the segments written since the last scan; the job waits twice that
+ * interval after publishing a segment before deleting its documents, so no node reads a month from neither place.
+ */
+@Slf4j
+@Component
+public class ArchiveStore implements SmartLifecycle {
+
+    private static final String PREFIX = "transactions-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final Duration refreshInterval;
+    private final Scheduler blockingScheduler;
+    private final NavigableMap<YearMonth, ArchiveSegment> segments = new ConcurrentSkipListMap<>();
+    private Disposable refresh;
+
+    public ArchiveStore(ArchiveProperties properties, @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.directory = properties.getDirectory();
+        this.refreshInterval = properties.getRefreshInterval();
+        this.blockingScheduler = blockingScheduler;
+        try {
+            int opened = refresh();
+            int rows = segments.values().stream().mapToInt(ArchiveSegment::getRows).sum();
+            log.info("Opened {} archive segments with {} transactions", opened, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the archive at " + directory, e);
+        }
+    }
+
+    @Override
+    public void start() {
+        refresh = Flux.interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromCallable(this::refresh)
+                        .subscribeOn(blockingScheduler)
+                        .onErrorResume(e -> {
+                            log.warn("Could not scan the archive at {}, retrying in {}", directory, refreshInterval, e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (refresh != null) {
+            refresh.dispose();
+            refresh = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresh != null;
+    }
+
+    /**
+     * @return The start of the first month that is not archived, or empty when nothing is archived.
+     */
+    public Optional<LocalDateTime> archivedUntil() {
+        return segments.isEmpty()
+                ? Optional.empty()
+                : Optional.of(segments.lastKey().plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * @param month A month.
+     * @return Whether the month is archived.
+     */
+    public boolean contains(YearMonth month) {
+        return segments.containsKey(month);
+    }
+
+    /**
+     * Retrieves the archived transactions where the account is the source or the destination.
+     *
+     * @param accountId The ID of the account.
+     * @param before    Only the months before this date are read (the {@link #archivedUntil()} seen by the caller).
+     * @return The archived transactions of the account, sorted by date in descending order.
+     */
+    public Flux<Transaction> findAccountHistory(String accountId, LocalDateTime before) {
+        return scan(before, segment -> segment.findByAccount(accountId));
+    }
+
+    /**
+     * Retrieves every archived transaction.
+     *
+     * @param before Only the months before this date are read (the {@link #archivedUntil()} seen by the caller).
+     * @return The archived transactions, sorted by date in descending order.
+     */
+    public Flux<Transaction> findGlobalHistory(LocalDateTime before) {
+        return scan(before, ArchiveSegment::findAll);
+    }
+
+    /**
+     * Writes the segment of a month, checks it can be read back and makes it visible to the history reads. Blocking.
+     *
+     * @param month  The archived month.
+     * @param writer The encoded transactions of the month.
+     * @return The written segment.
+     * @throws IOException If the segment cannot be written.
+     */
+    public ArchiveSegment write(YearMonth month, SegmentWriter writer) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(PREFIX + month + SUFFIX);
+        writer.writeTo(path);
+        ArchiveSegment segment = ArchiveSegment.open(path);
+        if (segment.getRows() != writer.getRows()) {
+            Files.delete(path);
+            throw new IOException("Segment " + path + " holds " + segment.getRows() + " rows instead of "
+                    + writer.getRows());
+        }
+        segments.put(month, segment);
+        return segment;
+    }
+
+    private Flux<Transaction> scan(LocalDateTime before, Function<ArchiveSegment, List<Transaction>> reader) {
+        // Los segmentos mapeados pueden provocar fallos de página: se leen fuera de los event loops
+        return Flux.fromIterable(segments.headMap(YearMonth.from(before), false).descendingMap().values())
+                .concatMap(segment -> Mono.fromCallable(() -> reader.apply(segment)).subscribeOn(blockingScheduler))
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Opens the segments of the directory that are not open yet (written by another node, or by this one before
+     * it restarted). Blocking.
+     *
+     * @return The number of segments opened.
+     * @throws IOException If the directory or a segment cannot be read.
+     */
+    int refresh() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int opened = 0;
+        // Los ficheros temporales (.seg.tmp) no encajan con el patrón: solo se ven segmentos completos
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                YearMonth month = month(file);
+                if (!segments.containsKey(month)) {
+                    segments.put(month, ArchiveSegment.open(file));
+                    opened++;
+                }
+            }
+        }
+        return opened;
+    }
+
+    private YearMonth month(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return YearMonth.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("Unexpected file in the archive at " + directory, e);
+        }
+    }
+}
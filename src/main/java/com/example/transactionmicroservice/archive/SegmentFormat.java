@@ -0,0 +1,75 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.model.TransactionType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of an archive segment file (all integers big-endian):
+ * <pre>
+ * magic "TXSEG002" | int rowCount | long firstDate
+ * dictionary: varint size, then varint length + UTF-8 bytes per string (account ids and currencies)
+ * one column per COLUMN_* constant, in that order, each as int byteLength + bytes
+ * </pre>
+ * Transaction types are stored as the one-byte codes of {@link #typeCode(TransactionType)} ({@code 0} means null).
+ * Strings are stored once in the dictionary and referenced by {@code index + 1} ({@code 0} means null); dates are
+ * zigzag varint deltas from the previous row; lowercase hexadecimal ids (the generated ones and ObjectIds) are
+ * packed two digits per byte; amounts are zigzag varint cents when every value of the segment
+ * is a whole number of cents and raw doubles otherwise; the exchange rate is a presence byte followed by a double.
+ * <p>
+ * Version 1 segments ({@code "TXSEG001"}) lack the parent id column and are still readable.
+ */
+final class SegmentFormat {
+
+    static final byte[] MAGIC = "TXSEG002".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] MAGIC_V1 = "TXSEG001".getBytes(StandardCharsets.US_ASCII);
+
+    static final int COLUMN_ID = 0;
+    static final int COLUMN_TYPE = 1;
+    static final int COLUMN_DATE = 2;
+    static final int COLUMN_AMOUNT = 3;
+    static final int COLUMN_SOURCE = 4;
+    static final int COLUMN_DESTINATION = 5;
+    static final int COLUMN_CURRENCY = 6;
+    static final int COLUMN_DESTINATION_CURRENCY = 7;
+    static final int COLUMN_DESTINATION_AMOUNT = 8;
+    static final int COLUMN_EXCHANGE_RATE = 9;
+    static final int COLUMN_PARENT_ID = 10;
+    static final int COLUMN_COUNT = 11;
+    static final int COLUMN_COUNT_V1 = 10;
+
+    static final byte AMOUNT_CENTS = 0;
+    static final byte AMOUNT_RAW = 1;
+
+    private SegmentFormat() {
+    }
+
+    /**
+     * Code of a transaction type in the type column. The codes are part of the format, independent of the order of
+     * the enum: they never change and a new type gets the next free code (the switch fails to compile until it has
+     * one).
+     */
+    static int typeCode(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 1;
+            case WITHDRAWAL -> 2;
+            case TRANSFER -> 3;
+            case MULTI_TRANSFER -> 4;
+        };
+    }
+
+    /**
+     * @return The transaction type of a code of the type column, or null for {@code 0}.
+     * @throws IllegalArgumentException If the code is unknown (segment written by a newer version).
+     */
+    static TransactionType type(int code) {
+        return switch (code) {
+            case 0 -> null;
+            case 1 -> TransactionType.DEPOSIT;
+            case 2 -> TransactionType.WITHDRAWAL;
+            case 3 -> TransactionType.TRANSFER;
+            case 4 -> TransactionType.MULTI_TRANSFER;
+            default -> throw new IllegalArgumentException("Unknown transaction type code in archive segment: " + code);
+        };
+    }
+}
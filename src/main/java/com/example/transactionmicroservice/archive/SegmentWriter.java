@@ -0,0 +1,182 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes transactions, in date order, into an archive segment (see {@link SegmentFormat}).
+ * <p>
+ * Rows are encoded as they are added, so the memory used while archiving is the size of the compressed columns
+ * plus the amounts (kept as doubles until the encoding of the column is known).
+ */
+public class SegmentWriter {
+
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+    private final ByteArrayOutputStream[] columns = new ByteArrayOutputStream[SegmentFormat.COLUMN_COUNT];
+    private double[] amounts = new double[1024];
+    private double[] destinationAmounts = new double[1024];
+    private int rows;
+    private long firstDate;
+    private long previousDate;
+
+    public SegmentWriter() {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ByteArrayOutputStream();
+        }
+    }
+
+    /**
+     * Encodes one transaction. Transactions should be added in ascending date order to keep date deltas small.
+     *
+     * @param transaction The transaction to archive.
+     */
+    public void add(Transaction transaction) {
+        long date = toMillis(transaction.getDate());
+        if (rows == 0) {
+            firstDate = date;
+            previousDate = date;
+        }
+        if (rows == amounts.length) {
+            amounts = Arrays.copyOf(amounts, rows * 2);
+            destinationAmounts = Arrays.copyOf(destinationAmounts, rows * 2);
+        }
+        writeId(SegmentFormat.COLUMN_ID, transaction.getId());
+        columns[SegmentFormat.COLUMN_TYPE].write(
+                transaction.getType() == null ? 0 : SegmentFormat.typeCode(transaction.getType()));
+        Varint.write(columns[SegmentFormat.COLUMN_DATE], Varint.zigzag(date - previousDate));
+        previousDate = date;
+        amounts[rows] = transaction.getAmount() == null ? Double.NaN : transaction.getAmount();
+        writeString(SegmentFormat.COLUMN_SOURCE, transaction.getSourceAccountId());
+        writeString(SegmentFormat.COLUMN_DESTINATION, transaction.getDestinationAccountId());
+        writeString(SegmentFormat.COLUMN_CURRENCY, transaction.getCurrency());
+        writeString(SegmentFormat.COLUMN_DESTINATION_CURRENCY, transaction.getDestinationCurrency());
+        destinationAmounts[rows] = transaction.getDestinationAmount() == null ? Double.NaN : transaction.getDestinationAmount();
+        writeOptionalDouble(SegmentFormat.COLUMN_EXCHANGE_RATE, transaction.getExchangeRate());
+        writeId(SegmentFormat.COLUMN_PARENT_ID, transaction.getParentTransactionId());
+        rows++;
+    }
+
+    /**
+     * @return The number of transactions added.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Writes the segment atomically: it is written to a temporary file that is then moved into place.
+     *
+     * @param target The segment file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path target) throws IOException {
+        encodeAmounts(SegmentFormat.COLUMN_AMOUNT, amounts);
+        encodeAmounts(SegmentFormat.COLUMN_DESTINATION_AMOUNT, destinationAmounts);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.write(SegmentFormat.MAGIC);
+            out.writeInt(rows);
+            out.writeLong(firstDate);
+            ByteArrayOutputStream encodedDictionary = new ByteArrayOutputStream();
+            Varint.write(encodedDictionary, dictionary.size());
+            for (String value : dictionary.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                Varint.write(encodedDictionary, bytes.length);
+                encodedDictionary.writeBytes(bytes);
+            }
+            encodedDictionary.writeTo(out);
+            for (ByteArrayOutputStream column : columns) {
+                out.writeInt(column.size());
+                column.writeTo(out);
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static long toMillis(LocalDateTime date) {
+        // La fecha local se codifica como si fuera UTC: la conversión es exacta y no depende de la zona del nodo
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private void writeId(int index, String id) {
+        ByteArrayOutputStream column = columns[index];
+        if (id == null) {
+            Varint.write(column, 0);
+        } else if (isPackableHex(id)) {
+            Varint.write(column, ((long) id.length() / 2 << 2) | 2 | 1); // bit 1: presente, bit 0: hexadecimal
+            for (int i = 0; i < id.length(); i += 2) {
+                column.write(Character.digit(id.charAt(i), 16) << 4 | Character.digit(id.charAt(i + 1), 16));
+            }
+        } else {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            Varint.write(column, ((long) bytes.length << 2) | 2);
+            column.writeBytes(bytes);
+        }
+    }
+
+    private void writeString(int column, String value) {
+        int index = value == null ? 0 : dictionary.computeIfAbsent(value, v -> dictionary.size()) + 1;
+        Varint.write(columns[column], index);
+    }
+
+    private void writeOptionalDouble(int column, Double value) {
+        // Un byte de presencia: el tipo de cambio solo existe en las transferencias
+        columns[column].write(value == null ? 0 : 1);
+        if (value != null) {
+            writeDouble(column, value);
+        }
+    }
+
+    private void writeDouble(int column, double value) {
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            columns[column].write((int) (bits >>> shift));
+        }
+    }
+
+    private void encodeAmounts(int column, double[] values) {
+        boolean cents = true;
+        for (int i = 0; i < rows && cents; i++) {
+            cents = Double.isNaN(values[i]) || Math.round(values[i] * 100) / 100.0 == values[i];
+        }
+        ByteArrayOutputStream out = columns[column];
+        out.write(cents ? SegmentFormat.AMOUNT_CENTS : SegmentFormat.AMOUNT_RAW);
+        for (int i = 0; i < rows; i++) {
+            if (!cents) {
+                writeDouble(column, values[i]);
+            } else if (Double.isNaN(values[i])) {
+                Varint.write(out, 0);
+            } else {
+                Varint.write(out, Varint.zigzag(Math.round(values[i] * 100)) + 1); // 0 reservado para null
+            }
+        }
+    }
+
+    private static boolean isPackableHex(String id) {
+        if (id.isEmpty() || id.length() % 2 != 0) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.transactionmicroservice.cache;
+
+import com.example.transactionmicroservice.config.HistoryCacheProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache with the most recent {@code entries-per-account} transactions of each account, newest first.
+ * <p>
+ * Eviction across accounts is Caffeine's W-TinyLFU bounded by the estimated size in bytes of the cached
+ * transactions. Saved transactions are written through into the entries already cached, and reads that need more
+ * than the cached window fall through to MongoDB. A load racing with a write to the same account is not cached,
+ * so a stale page never replaces a newer one.
+ * <p>
+ * Writes made by other nodes only invalidate entries when the change stream is enabled, and pages may be loaded
+ * from a lagging secondary, so every entry expires {@code expire-after-write} after it was loaded. Writing through
+ * does not extend that deadline.
+ */
+@Component
+public class AccountHistoryCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64; // Cabecera de la entrada y de la lista
+    private static final int TRANSACTION_OVERHEAD_BYTES = 120; // Objeto Transaction sin el contenido de sus Strings
+    private static final int EPOCH_STRIPES = 1024;
+
+    private final HistoryCacheProperties properties;
+    private final Cache<String, AccountHistory> cache;
+    private final AtomicLongArray writeEpochs = new AtomicLongArray(EPOCH_STRIPES); // Escrituras por grupo de cuentas
+
+    @Autowired
+    public AccountHistoryCache(HistoryCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    AccountHistoryCache(HistoryCacheProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String accountId, AccountHistory history) -> history.weight())
+                .expireAfter(new ExpireAfterLoad(properties.getExpireAfterWrite().toNanos()))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "transactions.history");
+    }
+
+    /**
+     * Returns the most recent transactions of an account, from memory when the cached window covers the request.
+     *
+     * @param accountId The ID of the account.
+     * @param limit     Maximum number of transactions ({@link Integer#MAX_VALUE} for the whole history).
+     * @param loader    Query returning the whole history of the account from MongoDB, newest first.
+     * @return A Flux containing at most {@code limit} transactions, newest first.
+     */
+    public Flux<Transaction> get(String accountId, int limit, Function<String, Flux<Transaction>> loader) {
+        if (limit <= 0) {
+            return Flux.empty();
+        }
+        if (!properties.isEnabled()) {
+            return limited(loader.apply(accountId), limit);
+        }
+        AccountHistory cached = cache.getIfPresent(accountId);
+        if (cached != null && (cached.complete() || limit <= cached.transactions().size())) {
+            return Flux.fromIterable(cached.head(limit));
+        }
+        int window = properties.getEntriesPerAccount();
+        if (limit > window) {
+            // Páginas más antiguas que la ventana cacheada: se leen directamente de Mongo
+            return limited(loader.apply(accountId), limit);
+        }
+        return Mono.defer(() -> {
+                    long epoch = writeEpochs.get(stripe(accountId));
+                    return loader.apply(accountId)
+                            .take(window + 1) // Un elemento extra indica si la cuenta tiene más historial
+                            .collectList()
+                            .doOnNext(loaded -> {
+                                if (writeEpochs.get(stripe(accountId)) == epoch) {
+                                    cache.asMap().putIfAbsent(accountId, AccountHistory.of(loaded, window));
+                                }
+                            });
+                })
+                .flatMapIterable(loaded -> loaded.subList(0, Math.min(limit, Math.min(window, loaded.size()))));
+    }
+
+    /**
+     * Adds a saved transaction to the cached entries of its accounts (write-through).
+     *
+     * @param transaction The saved transaction.
+     */
+    public void record(Transaction transaction) {
+        record(transaction.getSourceAccountId(), transaction);
+        record(transaction.getDestinationAccountId(), transaction);
+    }
+
+    /**
+     * Drops the cached entry of an account unless it already contains the given transaction.
+     *
+     * @param accountId     The ID of the account.
+     * @param transactionId The ID of the changed transaction, or {@code null} to always drop the entry.
+     */
+    public void invalidate(String accountId, String transactionId) {
+        if (accountId == null) {
+            return;
+        }
+        writeEpochs.incrementAndGet(stripe(accountId));
+        cache.asMap().computeIfPresent(accountId,
+                (id, history) -> transactionId != null && history.contains(transactionId) ? history : null);
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < EPOCH_STRIPES; i++) {
+            writeEpochs.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return The estimated size in bytes of the cached entries.
+     */
+    public long estimatedSizeInBytes() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    Cache<String, AccountHistory> cache() {
+        return cache;
+    }
+
+    private void record(String accountId, Transaction transaction) {
+        if (accountId == null || !properties.isEnabled()) {
+            return;
+        }
+        writeEpochs.incrementAndGet(stripe(accountId));
+        cache.asMap().computeIfPresent(accountId,
+                (id, history) -> history.prepend(transaction, properties.getEntriesPerAccount()));
+    }
+
+    private static Flux<Transaction> limited(Flux<Transaction> transactions, int limit) {
+        return limit == Integer.MAX_VALUE ? transactions : transactions.take(limit);
+    }
+
+    private static int stripe(String accountId) {
+        int hash = accountId.hashCode();
+        return (hash ^ (hash >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+
+    /**
+     * Expires entries a fixed time after they were loaded; write-through updates and reads keep the deadline.
+     */
+    private record ExpireAfterLoad(long nanos) implements Expiry<String, AccountHistory> {
+
+        @Override
+        public long expireAfterCreate(String accountId, AccountHistory history, long currentTime) {
+            return nanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String accountId, AccountHistory history, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String accountId, AccountHistory history, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Immutable window with the most recent transactions of an account.
+     *
+     * @param transactions Newest first.
+     * @param complete     {@code true} when the window holds the whole history of the account.
+     * @param weight       Estimated size in bytes.
+     */
+    record AccountHistory(List<Transaction> transactions, boolean complete, int weight) {
+
+        static AccountHistory of(List<Transaction> loaded, int window) {
+            List<Transaction> transactions = loaded.size() > window ? loaded.subList(0, window) : loaded;
+            return new AccountHistory(Collections.unmodifiableList(new ArrayList<>(transactions)),
+                    loaded.size() <= window, weigh(transactions));
+        }
+
+        AccountHistory prepend(Transaction transaction, int window) {
+            if (contains(transaction.getId())) {
+                return this;
+            }
+            List<Transaction> updated = new ArrayList<>(Math.min(window, transactions.size() + 1));
+            updated.add(transaction);
+            updated.addAll(transactions.subList(0, Math.min(transactions.size(), window - 1)));
+            boolean stillComplete = complete && transactions.size() < window;
+            return new AccountHistory(Collections.unmodifiableList(updated), stillComplete, weigh(updated));
+        }
+
+        boolean contains(String transactionId) {
+            for (Transaction transaction : transactions) {
+                if (transactionId.equals(transaction.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<Transaction> head(int limit) {
+            return limit >= transactions.size() ? transactions : transactions.subList(0, limit);
+        }
+
+        private static int weigh(List<Transaction> transactions) {
+            int bytes = ENTRY_OVERHEAD_BYTES;
+            for (Transaction transaction : transactions) {
+                bytes += TRANSACTION_OVERHEAD_BYTES + chars(transaction.getId())
+                        + chars(transaction.getSourceAccountId()) + chars(transaction.getDestinationAccountId());
+            }
+            return bytes;
+        }
+
+        private static int chars(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.transactionmicroservice.cache;
+
+import com.example.transactionmicroservice.config.HistoryCacheProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Keeps the {@link AccountHistoryCache} of every node coherent by consuming the change stream of the
+ * {@code transactions} collection: each change written by any node drops the cached entries of its accounts
+ * (unless they already contain it, as with this node's own write-through).
+ * <p>
+ * Change streams require a replica set, so the feed is only started when
+ * {@code transactions.history-cache.change-stream-enabled} is set.
+ */
+@Slf4j
+@Component
+public class HistoryInvalidationFeed implements SmartLifecycle {
+
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final AccountHistoryCache historyCache;
+    private final HistoryCacheProperties properties;
+    private Disposable subscription;
+
+    public HistoryInvalidationFeed(ReactiveMongoTemplate mongoTemplate, AccountHistoryCache historyCache,
+                                   HistoryCacheProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.historyCache = historyCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || !properties.isChangeStreamEnabled()) {
+            return;
+        }
+        subscription = mongoTemplate.changeStream(Transaction.class)
+                .watchCollection(Transaction.class)
+                .listen()
+                // Si el stream se corta se pierde su posición: al reconectar se vacía la caché para no servir datos viejos
+                .doOnSubscribe(s -> historyCache.invalidateAll())
+                .doOnNext(this::invalidate)
+                .doOnError(e -> log.warn("History invalidation feed interrupted, reconnecting", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_BACKOFF).maxBackoff(MAX_BACKOFF))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+    private void invalidate(ChangeStreamEvent<Transaction> event) {
+        Transaction transaction = event.getBody();
+        if (transaction == null) {
+            // Borrados: el evento no trae el documento, no se sabe qué cuentas afecta
+            historyCache.invalidateAll();
+            return;
+        }
+        historyCache.invalidate(transaction.getSourceAccountId(), transaction.getId());
+        historyCache.invalidate(transaction.getDestinationAccountId(), transaction.getId());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.transactionmicroservice.client;
+
+import com.example.transactionmicroservice.model.BankAccount;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces account lookups into batched requests (data-loader pattern).
+ * <p>
+ * Lookups issued within {@code window} of each other, up to {@code maxSize} distinct ids, are resolved with a
+ * single batch call. Every caller still receives its own Mono. Ids missing from the batch response, and the ids of a
+ * batch rejected as a whole (for instance because one of them is malformed), are resolved with the single-account
+ * lookup. Once the batch call reports itself as unsupported, every id is resolved individually for {@code retryAfter},
+ * after which the batch call is tried again.
+ */
+class AccountLookupBatcher {
+
+    private final Function<List<String>, Flux<BankAccount>> batchLookup;
+    private final Function<String, Mono<BankAccount>> singleLookup;
+    private final Function<Throwable, Boolean> isBatchUnsupported;
+    private final Function<Throwable, Boolean> isBatchRejected;
+    private final Duration window;
+    private final int maxSize;
+    private final Duration retryAfter;
+    private final Scheduler scheduler;
+
+    private Map<String, Sinks.One<BankAccount>> pending = new LinkedHashMap<>(); // Protegido por this
+    private volatile long unsupportedUntil; // Instante (ms) hasta el que no se usa la consulta agrupada
+
+    AccountLookupBatcher(Function<List<String>, Flux<BankAccount>> batchLookup,
+                         Function<String, Mono<BankAccount>> singleLookup,
+                         Function<Throwable, Boolean> isBatchUnsupported,
+                         Function<Throwable, Boolean> isBatchRejected,
+                         Duration window, int maxSize, Duration retryAfter, Scheduler scheduler) {
+        this.batchLookup = batchLookup;
+        this.singleLookup = singleLookup;
+        this.isBatchUnsupported = isBatchUnsupported;
+        this.isBatchRejected = isBatchRejected;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.retryAfter = retryAfter;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Schedules the lookup of an account in the current batch.
+     *
+     * @param accountId The ID of the account to retrieve.
+     * @return A Mono containing the account, resolved when its batch completes.
+     */
+    Mono<BankAccount> load(String accountId) {
+        if (!batchSupported()) {
+            return singleLookup.apply(accountId);
+        }
+        return Mono.defer(() -> {
+            Map<String, Sinks.One<BankAccount>> toDispatch = null;
+            Sinks.One<BankAccount> sink;
+            synchronized (this) {
+                sink = pending.get(accountId);
+                if (sink == null) {
+                    sink = Sinks.one();
+                    pending.put(accountId, sink);
+                    if (pending.size() == 1) {
+                        Map<String, Sinks.One<BankAccount>> batch = pending;
+                        scheduler.schedule(() -> dispatch(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+                    } else if (pending.size() >= maxSize) {
+                        toDispatch = pending;
+                    }
+                }
+            }
+            if (toDispatch != null) {
+                dispatch(toDispatch);
+            }
+            return sink.asMono();
+        });
+    }
+
+    private void dispatch(Map<String, Sinks.One<BankAccount>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return; // El lote ya fue despachado por tamaño
+            }
+            pending = new LinkedHashMap<>();
+        }
+        if (batch.size() == 1 || !batchSupported()) {
+            batch.forEach(this::resolveSingle);
+            return;
+        }
+        batchLookup.apply(List.copyOf(batch.keySet()))
+                .collectMap(account -> String.valueOf(account.getId()))
+                .subscribe(accounts -> batch.forEach((accountId, sink) -> {
+                    BankAccount account = accounts.get(accountId);
+                    if (account != null) {
+                        sink.tryEmitValue(account);
+                    } else {
+                        resolveSingle(accountId, sink); // Conserva el error de "cuenta no encontrada" original
+                    }
+                }), error -> {
+                    if (isBatchUnsupported.apply(error)) {
+                        unsupportedUntil = scheduler.now(TimeUnit.MILLISECONDS) + retryAfter.toMillis();
+                        batch.forEach(this::resolveSingle);
+                    } else if (isBatchRejected.apply(error)) {
+                        batch.forEach(this::resolveSingle); // Cada id recibe su propia respuesta
+                    } else {
+                        batch.values().forEach(sink -> sink.tryEmitError(error));
+                    }
+                });
+    }
+
+    private boolean batchSupported() {
+        return scheduler.now(TimeUnit.MILLISECONDS) >= unsupportedUntil;
+    }
+
+    private void resolveSingle(String accountId, Sinks.One<BankAccount> sink) {
+        singleLookup.apply(accountId).subscribe(sink::tryEmitValue, sink::tryEmitError, sink::tryEmitEmpty);
+    }
+}
@@ -1,26 +1,113 @@
 package com.example.transactionmicroservice.client;
 
+import com.example.transactionmicroservice.config.BankAccountsProperties;
 import com.example.transactionmicroservice.model.BankAccount;
-import lombok.RequiredArgsConstructor;
+import com.example.transactionmicroservice.ratelimit.ConcurrencyLimiter;
+import com.example.transactionmicroservice.ratelimit.GradientConcurrencyLimit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
-@RequiredArgsConstructor
 public class BankAccountClient {
 
     private final WebClient webClient; // WebClient utilizado para interactuar con el microservicio de cuentas bancarias.
+    private final AccountLookupBatcher accountLookupBatcher; // Agrupa consultas concurrentes de cuentas
+    private final GradientConcurrencyLimit concurrencyLimit; // Límite adaptado a la latencia del microservicio
+    private final ConcurrencyLimiter concurrencyLimiter; // Permisos según ese límite (null si está desactivado)
+
+    public BankAccountClient(WebClient webClient, BankAccountsProperties properties, MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        BankAccountsProperties.Batch batch = properties.getBatch();
+        this.accountLookupBatcher = batch.isEnabled()
+                ? new AccountLookupBatcher(this::fetchAccounts, this::fetchAccount, BankAccountClient::isBatchUnsupported,
+                        BankAccountClient::isBatchRejected, batch.getWindow(), batch.getMaxSize(),
+                        batch.getRetryAfter(), Schedulers.parallel())
+                : null;
+        BankAccountsProperties.Concurrency concurrency = properties.getConcurrency();
+        if (concurrency.isEnabled()) {
+            this.concurrencyLimit = new GradientConcurrencyLimit(concurrency.getInitialLimit(),
+                    concurrency.getMinLimit(), concurrency.getMaxLimit(), concurrency.getSampleWindow().toNanos(),
+                    concurrency.getMinRttSamples(),
+                    concurrency.getPercentile(), concurrency.getRttTolerance(), concurrency.getBackoffRatio(),
+                    System::nanoTime);
+            this.concurrencyLimiter = new ConcurrencyLimiter(concurrencyLimit.getLimit(),
+                    concurrency.getMaxQueueSize(), concurrency.getMaxQueueTime());
+            Gauge.builder("transactions.bank-accounts.limit", concurrencyLimiter, ConcurrencyLimiter::getMaxConcurrent)
+                    .description("Current adaptive limit of concurrent calls to the Bank Account Microservice")
+                    .register(meterRegistry);
+            Gauge.builder("transactions.bank-accounts.in.flight", concurrencyLimiter, ConcurrencyLimiter::getInFlight)
+                    .description("Calls to the Bank Account Microservice currently executing")
+                    .register(meterRegistry);
+            Gauge.builder("transactions.bank-accounts.queue.depth", concurrencyLimiter, ConcurrencyLimiter::getQueueDepth)
+                    .description("Calls to the Bank Account Microservice waiting for a permit")
+                    .register(meterRegistry);
+            TimeGauge.builder("transactions.bank-accounts.min.rtt", concurrencyLimit, TimeUnit.NANOSECONDS,
+                            GradientConcurrencyLimit::getMinRtt)
+                    .description("Round-trip time of the Bank Account Microservice measured at low concurrency")
+                    .register(meterRegistry);
+        } else {
+            this.concurrencyLimit = null;
+            this.concurrencyLimiter = null;
+        }
+    }
 
     /**
      * Retrieves the details of a bank account by its ID.
+     * Concurrent lookups are coalesced into a single batch request when batching is enabled.
      *
      * @param accountId The ID of the account to retrieve.
      * @return A Mono containing the details of the bank account.
      */
     public Mono<BankAccount> getAccount(String accountId) {
-        return webClient.get()
+        return accountLookupBatcher != null ? accountLookupBatcher.load(accountId) : fetchAccount(accountId);
+    }
+
+    /**
+     * Retrieves the details of several bank accounts in a single request.
+     * Accounts that do not exist are omitted from the result.
+     *
+     * @param accountIds The IDs of the accounts to retrieve.
+     * @return A Flux containing the details of the bank accounts found.
+     */
+    Flux<BankAccount> fetchAccounts(List<String> accountIds) {
+        return limited(true, webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/accounts/batch") // Endpoint de consulta agrupada
+                        .queryParam("ids", String.join(",", accountIds))
+                        .build())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), response ->
+                        response.bodyToMono(String.class)
+                                .defaultIfEmpty("")
+                                .flatMap(errorBody -> Mono.error(new ResponseStatusException(
+                                        response.statusCode(),
+                                        "Error fetching accounts: " + errorBody
+                                )))
+                )
+                .bodyToFlux(BankAccount.class));
+    }
+
+    /**
+     * Retrieves the details of a bank account with a single-account request.
+     *
+     * @param accountId The ID of the account to retrieve.
+     * @return A Mono containing the details of the bank account.
+     */
+    Mono<BankAccount> fetchAccount(String accountId) {
+        return limited(true, webClient.get()
                 .uri("/accounts/{id}", accountId) // Construye la URI del endpoint para obtener una cuenta
                 .retrieve() // Envía la solicitud y espera la respuesta
                 .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), response ->
@@ -31,7 +118,7 @@ public class BankAccountClient {
                                         "Error fetching account: " + errorBody
                                 )))
                 )
-                .bodyToMono(BankAccount.class); // Convierte la respuesta en un objeto BankAccount
+                .bodyToMono(BankAccount.class)); // Convierte la respuesta en un objeto BankAccount
     }
 
     /**
@@ -42,7 +129,8 @@ public class BankAccountClient {
      * @return A Mono containing the updated bank account after the deposit.
      */
     public Mono<BankAccount> deposit(String accountId, Double amount) {
-        return webClient.put()
+        // Los abonos no se rechazan por la cola: suelen completar una operación cuyo débito ya se hizo
+        return limited(false, webClient.put()
                 .uri(uriBuilder -> uriBuilder
                         .path("/accounts/{id}/deposit") // Construye la URI del endpoint para depósitos
                         .queryParam("amount", amount) // Agrega el monto como parámetro de consulta
@@ -56,7 +144,7 @@ public class BankAccountClient {
                                         "Error depositing: " + errorBody
                                 )))
                 )
-                .bodyToMono(BankAccount.class); // Convierte la respuesta en un objeto BankAccount
+                .bodyToMono(BankAccount.class)); // Convierte la respuesta en un objeto BankAccount
     }
 
     /**
@@ -67,7 +155,7 @@ public class BankAccountClient {
      * @return A Mono containing the updated bank account after the withdrawal.
      */
     public Mono<BankAccount> withdraw(String accountId, Double amount) {
-        return webClient.put()
+        return limited(true, webClient.put()
                 .uri(uriBuilder -> uriBuilder
                         .path("/accounts/{id}/withdraw") // Construye la URI del endpoint para retiros
                         .queryParam("amount", amount) // Agrega el monto como parámetro de consulta
@@ -81,6 +169,70 @@ public class BankAccountClient {
                                         "Error withdrawing: " + errorBody
                                 )))
                 )
-                .bodyToMono(BankAccount.class); // Convierte la respuesta en un objeto BankAccount
+                .bodyToMono(BankAccount.class)); // Convierte la respuesta en un objeto BankAccount
+    }
+
+    private Mono<BankAccount> limited(boolean shed, Mono<BankAccount> call) {
+        return concurrencyLimiter == null ? call : limited(shed, call.flux()).singleOrEmpty();
+    }
+
+    /**
+     * Runs a call with a permit of the adaptive limit and feeds its latency back to the limit. Calls cancelled by
+     * the caller are not sampled; errors that signal overload shrink the limit.
+     *
+     * @param shed Whether the call may be rejected with RateLimitExceededException when no permit is free in time.
+     */
+    private Flux<BankAccount> limited(boolean shed, Flux<BankAccount> call) {
+        if (concurrencyLimiter == null) {
+            return call;
+        }
+        return concurrencyLimiter.acquire(shed).thenMany(Flux.defer(() -> {
+            long start = System.nanoTime();
+            int inFlight = concurrencyLimiter.getInFlight();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            return call.doOnError(error::set)
+                    .doFinally(signal -> {
+                        concurrencyLimiter.release();
+                        if (signal != SignalType.CANCEL) {
+                            concurrencyLimit.onSample(System.nanoTime() - start, inFlight, isOverload(error.get()));
+                            concurrencyLimiter.setMaxConcurrent(concurrencyLimit.getLimit());
+                        }
+                    });
+        }));
+    }
+
+    /**
+     * Indicates whether a call failed because the remote side is overloaded (as opposed to a business error).
+     */
+    private static boolean isOverload(Throwable error) {
+        if (error == null) {
+            return false;
+        }
+        if (!(error instanceof ResponseStatusException statusException)) {
+            return true; // Timeouts y errores de conexión
+        }
+        int status = statusException.getStatusCode().value();
+        return status == HttpStatus.TOO_MANY_REQUESTS.value() || statusException.getStatusCode().is5xxServerError();
+    }
+
+    /**
+     * Indicates whether a batch lookup failed because the remote side does not expose the batch endpoint.
+     */
+    private static boolean isBatchUnsupported(Throwable error) {
+        if (!(error instanceof ResponseStatusException statusException)) {
+            return false;
+        }
+        int status = statusException.getStatusCode().value();
+        return status == HttpStatus.NOT_FOUND.value()
+                || status == HttpStatus.METHOD_NOT_ALLOWED.value()
+                || status == HttpStatus.NOT_IMPLEMENTED.value();
+    }
+
+    /**
+     * Indicates whether the remote side rejected one batch as a whole (400), so its ids are looked up one by one.
+     */
+    private static boolean isBatchRejected(Throwable error) {
+        return error instanceof ResponseStatusException statusException
+                && statusException.getStatusCode().value() == HttpStatus.BAD_REQUEST.value();
     }
 }
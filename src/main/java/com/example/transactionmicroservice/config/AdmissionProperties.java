@@ -0,0 +1,65 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Admission control settings. Mutation requests (deposit, withdraw and transfers) and history reads are admitted
+ * through separate priority lanes, each with its own concurrency budget.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true; // Permite desactivar por completo el control de admisión
+
+    private Limit client = new Limit(50, 100); // Límite por cliente del API (cabecera X-Client-Id)
+
+    private Limit account = new Limit(10, 20); // Límite por cuenta involucrada en la operación
+
+    private int maxConcurrent = 200; // Operaciones concurrentes permitidas en todo el nodo
+
+    private int maxQueueSize = 500; // Operaciones que pueden esperar un permiso
+
+    private Duration maxQueueTime = Duration.ofMillis(200); // Tiempo máximo de espera antes de descartar
+
+    private int maxTrackedKeys = 100_000; // Buckets en memoria por tipo de clave; se descartan los menos usados
+
+    private Reads reads = new Reads(); // Carril de baja prioridad para las consultas de historial
+
+    /**
+     * Low-priority lane for history reads.
+     */
+    @Getter
+    @Setter
+    public static class Reads {
+        private int maxConcurrent = 32; // Por debajo del pool de Mongo (100) para que siempre queden conexiones
+
+        private int maxQueueSize = 100; // Lecturas que pueden esperar un permiso
+
+        private Duration maxQueueTime = Duration.ofMillis(100); // Espera máxima, menor que la de las mutaciones
+
+        private boolean yieldToMutations = true; // Descarta lecturas mientras haya mutaciones esperando permiso
+
+        private int schedulerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2); // Hilos del carril
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the archive of closed months.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false; // Mueve los meses cerrados a segmentos (borra los documentos de Mongo)
+
+    private Path directory = Path.of("archive"); // Directorio de los segmentos (compartido si hay varios nodos)
+
+    private int retainMonths = 3; // Meses cerrados que se conservan en Mongo además del mes en curso
+
+    private Duration interval = Duration.ofHours(1); // Frecuencia con la que se buscan meses para archivar
+
+    private Duration refreshInterval = Duration.ofSeconds(10); // Frecuencia con la que cada nodo abre los segmentos nuevos
+}
@@ -0,0 +1,63 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the integration with the Bank Account Microservice.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "microservices.bank-accounts")
+public class BankAccountsProperties {
+
+    private String baseUrl; // URL base del microservicio de cuentas
+
+    private Batch batch = new Batch(); // Agrupación de consultas de cuentas
+
+    private Concurrency concurrency = new Concurrency(); // Límite adaptativo de llamadas concurrentes
+
+    @Getter
+    @Setter
+    public static class Batch {
+        private boolean enabled = true; // Agrupa las llamadas a getAccount en una sola petición
+
+        private Duration window = Duration.ofMillis(5); // Tiempo máximo que una consulta espera a ser agrupada
+
+        private int maxSize = 50; // Número máximo de cuentas por petición agrupada
+
+        private Duration retryAfter = Duration.ofMinutes(5); // Tiempo sin consultas agrupadas tras un 404, 405 o 501
+    }
+
+    /**
+     * Adaptive limit of concurrent calls to the Bank Account Microservice (see {@code GradientConcurrencyLimit}).
+     */
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private boolean enabled = true; // Sin límite, cada llamada sale en cuanto se pide
+
+        private int initialLimit = 20; // Límite hasta la primera ventana con latencia medida
+
+        private int minLimit = 4; // Límite mínimo; las llamadas iniciadas con esta concurrencia o menos miden minRtt
+
+        private int maxLimit = 500; // Límite máximo
+
+        private Duration sampleWindow = Duration.ofMillis(100); // Cada cuánto se recalcula el límite
+
+        private int minRttSamples = 50; // Llamadas con poca concurrencia que forman una medición de minRtt
+
+        private double percentile = 0.5; // Percentil de latencia comparado en cada ventana
+
+        private double rttTolerance = 0.25; // Aumento de latencia sobre minRtt que se acepta sin reducir el límite
+
+        private double backoffRatio = 0.9; // Reducción del límite en una ventana con timeouts, 429 o 5xx
+
+        private int maxQueueSize = 1000; // Llamadas esperando un permiso; por encima se rechazan
+
+        private Duration maxQueueTime = Duration.ofMillis(500); // Espera máxima de una consulta o un retiro
+    }
+}
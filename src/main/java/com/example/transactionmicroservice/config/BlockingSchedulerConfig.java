@@ -0,0 +1,48 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuration of the scheduler used by adapters that must call blocking APIs (file I/O, JDBC, {@code .block()}).
+ * <p>
+ * Blocking work must never run on the event loops; adapters move it to this scheduler with
+ * {@code subscribeOn(blockingScheduler)}. The scheduler is a bounded-elastic pool whose workers are virtual
+ * threads in virtual-thread mode and platform threads otherwise; both are bounded by the same thread and queue caps.
+ */
+@Slf4j
+@Configuration
+public class BlockingSchedulerConfig {
+
+    private static final int TTL_SECONDS = 60; // Tiempo que un hilo ocioso se conserva
+
+    /**
+     * Runs blocking work on virtual threads; defaults to the servlet connector setting.
+     */
+    @Value("${transactions.blocking-scheduler.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualThreads;
+
+    @Value("${transactions.blocking-scheduler.thread-cap:64}")
+    private int threadCap;
+
+    @Value("${transactions.blocking-scheduler.queued-task-cap:10000}")
+    private int queuedTaskCap;
+
+    /**
+     * Creates the scheduler for blocking adapters.
+     *
+     * @return A bounded scheduler backed by virtual or platform threads.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler() {
+        log.info("Blocking adapters run on {} threads (cap {})", virtualThreads ? "virtual" : "platform", threadCap);
+        return virtualThreads
+                ? Schedulers.newBoundedElastic(threadCap, queuedTaskCap,
+                        Thread.ofVirtual().name("blocking-virtual-", 0).factory(), TTL_SECONDS)
+                : Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "blocking", TTL_SECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * On-demand JFR recordings, tagged by request class, for diagnosing latency regressions.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.diagnostics")
+public class DiagnosticsProperties {
+
+    private boolean enabled = false; // Activa los eventos por petición y el endpoint de administración
+
+    private String settings = "profile"; // Configuración JFR: profile (muestreo de asignaciones más fino) o default
+
+    private Duration defaultDuration = Duration.ofSeconds(60); // Duración de una grabación sin duración explícita
+
+    private Duration maxDuration = Duration.ofMinutes(10); // Duración máxima admitida de una grabación
+
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "transactions-jfr"); // Ficheros .jfr
+
+    private int maxRecordings = 5; // Grabaciones conservadas; se borran las más antiguas
+
+    private int hotSpots = 20; // Puntos de asignación incluidos en el resumen
+
+    private String applicationPackage = "com.example.transactionmicroservice"; // Paquete que identifica el frame propio
+}
@@ -0,0 +1,24 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+
+/**
+ * Settings of the exchange rates used by transfers between accounts in different currencies.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.fx")
+public class FxProperties {
+
+    private String defaultCurrency = "USD"; // Moneda de las cuentas que no informan ninguna
+
+    private Resource ratesFile = new ClassPathResource("fx-rates.properties"); // Fichero con la tabla de cambios
+
+    private Duration refreshInterval = Duration.ofMinutes(5); // Frecuencia con la que se recarga la tabla
+}
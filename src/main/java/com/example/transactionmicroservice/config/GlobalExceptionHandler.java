@@ -1,6 +1,10 @@
 package com.example.transactionmicroservice.config;
 
+import com.example.transactionmicroservice.exception.DomainException;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,6 +20,20 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final HttpHeaders PROBLEM_HEADERS = HttpHeaders.readOnlyHttpHeaders(problemHeaders());
+
+    /**
+     * Handles business errors by writing their pre-encoded RFC 7807 problem details.
+     *
+     * @param ex The exception thrown.
+     * @return A ResponseEntity containing the application/problem+json body of the error.
+     */
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<byte[]> handleDomainException(DomainException ex) {
+        ErrorCode errorCode = ex.getErrorCode();
+        return new ResponseEntity<>(errorCode.problemJson(), PROBLEM_HEADERS, errorCode.getStatus());
+    }
+
     /**
      * Handles ResponseStatusException and returns a custom error response.
      *
@@ -31,7 +49,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getReason());
         errorDetails.put("path", "");
 
-        return new ResponseEntity<>(errorDetails, ex.getStatusCode());
+        return new ResponseEntity<>(errorDetails, ex.getHeaders(), ex.getStatusCode()); // Incluye cabeceras como Retry-After
     }
 
     /**
@@ -51,4 +69,10 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    private static HttpHeaders problemHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        return headers;
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process cache with the most recent transactions of each account.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.history-cache")
+public class HistoryCacheProperties {
+
+    private boolean enabled = true; // Sirve el historial reciente desde memoria
+
+    private int entriesPerAccount = 50; // Transacciones más recientes guardadas por cuenta
+
+    private DataSize maxSize = DataSize.ofMegabytes(64); // Memoria máxima estimada de la caché
+
+    private Duration expireAfterWrite = Duration.ofSeconds(90); // Vida máxima de una entrada desde que se carga de Mongo
+
+    private boolean changeStreamEnabled = false; // Invalida con el change stream de Mongo (requiere replica set)
+}
@@ -0,0 +1,25 @@
+package com.example.transactionmicroservice.config;
+
+import com.example.transactionmicroservice.repository.TransactionCodec;
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the hand-written codecs with the MongoDB driver.
+ * <p>
+ * Spring Data keeps mapping entities through its own converter; the codecs are used by the collections opened
+ * with a document class (e.g. {@code withDocumentClass(Transaction.class)}) on the hot read paths.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MongoCodecConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer transactionCodecCustomizer() {
+        return settings -> settings.codecRegistry(CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new TransactionCodec()),
+                MongoClientSettings.getDefaultCodecRegistry()));
+    }
+}
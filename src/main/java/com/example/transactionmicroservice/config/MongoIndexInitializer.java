@@ -0,0 +1,54 @@
+package com.example.transactionmicroservice.config;
+
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the MongoDB documents ({@link Transaction}, {@link ScheduledTransfer} and the
+ * reconciliation documents) when the application starts.
+ * Index creation is idempotent, so it is safe to run on every instance and every restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    private static final List<Class<?>> DOCUMENTS = List.of(Transaction.class, ScheduledTransfer.class,
+            ReconciliationRun.class, Discrepancy.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureIndexes().subscribe(
+                null,
+                error -> log.warn("Could not create MongoDB indexes: {}", error.getMessage()));
+    }
+
+    /**
+     * Ensures every index declared on the documents exists.
+     *
+     * @return A Mono that completes when all the indexes exist.
+     */
+    public Mono<Void> ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        return Flux.fromIterable(DOCUMENTS)
+                .concatMap(document -> Flux.fromIterable(resolver.resolveIndexFor(document))
+                        .concatMap(index -> mongoTemplate.indexOps(document).ensureIndex(index)))
+                .then();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read preference and read concern of each read query, so history reads can be served by secondaries.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.mongo.reads")
+public class MongoReadProperties {
+
+    private Map<String, QueryRead> queries = new HashMap<>(); // Configuración por consulta (global-history, account-history...)
+
+    private Duration readYourWritesWindow = Duration.ofSeconds(90); // Tras escribir, las lecturas de la cuenta van al primario
+
+    private int maxTrackedAccounts = 100_000; // Cuentas con escrituras recientes en memoria como máximo
+
+    private boolean participantsIndex = true; // Historial por cuenta sobre participants (false: $or origen/destino)
+
+    @Getter
+    @Setter
+    public static class QueryRead {
+        private String readPreference = "primary"; // primary, primaryPreferred, secondary, secondaryPreferred, nearest
+
+        private Duration maxStaleness; // Retraso máximo admitido de un secundario (mínimo 90s en MongoDB)
+
+        private String readConcern; // local, available, majority, linearizable o snapshot; vacío usa el del servidor
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.transactionmicroservice.config;
+
+import com.example.transactionmicroservice.repository.RetryingMongoTransactionManager;
+import com.mongodb.ReadConcern;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the reactive MongoDB transaction manager when {@code transactions.mongo.transactions.enabled} is set.
+ * <p>
+ * Transactions read with majority read concern and commit with the configured write concern; the server aborts a
+ * commit that takes longer than {@code max-commit-time}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "transactions.mongo.transactions", name = "enabled", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public RetryingMongoTransactionManager mongoTransactionManager(ReactiveMongoDatabaseFactory databaseFactory,
+                                                                   MongoTransactionProperties properties) {
+        WriteConcern writeConcern = WriteConcern.valueOf(properties.getWriteConcern());
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + properties.getWriteConcern());
+        }
+        TransactionOptions options = TransactionOptions.builder()
+                .readConcern(ReadConcern.MAJORITY)
+                .writeConcern(writeConcern.withJournal(properties.isJournal())
+                        .withWTimeout(properties.getWriteConcernTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .maxCommitTime(properties.getMaxCommitTime().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        return new RetryingMongoTransactionManager(databaseFactory, options, properties.getMaxAttempts());
+    }
+
+    @Bean
+    public TransactionalOperator mongoTransactionalOperator(RetryingMongoTransactionManager mongoTransactionManager) {
+        return TransactionalOperator.create(mongoTransactionManager);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Multi-document MongoDB transactions for the ledger writes that record more than one document.
+ * Requires a replica set or a sharded cluster.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.mongo.transactions")
+public class MongoTransactionProperties {
+
+    private boolean enabled = false; // Solo con replica set; en un servidor standalone las escrituras van sin transacción
+
+    private String writeConcern = "majority"; // majority, w1, w2... (WriteConcern.valueOf)
+
+    private boolean journal = true; // Confirmación tras escribir en el journal
+
+    private Duration writeConcernTimeout = Duration.ofSeconds(5); // Espera máxima de la confirmación de las réplicas
+
+    private Duration maxCommitTime = Duration.ofSeconds(2); // Duración máxima del commit en el servidor
+
+    private int maxAttempts = 3; // Intentos ante TransientTransactionError o UnknownTransactionCommitResult
+
+    private Duration retryBackoff = Duration.ofMillis(20); // Espera inicial entre intentos (exponencial con jitter)
+}
@@ -0,0 +1,18 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the multi-leg transfers (one debit, many credits).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.multi-transfer")
+public class MultiTransferProperties {
+
+    private int maxLegs = 100; // Número máximo de destinos por petición
+
+    private int legConcurrency = 8; // Abonos en vuelo a la vez contra el microservicio de cuentas
+}
@@ -0,0 +1,94 @@
+package com.example.transactionmicroservice.config;
+
+import com.example.transactionmicroservice.dto.MultiTransferRequestDto;
+import com.example.transactionmicroservice.dto.MultiTransferResponseDto;
+import com.example.transactionmicroservice.dto.ScheduledTransferRequestDto;
+import com.example.transactionmicroservice.dto.ScheduledTransferResponseDto;
+import com.example.transactionmicroservice.dto.TransactionRequestDto;
+import com.example.transactionmicroservice.dto.TransactionResponseDto;
+import com.example.transactionmicroservice.model.AccountBaseline;
+import com.example.transactionmicroservice.model.AccountType;
+import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.DiscrepancyReason;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.ProfilingRecording;
+import com.example.transactionmicroservice.model.ProfilingSummary;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import com.example.transactionmicroservice.model.ReconciliationStatus;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.ScheduledTransferStatus;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the GraalVM native image ({@code mvn -Pnative native:compile}).
+ * <p>
+ * Spring AOT infers hints for beans and controller signatures, but not for the types Jackson and the MongoDB
+ * mapping layer reach reflectively at runtime: request/response bodies, the bank-accounts payloads, the persisted
+ * documents (instantiated and populated through their fields) and the Lombok builders the mapper calls. Missing
+ * any of them only shows up as a runtime failure in the native binary, so they are declared here explicitly.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.Registrar.class)
+public class NativeRuntimeHints {
+
+    /**
+     * Types serialized to or from JSON by the controllers and the bank-accounts client.
+     */
+    static final List<Class<?>> JSON_TYPES = List.of(
+            TransactionRequestDto.class, TransactionResponseDto.class,
+            ScheduledTransferRequestDto.class, ScheduledTransferResponseDto.class,
+            MultiTransferRequestDto.class, MultiTransferRequestDto.Leg.class,
+            MultiTransferResponseDto.class, MultiTransferResponseDto.FailedLeg.class,
+            BankAccount.class, ReconciliationRun.class, Discrepancy.class,
+            ProfilingRecording.class, ProfilingSummary.class, ProfilingSummary.RequestClass.class,
+            ProfilingSummary.HotSpot.class, ProfilingSummary.Collector.class);
+
+    /**
+     * Documents read and written through the MongoDB mapping layer.
+     */
+    static final List<Class<?>> DOCUMENT_TYPES = List.of(
+            Transaction.class, ScheduledTransfer.class, ReconciliationRun.class, Discrepancy.class,
+            AccountBaseline.class, PendingMutation.class, FxConversion.class);
+
+    /**
+     * Enums stored by name in documents and payloads.
+     */
+    static final List<Class<?>> ENUM_TYPES = List.of(
+            TransactionType.class, AccountType.class, ScheduledTransferStatus.class, ReconciliationStatus.class,
+            DiscrepancyReason.class, MutationPhase.class, PendingMutationStatus.class);
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    JSON_TYPES.toArray(Class<?>[]::new));
+            for (Class<?> document : DOCUMENT_TYPES) {
+                hints.reflection().registerType(document, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+                // Builder generado por Lombok (Transaction.TransactionBuilder, ...)
+                hints.reflection().registerTypeIfPresent(classLoader, document.getName() + "$"
+                                + document.getSimpleName() + "Builder",
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (Class<?> type : ENUM_TYPES) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+            hints.resources().registerPattern("fx-rates.properties");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the pure Netty server when the application is started in reactive mode
+ * ({@code spring.main.web-application-type=reactive}).
+ * Without it Spring Boot would pick Tomcat's reactive adapter, because Tomcat is on the classpath.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class NettyServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuration of the scheduler that history reads are published on.
+ * <p>
+ * History responses stream thousands of rows. On the reactive stack the JSON encoding of each row runs on the thread
+ * that emits it, so publishing reads on their own small pool keeps that work off the event loops that serve
+ * deposits, withdrawals and transfers. On the servlet stack the rows are collected here and serialized afterwards by a
+ * container thread; the read-lane permit covers that serialization instead (see {@link ResponseCompletionFilter}).
+ */
+@Slf4j
+@Configuration
+public class ReadSchedulerConfig {
+
+    /**
+     * Creates the scheduler for the read lane.
+     *
+     * @param properties The admission settings, with the number of threads of the read lane.
+     * @return A parallel scheduler dedicated to history reads.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler readScheduler(AdmissionProperties properties) {
+        int threads = properties.getReads().getSchedulerThreads();
+        log.info("History reads are published on {} dedicated threads", threads);
+        return Schedulers.newParallel("history-read", threads);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Settings of the reconciliation of the ledger against the bank-accounts service.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.reconciliation")
+public class ReconciliationProperties {
+
+    private boolean enabled = true; // Permite lanzar conciliaciones y retomar las abandonadas en este nodo
+
+    private int concurrency = 8; // Consultas de saldo en curso a la vez
+
+    private double ratePerSecond = 50; // Cuentas revisadas por segundo, para no competir con el tráfico real
+
+    private int burst = 10; // Ráfaga máxima de cuentas revisadas de golpe
+
+    private int checkpointEvery = 200; // Cuentas procesadas entre dos checkpoints
+
+    private Duration checkpointInterval = Duration.ofSeconds(10); // Tiempo máximo entre dos checkpoints
+
+    private Duration heartbeatInterval = Duration.ofSeconds(30); // Refresco de la ejecución en curso entre checkpoints
+
+    private Duration staleAfter = Duration.ofMinutes(2); // Sin refrescos durante este tiempo la ejecución se retoma
+
+    private BigDecimal tolerance = new BigDecimal("0.01"); // Diferencia de saldo aceptada (redondeos)
+
+    private Duration confirmDelay = Duration.ofSeconds(5); // Espera antes de confirmar una diferencia (operaciones en curso)
+}
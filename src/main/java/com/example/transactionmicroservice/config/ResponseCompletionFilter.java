@@ -0,0 +1,115 @@
+package com.example.transactionmicroservice.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs request-scoped callbacks once the response has been written (servlet stack only).
+ * <p>
+ * On Spring MVC a controller returning a Flux completes before its body is serialized: the rows are collected and
+ * written by a container thread on the async dispatch. Work that must cover the serialization too, such as holding
+ * the read-lane permit, registers a callback with {@link #current()} while the request is being handled.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResponseCompletionFilter extends OncePerRequestFilter {
+
+    private static final String CALLBACKS = ResponseCompletionFilter.class.getName() + ".callbacks";
+
+    /**
+     * Returns the registrar of callbacks for the response of the current request.
+     *
+     * @return A consumer that runs each callback once the response has been written, or {@code null} outside a
+     * servlet request handled by this filter (reactive stack, tests).
+     */
+    public static Consumer<Runnable> current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (Callbacks) attributes.getAttribute(CALLBACKS, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Callbacks callbacks = new Callbacks();
+        request.setAttribute(CALLBACKS, callbacks);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // La respuesta se escribe en el dispatch asíncrono: los callbacks esperan a que termine
+                request.getAsyncContext().addListener(callbacks);
+            } else {
+                callbacks.run();
+            }
+        }
+    }
+
+    /**
+     * Callbacks of one response; the ones registered after the response was written run immediately.
+     */
+    private static final class Callbacks implements Consumer<Runnable>, AsyncListener {
+
+        private List<Runnable> pending = new ArrayList<>(); // null una vez escrita la respuesta; protegido por this
+
+        @Override
+        public void accept(Runnable callback) {
+            synchronized (this) {
+                if (pending != null) {
+                    pending.add(callback);
+                    return;
+                }
+            }
+            callback.run();
+        }
+
+        void run() {
+            List<Runnable> callbacks;
+            synchronized (this) {
+                if (pending == null) {
+                    return;
+                }
+                callbacks = pending;
+                pending = null;
+            }
+            callbacks.forEach(Runnable::run);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo ciclo asíncrono de la misma petición: sigue escuchando hasta que se complete
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
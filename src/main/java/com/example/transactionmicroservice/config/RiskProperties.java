@@ -0,0 +1,40 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the fraud-scoring stage executed before deposits, withdrawals and transfers.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.risk")
+public class RiskProperties {
+
+    private boolean enabled = true; // Evalúa el riesgo antes de cada operación
+
+    private Duration budget = Duration.ofMillis(5); // Tiempo máximo de la evaluación completa
+
+    private boolean failOpen = true; // Si vence el presupuesto o falla un evaluador se permite la operación
+
+    private double blockThreshold = 0.9; // Puntuación a partir de la cual se rechaza la operación
+
+    private Duration featureWindow = Duration.ofMinutes(10); // Ventana de actividad reciente usada como feature
+
+    private int ringSize = 32; // Operaciones recientes guardadas por cuenta
+
+    private int maxTrackedAccounts = 100_000; // Cuentas en memoria como máximo; se descartan las menos usadas
+
+    private double anomalyFactor = 10; // Veces la media reciente a la que el importe puntúa 1
+
+    private Velocity velocity = new Velocity();
+
+    @Getter
+    @Setter
+    public static class Velocity {
+        private int maxOperations = 10; // Operaciones permitidas a la cuenta debitada dentro de la ventana de actividad
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the scheduled-transfer engine.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.scheduling")
+public class SchedulingProperties {
+
+    private boolean enabled = true; // Ejecuta las transferencias programadas en este nodo
+
+    private Duration tick = Duration.ofMillis(100); // Resolución de la rueda de tiempo
+
+    private int wheelSize = 512; // Número de buckets de la rueda
+
+    private Duration bucket = Duration.ofMinutes(1); // Ventana de ocurrencias cargadas desde Mongo en cada lectura
+
+    private int maxConcurrency = 32; // Transferencias programadas ejecutándose a la vez
+
+    private Duration lease = Duration.ofMinutes(5); // Duración del lease sobre una ocurrencia
+}
@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the draining of in-flight mutations on shutdown.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.shutdown")
+public class ShutdownProperties {
+
+    // Espera a que terminen las operaciones en curso; debe ser menor que spring.lifecycle.timeout-per-shutdown-phase
+    private Duration drainTimeout = Duration.ofSeconds(20);
+
+    private boolean resumeOnStartup = true; // Completa al arrancar las operaciones interrumpidas por un apagado
+}
@@ -0,0 +1,39 @@
+package com.example.transactionmicroservice.config;
+
+import com.example.transactionmicroservice.model.AccountType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Daily limit and velocity rules applied to the money leaving an account (withdrawals and outgoing transfers).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transactions.limits")
+public class WithdrawalLimitsProperties {
+
+    private boolean enabled = true; // Permite desactivar la comprobación de límites
+
+    private Duration window = Duration.ofDays(1); // Ventana deslizante sobre la que se aplican las reglas
+
+    private int buckets = 24; // Resolución de la ventana (24 buckets de una hora)
+
+    private int stripes = 64; // Particiones con bloqueo independiente de los contadores
+
+    private String currency; // Moneda de los importes máximos (por defecto transactions.fx.default-currency)
+
+    private Map<AccountType, Rule> rules = new EnumMap<>(AccountType.class); // Reglas por tipo de cuenta; sin regla no hay límite
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private int maxCount = -1; // Número máximo de débitos en la ventana (-1 sin límite)
+
+        private double maxAmount = -1; // Importe máximo debitado en la ventana, en la moneda de las reglas (-1 sin límite)
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.transactionmicroservice.controller;
+
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import com.example.transactionmicroservice.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/")
+@Tag(name = "Reconciliation", description = "Conciliación de saldos contra el microservicio de cuentas (administración)")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @Operation(summary = "Start a reconciliation", description = "Starts reconciling every account in the background.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reconciliation started",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReconciliationRun.class))),
+            @ApiResponse(responseCode = "409", description = "Another reconciliation is in progress", content = @Content)
+    })
+    @PostMapping("/reconciliation/runs")
+    public Mono<ReconciliationRun> start() {
+        return reconciliationService.start();
+    }
+
+    @Operation(summary = "List reconciliations", description = "Retrieves every reconciliation run, most recent first.")
+    @ApiResponse(responseCode = "200", description = "Reconciliation runs retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReconciliationRun.class)))
+    @GetMapping("/reconciliation/runs")
+    public Flux<ReconciliationRun> findRuns() {
+        return reconciliationService.findRuns();
+    }
+
+    @Operation(summary = "Get a reconciliation", description = "Retrieves the progress and counters of a reconciliation run.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reconciliation run retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReconciliationRun.class))),
+            @ApiResponse(responseCode = "404", description = "Reconciliation run not found", content = @Content)
+    })
+    @GetMapping("/reconciliation/runs/{id}")
+    public Mono<ReconciliationRun> findRun(
+            @PathVariable @Parameter(description = "ID of the reconciliation run", required = true) String id) {
+        return reconciliationService.findRun(id);
+    }
+
+    @Operation(summary = "Get the discrepancy report", description = "Retrieves the accounts whose balance does not match the ledger.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Discrepancies retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Discrepancy.class))),
+            @ApiResponse(responseCode = "404", description = "Reconciliation run not found", content = @Content)
+    })
+    @GetMapping("/reconciliation/runs/{id}/discrepancies")
+    public Flux<Discrepancy> findDiscrepancies(
+            @PathVariable @Parameter(description = "ID of the reconciliation run", required = true) String id) {
+        return reconciliationService.findDiscrepancies(id);
+    }
+
+    @Operation(summary = "Get the interrupted mutations awaiting review",
+            description = "Retrieves the mutations cut by a shutdown during a call to the bank-accounts service, whose outcome is unknown.")
+    @ApiResponse(responseCode = "200", description = "Interrupted mutations retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PendingMutation.class)))
+    @GetMapping("/reconciliation/pending-mutations")
+    public Flux<PendingMutation> findPendingMutations() {
+        return reconciliationService.findPendingMutations();
+    }
+}
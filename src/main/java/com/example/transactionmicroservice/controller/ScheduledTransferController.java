@@ -0,0 +1,78 @@
+package com.example.transactionmicroservice.controller;
+
+import com.example.transactionmicroservice.dto.ScheduledTransferRequestDto;
+import com.example.transactionmicroservice.dto.ScheduledTransferResponseDto;
+import com.example.transactionmicroservice.mapper.ScheduledTransferMapper;
+import com.example.transactionmicroservice.service.ScheduledTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/")
+@Tag(name = "Scheduled Transfer", description = "Transferencias programadas y periódicas")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    @Operation(summary = "Schedule a transfer", description = "Schedules a one-off or recurring (cron) transfer.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transfer scheduled",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduledTransferResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request data or schedule", content = @Content)
+    })
+    @PostMapping("/scheduled-transfers")
+    public Mono<ScheduledTransferResponseDto> create(
+            @RequestBody @Valid @Parameter(description = "Scheduled transfer details", required = true) ScheduledTransferRequestDto request) {
+        return scheduledTransferService.create(request)
+                .map(ScheduledTransferMapper::toResponseDto);
+    }
+
+    @Operation(summary = "Get a scheduled transfer", description = "Retrieves a scheduled transfer and the result of its last occurrence.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Scheduled transfer retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduledTransferResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Scheduled transfer not found", content = @Content)
+    })
+    @GetMapping("/scheduled-transfers/{id}")
+    public Mono<ScheduledTransferResponseDto> findById(
+            @PathVariable @Parameter(description = "ID of the scheduled transfer", required = true) String id) {
+        return scheduledTransferService.findById(id)
+                .map(ScheduledTransferMapper::toResponseDto);
+    }
+
+    @Operation(summary = "Get the scheduled transfers of an account", description = "Retrieves the scheduled transfers debiting an account.")
+    @ApiResponse(responseCode = "200", description = "Scheduled transfers retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduledTransferResponseDto.class)))
+    @GetMapping("/scheduled-transfers/account/{accountId}")
+    public Flux<ScheduledTransferResponseDto> findByAccount(
+            @PathVariable @Parameter(description = "ID of the source account", required = true) String accountId) {
+        return scheduledTransferService.findBySourceAccountId(accountId)
+                .map(ScheduledTransferMapper::toResponseDto);
+    }
+
+    @Operation(summary = "Cancel a scheduled transfer", description = "Cancels a scheduled transfer; pending occurrences are not executed.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Scheduled transfer cancelled",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduledTransferResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Scheduled transfer not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Scheduled transfer already completed", content = @Content)
+    })
+    @DeleteMapping("/scheduled-transfers/{id}")
+    public Mono<ScheduledTransferResponseDto> cancel(
+            @PathVariable @Parameter(description = "ID of the scheduled transfer", required = true) String id) {
+        return scheduledTransferService.cancel(id)
+                .map(ScheduledTransferMapper::toResponseDto);
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.transactionmicroservice.controller;
 
+import com.example.transactionmicroservice.diagnostics.RequestProfiler;
+import com.example.transactionmicroservice.dto.MultiTransferRequestDto;
+import com.example.transactionmicroservice.dto.MultiTransferResponseDto;
 import com.example.transactionmicroservice.dto.TransactionRequestDto;
 import com.example.transactionmicroservice.dto.TransactionResponseDto;
+import com.example.transactionmicroservice.mapper.MultiTransferMapper;
 import com.example.transactionmicroservice.mapper.TransactionMapper;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.service.AdmissionService;
 import com.example.transactionmicroservice.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,6 +24,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,71 +35,126 @@ import javax.validation.Valid;
 @Tag(name = "Transaction", description = "Operaciones sobre transacciones")
 public class TransactionController {
 
+    /**
+     * Header identifying the API client, used to apply per-client rate limits.
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
     private final TransactionService transactionService;
+    private final AdmissionService admissionService;
+    private final RequestProfiler requestProfiler; // Eventos JFR por endpoint y tipo de transacción (diagnóstico)
 
     @Operation(summary = "Deposit money", description = "Deposits a specified amount into a bank account.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Deposit successful",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransactionResponseDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many requests", content = @Content)
     })
     @PostMapping("/transactions/deposit")
     public Mono<TransactionResponseDto> deposit(
-            @RequestBody @Valid @Parameter(description = "Transaction details for deposit", required = true) TransactionRequestDto request) {
-        return transactionService.deposit(request.getAccountId(), request.getAmount())
-                .map(TransactionMapper::toResponseDto);
+            @RequestBody @Valid @Parameter(description = "Transaction details for deposit", required = true) TransactionRequestDto request,
+            @RequestHeader(name = CLIENT_ID_HEADER, required = false) @Parameter(description = "ID of the API client") String clientId) {
+        return requestProfiler.profile("POST /api/transactions/deposit", TransactionType.DEPOSIT,
+                admissionService.admit(clientId, Arrays.asList(request.getAccountId()),
+                                () -> transactionService.deposit(request.getAccountId(), request.getAmount()))
+                        .map(TransactionMapper::toResponseDto));
     }
 
     @Operation(summary = "Withdraw money", description = "Withdraws a specified amount from a bank account.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Withdrawal successful",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransactionResponseDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many requests", content = @Content)
     })
     @PostMapping("/transactions/withdraw")
     public Mono<TransactionResponseDto> withdraw(
-            @RequestBody @Valid @Parameter(description = "Transaction details for withdrawal", required = true) TransactionRequestDto request) {
-        return transactionService.withdraw(request.getAccountId(), request.getAmount())
-                .map(TransactionMapper::toResponseDto);
+            @RequestBody @Valid @Parameter(description = "Transaction details for withdrawal", required = true) TransactionRequestDto request,
+            @RequestHeader(name = CLIENT_ID_HEADER, required = false) @Parameter(description = "ID of the API client") String clientId) {
+        return requestProfiler.profile("POST /api/transactions/withdraw", TransactionType.WITHDRAWAL,
+                admissionService.admit(clientId, Arrays.asList(request.getAccountId()),
+                                () -> transactionService.withdraw(request.getAccountId(), request.getAmount()))
+                        .map(TransactionMapper::toResponseDto));
     }
 
     @Operation(summary = "Transfer money", description = "Transfers a specified amount from one bank account to another.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transfer successful",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransactionResponseDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many requests", content = @Content)
     })
     @PostMapping("/transactions/transfer")
     public Mono<TransactionResponseDto> transfer(
-            @RequestBody @Valid @Parameter(description = "Transaction details for transfer", required = true) TransactionRequestDto request) {
-        return transactionService.transfer(request.getSourceAccountId(),
-                        request.getDestinationAccountId(),
-                        request.getAmount())
-                .map(TransactionMapper::toResponseDto);
+            @RequestBody @Valid @Parameter(description = "Transaction details for transfer", required = true) TransactionRequestDto request,
+            @RequestHeader(name = CLIENT_ID_HEADER, required = false) @Parameter(description = "ID of the API client") String clientId) {
+        return requestProfiler.profile("POST /api/transactions/transfer", TransactionType.TRANSFER,
+                admissionService.admit(clientId,
+                                Arrays.asList(request.getSourceAccountId(), request.getDestinationAccountId()),
+                                () -> transactionService.transfer(request.getSourceAccountId(),
+                                        request.getDestinationAccountId(),
+                                        request.getAmount()))
+                        .map(TransactionMapper::toResponseDto));
+    }
+
+    @Operation(summary = "Transfer money to several accounts",
+            description = "Debits the source account once and credits every leg in parallel; legs that cannot be "
+                    + "credited are refunded to the source and reported in the response.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transfer recorded, possibly with failed legs",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = MultiTransferResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many requests", content = @Content),
+            @ApiResponse(responseCode = "502", description = "No leg could be credited", content = @Content)
+    })
+    @PostMapping("/transactions/multi-transfer")
+    public Mono<MultiTransferResponseDto> multiTransfer(
+            @RequestBody @Valid @Parameter(description = "Source account and legs", required = true) MultiTransferRequestDto request,
+            @RequestHeader(name = CLIENT_ID_HEADER, required = false) @Parameter(description = "ID of the API client") String clientId) {
+        // Cada cuenta consume un solo token aunque aparezca en varios tramos; los tramos inválidos los rechaza el servicio
+        List<MultiTransferRequestDto.Leg> legs = request.getLegs() == null ? List.of() : request.getLegs();
+        List<String> accountIds = Stream.concat(Stream.of(request.getSourceAccountId()), legs.stream()
+                        .filter(Objects::nonNull)
+                        .map(MultiTransferRequestDto.Leg::getDestinationAccountId))
+                .distinct()
+                .toList();
+        return requestProfiler.profile("POST /api/transactions/multi-transfer", TransactionType.MULTI_TRANSFER,
+                admissionService.admit(clientId, accountIds,
+                                () -> transactionService.multiTransfer(request.getSourceAccountId(),
+                                        MultiTransferMapper.toLegs(request)))
+                        .map(MultiTransferMapper::toResponseDto));
     }
 
     @Operation(summary = "Get global transaction history", description = "Retrieves the global history of all transactions.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransactionResponseDto.class))),
-            @ApiResponse(responseCode = "404", description = "No transactions found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "No transactions found", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many requests", content = @Content)
     })
     @GetMapping("/transactions")
-    public Flux<TransactionResponseDto> getGlobalTransactionHistory() {
-        return transactionService.getGlobalTransactionHistory()
-                .map(TransactionMapper::toResponseDto);
+    public Flux<Transaction> getGlobalTransactionHistory() {
+        // Las entidades se escriben directamente con TransactionJsonSerializer (mismo JSON que TransactionResponseDto)
+        return requestProfiler.profile("GET /api/transactions", null,
+                admissionService.admitRead(transactionService::getGlobalTransactionHistory));
     }
 
     @Operation(summary = "Get transaction history for an account", description = "Retrieves the transaction history for a specific account.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransactionResponseDto.class))),
-            @ApiResponse(responseCode = "404", description = "No transactions found for the account", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Limit is not greater than zero", content = @Content),
+            @ApiResponse(responseCode = "404", description = "No transactions found for the account", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many requests", content = @Content)
     })
     @GetMapping("/transactions/account/{accountId}")
-    public Flux<TransactionResponseDto> getAccountTransactionHistory(
-            @PathVariable @Parameter(description = "ID of the account", required = true) String accountId) {
-        return transactionService.getAccountTransactionHistory(accountId)
-                .map(TransactionMapper::toResponseDto);
+    public Flux<Transaction> getAccountTransactionHistory(
+            @PathVariable @Parameter(description = "ID of the account", required = true) String accountId,
+            @RequestParam(required = false) @Parameter(description = "Return only the most recent transactions") Integer limit) {
+        return requestProfiler.profile("GET /api/transactions/account/{accountId}", null,
+                admissionService.admitRead(() -> limit == null
+                        ? transactionService.getAccountTransactionHistory(accountId)
+                        : transactionService.getRecentAccountTransactions(accountId, limit)));
     }
 }
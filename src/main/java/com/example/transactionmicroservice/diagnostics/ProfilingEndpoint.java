@@ -0,0 +1,89 @@
+package com.example.transactionmicroservice.diagnostics;
+
+import com.example.transactionmicroservice.model.ProfilingRecording;
+import com.example.transactionmicroservice.service.ProfilingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Actuator endpoint ({@code /actuator/profiling}) for the on-demand JFR recordings.
+ * <p>
+ * Recordings and their {@code .jfr} files expose stack traces of the application, so they are served with the
+ * other administrative endpoints instead of the public API: the endpoint is only reachable when it is listed in
+ * {@code management.endpoints.web.exposure.include}, and {@code management.server.port} moves it to a port that
+ * is not published outside the cluster.
+ */
+@Component
+@Endpoint(id = "profiling")
+@RequiredArgsConstructor
+public class ProfilingEndpoint {
+
+    static final String SUMMARY = "summary";
+    static final String FILE = "file";
+
+    private final ProfilingService profilingService;
+
+    /**
+     * {@code GET /actuator/profiling}: the recordings kept on this node, most recent first.
+     */
+    @ReadOperation
+    public Flux<ProfilingRecording> recordings() {
+        return profilingService.findRecordings();
+    }
+
+    /**
+     * {@code POST /actuator/profiling} with a {@code {"seconds": N}} body, or {@code {}} for the default duration:
+     * starts a recording.
+     */
+    @WriteOperation
+    public Mono<ProfilingRecording> start(@Nullable Long seconds) {
+        return profilingService.start(seconds == null ? null : Duration.ofSeconds(Math.max(1, seconds)));
+    }
+
+    /**
+     * {@code GET /actuator/profiling/{id}}: the state of a recording.
+     */
+    @ReadOperation
+    public Mono<ProfilingRecording> recording(@Selector String id) {
+        return profilingService.findRecording(id);
+    }
+
+    /**
+     * {@code POST /actuator/profiling/{id}}: stops a recording before its duration elapses.
+     */
+    @WriteOperation
+    public Mono<ProfilingRecording> stop(@Selector String id) {
+        return profilingService.stop(id);
+    }
+
+    /**
+     * {@code GET /actuator/profiling/{id}/summary} or {@code /file}: the summary of a finished recording, or its
+     * {@code .jfr} file for JDK Mission Control.
+     * <p>
+     * Both share the path pattern, so a single operation serves them; it waits for the result because the response
+     * content type depends on the part. Actuator runs operations that do not return a publisher on a bounded
+     * elastic thread on the reactive stack, so waiting does not block an event loop.
+     */
+    @ReadOperation(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public WebEndpointResponse<Object> content(@Selector String id, @Selector String part) {
+        return switch (part) {
+            case SUMMARY -> new WebEndpointResponse<>(profilingService.summarize(id).block(),
+                    MediaType.APPLICATION_JSON);
+            case FILE -> new WebEndpointResponse<>(new FileSystemResource(profilingService.findFile(id).block()),
+                    MediaType.APPLICATION_OCTET_STREAM);
+            default -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        };
+    }
+}
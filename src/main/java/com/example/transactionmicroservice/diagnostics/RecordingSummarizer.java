@@ -0,0 +1,275 @@
+package com.example.transactionmicroservice.diagnostics;
+
+import com.example.transactionmicroservice.config.DiagnosticsProperties;
+import com.example.transactionmicroservice.model.ProfilingSummary;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads a JFR recording and summarizes it per request class.
+ * <p>
+ * Requests of the service hop between event-loop and scheduler threads, so samples cannot be matched to a request
+ * by thread. Instead the {@link RequestEvent} intervals are swept in time order: each allocation sample and each GC
+ * pause is split among the request classes in flight at that instant, in proportion to their number of requests.
+ * With one class dominating the load the attribution is close to exact; under mixed load it shows which classes
+ * coincide with the allocation and the pauses, which is what tells GC pressure apart from remote latency.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecordingSummarizer {
+
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    static final String GARBAGE_COLLECTION = "jdk.GarbageCollection";
+
+    private static final int START = 0;
+    private static final int SAMPLE = 1;
+    private static final int END = 2;
+
+    private final DiagnosticsProperties properties;
+
+    /**
+     * Summarizes a recording file.
+     *
+     * @param recordingId The ID reported in the summary.
+     * @param file        The {@code .jfr} file.
+     * @return The summary.
+     * @throws IOException If the file cannot be read.
+     */
+    public ProfilingSummary summarize(String recordingId, Path file) throws IOException {
+        Summary summary = summary();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                add(summary, recording.readEvent());
+            }
+        }
+        return summary.build(recordingId);
+    }
+
+    /**
+     * @return An empty summary, to be filled with the events of a recording.
+     */
+    Summary summary() {
+        return new Summary();
+    }
+
+    private void add(Summary summary, RecordedEvent event) {
+        long start = nanos(event.getStartTime());
+        long end = nanos(event.getEndTime());
+        switch (event.getEventType().getName()) {
+            case RequestEvent.NAME -> summary.request(event.getString("endpoint"), event.getString("transactionType"),
+                    event.getString("outcome"), start, end);
+            case ALLOCATION_SAMPLE -> {
+                RecordedClass objectClass = event.getClass("objectClass");
+                summary.allocation(start, event.getLong("weight"),
+                        objectClass == null ? "unknown" : objectClass.getName(), frame(event.getStackTrace()));
+            }
+            case GARBAGE_COLLECTION -> summary.collection(start, end, event.getString("name"),
+                    event.getDuration("sumOfPauses").toNanos(), event.getDuration("longestPause").toNanos());
+            default -> summary.other(start, end);
+        }
+    }
+
+    /**
+     * Formats the first frame of the application on the stack, or the top frame when there is none.
+     */
+    private String frame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName()
+                    .startsWith(properties.getApplicationPackage())) {
+                return format(frame);
+            }
+        }
+        return format(stackTrace.getFrames().get(0));
+    }
+
+    /**
+     * Accumulates the events of a recording, with times in nanoseconds.
+     */
+    final class Summary {
+
+        private final Map<String, RequestClass> classes = new HashMap<>();
+        private final List<Point> points = new ArrayList<>();
+        private final Map<List<String>, long[]> hotSpots = new HashMap<>(); // (tipo, frame) -> bytes
+        private final Map<String, Collector> collectors = new TreeMap<>();
+        private long sampledBytes;
+        private double unattributedBytes;
+        private double unattributedPauseNanos;
+        private long first = Long.MAX_VALUE;
+        private long last = Long.MIN_VALUE;
+
+        void request(String endpoint, String type, String outcome, long start, long end) {
+            other(start, end);
+            RequestClass requestClass = classes.computeIfAbsent(endpoint + ' ' + type,
+                    key -> new RequestClass(endpoint, type));
+            requestClass.durations.add(end - start);
+            if ("error".equals(outcome)) {
+                requestClass.errors++;
+            }
+            points.add(new Point(start, START, requestClass, 0, 0));
+            points.add(new Point(end, END, requestClass, 0, 0));
+        }
+
+        void allocation(long time, long bytes, String type, String frame) {
+            other(time, time);
+            hotSpots.computeIfAbsent(List.of(type, frame), key -> new long[1])[0] += bytes;
+            sampledBytes += bytes;
+            points.add(new Point(time, SAMPLE, null, bytes, 0));
+        }
+
+        void collection(long start, long end, String name, long pauseNanos, long longestPauseNanos) {
+            other(start, end);
+            Collector collector = collectors.computeIfAbsent(name, key -> new Collector());
+            collector.collections++;
+            collector.pauseNanos += pauseNanos;
+            collector.longestPauseNanos = Math.max(collector.longestPauseNanos, longestPauseNanos);
+            points.add(new Point(start, SAMPLE, null, 0, pauseNanos));
+        }
+
+        void other(long start, long end) {
+            first = Math.min(first, start);
+            last = Math.max(last, end);
+        }
+
+        /**
+         * Sweeps the request intervals in time order and splits every sample among the classes in flight.
+         */
+        private void attribute() {
+            points.sort(Comparator.comparingLong(Point::time).thenComparingInt(Point::kind));
+            Map<RequestClass, int[]> active = new IdentityHashMap<>();
+            int inFlight = 0;
+            for (Point point : points) {
+                if (point.kind() == START) {
+                    active.computeIfAbsent(point.requestClass(), key -> new int[1])[0]++;
+                    inFlight++;
+                } else if (point.kind() == END) {
+                    int[] count = active.get(point.requestClass());
+                    if (--count[0] == 0) {
+                        active.remove(point.requestClass());
+                    }
+                    inFlight--;
+                } else if (inFlight == 0) {
+                    unattributedBytes += point.bytes();
+                    unattributedPauseNanos += point.pauseNanos();
+                } else {
+                    for (Map.Entry<RequestClass, int[]> entry : active.entrySet()) {
+                        double share = (double) entry.getValue()[0] / inFlight;
+                        entry.getKey().bytes += point.bytes() * share;
+                        entry.getKey().pauseNanos += point.pauseNanos() * share;
+                    }
+                }
+            }
+        }
+
+        ProfilingSummary build(String recordingId) {
+            attribute();
+            return ProfilingSummary.builder()
+                    .recordingId(recordingId)
+                    .durationMillis(first > last ? 0 : (last - first) / 1_000_000)
+                    .requestClasses(classes.values().stream()
+                            .sorted(Comparator.comparingDouble((RequestClass c) -> c.bytes).reversed())
+                            .map(RequestClass::toSummary)
+                            .toList())
+                    .allocationHotSpots(hotSpots.entrySet().stream()
+                            .sorted(Comparator.comparingLong((Map.Entry<List<String>, long[]> e) -> e.getValue()[0]).reversed())
+                            .limit(properties.getHotSpots())
+                            .map(entry -> ProfilingSummary.HotSpot.builder()
+                                    .objectClass(entry.getKey().get(0))
+                                    .frame(entry.getKey().get(1))
+                                    .bytes(entry.getValue()[0])
+                                    .percent(sampledBytes == 0 ? 0 : 100.0 * entry.getValue()[0] / sampledBytes)
+                                    .build())
+                            .toList())
+                    .garbageCollectors(collectors.entrySet().stream()
+                            .map(entry -> ProfilingSummary.Collector.builder()
+                                    .name(entry.getKey())
+                                    .collections(entry.getValue().collections)
+                                    .totalPauseMillis(millis(entry.getValue().pauseNanos))
+                                    .longestPauseMillis(millis(entry.getValue().longestPauseNanos))
+                                    .build())
+                            .toList())
+                    .sampledBytes(sampledBytes)
+                    .unattributedBytes(Math.round(unattributedBytes))
+                    .unattributedGcPauseMillis(millis(unattributedPauseNanos))
+                    .build();
+        }
+    }
+
+    private record Point(long time, int kind, RequestClass requestClass, long bytes, long pauseNanos) {
+    }
+
+    private static final class RequestClass {
+
+        private final String endpoint;
+        private final String type;
+        private final List<Long> durations = new ArrayList<>();
+        private long errors;
+        private double bytes;
+        private double pauseNanos;
+
+        RequestClass(String endpoint, String type) {
+            this.endpoint = endpoint;
+            this.type = type;
+        }
+
+        ProfilingSummary.RequestClass toSummary() {
+            long[] sorted = durations.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            long allocated = Math.round(bytes);
+            return ProfilingSummary.RequestClass.builder()
+                    .endpoint(endpoint)
+                    .transactionType(type)
+                    .requests(sorted.length)
+                    .errors(errors)
+                    .p50Millis(millis(percentile(sorted, 0.5)))
+                    .p99Millis(millis(percentile(sorted, 0.99)))
+                    .allocatedBytes(allocated)
+                    .allocatedBytesPerRequest(sorted.length == 0 ? 0 : allocated / sorted.length)
+                    .gcPauseMillis(millis(pauseNanos))
+                    .build();
+        }
+    }
+
+    private static final class Collector {
+        private long collections;
+        private long pauseNanos;
+        private long longestPauseNanos;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static String format(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + '.' + frame.getMethod().getName() + ':' + frame.getLineNumber();
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1e6;
+    }
+}
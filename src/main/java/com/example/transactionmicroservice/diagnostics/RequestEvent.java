@@ -0,0 +1,33 @@
+package com.example.transactionmicroservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one API request, from admission to the last response item.
+ * <p>
+ * The event carries the request class (endpoint and transaction type) so the allocation samples and GC pauses of a
+ * recording can be attributed to the requests in flight when they happened.
+ */
+@Name(RequestEvent.NAME)
+@Label("Transaction Request")
+@Category({"Transactions", "Requests"})
+@Description("An API request of the transaction service")
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    public static final String NAME = "com.example.transactionmicroservice.Request";
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Outcome")
+    String outcome;
+}
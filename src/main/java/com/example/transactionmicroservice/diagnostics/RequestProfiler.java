@@ -0,0 +1,94 @@
+package com.example.transactionmicroservice.diagnostics;
+
+import com.example.transactionmicroservice.config.DiagnosticsProperties;
+import com.example.transactionmicroservice.config.ResponseCompletionFilter;
+import com.example.transactionmicroservice.model.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.Consumer;
+
+/**
+ * Emits a {@link RequestEvent} around each API request when diagnostics are enabled.
+ * <p>
+ * Works the same on the servlet and the reactive stack because it wraps the publisher the controller returns. On
+ * Spring MVC the body is serialized after the publisher completes, so the event is committed once the response has
+ * been written ({@link ResponseCompletionFilter}) and the allocations of the serialization are attributed to it.
+ * Outside a recording the event is disabled and {@code commit} returns immediately; with diagnostics disabled the
+ * publisher is returned untouched.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestProfiler {
+
+    private final DiagnosticsProperties properties;
+
+    /**
+     * Records a request that produces a single result.
+     *
+     * @param endpoint The endpoint, e.g. {@code POST /api/transactions/transfer}.
+     * @param type     The transaction type of the request, or null for reads.
+     * @param request  The request.
+     * @return The same request, recorded.
+     */
+    public <T> Mono<T> profile(String endpoint, TransactionType type, Mono<T> request) {
+        if (!properties.isEnabled()) {
+            return request;
+        }
+        Consumer<Runnable> onResponseWritten = ResponseCompletionFilter.current();
+        return Mono.defer(() -> {
+            RequestEvent event = begin();
+            return request.doFinally(signal -> end(onResponseWritten, () -> commit(event, endpoint, type, signal)));
+        });
+    }
+
+    /**
+     * Records a request that streams its results; the event lasts until the last item is emitted.
+     *
+     * @param endpoint The endpoint, e.g. {@code GET /api/transactions}.
+     * @param type     The transaction type of the request, or null for reads.
+     * @param request  The request.
+     * @return The same request, recorded.
+     */
+    public <T> Flux<T> profile(String endpoint, TransactionType type, Flux<T> request) {
+        if (!properties.isEnabled()) {
+            return request;
+        }
+        Consumer<Runnable> onResponseWritten = ResponseCompletionFilter.current();
+        return Flux.defer(() -> {
+            RequestEvent event = begin();
+            return request.doFinally(signal -> end(onResponseWritten, () -> commit(event, endpoint, type, signal)));
+        });
+    }
+
+    private static RequestEvent begin() {
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void end(Consumer<Runnable> onResponseWritten, Runnable commit) {
+        if (onResponseWritten == null) {
+            commit.run();
+        } else {
+            onResponseWritten.accept(commit);
+        }
+    }
+
+    private static void commit(RequestEvent event, String endpoint, TransactionType type, SignalType signal) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.transactionType = type == null ? null : type.name();
+            event.outcome = switch (signal) {
+                case ON_COMPLETE -> "success";
+                case ON_ERROR -> "error";
+                default -> "cancelled";
+            };
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transactionmicroservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Getter
+@Setter
+public class MultiTransferRequestDto {
+    @NotBlank(message = "Source account ID is required")
+    private String sourceAccountId; // Account debited once with the total of the legs
+
+    @NotEmpty(message = "At least one leg is required")
+    @Valid
+    private List<Leg> legs; // Credits, in the currency of the source account
+
+    @Getter
+    @Setter
+    public static class Leg {
+        @NotBlank(message = "Destination account ID is required")
+        private String destinationAccountId; // Account credited by this leg
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+        private Double amount; // Amount of this leg
+    }
+}
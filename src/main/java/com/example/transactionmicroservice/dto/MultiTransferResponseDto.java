@@ -0,0 +1,27 @@
+package com.example.transactionmicroservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class MultiTransferResponseDto {
+    private TransactionResponseDto transaction; // Parent MULTI_TRANSFER transaction (net debit of the source)
+    private List<TransactionResponseDto> legs; // Credited legs, recorded as transfers of the parent
+    private List<FailedLeg> failedLegs; // Legs that could not be credited
+    private Double refundedAmount; // Amount given back to the source for the rejected legs
+
+    @Getter
+    @Setter
+    @Builder
+    public static class FailedLeg {
+        private String destinationAccountId; // Account that could not be credited
+        private Double amount; // Amount of the leg, in the currency of the source account
+        private String status; // REJECTED (refunded) or UNKNOWN (may have been credited, under review)
+        private String error; // Reason of the failure
+    }
+}
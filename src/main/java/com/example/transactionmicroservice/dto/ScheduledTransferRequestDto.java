@@ -0,0 +1,27 @@
+package com.example.transactionmicroservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class ScheduledTransferRequestDto {
+    @NotBlank(message = "Source account ID is required")
+    private String sourceAccountId; // Account debited on each occurrence
+
+    @NotBlank(message = "Destination account ID is required")
+    private String destinationAccountId; // Account credited on each occurrence
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private Double amount; // Amount transferred on each occurrence
+
+    private String cronExpression; // Recurrence, e.g. "0 0 0 1 * *" (monthly); empty for a one-off transfer
+
+    private LocalDateTime firstExecution; // First occurrence; required for one-off transfers
+}
@@ -0,0 +1,23 @@
+package com.example.transactionmicroservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+public class ScheduledTransferResponseDto {
+    private String id; // Scheduled transfer ID
+    private String sourceAccountId; // Source account ID
+    private String destinationAccountId; // Destination account ID
+    private Double amount; // Amount transferred on each occurrence
+    private String cronExpression; // Recurrence, null for one-off transfers
+    private String status; // ACTIVE, COMPLETED, CANCELLED, NEEDS_REVIEW
+    private LocalDateTime nextExecution; // Next occurrence
+    private LocalDateTime lastExecution; // Last executed occurrence
+    private String lastTransactionId; // Transaction created by the last occurrence
+    private String lastError; // Error of the last failed occurrence
+}
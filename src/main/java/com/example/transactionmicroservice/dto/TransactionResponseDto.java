@@ -17,4 +17,9 @@ public class TransactionResponseDto {
     private String sourceAccountId; // Source account ID
     private String destinationAccountId; // Destination account ID
     private String accountId; // Account ID for deposits or withdrawals
+    private String currency; // Currency of the amount
+    private String destinationCurrency; // Currency credited to the destination account (transfers)
+    private Double destinationAmount; // Amount credited to the destination account (transfers)
+    private Double exchangeRate; // Exchange rate applied (transfers)
+    private String parentTransactionId; // Multi-leg transfer this transfer is a leg of
 }
@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.exception;
+
+/**
+ * Business error identified by an {@link ErrorCode}.
+ * <p>
+ * Instances are shared per error code, so they are immutable: they carry no stack trace and do not record
+ * suppressed exceptions.
+ */
+public final class DomainException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    DomainException(ErrorCode errorCode) {
+        super(errorCode.getDetail(), null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.transactionmicroservice.exception;
+
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Catalogue of business errors returned by the service.
+ * <p>
+ * Everything needed to report an error is allocated once per code: the stackless {@link DomainException},
+ * a reusable error {@link Mono} and the RFC 7807 {@code application/problem+json} body, so rejecting a request
+ * does not capture stack traces nor build response maps.
+ */
+public enum ErrorCode {
+
+    ACCOUNT_ID_REQUIRED(HttpStatus.BAD_REQUEST, "Account ID must not be null or blank"),
+    INVALID_AMOUNT(HttpStatus.BAD_REQUEST, "Amount must be greater than zero"),
+    INVALID_LIMIT(HttpStatus.BAD_REQUEST, "Limit must be greater than zero"),
+    ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND, "Account not found"),
+    INSUFFICIENT_BALANCE(HttpStatus.BAD_REQUEST, "Insufficient balance"),
+    SAME_SOURCE_AND_DESTINATION(HttpStatus.BAD_REQUEST, "Source and destination accounts must be different"),
+    DAILY_COUNT_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "Daily number of debits exceeded for the account"),
+    DAILY_AMOUNT_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "Daily debit amount exceeded for the account"),
+    UNSUPPORTED_CURRENCY_PAIR(HttpStatus.BAD_REQUEST, "No exchange rate available between the account currencies"),
+    RISK_REJECTED(HttpStatus.FORBIDDEN, "Operation rejected by the risk evaluation"),
+    INVALID_SCHEDULE(HttpStatus.BAD_REQUEST, "A valid cron expression or a future first execution is required"),
+    SCHEDULED_TRANSFER_NOT_FOUND(HttpStatus.NOT_FOUND, "Scheduled transfer not found"),
+    SCHEDULED_TRANSFER_COMPLETED(HttpStatus.CONFLICT, "The scheduled transfer has already completed"),
+    RECONCILIATION_ALREADY_RUNNING(HttpStatus.CONFLICT, "Another reconciliation run is in progress"),
+    RECONCILIATION_DISABLED(HttpStatus.SERVICE_UNAVAILABLE, "Reconciliation is disabled on this node"),
+    RECONCILIATION_RUN_NOT_FOUND(HttpStatus.NOT_FOUND, "Reconciliation run not found"),
+    TOO_MANY_LEGS(HttpStatus.BAD_REQUEST, "A multi-leg transfer needs between 1 and the configured maximum of legs"),
+    TRANSFER_LEGS_FAILED(HttpStatus.BAD_GATEWAY, "No leg of the transfer could be credited; the debit was refunded"),
+    PROFILING_DISABLED(HttpStatus.SERVICE_UNAVAILABLE, "Diagnostics are disabled on this node"),
+    PROFILING_ALREADY_RUNNING(HttpStatus.CONFLICT, "Another profiling recording is in progress"),
+    PROFILING_RECORDING_NOT_FOUND(HttpStatus.NOT_FOUND, "Profiling recording not found"),
+    PROFILING_RECORDING_NOT_FINISHED(HttpStatus.CONFLICT, "The profiling recording has not finished yet"),
+    SHUTTING_DOWN(HttpStatus.SERVICE_UNAVAILABLE, "The node is shutting down, retry the operation"),
+    MUTATION_INTERRUPTED(HttpStatus.ACCEPTED,
+            "The operation was interrupted by a shutdown and will be completed or reviewed; do not retry it");
+
+    private final HttpStatus status;
+    private final String detail;
+    private final DomainException exception;
+    private final Mono<?> errorMono;
+    private final byte[] problemJson;
+
+    ErrorCode(HttpStatus status, String detail) {
+        this.status = status;
+        this.detail = detail;
+        this.exception = new DomainException(this);
+        this.errorMono = Mono.error(exception);
+        this.problemJson = ("{\"type\":\"urn:problem:transactions:" + name().toLowerCase().replace('_', '-') + "\","
+                + "\"title\":\"" + status.getReasonPhrase() + "\","
+                + "\"status\":" + status.value() + ","
+                + "\"detail\":\"" + detail + "\","
+                + "\"code\":\"" + name() + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return The shared, stackless exception for this error.
+     */
+    public DomainException exception() {
+        return exception;
+    }
+
+    /**
+     * @return A pre-built Mono that signals this error.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> asMono() {
+        return (Mono<T>) errorMono;
+    }
+
+    /**
+     * @return The pre-encoded RFC 7807 body for this error. Must not be modified.
+     */
+    public byte[] problemJson() {
+        return problemJson;
+    }
+}
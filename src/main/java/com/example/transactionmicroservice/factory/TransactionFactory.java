@@ -1,37 +1,81 @@
 package com.example.transactionmicroservice.factory;
 
+import com.example.transactionmicroservice.model.FxConversion;
 import com.example.transactionmicroservice.model.Transaction;
 import com.example.transactionmicroservice.model.TransactionType;
 
-import java.time.LocalDateTime;
-
 public class TransactionFactory {
 
-    public static Transaction createDepositTransaction(String accountId, Double amount) {
-        return Transaction.builder()
+    // Los ids se generan en el cliente: se conocen antes de persistir y su orden coincide con el de la fecha
+    private static final TransactionIdGenerator ID_GENERATOR = TransactionIdGenerator.fromEnvironment();
+
+    public static Transaction createDepositTransaction(String accountId, Double amount, String currency) {
+        return newTransaction()
                 .type(TransactionType.DEPOSIT)
                 .amount(amount)
-                .date(LocalDateTime.now())
+                .currency(currency)
                 .destinationAccountId(accountId)
+                .participants(Transaction.participantsOf(null, accountId))
                 .build();
     }
 
-    public static Transaction createWithdrawTransaction(String accountId, Double amount) {
-        return Transaction.builder()
+    public static Transaction createWithdrawTransaction(String accountId, Double amount, String currency) {
+        return newTransaction()
                 .type(TransactionType.WITHDRAWAL)
                 .amount(amount)
-                .date(LocalDateTime.now())
+                .currency(currency)
                 .sourceAccountId(accountId)
+                .participants(Transaction.participantsOf(accountId, null))
                 .build();
     }
 
-    public static Transaction createTransferTransaction(String sourceAccountId, String destinationAccountId, Double amount) {
-        return Transaction.builder()
+    public static Transaction createTransferTransaction(String sourceAccountId, String destinationAccountId, Double amount,
+                                                        FxConversion conversion) {
+        return newTransaction()
                 .type(TransactionType.TRANSFER)
                 .amount(amount)
-                .date(LocalDateTime.now())
+                .currency(conversion.getSourceCurrency())
                 .sourceAccountId(sourceAccountId)
                 .destinationAccountId(destinationAccountId)
+                .destinationCurrency(conversion.getDestinationCurrency())
+                .destinationAmount(conversion.getDestinationAmount())
+                .exchangeRate(conversion.getRate())
+                .participants(Transaction.participantsOf(sourceAccountId, destinationAccountId))
                 .build();
     }
+
+    /**
+     * Creates the parent of a multi-leg transfer: the net debit of the source (total of the legs minus the refund of
+     * the ones that failed). The credits are recorded by {@link #createTransferLegTransaction}.
+     */
+    public static Transaction createMultiTransferTransaction(String sourceAccountId, Double amount, String currency) {
+        return newTransaction()
+                .type(TransactionType.MULTI_TRANSFER)
+                .amount(amount)
+                .currency(currency)
+                .sourceAccountId(sourceAccountId)
+                .participants(Transaction.participantsOf(sourceAccountId, null))
+                .build();
+    }
+
+    /**
+     * Creates a credited leg of a multi-leg transfer: a transfer whose debit is the one of its parent.
+     */
+    public static Transaction createTransferLegTransaction(String parentTransactionId, String sourceAccountId,
+                                                           String destinationAccountId, Double amount,
+                                                           FxConversion conversion) {
+        Transaction transaction = createTransferTransaction(sourceAccountId, destinationAccountId, amount, conversion);
+        transaction.setParentTransactionId(parentTransactionId);
+        return transaction;
+    }
+
+    /**
+     * Starts a transaction builder with a pre-assigned id and the date encoded in that id.
+     */
+    private static Transaction.TransactionBuilder newTransaction() {
+        String id = ID_GENERATOR.nextId();
+        return Transaction.builder()
+                .id(id)
+                .date(TransactionIdGenerator.dateOf(id));
+    }
 }
@@ -0,0 +1,112 @@
+package com.example.transactionmicroservice.factory;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, time-ordered identifier generator for transactions.
+ * <p>
+ * Every identifier is a fixed-width, 20 character lowercase hexadecimal string laid out as
+ * {@code [48 bit epoch millis][16 bit sequence][16 bit node id]}, so the lexicographic order of the
+ * identifiers (and therefore the {@code _id} index order in MongoDB) follows the creation time.
+ * The node id keeps identifiers unique across instances; the sequence keeps them unique within a node.
+ */
+public class TransactionIdGenerator {
+
+    /**
+     * System property used to configure the node id of this instance.
+     */
+    public static final String NODE_ID_PROPERTY = "transactions.id.node-id";
+
+    /**
+     * Environment variable used to configure the node id of this instance.
+     */
+    public static final String NODE_ID_ENV = "TRANSACTIONS_ID_NODE_ID";
+
+    static final int ID_LENGTH = 20;
+    private static final int SEQUENCE_BITS = 16;
+    private static final int MAX_NODE_ID = 0xFFFF;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int nodeId;
+    private final AtomicLong state = new AtomicLong(); // (millis << 16) | sequence del último id emitido
+
+    public TransactionIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Creates a generator whose node id is read from the {@value #NODE_ID_PROPERTY} system property or the
+     * {@value #NODE_ID_ENV} environment variable. When neither is set a random node id is used, which is only
+     * collision-free with high probability; clustered deployments should configure it explicitly.
+     *
+     * @return A generator for this node.
+     */
+    public static TransactionIdGenerator fromEnvironment() {
+        String configured = System.getProperty(NODE_ID_PROPERTY, System.getenv(NODE_ID_ENV));
+        if (configured != null && !configured.isBlank()) {
+            return new TransactionIdGenerator(Integer.parseInt(configured.trim()));
+        }
+        return new TransactionIdGenerator(new SecureRandom().nextInt(MAX_NODE_ID + 1));
+    }
+
+    /**
+     * Generates a new identifier.
+     *
+     * @return A unique identifier whose lexicographic order follows its creation time.
+     */
+    public String nextId() {
+        return format(nextState(), nodeId);
+    }
+
+    /**
+     * Extracts the creation time encoded in an identifier produced by this generator.
+     *
+     * @param id The identifier.
+     * @return The creation time in the system time zone.
+     */
+    public static LocalDateTime dateOf(String id) {
+        if (id == null || id.length() != ID_LENGTH) {
+            throw new IllegalArgumentException("Not a transaction id: " + id);
+        }
+        long millis = Long.parseLong(id.substring(0, 12), 16);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private long nextState() {
+        while (true) {
+            long previous = state.get();
+            long now = System.currentTimeMillis();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long next;
+            if (now > previousMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Mismo milisegundo o reloj retrasado: se incrementa la secuencia (si se desborda avanza el milisegundo)
+                next = previous + 1;
+            }
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static String format(long state, int nodeId) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) (state & 0xF)];
+            state >>>= 4;
+        }
+        for (int i = ID_LENGTH - 1; i >= 16; i--) {
+            chars[i] = HEX[nodeId & 0xF];
+            nodeId >>>= 4;
+        }
+        return new String(chars);
+    }
+}
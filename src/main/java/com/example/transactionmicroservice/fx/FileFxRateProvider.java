@@ -0,0 +1,60 @@
+package com.example.transactionmicroservice.fx;
+
+import com.example.transactionmicroservice.config.FxProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads the exchange rates from a properties file: a {@code base} entry with the base currency and one
+ * {@code <CURRENCY>=<units per base unit>} entry per currency. The file is read on the blocking scheduler.
+ */
+@Component
+public class FileFxRateProvider implements FxRateProvider {
+
+    static final String BASE_KEY = "base";
+
+    private final FxProperties properties;
+    private final Scheduler blockingScheduler;
+
+    public FileFxRateProvider(FxProperties properties, @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.properties = properties;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @Override
+    public Mono<FxRateTable> fetch() {
+        return Mono.fromCallable(this::read)
+                .subscribeOn(blockingScheduler);
+    }
+
+    private FxRateTable read() {
+        Properties file = new Properties();
+        try (InputStream input = properties.getRatesFile().getInputStream()) {
+            file.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the exchange rates from " + properties.getRatesFile(), e);
+        }
+        String base = file.getProperty(BASE_KEY, properties.getDefaultCurrency()).trim().toUpperCase();
+        Map<String, Double> rates = new HashMap<>();
+        for (String currency : file.stringPropertyNames()) {
+            if (!BASE_KEY.equals(currency)) {
+                double rate = Double.parseDouble(file.getProperty(currency).trim());
+                if (rate <= 0) {
+                    throw new IllegalArgumentException("Invalid exchange rate for " + currency + ": " + rate);
+                }
+                rates.put(currency.trim().toUpperCase(), rate);
+            }
+        }
+        return new FxRateTable(base, rates, Instant.now());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.transactionmicroservice.fx;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of exchange rates (a local file, a stub or a remote rates service).
+ */
+public interface FxRateProvider {
+
+    /**
+     * Loads the current exchange rates.
+     *
+     * @return A Mono containing a complete rate table.
+     */
+    Mono<FxRateTable> fetch();
+}
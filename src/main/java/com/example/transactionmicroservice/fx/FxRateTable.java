@@ -0,0 +1,54 @@
+package com.example.transactionmicroservice.fx;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the exchange rates, expressed as units of each currency per unit of the base currency.
+ * <p>
+ * A new table is built on every refresh and published as a whole, so readers never see a half-updated table and
+ * never need a lock.
+ */
+public final class FxRateTable {
+
+    private final String baseCurrency;
+    private final Map<String, Double> rates;
+    private final Instant loadedAt;
+
+    public FxRateTable(String baseCurrency, Map<String, Double> rates, Instant loadedAt) {
+        this.baseCurrency = baseCurrency;
+        this.rates = Map.copyOf(rates);
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Returns the rate that converts an amount in {@code from} into {@code to}.
+     *
+     * @param from The currency of the amount.
+     * @param to   The target currency.
+     * @return The exchange rate, or {@link Double#NaN} when either currency is unknown.
+     */
+    public double rate(String from, String to) {
+        if (from.equals(to)) {
+            return 1;
+        }
+        Double fromRate = from.equals(baseCurrency) ? Double.valueOf(1) : rates.get(from);
+        Double toRate = to.equals(baseCurrency) ? Double.valueOf(1) : rates.get(to);
+        if (fromRate == null || toRate == null) {
+            return Double.NaN;
+        }
+        return toRate / fromRate;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        return rates.size();
+    }
+}
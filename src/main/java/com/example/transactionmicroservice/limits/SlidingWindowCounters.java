@@ -0,0 +1,274 @@
+package com.example.transactionmicroservice.limits;
+
+import java.time.Duration;
+
+/**
+ * Per-key sliding-window counters (number of events and summed amount) kept in primitive arrays.
+ * <p>
+ * The window is divided into {@code buckets} fixed slots per key and each key keeps the running totals of its
+ * window, so a check is O(1) whatever the history size: buckets that fall out of the window are subtracted lazily
+ * when the key is next touched (at most {@code buckets} slots). Keys are spread over independently locked stripes,
+ * each an open-addressing table whose arrays only grow (after dropping idle keys) when it runs out of room, so
+ * recording an event allocates nothing.
+ */
+public class SlidingWindowCounters {
+
+    /**
+     * Result of {@link #tryRecord}: the event was recorded.
+     */
+    public static final int ACCEPTED = 0;
+
+    /**
+     * Result of {@link #tryRecord}: recording the event would exceed the maximum number of events.
+     */
+    public static final int COUNT_EXCEEDED = 1;
+
+    /**
+     * Result of {@link #tryRecord}: recording the event would exceed the maximum summed amount.
+     */
+    public static final int AMOUNT_EXCEEDED = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final Stripe[] stripes;
+
+    /**
+     * @param window  Length of the sliding window.
+     * @param buckets Number of slots the window is divided into (its resolution).
+     * @param stripes Number of independently locked stripes, rounded up to a power of two.
+     */
+    public SlidingWindowCounters(Duration window, int buckets, int stripes) {
+        if (buckets <= 0 || stripes <= 0 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Window, buckets and stripes must be greater than zero");
+        }
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+        int stripeCount = 1;
+        while (stripeCount < stripes) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records an event unless it would push the totals of the key above the given maxima.
+     *
+     * @param key       The key (e.g. an account id).
+     * @param amount    The amount of the event.
+     * @param maxCount  Maximum number of events in the window, or a negative value for no limit.
+     * @param maxAmount Maximum summed amount in the window, or a negative value for no limit.
+     * @param nowMillis Current time in epoch milliseconds.
+     * @return {@link #ACCEPTED}, {@link #COUNT_EXCEEDED} or {@link #AMOUNT_EXCEEDED}.
+     */
+    public int tryRecord(String key, long amount, long maxCount, long maxAmount, long nowMillis) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            int slot = stripe.slot(key, nowMillis / bucketMillis);
+            if (maxCount >= 0 && stripe.totalCounts[slot] + 1 > maxCount) {
+                return COUNT_EXCEEDED;
+            }
+            if (maxAmount >= 0 && stripe.totalAmounts[slot] + amount > maxAmount) {
+                return AMOUNT_EXCEEDED;
+            }
+            stripe.add(slot, stripe.lastBuckets[slot], 1, amount);
+            return ACCEPTED;
+        }
+    }
+
+    /**
+     * Records an event that happened at the given time, ignoring it if it is already outside the window.
+     *
+     * @param key             The key.
+     * @param amount          The amount of the event.
+     * @param timestampMillis Time of the event in epoch milliseconds.
+     */
+    public void record(String key, long amount, long timestampMillis) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            long bucket = timestampMillis / bucketMillis;
+            int slot = stripe.slot(key, bucket);
+            if (bucket > stripe.lastBuckets[slot] - buckets) {
+                stripe.add(slot, bucket, 1, amount);
+            }
+        }
+    }
+
+    /**
+     * Removes an event previously recorded with {@link #tryRecord}, e.g. because the operation then failed. The event
+     * is taken out of the bucket it was recorded in, and ignored if it is already outside the window.
+     *
+     * @param key             The key.
+     * @param amount          The amount of the event.
+     * @param timestampMillis Time the event was recorded at, in epoch milliseconds.
+     */
+    public void remove(String key, long amount, long timestampMillis) {
+        subtract(key, 1, amount, timestampMillis);
+    }
+
+    /**
+     * Takes part of the amount of an event previously recorded with {@link #tryRecord}, which stays counted, out of
+     * the bucket it was recorded in; ignored if the event is already outside the window.
+     *
+     * @param key             The key.
+     * @param amount          The amount to take out.
+     * @param timestampMillis Time the event was recorded at, in epoch milliseconds.
+     */
+    public void removeAmount(String key, long amount, long timestampMillis) {
+        subtract(key, 0, amount, timestampMillis);
+    }
+
+    /**
+     * @return The number of events of the key in the window ending now.
+     */
+    public long count(String key, long nowMillis) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.totalCounts[stripe.slot(key, nowMillis / bucketMillis)];
+        }
+    }
+
+    /**
+     * @return The summed amount of the events of the key in the window ending now.
+     */
+    public long amount(String key, long nowMillis) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.totalAmounts[stripe.slot(key, nowMillis / bucketMillis)];
+        }
+    }
+
+    private void subtract(String key, long count, long amount, long timestampMillis) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            long bucket = timestampMillis / bucketMillis;
+            int slot = stripe.slot(key, bucket);
+            if (bucket > stripe.lastBuckets[slot] - buckets) {
+                stripe.add(slot, bucket, -count, -amount);
+            }
+        }
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+        private String[] keys = new String[INITIAL_CAPACITY];
+        private long[] lastBuckets = new long[INITIAL_CAPACITY]; // Bucket más reciente de cada clave
+        private long[] totalCounts = new long[INITIAL_CAPACITY]; // Totales de la ventana de cada clave
+        private long[] totalAmounts = new long[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY * buckets]; // Buckets de la clave i en [i * buckets, (i + 1) * buckets)
+        private long[] amounts = new long[INITIAL_CAPACITY * buckets];
+        private int size;
+
+        /**
+         * Finds (or inserts) the key and slides its window up to {@code bucket}.
+         */
+        private int slot(String key, long bucket) {
+            int slot = find(key);
+            if (slot < 0) {
+                if ((size + 1) * 2 > keys.length) {
+                    rebuild(bucket);
+                }
+                slot = find(key);
+                slot = -slot - 1;
+                keys[slot] = key;
+                lastBuckets[slot] = bucket;
+                size++;
+            }
+            advance(slot, bucket);
+            return slot;
+        }
+
+        /**
+         * @return The slot of the key, or {@code -(insertion point) - 1} when it is not present.
+         */
+        private int find(String key) {
+            int mask = keys.length - 1;
+            int hash = key.hashCode();
+            int index = (hash ^ (hash >>> 16)) * 0x9E3779B9 & mask;
+            while (keys[index] != null) {
+                if (keys[index].equals(key)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -index - 1;
+        }
+
+        private void advance(int slot, long bucket) {
+            long last = lastBuckets[slot];
+            if (bucket <= last) {
+                return;
+            }
+            long expired = Math.min(bucket - last, buckets);
+            for (long b = last + 1; b <= last + expired; b++) {
+                int cell = slot * buckets + (int) (b % buckets);
+                totalCounts[slot] -= counts[cell];
+                totalAmounts[slot] -= amounts[cell];
+                counts[cell] = 0;
+                amounts[cell] = 0;
+            }
+            lastBuckets[slot] = bucket;
+        }
+
+        private void add(int slot, long bucket, long count, long amount) {
+            int cell = slot * buckets + (int) (bucket % buckets);
+            // Al retirar un evento los buckets nunca quedan negativos (puede haber salido ya de la ventana)
+            long countDelta = Math.max(count, -counts[cell]);
+            long amountDelta = Math.max(amount, -amounts[cell]);
+            counts[cell] += countDelta;
+            amounts[cell] += amountDelta;
+            totalCounts[slot] += countDelta;
+            totalAmounts[slot] += amountDelta;
+        }
+
+        /**
+         * Drops the keys without events in the window and, if still needed, doubles the capacity.
+         */
+        private void rebuild(long bucket) {
+            String[] oldKeys = keys;
+            long[] oldLastBuckets = lastBuckets;
+            long[] oldTotalCounts = totalCounts;
+            long[] oldTotalAmounts = totalAmounts;
+            long[] oldCounts = counts;
+            long[] oldAmounts = amounts;
+            int live = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null && oldLastBuckets[i] > bucket - buckets) {
+                    live++;
+                }
+            }
+            int capacity = oldKeys.length;
+            while ((live + 1) * 4 > capacity) {
+                capacity <<= 1;
+            }
+            keys = new String[capacity];
+            lastBuckets = new long[capacity];
+            totalCounts = new long[capacity];
+            totalAmounts = new long[capacity];
+            counts = new long[capacity * buckets];
+            amounts = new long[capacity * buckets];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null || oldLastBuckets[i] <= bucket - buckets) {
+                    continue;
+                }
+                int slot = -find(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                lastBuckets[slot] = oldLastBuckets[i];
+                totalCounts[slot] = oldTotalCounts[i];
+                totalAmounts[slot] = oldTotalAmounts[i];
+                System.arraycopy(oldCounts, i * buckets, counts, slot * buckets, buckets);
+                System.arraycopy(oldAmounts, i * buckets, amounts, slot * buckets, buckets);
+                size++;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.transactionmicroservice.mapper;
+
+import com.example.transactionmicroservice.dto.MultiTransferRequestDto;
+import com.example.transactionmicroservice.dto.MultiTransferResponseDto;
+import com.example.transactionmicroservice.model.MultiTransfer;
+import com.example.transactionmicroservice.model.TransferLeg;
+
+import java.util.List;
+
+public class MultiTransferMapper {
+
+    public static List<TransferLeg> toLegs(MultiTransferRequestDto requestDto) {
+        if (requestDto.getLegs() == null) {
+            return null;
+        }
+        // Los tramos nulos se conservan para que el servicio los rechace con su código de error
+        return requestDto.getLegs().stream()
+                .map(leg -> leg == null ? null : TransferLeg.builder()
+                        .destinationAccountId(leg.getDestinationAccountId())
+                        .amount(leg.getAmount())
+                        .build())
+                .toList();
+    }
+
+    public static MultiTransferResponseDto toResponseDto(MultiTransfer multiTransfer) {
+        return MultiTransferResponseDto.builder()
+                .transaction(TransactionMapper.toResponseDto(multiTransfer.getTransaction()))
+                .legs(multiTransfer.getLegs().stream().map(TransactionMapper::toResponseDto).toList())
+                .failedLegs(multiTransfer.getFailedLegs().stream()
+                        .map(leg -> MultiTransferResponseDto.FailedLeg.builder()
+                                .destinationAccountId(leg.getLeg().getDestinationAccountId())
+                                .amount(leg.getLeg().getAmount())
+                                .status(leg.getStatus().name())
+                                .error(leg.getError())
+                                .build())
+                        .toList())
+                .refundedAmount(multiTransfer.getRefundedAmount())
+                .build();
+    }
+}
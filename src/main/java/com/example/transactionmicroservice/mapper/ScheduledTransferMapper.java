@@ -0,0 +1,22 @@
+package com.example.transactionmicroservice.mapper;
+
+import com.example.transactionmicroservice.dto.ScheduledTransferResponseDto;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+
+public class ScheduledTransferMapper {
+
+    public static ScheduledTransferResponseDto toResponseDto(ScheduledTransfer scheduledTransfer) {
+        return ScheduledTransferResponseDto.builder()
+                .id(scheduledTransfer.getId())
+                .sourceAccountId(scheduledTransfer.getSourceAccountId())
+                .destinationAccountId(scheduledTransfer.getDestinationAccountId())
+                .amount(scheduledTransfer.getAmount())
+                .cronExpression(scheduledTransfer.getCronExpression())
+                .status(scheduledTransfer.getStatus().name())
+                .nextExecution(scheduledTransfer.getNextExecution())
+                .lastExecution(scheduledTransfer.getLastExecution())
+                .lastTransactionId(scheduledTransfer.getLastTransactionId())
+                .lastError(scheduledTransfer.getLastError())
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.transactionmicroservice.mapper;
+
+import com.example.transactionmicroservice.dto.TransactionResponseDto;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link Transaction} as the JSON of its {@link TransactionResponseDto}, straight from the entity.
+ * <p>
+ * History responses stream thousands of rows; mapping each one to a DTO first and serializing that through bean
+ * introspection costs an extra object and the property lookups per row. This serializer produces the same document
+ * (same properties, order and {@code null} handling as {@link TransactionMapper#toResponseDto}) with pre-encoded
+ * property names and cached type names. Dates use the {@link LocalDateTime} serializer of the configured mapper,
+ * resolved once per mapper; when that is the default ISO-8601 one they are written from a small char buffer instead
+ * of going through {@code DateTimeFormatter}. Registered with the application's {@code ObjectMapper}, and so with the
+ * WebFlux JSON encoder, as a {@link JsonComponent}.
+ * <p>
+ * Immutable: the registered instance is shared by every mapper, so the resolved date serializer lives in the
+ * instance returned by {@link #createContextual}, which Jackson caches.
+ */
+@JsonComponent
+public class TransactionJsonSerializer extends StdSerializer<Transaction> implements ContextualSerializer {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString DATE = new SerializedString("date");
+    private static final SerializedString SOURCE_ACCOUNT_ID = new SerializedString("sourceAccountId");
+    private static final SerializedString DESTINATION_ACCOUNT_ID = new SerializedString("destinationAccountId");
+    private static final SerializedString ACCOUNT_ID = new SerializedString("accountId");
+    private static final SerializedString CURRENCY = new SerializedString("currency");
+    private static final SerializedString DESTINATION_CURRENCY = new SerializedString("destinationCurrency");
+    private static final SerializedString DESTINATION_AMOUNT = new SerializedString("destinationAmount");
+    private static final SerializedString EXCHANGE_RATE = new SerializedString("exchangeRate");
+    private static final SerializedString PARENT_TRANSACTION_ID = new SerializedString("parentTransactionId");
+    private static final SerializedString[] TYPE_NAMES = typeNames();
+    private static final int ISO_MAX_LENGTH = 32; // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn (+ años de hasta 10 cifras y signo)
+
+    private final transient JsonSerializer<Object> dateSerializer; // null en la instancia sin contextualizar
+    private final boolean isoDates; // Serializador de fechas por defecto: se escribe a mano en ISO-8601
+
+    public TransactionJsonSerializer() {
+        this(null, false);
+    }
+
+    private TransactionJsonSerializer(JsonSerializer<Object> dateSerializer, boolean isoDates) {
+        super(Transaction.class);
+        this.dateSerializer = dateSerializer;
+        this.isoDates = isoDates;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        JsonSerializer<Object> resolved = provider.findPrimaryPropertySerializer(LocalDateTime.class, null);
+        return new TransactionJsonSerializer(resolved, writesIso(resolved, provider));
+    }
+
+    @Override
+    public void serialize(Transaction transaction, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(transaction);
+        writeString(generator, ID, transaction.getId());
+        generator.writeFieldName(TYPE);
+        if (transaction.getType() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(TYPE_NAMES[transaction.getType().ordinal()]);
+        }
+        writeNumber(generator, AMOUNT, transaction.getAmount());
+        generator.writeFieldName(DATE);
+        if (transaction.getDate() == null) {
+            generator.writeNull();
+        } else if (isoDates && !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            char[] buffer = new char[ISO_MAX_LENGTH];
+            generator.writeString(buffer, 0, writeIso(transaction.getDate(), buffer));
+        } else {
+            dateSerializer(provider).serialize(transaction.getDate(), generator, provider);
+        }
+        writeString(generator, SOURCE_ACCOUNT_ID, transaction.getSourceAccountId());
+        writeString(generator, DESTINATION_ACCOUNT_ID, transaction.getDestinationAccountId());
+        // Igual que TransactionMapper: accountId solo en depósitos y retiros
+        writeString(generator, ACCOUNT_ID,
+                transaction.getDestinationAccountId() == null ? transaction.getSourceAccountId() : null);
+        writeString(generator, CURRENCY, transaction.getCurrency());
+        writeString(generator, DESTINATION_CURRENCY, transaction.getDestinationCurrency());
+        writeNumber(generator, DESTINATION_AMOUNT, transaction.getDestinationAmount());
+        writeNumber(generator, EXCHANGE_RATE, transaction.getExchangeRate());
+        writeString(generator, PARENT_TRANSACTION_ID, transaction.getParentTransactionId());
+        generator.writeEndObject();
+    }
+
+    private JsonSerializer<Object> dateSerializer(SerializerProvider provider) throws JsonMappingException {
+        // Sin contextualizar (p. ej. serializador usado directamente) se busca en el provider
+        return dateSerializer != null ? dateSerializer : provider.findPrimaryPropertySerializer(LocalDateTime.class, null);
+    }
+
+    /**
+     * Checks whether the configured date serializer writes plain ISO-8601 strings, by serializing a sample date.
+     */
+    private static boolean writesIso(JsonSerializer<Object> serializer, SerializerProvider provider) {
+        LocalDateTime sample = LocalDateTime.of(2001, 2, 3, 4, 5, 6, 700_000_000);
+        try (TokenBuffer buffer = new TokenBuffer(null, false)) {
+            serializer.serialize(sample, buffer, provider);
+            JsonParser parser = buffer.asParser();
+            return parser.nextToken() == JsonToken.VALUE_STRING
+                    && DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(sample).equals(parser.getText());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a date as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} does: seconds always present,
+     * fraction only when non-zero and without trailing zeros.
+     */
+    static int writeIso(LocalDateTime date, char[] buffer) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            // Años de más de 4 cifras o negativos: caso excepcional
+            String formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date);
+            formatted.getChars(0, formatted.length(), buffer, 0);
+            return formatted.length();
+        }
+        int position = digits(buffer, 0, year, 4);
+        buffer[position++] = '-';
+        position = digits(buffer, position, date.getMonthValue(), 2);
+        buffer[position++] = '-';
+        position = digits(buffer, position, date.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        position = digits(buffer, position, date.getHour(), 2);
+        buffer[position++] = ':';
+        position = digits(buffer, position, date.getMinute(), 2);
+        buffer[position++] = ':';
+        position = digits(buffer, position, date.getSecond(), 2);
+        int nano = date.getNano();
+        if (nano > 0) {
+            buffer[position++] = '.';
+            int length = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                length--;
+            }
+            position = digits(buffer, position, nano, length);
+        }
+        return position;
+    }
+
+    private static int digits(char[] buffer, int position, int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + width;
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializedString name, Double value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static SerializedString[] typeNames() {
+        TransactionType[] types = TransactionType.values();
+        SerializedString[] names = new SerializedString[types.length];
+        for (TransactionType type : types) {
+            names[type.ordinal()] = new SerializedString(type.name());
+        }
+        return names;
+    }
+}
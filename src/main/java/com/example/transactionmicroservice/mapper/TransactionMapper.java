@@ -25,6 +25,11 @@ public class TransactionMapper {
                 .sourceAccountId(transaction.getSourceAccountId())
                 .destinationAccountId(transaction.getDestinationAccountId())
                 .accountId(transaction.getDestinationAccountId() == null ? transaction.getSourceAccountId() : null)
+                .currency(transaction.getCurrency())
+                .destinationCurrency(transaction.getDestinationCurrency())
+                .destinationAmount(transaction.getDestinationAmount())
+                .exchangeRate(transaction.getExchangeRate())
+                .parentTransactionId(transaction.getParentTransactionId())
                 .build();
     }
 }
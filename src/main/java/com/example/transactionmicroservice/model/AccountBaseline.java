@@ -0,0 +1,28 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Difference between the balance of an account and its net movement in the ledger, recorded the first time the
+ * account is reconciled: the opening balance and any movement that predates the ledger. Later runs expect
+ * {@code ledger + offset}; deleting the baseline of an account accepts its current balance again.
+ */
+@Getter
+@Setter
+@Builder
+@Document(collection = "reconciliation_baselines")
+public class AccountBaseline {
+
+    @Id
+    private String accountId; // Account reconciled
+    private BigDecimal offset; // actual balance - ledger balance when the baseline was taken
+    private String runId; // Run that took the baseline
+    private LocalDateTime establishedAt; // Date of the baseline
+}
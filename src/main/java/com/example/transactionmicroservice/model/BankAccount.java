@@ -15,4 +15,5 @@ public class BankAccount {
     private BigDecimal balance;
     private AccountType accountType;
     private Long customerId;
+    private String currency; // ISO 4217 code; accounts without one use transactions.fx.default-currency
 }
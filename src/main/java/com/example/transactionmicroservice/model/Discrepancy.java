@@ -0,0 +1,36 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An account whose balance in the bank-accounts service does not match the ledger. The id is
+ * {@code runId:accountId}, so a resumed run overwrites instead of duplicating its entries.
+ */
+@Getter
+@Setter
+@Builder
+@Document(collection = "reconciliation_discrepancies")
+public class Discrepancy {
+
+    @Id
+    private String id; // runId:accountId
+    @Indexed
+    private String runId; // Run that found the discrepancy
+    private String accountId; // Account reconciled
+    private DiscrepancyReason reason; // Kind of discrepancy
+    private BigDecimal ledgerBalance; // Net movement of the account according to the transactions
+    private BigDecimal expectedBalance; // Ledger balance plus the baseline of the account
+    private BigDecimal actualBalance; // Balance reported by the bank-accounts service (null if not found)
+    private BigDecimal difference; // actualBalance - expectedBalance
+    private List<String> pendingMutationIds; // Interrupted mutations of the account awaiting review, which may explain it
+    private LocalDateTime detectedAt; // Detection date
+}
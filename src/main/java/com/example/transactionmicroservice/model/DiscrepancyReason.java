@@ -0,0 +1,6 @@
+package com.example.transactionmicroservice.model;
+
+public enum DiscrepancyReason {
+    BALANCE_MISMATCH, // El saldo real no coincide con el calculado a partir de las transacciones
+    ACCOUNT_NOT_FOUND // Hay transacciones de una cuenta que el microservicio de cuentas no conoce
+}
@@ -0,0 +1,16 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Conversion applied to the amount of a transfer between accounts in different currencies.
+ */
+@Getter
+@Builder
+public class FxConversion {
+    private final String sourceCurrency; // Moneda de la cuenta origen (la del importe debitado)
+    private final String destinationCurrency; // Moneda de la cuenta destino
+    private final double rate; // Tipo de cambio aplicado
+    private final Double destinationAmount; // Importe acreditado en la cuenta destino
+}
@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Outcome of one leg of a multi-leg transfer.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class LegResult {
+    private final TransferLeg leg; // Tramo solicitado
+    private final FxConversion conversion; // Conversión aplicada al abono
+    @Builder.Default
+    private final LegStatus status = LegStatus.PENDING; // Estado del abono
+    private final String error; // Motivo del fallo del abono (null si se acreditó)
+
+    public boolean isCredited() {
+        return status == LegStatus.CREDITED;
+    }
+}
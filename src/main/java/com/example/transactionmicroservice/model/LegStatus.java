@@ -0,0 +1,8 @@
+package com.example.transactionmicroservice.model;
+
+public enum LegStatus {
+    PENDING, // Abono todavía sin respuesta
+    CREDITED, // Abono confirmado por el microservicio de cuentas
+    REJECTED, // Abono rechazado (4xx o cuenta inexistente): no se aplicó y se devuelve al origen
+    UNKNOWN // Timeout, error de conexión o 5xx: pudo aplicarse, no se devuelve y queda para revisión
+}
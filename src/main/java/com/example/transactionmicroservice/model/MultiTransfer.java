@@ -0,0 +1,20 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A recorded multi-leg transfer: the parent {@link TransactionType#MULTI_TRANSFER} transaction with the debit, the
+ * child transfers that were credited and the legs that failed: rejected ones are refunded, the ones with an unknown
+ * outcome are left for review.
+ */
+@Getter
+@Builder
+public class MultiTransfer {
+    private final Transaction transaction; // Transacción padre (débito neto del origen)
+    private final List<Transaction> legs; // Transferencias hijas acreditadas
+    private final List<LegResult> failedLegs; // Tramos no acreditados (rechazados o con resultado desconocido)
+    private final double refundedAmount; // Importe devuelto al origen
+}
@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a multi-leg transfer in the Bank Account Microservice: the single debit of the source, the credits
+ * of every leg and the refund of the legs that were rejected.
+ */
+@Getter
+@Builder
+public class MultiTransferResult {
+    private final BankAccount sourceAccount; // Cuenta origen antes del débito
+    private final String sourceCurrency; // Moneda del importe debitado
+    private final double debitedAmount; // Importe total debitado del origen
+    private final List<LegResult> legs; // Resultado de cada tramo, en el orden de la petición
+    private final double refundedAmount; // Importe devuelto al origen por los tramos rechazados
+    private final String refundError; // Motivo por el que la devolución falló (null si se devolvió o no hizo falta)
+}
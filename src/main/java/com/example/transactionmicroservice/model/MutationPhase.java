@@ -0,0 +1,22 @@
+package com.example.transactionmicroservice.model;
+
+/**
+ * Progress of a mutation through its remote calls. The phase an interrupted mutation was in decides what happens
+ * to it: nothing happened yet, it can be resumed, or its outcome is unknown and it needs review.
+ */
+public enum MutationPhase {
+    ADMITTED, // Validaciones y lecturas: todavía no se ha movido dinero
+    DEBITING, // Retiro enviado al microservicio de cuentas, resultado desconocido
+    DEBITED, // Retiro confirmado, falta el depósito en la cuenta destino (solo transferencias)
+    CREDITING, // Depósito enviado al microservicio de cuentas, resultado desconocido
+    APPLIED, // Saldos actualizados, falta construir la transacción
+    RECORDING, // Guardando la transacción (idempotente: su id se asigna antes de guardar)
+    RECORDED; // Terminada
+
+    /**
+     * @return Whether a node can finish the mutation from this phase without knowing the result of a remote call.
+     */
+    public boolean isResumable() {
+        return this == DEBITED || this == RECORDING;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Journal entry of a mutation interrupted by a shutdown, with what is needed to finish it.
+ * <p>
+ * {@link PendingMutationStatus#RESUMABLE} entries are completed by the next node that starts;
+ * {@link PendingMutationStatus#NEEDS_REVIEW} entries were cut during a remote call and must be checked against the
+ * bank-accounts service (the reconciliation reports them as discrepancies if the money moved).
+ */
+@Getter
+@Setter
+@Builder
+@Document(collection = "pending_mutations")
+public class PendingMutation {
+
+    @Id
+    private String id; // Identifier of the interrupted mutation
+    private TransactionType type; // Type of the mutation
+    private String sourceAccountId; // Account debited (WITHDRAWAL, TRANSFER)
+    private String destinationAccountId; // Account credited (DEPOSIT, TRANSFER)
+    private Double amount; // Amount requested
+    private MutationPhase phase; // Phase reached when it was interrupted
+    private String sourceCurrency; // Currency of the transfer amount
+    private String destinationCurrency; // Currency credited to the destination
+    private Double exchangeRate; // Rate applied to the transfer
+    private Double destinationAmount; // Amount still to be credited (phase DEBITED)
+    private Transaction transaction; // Transaction still to be saved (phase RECORDING)
+    private List<LegResult> legs; // Legs of a MULTI_TRANSFER with the outcome of each credit
+    private PendingMutationStatus status; // Resumption status
+    private String node; // Node resuming it
+    private String lastError; // Error of a failed resumption
+    private LocalDateTime interruptedAt; // Date of the shutdown
+}
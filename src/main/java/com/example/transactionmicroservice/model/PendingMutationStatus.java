@@ -0,0 +1,7 @@
+package com.example.transactionmicroservice.model;
+
+public enum PendingMutationStatus {
+    RESUMABLE, // Puede completarse sin ambigüedad al arrancar un nodo
+    RESUMING, // Un nodo la está completando (si se queda aquí, requiere revisión manual)
+    NEEDS_REVIEW // Se cortó durante una llamada remota o falló al retomarse: el resultado es desconocido
+}
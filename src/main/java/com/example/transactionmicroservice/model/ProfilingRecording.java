@@ -0,0 +1,19 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A JFR recording started through the diagnostics endpoint.
+ */
+@Getter
+@Builder
+public class ProfilingRecording {
+    private final String id; // Identificador de la grabación
+    private final String state; // NEW, RUNNING, STOPPED o CLOSED (jdk.jfr.RecordingState)
+    private final LocalDateTime startedAt; // Inicio de la grabación
+    private final long durationSeconds; // Duración solicitada
+    private final long sizeBytes; // Tamaño del fichero .jfr (0 mientras graba)
+}
@@ -0,0 +1,68 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Summary of a JFR recording: latency, allocations and GC pauses per request class, allocation hot spots and
+ * the pauses of each collector.
+ * <p>
+ * Allocation samples and GC pauses are attributed to the request classes in flight when they happened, in
+ * proportion to the number of requests of each class; what happened with no request in flight is reported as
+ * unattributed.
+ */
+@Getter
+@Builder
+public class ProfilingSummary {
+    private final String recordingId; // Grabación resumida
+    private final long durationMillis; // Tiempo cubierto por los eventos de la grabación
+    private final List<RequestClass> requestClasses; // Por endpoint y tipo de transacción, más asignación primero
+    private final List<HotSpot> allocationHotSpots; // Puntos con más bytes asignados
+    private final List<Collector> garbageCollectors; // Pausas por colector
+    private final long sampledBytes; // Bytes representados por las muestras de asignación
+    private final long unattributedBytes; // Bytes asignados sin peticiones en curso
+    private final double unattributedGcPauseMillis; // Pausas sin peticiones en curso
+
+    /**
+     * Requests of one endpoint and transaction type.
+     */
+    @Getter
+    @Builder
+    public static class RequestClass {
+        private final String endpoint; // p. ej. POST /api/transactions/transfer
+        private final String transactionType; // null en las lecturas
+        private final long requests; // Peticiones completadas durante la grabación
+        private final long errors; // Peticiones terminadas con error
+        private final double p50Millis; // Latencia mediana
+        private final double p99Millis; // Latencia del percentil 99
+        private final long allocatedBytes; // Bytes atribuidos a la clase
+        private final long allocatedBytesPerRequest; // Bytes atribuidos por petición
+        private final double gcPauseMillis; // Pausas de GC atribuidas a la clase
+    }
+
+    /**
+     * Allocation site: the allocated type and the first frame of the application on the stack.
+     */
+    @Getter
+    @Builder
+    public static class HotSpot {
+        private final String objectClass; // Tipo asignado
+        private final String frame; // Primer frame de la aplicación (o el superior si no hay ninguno)
+        private final long bytes; // Bytes representados por las muestras
+        private final double percent; // Porcentaje sobre el total muestreado
+    }
+
+    /**
+     * Pauses of one garbage collector.
+     */
+    @Getter
+    @Builder
+    public static class Collector {
+        private final String name; // p. ej. G1New, G1Old, ZGC Minor
+        private final long collections; // Número de recolecciones
+        private final double totalPauseMillis; // Suma de las pausas
+        private final double longestPauseMillis; // Pausa más larga
+    }
+}
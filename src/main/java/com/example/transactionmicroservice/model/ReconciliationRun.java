@@ -0,0 +1,39 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a reconciliation of the ledger against the bank-accounts service.
+ * <p>
+ * Accounts are reconciled in ascending id order and {@code checkpoint} holds the last account whose result was
+ * recorded, so a run interrupted by a crash resumes after it. {@code active} is only set while the run is
+ * {@link ReconciliationStatus#RUNNING}; its unique index guarantees a single active run in the cluster.
+ */
+@Getter
+@Setter
+@Builder
+@Document(collection = "reconciliation_runs")
+public class ReconciliationRun {
+
+    @Id
+    private String id; // Unique identifier of the run
+    private ReconciliationStatus status; // Lifecycle status
+    @Indexed(unique = true, sparse = true)
+    private Boolean active; // true while running, absent otherwise
+    private String owner; // Token of the execution that owns the run
+    private String checkpoint; // Last account reconciled (accounts are processed in ascending order)
+    private long accountsChecked; // Accounts whose balance matched or was baselined
+    private long discrepancies; // Accounts reported in the discrepancy report
+    private long failures; // Accounts that could not be checked (lookup errors)
+    private LocalDateTime startedAt; // Start date
+    private LocalDateTime updatedAt; // Last checkpoint or heartbeat of the owner
+    private LocalDateTime finishedAt; // End date
+    private String error; // Cause of a FAILED run
+}
@@ -0,0 +1,7 @@
+package com.example.transactionmicroservice.model;
+
+public enum ReconciliationStatus {
+    RUNNING, // En curso (o abandonada por un nodo caído hasta que otro la retome)
+    COMPLETED, // Todas las cuentas revisadas
+    FAILED // Interrumpida por un error no recuperable
+}
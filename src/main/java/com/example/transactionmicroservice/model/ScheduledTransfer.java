@@ -0,0 +1,41 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Definition of a one-off or recurring (standing order) transfer.
+ * <p>
+ * Each occurrence is identified by its {@code nextExecution}. A node claims an occurrence by taking a lease
+ * ({@code leaseOwner}/{@code leaseUntil}) and recording it in {@code executingOccurrence}, so every occurrence fires
+ * at most once across the cluster.
+ */
+@Getter
+@Setter
+@Builder
+@Document(collection = "scheduled_transfers")
+@CompoundIndex(name = "status_next_execution", def = "{'status': 1, 'nextExecution': 1}")
+public class ScheduledTransfer {
+
+    @Id
+    private String id; // Unique identifier of the scheduled transfer
+    private String sourceAccountId; // Account debited on each occurrence
+    private String destinationAccountId; // Account credited on each occurrence
+    private Double amount; // Amount transferred on each occurrence
+    private String cronExpression; // Recurrence (Spring cron format); null for a one-off transfer
+    private ScheduledTransferStatus status; // Lifecycle status
+    private LocalDateTime nextExecution; // Date and time of the next occurrence
+    private LocalDateTime executingOccurrence; // Occurrence claimed by a node and not yet finished
+    private String leaseOwner; // Node holding the lease on the current occurrence
+    private LocalDateTime leaseUntil; // Expiration of the lease
+    private LocalDateTime lastExecution; // Date and time of the last executed occurrence
+    private String lastTransactionId; // Transaction created by the last occurrence
+    private String lastError; // Error of the last failed occurrence
+    private LocalDateTime createdAt; // Creation date
+}
@@ -0,0 +1,8 @@
+package com.example.transactionmicroservice.model;
+
+public enum ScheduledTransferStatus {
+    ACTIVE, // Tiene ocurrencias pendientes
+    COMPLETED, // Transferencia única ya ejecutada
+    CANCELLED, // Cancelada por el cliente
+    NEEDS_REVIEW // Una ejecución quedó en estado desconocido y no se reintenta automáticamente
+}
@@ -4,15 +4,27 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import org.bson.codecs.pojo.annotations.BsonId;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 @Getter
 @Setter
 @Builder
 @Document(collection = "transactions")
+@CompoundIndexes({
+        // Cada consulta del repositorio se resuelve con un IXSCAN ya ordenado por fecha (sin SORT en memoria)
+        @CompoundIndex(name = "date_desc", def = "{'date': -1}"),
+        @CompoundIndex(name = "source_date", def = "{'sourceAccountId': 1, 'date': -1}"),
+        @CompoundIndex(name = "destination_date", def = "{'destinationAccountId': 1, 'date': -1}"),
+        // Historial de una cuenta con un solo IXSCAN (multikey) en lugar del $or sobre origen y destino
+        @CompoundIndex(name = "participants_date", def = "{'participants': 1, 'date': -1}"),
+        @CompoundIndex(name = "type_date", def = "{'type': 1, 'date': -1}")
+})
 public class Transaction {
 
     @BsonId
@@ -22,4 +34,20 @@ public class Transaction {
     private LocalDateTime date; // Date and time of the transaction
     private String sourceAccountId; // Originating account ID (optional for DEPOSIT)
     private String destinationAccountId; // Destination account ID (only for TRANSFER)
+    private String currency; // Currency of the amount (ISO 4217, currency of the source account for TRANSFER)
+    private String destinationCurrency; // Currency credited to the destination account (only for TRANSFER)
+    private Double destinationAmount; // Amount credited to the destination account (only for TRANSFER)
+    private Double exchangeRate; // Rate applied from currency to destinationCurrency (only for TRANSFER)
+    private String parentTransactionId; // MULTI_TRANSFER this transfer is a leg of (its debit is on the parent)
+    private List<String> participants; // Source and destination account IDs (denormalized for participants_date)
+
+    /**
+     * Lists the accounts involved in a transaction, as stored in {@code participants}.
+     */
+    public static List<String> participantsOf(String sourceAccountId, String destinationAccountId) {
+        if (sourceAccountId == null) {
+            return destinationAccountId == null ? List.of() : List.of(destinationAccountId);
+        }
+        return destinationAccountId == null ? List.of(sourceAccountId) : List.of(sourceAccountId, destinationAccountId);
+    }
 }
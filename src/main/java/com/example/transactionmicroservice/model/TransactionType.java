@@ -3,5 +3,6 @@ package com.example.transactionmicroservice.model;
 public enum TransactionType {
     DEPOSIT,
     WITHDRAWAL,
-    TRANSFER
+    TRANSFER,
+    MULTI_TRANSFER // Débito único de una transferencia a varios destinos; los abonos son transferencias hijas
 }
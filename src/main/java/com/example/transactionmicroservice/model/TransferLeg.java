@@ -0,0 +1,14 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One credit of a multi-leg transfer: an amount, in the currency of the source account, sent to a destination.
+ */
+@Getter
+@Builder
+public class TransferLeg {
+    private final String destinationAccountId; // Cuenta que recibe el abono
+    private final Double amount; // Importe debitado del origen para este destino
+}
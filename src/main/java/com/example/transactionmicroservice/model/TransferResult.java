@@ -0,0 +1,15 @@
+package com.example.transactionmicroservice.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Outcome of a transfer in the Bank Account Microservice.
+ */
+@Getter
+@Builder
+public class TransferResult {
+    private final BankAccount sourceAccount; // Cuenta origen tras el retiro
+    private final BankAccount destinationAccount; // Cuenta destino tras el depósito
+    private final FxConversion conversion; // Conversión aplicada (tipo 1 si ambas cuentas comparten moneda)
+}
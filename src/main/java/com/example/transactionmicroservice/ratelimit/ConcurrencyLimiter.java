@@ -0,0 +1,147 @@
+package com.example.transactionmicroservice.ratelimit;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking concurrency limiter with a bounded waiting queue.
+ * <p>
+ * Callers that find no free permit wait in a FIFO queue for at most {@code maxQueueTime}; when the queue is full or
+ * the wait expires the request is shed with {@link RateLimitExceededException}. Waiting never blocks a thread:
+ * each waiter is a {@link Sinks.One} that is completed when a permit is handed over.
+ * <p>
+ * The limit can be changed while permits are held ({@link #setMaxConcurrent(int)}), e.g. by an adaptive limit;
+ * lowering it does not revoke permits, it only delays new grants until enough are released.
+ */
+public class ConcurrencyLimiter {
+
+    private volatile int maxConcurrent;
+    private final int maxQueueSize;
+    private final Duration maxQueueTime;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Sinks.One<Boolean>> waiters = new ConcurrentLinkedQueue<>();
+
+    public ConcurrencyLimiter(int maxConcurrent, int maxQueueSize, Duration maxQueueTime) {
+        if (maxConcurrent <= 0 || maxQueueSize < 0) {
+            throw new IllegalArgumentException("Invalid concurrency limits");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueTime = maxQueueTime;
+    }
+
+    /**
+     * Acquires a permit, waiting in the queue if needed. Every successful acquisition must be paired with
+     * a call to {@link #release()}.
+     *
+     * @return A Mono that completes when the permit is granted, or fails with RateLimitExceededException.
+     */
+    public Mono<Void> acquire() {
+        return acquire(true);
+    }
+
+    /**
+     * Acquires a permit. When {@code shed} is false the caller waits in the queue as long as needed, ignoring the
+     * queue bounds: for calls that must not fail once the operation they belong to is under way.
+     *
+     * @param shed Whether the request may be rejected when the queue is full or the wait expires.
+     * @return A Mono that completes when the permit is granted, or fails with RateLimitExceededException.
+     */
+    public Mono<Void> acquire(boolean shed) {
+        return Mono.defer(() -> {
+            if (tryAcquire()) {
+                return Mono.empty();
+            }
+            if (queued.incrementAndGet() > maxQueueSize && shed) {
+                queued.decrementAndGet();
+                return Mono.error(overloaded());
+            }
+            Sinks.One<Boolean> waiter = Sinks.one();
+            waiters.offer(waiter);
+            drain(); // Un permiso pudo liberarse entre tryAcquire y offer
+            Mono<Boolean> granted = shed
+                    ? waiter.asMono().timeout(maxQueueTime, Mono.defer(() -> abandon(waiter, true)))
+                    : waiter.asMono();
+            return granted
+                    .doOnCancel(() -> abandon(waiter, false).subscribe(permit -> release()))
+                    .then();
+        });
+    }
+
+    /**
+     * Returns a permit and hands it to the oldest waiter, if any.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Changes the number of permits; waiters are granted the new ones immediately.
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Invalid concurrency limits");
+        }
+        this.maxConcurrent = maxConcurrent;
+        drain();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Sinks.One<Boolean> waiter = waiters.poll();
+            if (waiter != null && waiter.tryEmitValue(Boolean.TRUE).isSuccess()) {
+                queued.decrementAndGet();
+            } else {
+                inFlight.decrementAndGet(); // El waiter ya había abandonado la cola
+            }
+        }
+    }
+
+    /**
+     * Removes a waiter from the queue. If the permit was handed over concurrently the waiter keeps it.
+     */
+    private Mono<Boolean> abandon(Sinks.One<Boolean> waiter, boolean timedOut) {
+        if (waiter.tryEmitValue(Boolean.FALSE).isSuccess()) {
+            queued.decrementAndGet();
+            waiters.remove(waiter);
+            return timedOut ? Mono.error(overloaded()) : Mono.empty();
+        }
+        return Mono.just(Boolean.TRUE);
+    }
+
+    private RateLimitExceededException overloaded() {
+        return new RateLimitExceededException("Server is overloaded, try again later", maxQueueTime.toNanos());
+    }
+}
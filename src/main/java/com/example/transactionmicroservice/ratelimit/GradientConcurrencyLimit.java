@@ -0,0 +1,156 @@
+package com.example.transactionmicroservice.ratelimit;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to the latency of a downstream service (gradient controller).
+ * <p>
+ * Every {@code sampleWindow} the limit compares the percentile of the window ({@code sampleRtt}) with the no-load
+ * round-trip time ({@code minRtt}): {@code limit = limit * gradient}, where {@code gradient = minRtt * (1 + rttTolerance)
+ * / sampleRtt} clamped to {@code [0.5, 2]}, plus {@code sqrt(limit)} when the gradient is at least 1. While latency
+ * stays within the tolerance the limit grows; past the latency knee it shrinks until queueing in the downstream
+ * service stops, so the limit settles just above the concurrency the service can absorb.
+ * <p>
+ * {@code minRtt} is measured without lowering the limit on purpose:
+ * <ul>
+ *     <li>Calls started with at most {@code minLimit} calls in flight are low-load samples. The percentile of every
+ *     {@code minRttSamples} of them replaces {@code minRtt}, so it follows the service up and down.</li>
+ *     <li>A window whose percentile is below {@code minRtt} lowers it, and the first window sets it. Until then
+ *     the limit stays at {@code initialLimit}.</li>
+ * </ul>
+ * When the service becomes slower even without load, the stale {@code minRtt} shrinks the limit until calls start at
+ * low concurrency again, and their samples raise it; the limit only visits {@code minLimit} when latency really grew.
+ * <p>
+ * Overload signals (timeouts, 429/5xx) shrink the limit by {@code backoffRatio} at the end of the window. The limit
+ * does not grow when the caller did not use at least half of it, so an idle period does not inflate it.
+ * <p>
+ * Thread-safe: samples are recorded under a lock that is held for a few array writes, or a sort of one window of
+ * samples every {@code sampleWindow}.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final int MAX_SAMPLES = 1_000; // Muestras por ventana; el resto de la ventana no se registra
+    private static final int MIN_WINDOW_SAMPLES = 10; // Ventanas con menos muestras no bajan minRtt (demasiado ruido)
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long sampleWindowNanos;
+    private final int minRttSamples;
+    private final double percentile;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int sampleCount;
+    private boolean dropped;
+    private int maxInFlight;
+    private long windowStart;
+    private final long[] lowLoadSamples; // Llamadas iniciadas con poca concurrencia: miden minRtt
+    private int lowLoadCount;
+
+    private volatile int limit;
+    private volatile long minRtt; // 0 hasta la primera medición
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long sampleWindowNanos,
+                                    int minRttSamples, double percentile, double rttTolerance, double backoffRatio,
+                                    LongSupplier nanoClock) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit
+                || minRttSamples <= 0 || percentile <= 0 || percentile > 1 || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid adaptive concurrency settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.sampleWindowNanos = sampleWindowNanos;
+        this.minRttSamples = Math.min(minRttSamples, MAX_SAMPLES);
+        this.percentile = percentile;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.lowLoadSamples = new long[this.minRttSamples];
+        this.limit = initialLimit;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * Records a completed call.
+     *
+     * @param rttNanos Time from the start of the call to its completion.
+     * @param inFlight Calls in flight when this one started, including itself.
+     * @param dropped  Whether the call failed with an overload signal (timeout, 429, 5xx).
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        long now = nanoClock.getAsLong();
+        this.dropped |= dropped;
+        maxInFlight = Math.max(maxInFlight, inFlight);
+        if (!dropped) {
+            if (sampleCount < MAX_SAMPLES) {
+                samples[sampleCount++] = rttNanos;
+            }
+            if (inFlight <= minLimit) {
+                onLowLoadSample(rttNanos);
+            }
+        }
+        if (now - windowStart < sampleWindowNanos) {
+            return;
+        }
+        update();
+        resetWindow(now);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Estimated no-load round-trip time, in nanoseconds (0 before the first window).
+     */
+    public long getMinRtt() {
+        return minRtt;
+    }
+
+    private void onLowLoadSample(long rttNanos) {
+        lowLoadSamples[lowLoadCount++] = rttNanos;
+        if (lowLoadCount == lowLoadSamples.length) {
+            minRtt = Math.max(1, percentile(lowLoadSamples, lowLoadCount));
+            lowLoadCount = 0;
+        }
+    }
+
+    private void update() {
+        long sampleRtt = sampleCount == 0 ? 0 : percentile(samples, sampleCount);
+        if (sampleRtt > 0 && (minRtt == 0 || (sampleCount >= MIN_WINDOW_SAMPLES && sampleRtt < minRtt))) {
+            minRtt = sampleRtt; // Primera referencia, o una ventana más rápida que la estimación
+        }
+        int current = limit;
+        int next;
+        if (dropped) {
+            next = (int) (current * backoffRatio);
+        } else if (sampleCount == 0 || minRtt == 0) {
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(2.0, minRtt * (1 + rttTolerance) / sampleRtt));
+            next = gradient < 1
+                    ? (int) (current * gradient)
+                    : (int) Math.ceil(current * gradient + Math.sqrt(current));
+            if (next > current && maxInFlight < current / 2) {
+                next = current; // La carga no llegó al límite: no hay información para subirlo
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    private void resetWindow(long now) {
+        sampleCount = 0;
+        dropped = false;
+        maxInFlight = 0;
+        windowStart = now;
+    }
+
+    private long percentile(long[] values, int count) {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+    }
+}
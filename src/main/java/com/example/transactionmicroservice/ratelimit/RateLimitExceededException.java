@@ -0,0 +1,31 @@
+package com.example.transactionmicroservice.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signals that a request was rejected by admission control. Translated to HTTP 429 with a Retry-After header.
+ */
+public class RateLimitExceededException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String reason, long retryAfterNanos) {
+        super(HttpStatus.TOO_MANY_REQUESTS, reason);
+        this.retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
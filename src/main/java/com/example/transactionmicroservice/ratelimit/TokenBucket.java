@@ -0,0 +1,80 @@
+package com.example.transactionmicroservice.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented with the generic cell rate algorithm (GCRA).
+ * <p>
+ * The whole state of the bucket is the "theoretical arrival time" of the next request, kept in a single
+ * {@link AtomicLong}, so acquiring a token is a read plus one compare-and-set and never blocks.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos; // Tiempo que tarda en reponerse un token
+    private final long burstToleranceNanos; // Capacidad del bucket expresada en tiempo
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * Creates a bucket that refills at {@code ratePerSecond} and holds at most {@code burst} tokens.
+     *
+     * @param ratePerSecond Sustained number of requests allowed per second.
+     * @param burst         Maximum number of requests allowed at once.
+     * @param nowNanos      Current time as given by {@link System#nanoTime()}.
+     */
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be greater than zero");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Tries to take one token from the bucket.
+     *
+     * @param nowNanos Current time as given by {@link System#nanoTime()}.
+     * @return {@code 0} when the token was granted, otherwise the nanoseconds until a token will be available.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrivalTime.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long allowedAt = next - burstToleranceNanos;
+            if (nowNanos < allowedAt) {
+                return allowedAt - nowNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken with {@link #tryAcquire} by a request that was rejected afterwards, e.g. by another
+     * bucket, so a rejected request does not count against this one.
+     *
+     * @param nowNanos Current time as given by {@link System#nanoTime()}.
+     */
+    public void release(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrivalTime.get();
+            // Nunca por debajo de ahora: un bucket lleno no acumula más tokens que su capacidad
+            long next = Math.max(current - emissionIntervalNanos, nowNanos);
+            if (next >= current || theoreticalArrivalTime.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the bucket is full again, i.e. it no longer holds any state worth keeping.
+     *
+     * @param nowNanos Current time as given by {@link System#nanoTime()}.
+     * @return {@code true} if the bucket can be discarded without changing the limiter behaviour.
+     */
+    public boolean isIdle(long nowNanos) {
+        return theoreticalArrivalTime.get() <= nowNanos;
+    }
+}
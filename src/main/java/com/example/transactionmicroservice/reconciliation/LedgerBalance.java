@@ -0,0 +1,31 @@
+package com.example.transactionmicroservice.reconciliation;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Net movement of an account according to the ledger, split between the archived months and MongoDB.
+ *
+ * @param accountId The ID of the account.
+ * @param archived  Net movement recorded in the archive segments.
+ * @param live      Net movement recorded in the {@code transactions} collection.
+ */
+public record LedgerBalance(String accountId, BigDecimal archived, BigDecimal live) {
+
+    /**
+     * @return The balance the account should have, ignoring its baseline.
+     */
+    public BigDecimal net() {
+        return archived.add(live);
+    }
+
+    static LedgerBalance combine(List<LedgerBalance> parts) {
+        BigDecimal archived = BigDecimal.ZERO;
+        BigDecimal live = BigDecimal.ZERO;
+        for (LedgerBalance part : parts) {
+            archived = archived.add(part.archived());
+            live = live.add(part.live());
+        }
+        return new LedgerBalance(parts.get(0).accountId(), archived, live);
+    }
+}
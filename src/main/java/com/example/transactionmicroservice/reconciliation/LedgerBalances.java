@@ -0,0 +1,164 @@
+package com.example.transactionmicroservice.reconciliation;
+
+import com.example.transactionmicroservice.archive.ArchiveStore;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.repository.ParticipantsBackfill;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Computes the net movement of the accounts from the ledger: the {@code transactions} collection, through an
+ * aggregation that runs on MongoDB, plus the archived months.
+ * <p>
+ * A deposit credits {@code destinationAccountId}, a withdrawal debits {@code sourceAccountId} and a transfer debits
+ * {@code amount} from the source and credits {@code destinationAmount} (the converted amount) to the destination.
+ * A multi-leg transfer debits its source once on the parent {@code MULTI_TRANSFER}; its legs only credit their
+ * destinations. Sums use Decimal128 so that millions of movements do not accumulate binary floating-point error.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerBalances {
+
+    private static final String COLLECTION = "transactions";
+    private static final String ACCOUNT = "legs.account";
+    private static final Comparator<LedgerBalance> BY_ACCOUNT = Comparator.comparing(LedgerBalance::accountId);
+    private static final AggregationOptions OPTIONS = AggregationOptions.builder().allowDiskUse(true).build();
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ArchiveStore archiveStore;
+    private final ParticipantsBackfill participantsBackfill;
+
+    /**
+     * Streams the ledger balance of every account after the given one, in ascending account order.
+     *
+     * @param checkpoint The last account already processed, or null to start from the first account.
+     * @return A Flux with one balance per account.
+     */
+    public Flux<LedgerBalance> streamAfter(String checkpoint) {
+        return Flux.defer(() -> {
+            Optional<LocalDateTime> archivedUntil = archiveStore.archivedUntil();
+            Document accounts = new Document(ACCOUNT, checkpoint == null
+                    ? new Document("$ne", null)
+                    : new Document("$gt", checkpoint));
+            Flux<LedgerBalance> live = aggregate(liveFilter(archivedUntil), accounts);
+            Flux<LedgerBalance> archived = archivedUntil
+                    .map(until -> totals(archiveStore.findGlobalHistory(until))
+                            .flatMapIterable(totals -> (checkpoint == null ? totals : totals.tailMap(checkpoint, false))
+                                    .entrySet())
+                            .map(entry -> new LedgerBalance(entry.getKey(), entry.getValue(), BigDecimal.ZERO)))
+                    .orElse(Flux.empty());
+            // Ambos flujos vienen ordenados por cuenta: se mezclan y se suman las dos partes de cada cuenta
+            return Flux.mergeComparing(BY_ACCOUNT, live, archived)
+                    .bufferUntilChanged(LedgerBalance::accountId)
+                    .map(LedgerBalance::combine);
+        });
+    }
+
+    /**
+     * Computes the ledger balance of a single account.
+     *
+     * @param accountId The ID of the account.
+     * @return A Mono with the balance of the account (zero if it has no transactions).
+     */
+    public Mono<LedgerBalance> forAccount(String accountId) {
+        return Mono.defer(() -> {
+            Optional<LocalDateTime> archivedUntil = archiveStore.archivedUntil();
+            Document filter = participantsBackfill.useParticipants()
+                    ? liveFilter(archivedUntil).append("participants", accountId)
+                    : liveFilter(archivedUntil).append("$or", List.of(
+                            new Document("sourceAccountId", accountId), new Document("destinationAccountId", accountId)));
+            Mono<BigDecimal> live = aggregate(filter, new Document(ACCOUNT, accountId))
+                    .map(LedgerBalance::live)
+                    .next()
+                    .defaultIfEmpty(BigDecimal.ZERO);
+            Mono<BigDecimal> archived = archivedUntil
+                    .map(until -> totals(archiveStore.findAccountHistory(accountId, until))
+                            .map(totals -> totals.getOrDefault(accountId, BigDecimal.ZERO)))
+                    .orElse(Mono.just(BigDecimal.ZERO));
+            return Mono.zip(archived, live, (a, l) -> new LedgerBalance(accountId, a, l));
+        });
+    }
+
+    /**
+     * Applies the balance movements of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param movement    Receives each account and the signed amount it moved.
+     */
+    static void movements(Transaction transaction, BiConsumer<String, BigDecimal> movement) {
+        if (transaction.getSourceAccountId() != null && transaction.getAmount() != null
+                && transaction.getParentTransactionId() == null) {
+            movement.accept(transaction.getSourceAccountId(), BigDecimal.valueOf(transaction.getAmount()).negate());
+        }
+        Double credited = transaction.getDestinationAmount() != null
+                ? transaction.getDestinationAmount() : transaction.getAmount();
+        if (transaction.getDestinationAccountId() != null && credited != null) {
+            movement.accept(transaction.getDestinationAccountId(), BigDecimal.valueOf(credited));
+        }
+    }
+
+    private Flux<LedgerBalance> aggregate(Document filter, Document accounts) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(stage("$match", filter));
+        // Cada transacción se convierte en uno o dos movimientos (cuenta, importe con signo); los tramos de una
+        // transferencia múltiple no debitan el origen, el débito está en la transacción padre
+        stages.add(stage("$project", new Document("_id", 0).append("legs", List.of(
+                new Document("account", new Document("$cond", Arrays.asList(
+                        new Document("$ifNull", List.of("$parentTransactionId", false)), null, "$sourceAccountId")))
+                        .append("delta", new Document("$multiply", List.of(-1, new Document("$toDecimal", "$amount")))),
+                new Document("account", "$destinationAccountId")
+                        .append("delta", new Document("$toDecimal",
+                                new Document("$ifNull", List.of("$destinationAmount", "$amount"))))))));
+        stages.add(stage("$unwind", "$legs"));
+        stages.add(stage("$match", accounts));
+        stages.add(stage("$group", new Document("_id", "$" + ACCOUNT).append("net", new Document("$sum", "$legs.delta"))));
+        stages.add(stage("$sort", new Document("_id", 1)));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages).withOptions(OPTIONS), COLLECTION, Document.class)
+                .map(result -> new LedgerBalance(result.getString("_id"), BigDecimal.ZERO, toBigDecimal(result.get("net"))));
+    }
+
+    private static Document liveFilter(Optional<LocalDateTime> archivedUntil) {
+        // Las fechas se guardan convertidas con la zona del sistema, igual que hace Spring Data al mapear LocalDateTime
+        return archivedUntil
+                .map(until -> new Document("date", new Document("$gte",
+                        Date.from(until.atZone(ZoneId.systemDefault()).toInstant()))))
+                .orElseGet(Document::new);
+    }
+
+    private static Mono<NavigableMap<String, BigDecimal>> totals(Flux<Transaction> transactions) {
+        return transactions.collect(TreeMap::new, (totals, transaction) ->
+                movements(transaction, (account, amount) -> totals.merge(account, amount, BigDecimal::add)));
+    }
+
+    private static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+    }
+}
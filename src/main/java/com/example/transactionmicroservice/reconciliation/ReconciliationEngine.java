@@ -0,0 +1,390 @@
+package com.example.transactionmicroservice.reconciliation;
+
+import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.config.ReconciliationProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.AccountBaseline;
+import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.DiscrepancyReason;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import com.example.transactionmicroservice.model.ReconciliationStatus;
+import com.example.transactionmicroservice.ratelimit.TokenBucket;
+import com.example.transactionmicroservice.repository.AccountBaselineRepository;
+import com.example.transactionmicroservice.repository.DiscrepancyRepository;
+import com.example.transactionmicroservice.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reconciles the balance of every account in the bank-accounts service against the ledger.
+ * <p>
+ * Accounts are streamed in ascending order from {@link LedgerBalances} and their actual balances are fetched through
+ * {@link BankAccountClient} with bounded concurrency and a token bucket, so a run never takes more than
+ * {@code rate-per-second} lookups away from live traffic. Results are recorded in order: every
+ * {@code checkpoint-every} accounts the run stores the last account processed. Independently of checkpoints, the
+ * owner refreshes the run every {@code heartbeat-interval}, so a slow batch is not mistaken for a dead node. A run
+ * whose owner stops refreshing it for {@code stale-after} is claimed by another node (or by the same node after a
+ * restart) and resumed after its checkpoint. Every execution owns the run through its own token, so an execution
+ * whose run was claimed meanwhile stops at its next write, and a node never claims a run it is still executing.
+ * <p>
+ * A balance that does not match is checked again after {@code confirm-delay}, so that operations in flight (the
+ * balance already changed, the transaction not yet saved) are not reported as discrepancies. A confirmed
+ * discrepancy lists the mutations of the account that a shutdown left for review, since they are its usual cause.
+ */
+@Slf4j
+@Component
+public class ReconciliationEngine implements SmartLifecycle {
+
+    private static final Duration LOOKUP_BACKOFF = Duration.ofMillis(200);
+    private static final int LOOKUP_RETRIES = 2;
+
+    enum Outcome {
+        MATCHED, // El saldo coincide con el esperado
+        BASELINED, // Primera conciliación de la cuenta: se guarda su baseline
+        DISCREPANCY, // Diferencia confirmada y añadida al informe
+        FAILED // No se pudo consultar el saldo
+    }
+
+    private record Result(String accountId, Outcome outcome) {
+    }
+
+    private final LedgerBalances ledgerBalances;
+    private final BankAccountClient bankAccountClient;
+    private final ReconciliationRunRepository runRepository;
+    private final AccountBaselineRepository baselineRepository;
+    private final DiscrepancyRepository discrepancyRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ReconciliationProperties properties;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+    private final Set<String> executing = ConcurrentHashMap.newKeySet(); // Ejecuciones en curso en este nodo
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private volatile boolean running;
+
+    public ReconciliationEngine(LedgerBalances ledgerBalances, BankAccountClient bankAccountClient,
+                                ReconciliationRunRepository runRepository,
+                                AccountBaselineRepository baselineRepository,
+                                DiscrepancyRepository discrepancyRepository, ReactiveMongoTemplate mongoTemplate,
+                                ReconciliationProperties properties, MeterRegistry meterRegistry) {
+        this.ledgerBalances = ledgerBalances;
+        this.bankAccountClient = bankAccountClient;
+        this.runRepository = runRepository;
+        this.baselineRepository = baselineRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("transactions.reconciliation.accounts")
+                    .description("Accounts reconciled, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        subscriptions.add(Flux.interval(properties.getStaleAfter(), properties.getStaleAfter())
+                .onBackpressureDrop()
+                .concatMap(tick -> claimStaleRun()
+                        .doOnNext(this::launch)
+                        .onErrorResume(e -> {
+                            log.warn("Could not look for abandoned reconciliation runs", e);
+                            return Mono.empty();
+                        }))
+                .subscribe());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        subscriptions.dispose();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Creates a new run and starts executing it in the background.
+     *
+     * @return A Mono with the created run, or RECONCILIATION_ALREADY_RUNNING if another run is active.
+     */
+    public Mono<ReconciliationRun> begin() {
+        LocalDateTime now = LocalDateTime.now();
+        return runRepository.insert(ReconciliationRun.builder()
+                        .status(ReconciliationStatus.RUNNING)
+                        .active(true)
+                        .owner(ownerToken())
+                        .startedAt(now)
+                        .updatedAt(now)
+                        .build())
+                .onErrorMap(DuplicateKeyException.class, e -> ErrorCode.RECONCILIATION_ALREADY_RUNNING.exception())
+                .doOnNext(this::launch);
+    }
+
+    private void launch(ReconciliationRun run) {
+        log.info("Reconciliation run {} started after account {}", run.getId(), run.getCheckpoint());
+        executing.add(run.getId());
+        subscriptions.add(execute(run)
+                .doFinally(signal -> executing.remove(run.getId()))
+                .subscribe());
+    }
+
+    /**
+     * Reconciles the accounts after the checkpoint of the run and records the outcome.
+     *
+     * @param run The run, owned by this execution through {@link ReconciliationRun#getOwner()}.
+     * @return A Mono that completes when the run has finished, failed or been taken over by another node.
+     */
+    Mono<Void> execute(ReconciliationRun run) {
+        String runId = run.getId();
+        String owner = run.getOwner();
+        TokenBucket throttle = new TokenBucket(properties.getRatePerSecond(), properties.getBurst(), System.nanoTime());
+        Mono<Void> work = ledgerBalances.streamAfter(run.getCheckpoint())
+                .concatMap(ledger -> throttled(throttle, ledger))
+                // flatMapSequential consulta en paralelo pero entrega en orden: el checkpoint siempre es un prefijo
+                .flatMapSequential(ledger -> reconcile(runId, ledger)
+                        .map(outcome -> new Result(ledger.accountId(), outcome)), properties.getConcurrency())
+                .bufferTimeout(properties.getCheckpointEvery(), properties.getCheckpointInterval())
+                .concatMap(batch -> checkpoint(runId, owner, batch))
+                .then(Mono.defer(() -> finish(runId, owner, ReconciliationStatus.COMPLETED, null)));
+        // El latido solo termina con error (propiedad perdida); si el trabajo acaba antes se cancela
+        return Mono.firstWithSignal(work, heartbeats(runId, owner))
+                .onErrorResume(OwnershipLostException.class, e -> {
+                    log.warn("Reconciliation run {} was taken over by another node", run.getId());
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> {
+                    log.error("Reconciliation run {} failed", runId, e);
+                    return finish(runId, owner, ReconciliationStatus.FAILED, e.toString());
+                });
+    }
+
+    private Mono<Void> heartbeats(String runId, String owner) {
+        return Flux.interval(properties.getHeartbeatInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> mongoTemplate.updateFirst(owned(runId, owner),
+                                new Update().set("updatedAt", LocalDateTime.now()), ReconciliationRun.class)
+                        .flatMap(result -> result.getMatchedCount() == 0
+                                ? Mono.<Void>error(new OwnershipLostException())
+                                : Mono.<Void>empty())
+                        .onErrorResume(e -> !(e instanceof OwnershipLostException), e -> {
+                            log.warn("Could not refresh reconciliation run {}", runId, e);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    /**
+     * Reconciles one account.
+     *
+     * @param runId  The ID of the run.
+     * @param ledger The ledger balance of the account.
+     * @return A Mono with the outcome; lookup errors are reported as {@link Outcome#FAILED}.
+     */
+    Mono<Outcome> reconcile(String runId, LedgerBalance ledger) {
+        String accountId = ledger.accountId();
+        return baselineRepository.findById(accountId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(baseline -> actualBalance(accountId).flatMap(actual -> {
+                    if (actual.isEmpty()) {
+                        return report(runId, ledger, null, null, DiscrepancyReason.ACCOUNT_NOT_FOUND);
+                    }
+                    if (baseline.isEmpty()) {
+                        return establishBaseline(runId, ledger, actual.get());
+                    }
+                    BigDecimal offset = baseline.get().getOffset();
+                    return matches(ledger, offset, actual.get())
+                            ? Mono.just(Outcome.MATCHED)
+                            : confirm(runId, accountId, offset);
+                }))
+                .onErrorResume(e -> {
+                    log.warn("Could not reconcile account {}", accountId, e);
+                    return Mono.just(Outcome.FAILED);
+                })
+                .doOnNext(outcome -> outcomes.get(outcome).increment());
+    }
+
+    private Mono<Outcome> confirm(String runId, String accountId, BigDecimal offset) {
+        // Una operación en curso puede haber movido el saldo sin haber guardado aún su transacción
+        return Mono.delay(properties.getConfirmDelay())
+                .then(Mono.zip(ledgerBalances.forAccount(accountId), actualBalance(accountId)))
+                .flatMap(recheck -> {
+                    LedgerBalance ledger = recheck.getT1();
+                    Optional<BigDecimal> actual = recheck.getT2();
+                    if (actual.isEmpty()) {
+                        return report(runId, ledger, offset, null, DiscrepancyReason.ACCOUNT_NOT_FOUND);
+                    }
+                    return matches(ledger, offset, actual.get())
+                            ? Mono.just(Outcome.MATCHED)
+                            : report(runId, ledger, offset, actual.get(), DiscrepancyReason.BALANCE_MISMATCH);
+                });
+    }
+
+    private boolean matches(LedgerBalance ledger, BigDecimal offset, BigDecimal actual) {
+        return actual.subtract(ledger.net().add(offset)).abs().compareTo(properties.getTolerance()) <= 0;
+    }
+
+    private Mono<Outcome> establishBaseline(String runId, LedgerBalance ledger, BigDecimal actual) {
+        return baselineRepository.save(AccountBaseline.builder()
+                        .accountId(ledger.accountId())
+                        .offset(actual.subtract(ledger.net()))
+                        .runId(runId)
+                        .establishedAt(LocalDateTime.now())
+                        .build())
+                .thenReturn(Outcome.BASELINED);
+    }
+
+    private Mono<Outcome> report(String runId, LedgerBalance ledger, BigDecimal offset, BigDecimal actual,
+                                 DiscrepancyReason reason) {
+        BigDecimal expected = offset == null ? ledger.net() : ledger.net().add(offset);
+        return pendingMutationIds(ledger.accountId())
+                .flatMap(pending -> discrepancyRepository.save(Discrepancy.builder()
+                        .id(runId + ":" + ledger.accountId())
+                        .runId(runId)
+                        .accountId(ledger.accountId())
+                        .reason(reason)
+                        .ledgerBalance(ledger.net())
+                        .expectedBalance(expected)
+                        .actualBalance(actual)
+                        .difference(actual == null ? null : actual.subtract(expected))
+                        .pendingMutationIds(pending.isEmpty() ? null : pending)
+                        .detectedAt(LocalDateTime.now())
+                        .build()))
+                .thenReturn(Outcome.DISCREPANCY);
+    }
+
+    private Mono<List<String>> pendingMutationIds(String accountId) {
+        Query query = Query.query(Criteria.where("status").is(PendingMutationStatus.NEEDS_REVIEW)
+                .orOperator(Criteria.where("sourceAccountId").is(accountId),
+                        Criteria.where("destinationAccountId").is(accountId),
+                        Criteria.where("legs.leg.destinationAccountId").is(accountId)));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, PendingMutation.class)
+                .map(PendingMutation::getId)
+                .collectList();
+    }
+
+    private Mono<Optional<BigDecimal>> actualBalance(String accountId) {
+        return bankAccountClient.getAccount(accountId)
+                .map(account -> Optional.of(balanceOf(account)))
+                .retryWhen(Retry.backoff(LOOKUP_RETRIES, LOOKUP_BACKOFF).filter(e -> !isNotFound(e)))
+                .onErrorResume(ReconciliationEngine::isNotFound, e -> Mono.empty())
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private static BigDecimal balanceOf(BankAccount account) {
+        return account.getBalance() == null ? BigDecimal.ZERO : account.getBalance();
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        return error instanceof ResponseStatusException statusException
+                && statusException.getStatusCode().value() == HttpStatus.NOT_FOUND.value();
+    }
+
+    private static Mono<LedgerBalance> throttled(TokenBucket throttle, LedgerBalance ledger) {
+        long wait = throttle.tryAcquire(System.nanoTime());
+        return wait == 0
+                ? Mono.just(ledger)
+                : Mono.delay(Duration.ofNanos(wait)).then(Mono.defer(() -> throttled(throttle, ledger)));
+    }
+
+    private Mono<Void> checkpoint(String runId, String owner, List<Result> batch) {
+        long checked = batch.stream()
+                .filter(r -> r.outcome() == Outcome.MATCHED || r.outcome() == Outcome.BASELINED)
+                .count();
+        long discrepancies = batch.stream().filter(r -> r.outcome() == Outcome.DISCREPANCY).count();
+        Update update = new Update()
+                .set("checkpoint", batch.get(batch.size() - 1).accountId())
+                .set("updatedAt", LocalDateTime.now())
+                .inc("accountsChecked", checked)
+                .inc("discrepancies", discrepancies)
+                .inc("failures", batch.size() - checked - discrepancies);
+        return mongoTemplate.updateFirst(owned(runId, owner), update, ReconciliationRun.class)
+                .flatMap(result -> result.getModifiedCount() == 0
+                        ? Mono.<Void>error(new OwnershipLostException())
+                        : Mono.empty());
+    }
+
+    private Mono<Void> finish(String runId, String owner, ReconciliationStatus status, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", status)
+                .unset("active")
+                .set("updatedAt", now)
+                .set("finishedAt", now)
+                .set("error", error);
+        return mongoTemplate.updateFirst(owned(runId, owner), update, ReconciliationRun.class)
+                .doOnNext(result -> log.info("Reconciliation run {} finished: {}", runId, status))
+                .then();
+    }
+
+    private static Query owned(String runId, String owner) {
+        return Query.query(Criteria.where("_id").is(runId)
+                .and("status").is(ReconciliationStatus.RUNNING)
+                .and("owner").is(owner));
+    }
+
+    /**
+     * Takes over a run whose owner stopped refreshing it, skipping the runs this node is executing.
+     *
+     * @return A Mono with the claimed run, owned by a new token, or empty if no run is stale.
+     */
+    Mono<ReconciliationRun> claimStaleRun() {
+        LocalDateTime now = LocalDateTime.now();
+        Query stale = Query.query(Criteria.where("status").is(ReconciliationStatus.RUNNING)
+                .and("updatedAt").lt(now.minus(properties.getStaleAfter()))
+                .and("_id").nin(List.copyOf(executing)));
+        return mongoTemplate.findAndModify(stale, new Update().set("owner", ownerToken()).set("updatedAt", now),
+                FindAndModifyOptions.options().returnNew(true), ReconciliationRun.class);
+    }
+
+    private static String ownerToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Signals that another node claimed the run, so this node must stop executing it.
+     */
+    private static final class OwnershipLostException extends RuntimeException {
+
+        private OwnershipLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
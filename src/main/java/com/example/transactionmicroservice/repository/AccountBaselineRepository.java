@@ -0,0 +1,12 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.AccountBaseline;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing the reconciliation baselines of the accounts in MongoDB.
+ */
+@Repository
+public interface AccountBaselineRepository extends ReactiveMongoRepository<AccountBaseline, String> {
+}
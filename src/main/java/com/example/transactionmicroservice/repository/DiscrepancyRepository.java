@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Discrepancy;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository interface for managing the discrepancy reports of the reconciliation runs in MongoDB.
+ */
+@Repository
+public interface DiscrepancyRepository extends ReactiveMongoRepository<Discrepancy, String> {
+
+    /**
+     * Retrieves the discrepancies found by a run.
+     *
+     * @param runId The ID of the reconciliation run.
+     * @return A Flux containing the discrepancies, sorted by account.
+     */
+    Flux<Discrepancy> findByRunIdOrderByAccountIdAsc(String runId);
+}
@@ -0,0 +1,80 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.config.MongoTransactionProperties;
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a group of ledger writes as one MongoDB multi-document transaction.
+ * <p>
+ * The work is re-run from the start, in a new transaction, when it fails with the {@code TransientTransactionError}
+ * label (write conflict, primary stepdown, ...), up to {@code max-attempts} times; a commit whose outcome is unknown
+ * is retried by {@link RetryingMongoTransactionManager}. Only database writes belong in a unit of work: calls to
+ * other services happen before it, so transactions hold their locks for a few milliseconds and a retry never
+ * repeats a side effect outside MongoDB.
+ * <p>
+ * When transactions are disabled (standalone server) the work runs as is, each write on its own.
+ */
+@Slf4j
+@Component
+public class MongoUnitOfWork {
+
+    private final MongoTransactionProperties properties;
+    private final TransactionalOperator transactionalOperator; // null sin transacciones
+    private final Counter retries;
+
+    public MongoUnitOfWork(MongoTransactionProperties properties,
+                           ObjectProvider<TransactionalOperator> transactionalOperator, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionalOperator = properties.isEnabled() ? transactionalOperator.getIfAvailable() : null;
+        this.retries = Counter.builder("transactions.mongo.transaction.retries")
+                .description("MongoDB transactions re-run after a transient error")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the work in a transaction, re-running it on transient errors.
+     *
+     * @param work Supplies the writes; it is called again on every attempt.
+     * @param <T>  The type of the result.
+     * @return A Mono with the result, emitted once the transaction is committed.
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> work) {
+        if (transactionalOperator == null) {
+            return Mono.defer(work);
+        }
+        return Mono.defer(() -> transactionalOperator.transactional(Mono.defer(work)))
+                .retryWhen(Retry.backoff(properties.getMaxAttempts() - 1L, properties.getRetryBackoff())
+                        .filter(error -> hasLabel(error, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL))
+                        .doBeforeRetry(signal -> {
+                            retries.increment();
+                            log.debug("Retrying MongoDB transaction after {}", signal.failure().toString());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Checks whether an error, or any of its causes, is a MongoDB error with the given label. Spring translates
+     * driver errors into its own exceptions, keeping the driver error as the cause.
+     */
+    static boolean hasLabel(Throwable error, String label) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException && mongoException.hasErrorLabel(label)) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.config.MongoReadProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Migration that fills {@code participants} on the transactions written before the field existed.
+ * <p>
+ * Runs on startup as a single server-side {@code updateMany} with an update pipeline (the documents never travel to
+ * the application) and is idempotent, so every node can run it. Account-scoped reads switch from the {@code $or}
+ * over source and destination to the {@code participants_date} index only once this node's pass has finished, and
+ * only if {@code transactions.mongo.reads.participants-index} is on.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ParticipantsBackfill {
+
+    private static final Bson MISSING = Filters.exists(TransactionCodec.PARTICIPANTS, false);
+    private static final List<Bson> SET_PARTICIPANTS = List.of(new Document("$set",
+            new Document(TransactionCodec.PARTICIPANTS, new Document("$filter", new Document("input",
+                    List.of("$" + TransactionCodec.SOURCE_ACCOUNT_ID, "$" + TransactionCodec.DESTINATION_ACCOUNT_ID))
+                    .append("cond", new Document("$ne", Arrays.asList("$$this", null)))))));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoReadProperties properties;
+    private volatile boolean complete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        run().subscribe(
+                null,
+                error -> log.warn("Could not backfill the transaction participants: {}", error.getMessage()));
+    }
+
+    /**
+     * Sets {@code participants} on every transaction that lacks it.
+     *
+     * @return A Mono with the number of transactions updated.
+     */
+    public Mono<Long> run() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Transaction.class))
+                .flatMap(collection -> Mono.from(collection.updateMany(MISSING, SET_PARTICIPANTS)))
+                .map(UpdateResult::getModifiedCount)
+                .doOnNext(updated -> {
+                    complete = true;
+                    if (updated > 0) {
+                        log.info("Backfilled participants on {} transactions", updated);
+                    }
+                });
+    }
+
+    /**
+     * Indicates whether account-scoped queries can filter on {@code participants}.
+     */
+    public boolean useParticipants() {
+        return complete && properties.isParticipantsIndex();
+    }
+
+    /**
+     * Filter matching the transactions where the account is the source or the destination.
+     */
+    public Bson accountFilter(String accountId) {
+        return useParticipants()
+                ? Filters.eq(TransactionCodec.PARTICIPANTS, accountId)
+                : Filters.or(Filters.eq(TransactionCodec.SOURCE_ACCOUNT_ID, accountId),
+                        Filters.eq(TransactionCodec.DESTINATION_ACCOUNT_ID, accountId));
+    }
+}
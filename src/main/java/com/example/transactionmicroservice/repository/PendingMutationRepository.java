@@ -0,0 +1,22 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository interface for the journal of mutations interrupted by a shutdown.
+ */
+@Repository
+public interface PendingMutationRepository extends ReactiveMongoRepository<PendingMutation, String> {
+
+    /**
+     * Retrieves the journal entries in a given status.
+     *
+     * @param status The status of the entries.
+     * @return A Flux containing the entries.
+     */
+    Flux<PendingMutation> findByStatus(PendingMutationStatus status);
+}
@@ -0,0 +1,99 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.config.MongoReadProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the configured read preference and read concern to each read query.
+ * <p>
+ * Reads about an account written by this node within {@code read-your-writes-window} go to the primary instead,
+ * so a caller always sees its own operations even when the query is normally served by a lagging secondary.
+ */
+@Component
+public class ReadRouting {
+
+    /**
+     * Query returning the global history.
+     */
+    public static final String GLOBAL_HISTORY = "global-history";
+
+    /**
+     * Query returning the history of one account.
+     */
+    public static final String ACCOUNT_HISTORY = "account-history";
+
+    private final MongoReadProperties properties;
+    private final Map<String, ReadPreference> readPreferences;
+    private final Map<String, ReadConcern> readConcerns;
+    private final Cache<String, Long> recentWrites; // Cuenta -> fin de la ventana (nanoTime)
+
+    public ReadRouting(MongoReadProperties properties) {
+        this.properties = properties;
+        // Las entradas caducan con su ventana; el límite de tamaño acota la memoria sin recorrer el mapa
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedAccounts())
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .build();
+        this.readPreferences = properties.getQueries().entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> readPreference(entry.getValue())));
+        this.readConcerns = properties.getQueries().entrySet().stream()
+                .filter(entry -> entry.getValue().getReadConcern() != null && !entry.getValue().getReadConcern().isBlank())
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+                        entry -> new ReadConcern(ReadConcernLevel.fromString(entry.getValue().getReadConcern()))));
+    }
+
+    /**
+     * Applies the read settings of a query.
+     *
+     * @param queryName The name of the query (e.g. {@link #ACCOUNT_HISTORY}).
+     * @param query     The query to configure.
+     * @param accountId The account the query is about, or {@code null} when it is not about a single account.
+     * @return The same query, configured.
+     */
+    public Query apply(String queryName, Query query, String accountId) {
+        ReadConcern readConcern = readConcerns.get(queryName);
+        if (readConcern != null) {
+            query.withReadConcern(readConcern);
+        }
+        ReadPreference readPreference = accountId != null && isRecentlyWritten(accountId)
+                ? ReadPreference.primary()
+                : readPreferences.getOrDefault(queryName, ReadPreference.primary());
+        return query.withReadPreference(readPreference);
+    }
+
+    /**
+     * Records that an account has just been written, routing its reads to the primary for a while.
+     *
+     * @param accountId The written account (ignored when {@code null}).
+     */
+    public void markWritten(String accountId) {
+        if (accountId == null) {
+            return;
+        }
+        recentWrites.put(accountId, System.nanoTime() + properties.getReadYourWritesWindow().toNanos());
+    }
+
+    boolean isRecentlyWritten(String accountId) {
+        Long until = recentWrites.getIfPresent(accountId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private static ReadPreference readPreference(MongoReadProperties.QueryRead read) {
+        if (read.getMaxStaleness() == null || "primary".equals(read.getReadPreference())) {
+            return ReadPreference.valueOf(read.getReadPreference());
+        }
+        return ReadPreference.valueOf(read.getReadPreference(), List.of(),
+                read.getMaxStaleness().toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the accounts of every saved transaction to {@link ReadRouting}, so their history is read from the primary
+ * while secondaries may still lag behind.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecentWriteListener extends AbstractMongoEventListener<Transaction> {
+
+    private final ReadRouting readRouting;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        readRouting.markWritten(event.getSource().getSourceAccountId());
+        readRouting.markWritten(event.getSource().getDestinationAccountId());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository interface for managing ReconciliationRun documents in MongoDB.
+ */
+@Repository
+public interface ReconciliationRunRepository extends ReactiveMongoRepository<ReconciliationRun, String> {
+
+    /**
+     * Retrieves the reconciliation runs, most recent first.
+     *
+     * @return A Flux containing the runs.
+     */
+    Flux<ReconciliationRun> findAllByOrderByStartedAtDesc();
+}
@@ -0,0 +1,37 @@
+package com.example.transactionmicroservice.repository;
+
+import com.mongodb.MongoException;
+import com.mongodb.TransactionOptions;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Reactive MongoDB transaction manager that retries the commit when its outcome is unknown.
+ * <p>
+ * A commit that fails with the {@code UnknownTransactionCommitResult} label (network error, primary stepdown, write
+ * concern timeout) may or may not have been applied. Committing the same transaction again is safe: the server
+ * returns the outcome of the first commit if it was applied. The whole transaction is not re-run here; that is
+ * {@link MongoUnitOfWork}'s job for {@code TransientTransactionError}.
+ */
+public class RetryingMongoTransactionManager extends ReactiveMongoTransactionManager {
+
+    private final int maxAttempts;
+
+    public RetryingMongoTransactionManager(ReactiveMongoDatabaseFactory databaseFactory, TransactionOptions options,
+                                           int maxAttempts) {
+        super(databaseFactory, options);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    @Override
+    protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                  ReactiveMongoTransactionObject transactionObject) {
+        return Mono.defer(() -> super.doCommit(synchronizationManager, transactionObject))
+                .retryWhen(Retry.max(maxAttempts - 1L)
+                        .filter(error -> MongoUnitOfWork.hasLabel(error,
+                                MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.ScheduledTransferStatus;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for managing ScheduledTransfer definitions in MongoDB.
+ */
+@Repository
+public interface ScheduledTransferRepository extends ReactiveMongoRepository<ScheduledTransfer, String> {
+
+    /**
+     * Retrieves the definitions with an occurrence due before the given instant (one time bucket of the scheduler).
+     *
+     * @param status The status of the definitions to retrieve.
+     * @param before The end (exclusive) of the time bucket.
+     * @return A Flux containing the due definitions, sorted by next execution.
+     */
+    Flux<ScheduledTransfer> findByStatusAndNextExecutionBeforeOrderByNextExecutionAsc(ScheduledTransferStatus status,
+                                                                                     LocalDateTime before);
+
+    /**
+     * Retrieves the scheduled transfers debiting a specific account.
+     *
+     * @param sourceAccountId The ID of the source account.
+     * @return A Flux containing the scheduled transfers of the account.
+     */
+    Flux<ScheduledTransfer> findBySourceAccountId(String sourceAccountId);
+}
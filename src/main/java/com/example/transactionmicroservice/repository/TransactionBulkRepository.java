@@ -0,0 +1,21 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Transaction;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Writes of several transactions that belong to the same operation (e.g. a multi-leg transfer and its legs).
+ */
+public interface TransactionBulkRepository {
+
+    /**
+     * Inserts the transactions with a single {@code insertMany}. Unlike {@code saveAll}, which upserts entities with
+     * a pre-assigned id one by one, this is one round trip; it fails if any of the ids already exists.
+     *
+     * @param transactions The new transactions.
+     * @return A Flux with the inserted transactions.
+     */
+    Flux<Transaction> insertAll(Collection<Transaction> transactions);
+}
@@ -0,0 +1,19 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+class TransactionBulkRepositoryImpl implements TransactionBulkRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Transaction> insertAll(Collection<Transaction> transactions) {
+        return mongoTemplate.insert(transactions, Transaction.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written BSON codec for {@link Transaction} documents.
+ * <p>
+ * History scans decode every row; going through Spring Data's {@code MappingMongoConverter} first materializes an
+ * intermediate {@code org.bson.Document} and then populates the entity reflectively. This codec reads the BSON
+ * stream field by field straight into the entity. It writes and reads exactly the layout produced by the mapping
+ * converter (same field names, {@code _class} hint, dates as UTC datetimes of the system zone), so documents written
+ * by either side are readable by the other.
+ */
+public class TransactionCodec implements Codec<Transaction> {
+
+    static final String ID = "_id";
+    static final String CLASS = "_class";
+    static final String TYPE = "type";
+    static final String AMOUNT = "amount";
+    static final String DATE = "date";
+    static final String SOURCE_ACCOUNT_ID = "sourceAccountId";
+    static final String DESTINATION_ACCOUNT_ID = "destinationAccountId";
+    static final String CURRENCY = "currency";
+    static final String DESTINATION_CURRENCY = "destinationCurrency";
+    static final String DESTINATION_AMOUNT = "destinationAmount";
+    static final String EXCHANGE_RATE = "exchangeRate";
+    static final String PARENT_TRANSACTION_ID = "parentTransactionId";
+    static final String PARTICIPANTS = "participants";
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    @Override
+    public Transaction decode(BsonReader reader, DecoderContext decoderContext) {
+        Transaction.TransactionBuilder transaction = Transaction.builder();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ID -> transaction.id(reader.getCurrentBsonType() == BsonType.OBJECT_ID
+                        ? reader.readObjectId().toHexString() : reader.readString());
+                case TYPE -> transaction.type(type(reader.readString()));
+                case AMOUNT -> transaction.amount(readDouble(reader));
+                case DATE -> transaction.date(LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault()));
+                case SOURCE_ACCOUNT_ID -> transaction.sourceAccountId(reader.readString());
+                case DESTINATION_ACCOUNT_ID -> transaction.destinationAccountId(reader.readString());
+                case CURRENCY -> transaction.currency(reader.readString());
+                case DESTINATION_CURRENCY -> transaction.destinationCurrency(reader.readString());
+                case DESTINATION_AMOUNT -> transaction.destinationAmount(readDouble(reader));
+                case EXCHANGE_RATE -> transaction.exchangeRate(readDouble(reader));
+                case PARENT_TRANSACTION_ID -> transaction.parentTransactionId(reader.readString());
+                case PARTICIPANTS -> transaction.participants(readStrings(reader));
+                default -> reader.skipValue(); // _class y campos desconocidos
+            }
+        }
+        reader.readEndDocument();
+        return transaction.build();
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Transaction transaction, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (transaction.getId() != null) {
+            writer.writeString(ID, transaction.getId());
+        }
+        if (transaction.getType() != null) {
+            writer.writeString(TYPE, transaction.getType().name());
+        }
+        writeDouble(writer, AMOUNT, transaction.getAmount());
+        if (transaction.getDate() != null) {
+            writer.writeDateTime(DATE, transaction.getDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        writeString(writer, SOURCE_ACCOUNT_ID, transaction.getSourceAccountId());
+        writeString(writer, DESTINATION_ACCOUNT_ID, transaction.getDestinationAccountId());
+        writeString(writer, CURRENCY, transaction.getCurrency());
+        writeString(writer, DESTINATION_CURRENCY, transaction.getDestinationCurrency());
+        writeDouble(writer, DESTINATION_AMOUNT, transaction.getDestinationAmount());
+        writeDouble(writer, EXCHANGE_RATE, transaction.getExchangeRate());
+        writeString(writer, PARENT_TRANSACTION_ID, transaction.getParentTransactionId());
+        if (transaction.getParticipants() != null) {
+            writer.writeStartArray(PARTICIPANTS);
+            transaction.getParticipants().forEach(writer::writeString);
+            writer.writeEndArray();
+        }
+        writer.writeString(CLASS, Transaction.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Transaction> getEncoderClass() {
+        return Transaction.class;
+    }
+
+    private static TransactionType type(String name) {
+        for (TransactionType type : TYPES) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + name);
+    }
+
+    private static Double readDouble(BsonReader reader) {
+        // Importes escritos a mano o por otras herramientas pueden venir como enteros
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (double) reader.readInt32();
+            case INT64 -> (double) reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().doubleValue();
+            default -> reader.readDouble();
+        };
+    }
+
+    private static List<String> readStrings(BsonReader reader) {
+        List<String> values = new ArrayList<>(2);
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.STRING) {
+                values.add(reader.readString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    private static void writeDouble(BsonWriter writer, String name, Double value) {
+        if (value != null) {
+            writer.writeDouble(name, value);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Transaction;
+import reactor.core.publisher.Flux;
+
+/**
+ * History reads routed with the read preference and read concern configured for each query (see
+ * {@link ReadRouting}), so they can be served by secondaries instead of competing with the write path.
+ */
+public interface TransactionHistoryRepository {
+
+    /**
+     * Retrieves the global transaction history, sorted by date in descending order.
+     *
+     * @return A Flux containing all transactions.
+     */
+    Flux<Transaction> findGlobalHistory();
+
+    /**
+     * Retrieves the transactions where the account is the source or the destination, sorted by date in
+     * descending order. Reads about an account recently written by this node go to the primary.
+     *
+     * @param accountId The ID of the account.
+     * @return A Flux containing the transactions of the account.
+     */
+    Flux<Transaction> findAccountHistory(String accountId);
+}
@@ -0,0 +1,72 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.archive.ArchiveStore;
+import com.example.transactionmicroservice.model.Transaction;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.RequiredArgsConstructor;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+
+    private static final Bson BY_DATE_DESC = Sorts.descending(TransactionCodec.DATE);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ReadRouting readRouting;
+    private final ArchiveStore archiveStore;
+    private final ParticipantsBackfill participantsBackfill;
+
+    @Override
+    public Flux<Transaction> findGlobalHistory() {
+        return Flux.defer(() -> {
+            Optional<LocalDateTime> archivedUntil = archiveStore.archivedUntil();
+            return find(ReadRouting.GLOBAL_HISTORY, liveOnly(Filters.empty(), archivedUntil), null)
+                    .concatWith(archivedUntil.map(archiveStore::findGlobalHistory).orElse(Flux.empty()));
+        });
+    }
+
+    @Override
+    public Flux<Transaction> findAccountHistory(String accountId) {
+        return Flux.defer(() -> {
+            Optional<LocalDateTime> archivedUntil = archiveStore.archivedUntil();
+            // Un solo IXSCAN sobre participants_date (multikey) una vez completada la migración; antes, $or
+            Bson filter = liveOnly(participantsBackfill.accountFilter(accountId), archivedUntil);
+            return find(ReadRouting.ACCOUNT_HISTORY, filter, accountId)
+                    .concatWith(archivedUntil.map(until -> archiveStore.findAccountHistory(accountId, until))
+                            .orElse(Flux.empty()));
+        });
+    }
+
+    private Flux<Transaction> find(String queryName, Bson filter, String accountId) {
+        // Lectura directa con el TransactionCodec registrado en el driver, sin pasar por el MappingMongoConverter
+        Query settings = readRouting.apply(queryName, new Query(), accountId);
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Transaction.class))
+                .flatMapMany(collection -> {
+                    MongoCollection<Transaction> transactions = collection.withDocumentClass(Transaction.class)
+                            .withReadPreference(settings.getReadPreference());
+                    if (settings.getReadConcern() != null) {
+                        transactions = transactions.withReadConcern(settings.getReadConcern());
+                    }
+                    return transactions.find(filter).sort(BY_DATE_DESC);
+                });
+    }
+
+    private static Bson liveOnly(Bson filter, Optional<LocalDateTime> archivedUntil) {
+        // Los meses archivados son siempre los más antiguos: de Mongo solo se lee lo posterior y después se sigue
+        // con el archivo, con el mismo límite para no duplicar un mes que se archive durante la lectura
+        return archivedUntil
+                .map(until -> Filters.and(filter, Filters.gte(TransactionCodec.DATE,
+                        Date.from(until.atZone(ZoneId.systemDefault()).toInstant()))))
+                .orElse(filter);
+    }
+}
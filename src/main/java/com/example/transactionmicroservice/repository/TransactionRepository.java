@@ -1,16 +1,23 @@
 package com.example.transactionmicroservice.repository;
 
 import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 /**
  * Repository interface for managing Transaction entities in MongoDB.
- * Extends ReactiveMongoRepository to provide reactive CRUD operations.
+ * Extends ReactiveMongoRepository to provide reactive CRUD operations; the derived queries read from the primary,
+ * the routed history reads are declared in {@link TransactionHistoryRepository} and the single-round-trip inserts
+ * in {@link TransactionBulkRepository}.
  */
 @Repository
-public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String> {
+public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String>, TransactionHistoryRepository,
+        TransactionBulkRepository {
 
     /**
      * Retrieves the global transaction history.
@@ -31,6 +38,16 @@ public interface TransactionRepository extends ReactiveMongoRepository<Transacti
      */
     Flux<Transaction> findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(String sourceAccountId, String destinationAccountId);
 
+    /**
+     * Retrieves the transaction history for a specific account through the {@code participants_date} index.
+     * Same result as {@link #findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc} with a single index scan,
+     * for transactions that have {@code participants} (see {@link ParticipantsBackfill}).
+     *
+     * @param accountId The ID of the account.
+     * @return A Flux containing transactions related to the specified account, sorted by date in descending order.
+     */
+    Flux<Transaction> findByParticipantsOrderByDateDesc(String accountId);
+
     /**
      * Retrieves transactions by their type.
      * Transactions are filtered by the specified type and sorted by date in descending order.
@@ -39,4 +56,14 @@ public interface TransactionRepository extends ReactiveMongoRepository<Transacti
      * @return A Flux containing transactions of the specified type, sorted by date in descending order.
      */
     Flux<Transaction> findByTypeOrderByDateDesc(String type);
+
+    /**
+     * Retrieves the transactions of the given types created within a time range (served by the type_date index).
+     *
+     * @param types The types of transactions to retrieve.
+     * @param from  The start (exclusive) of the range.
+     * @param to    The end (exclusive) of the range.
+     * @return A Flux containing the matching transactions.
+     */
+    Flux<Transaction> findByTypeInAndDateBetween(Collection<TransactionType> types, LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,24 @@
+package com.example.transactionmicroservice.risk;
+
+/**
+ * Features of the recent activity of an account, computed from its {@link ActivityRingBuffer}.
+ *
+ * @param count           Number of operations in the window.
+ * @param totalAmount     Summed amount of the operations in the window.
+ * @param maxAmount       Largest amount in the window.
+ * @param millisSinceLast Milliseconds since the last known operation, or {@code -1} when there is none.
+ */
+public record AccountActivity(int count, double totalAmount, double maxAmount, long millisSinceLast) {
+
+    /**
+     * Activity of an account without recent operations.
+     */
+    public static final AccountActivity NONE = new AccountActivity(0, 0, 0, -1);
+
+    /**
+     * @return The average amount of the operations in the window, or {@code 0} when there are none.
+     */
+    public double averageAmount() {
+        return count == 0 ? 0 : totalAmount / count;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.transactionmicroservice.risk;
+
+/**
+ * Fixed-size ring buffer with the most recent operations of one account (time and amount).
+ * <p>
+ * Both fields are kept in primitive arrays, so recording an operation does not allocate; features are computed
+ * over the buffered operations that fall inside the requested window.
+ */
+public class ActivityRingBuffer {
+
+    private final long[] timestamps;
+    private final double[] amounts;
+    private int next; // Posición donde se escribirá la siguiente operación
+    private int size;
+
+    public ActivityRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero");
+        }
+        this.timestamps = new long[capacity];
+        this.amounts = new double[capacity];
+    }
+
+    /**
+     * Records an operation, overwriting the oldest one when the buffer is full.
+     *
+     * @param timestampMillis Time of the operation in epoch milliseconds.
+     * @param amount          Amount of the operation.
+     */
+    public synchronized void record(long timestampMillis, double amount) {
+        timestamps[next] = timestampMillis;
+        amounts[next] = amount;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    /**
+     * Computes the activity features of the operations recorded after {@code sinceMillis}.
+     *
+     * @param sinceMillis Start of the window in epoch milliseconds.
+     * @param nowMillis   Current time in epoch milliseconds.
+     * @return The features of the account.
+     */
+    public synchronized AccountActivity snapshot(long sinceMillis, long nowMillis) {
+        int count = 0;
+        double total = 0;
+        double max = 0;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int index = (next - 1 - i + timestamps.length) % timestamps.length;
+            last = Math.max(last, timestamps[index]);
+            if (timestamps[index] > sinceMillis) {
+                count++;
+                total += amounts[index];
+                max = Math.max(max, amounts[index]);
+            }
+        }
+        long millisSinceLast = last == Long.MIN_VALUE ? -1 : nowMillis - last;
+        return new AccountActivity(count, total, max, millisSinceLast);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transactionmicroservice.risk;
+
+import com.example.transactionmicroservice.config.RiskProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Score growing with how far the amount of a debit is above the average recent amount of the account; it reaches
+ * {@code 1} at {@code anomaly-factor} times the average.
+ */
+@Component
+@RequiredArgsConstructor
+public class AmountAnomalyRiskEvaluator implements RiskEvaluator {
+
+    private final RiskProperties properties;
+
+    @Override
+    public String getName() {
+        return "amount-anomaly";
+    }
+
+    @Override
+    public Mono<RiskVerdict> evaluate(RiskContext context) {
+        AccountActivity activity = context.getSourceActivity();
+        if (activity == null || activity.count() == 0) {
+            return Mono.just(RiskVerdict.ALLOW);
+        }
+        double ratio = context.getAmount() / activity.averageAmount();
+        double score = Math.min(1, Math.max(0, (ratio - 1) / (properties.getAnomalyFactor() - 1)));
+        return Mono.just(score == 0 ? RiskVerdict.ALLOW : new RiskVerdict(score, "Amount far above the recent average"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.transactionmicroservice.risk;
+
+import com.example.transactionmicroservice.model.TransactionType;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Operation under evaluation together with the features of the accounts involved.
+ */
+@Getter
+@Builder
+public class RiskContext {
+    private final TransactionType type; // Tipo de operación evaluada
+    private final String sourceAccountId; // Cuenta debitada (null en depósitos)
+    private final String destinationAccountId; // Cuenta acreditada (null en retiros)
+    private final double amount; // Importe de la operación
+    private final AccountActivity sourceActivity; // Débitos recientes de la cuenta debitada
+    private final AccountActivity destinationActivity; // Débitos recientes de la cuenta acreditada
+}
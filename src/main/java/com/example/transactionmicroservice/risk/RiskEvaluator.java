@@ -0,0 +1,25 @@
+package com.example.transactionmicroservice.risk;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Rule or score evaluated before a deposit, withdrawal or transfer is executed.
+ * <p>
+ * Every evaluator bean is picked up by the risk pipeline and run in parallel with the others within the
+ * configured latency budget, so implementations must not block.
+ */
+public interface RiskEvaluator {
+
+    /**
+     * @return The name of the evaluator, used to tag its metrics.
+     */
+    String getName();
+
+    /**
+     * Evaluates an operation.
+     *
+     * @param context The operation and the features of the accounts involved.
+     * @return A Mono containing the verdict of the evaluator.
+     */
+    Mono<RiskVerdict> evaluate(RiskContext context);
+}
@@ -0,0 +1,22 @@
+package com.example.transactionmicroservice.risk;
+
+/**
+ * Result of a {@link RiskEvaluator}.
+ *
+ * @param score  Risk between {@code 0} (no risk) and {@code 1} (certain fraud).
+ * @param reason Short explanation of the score, or {@code null} when there is no risk.
+ */
+public record RiskVerdict(double score, String reason) {
+
+    /**
+     * Verdict of an operation without risk.
+     */
+    public static final RiskVerdict ALLOW = new RiskVerdict(0, null);
+
+    /**
+     * @return A verdict that blocks the operation for the given reason.
+     */
+    public static RiskVerdict block(String reason) {
+        return new RiskVerdict(1, reason);
+    }
+}
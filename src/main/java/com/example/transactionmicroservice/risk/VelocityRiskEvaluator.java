@@ -0,0 +1,31 @@
+package com.example.transactionmicroservice.risk;
+
+import com.example.transactionmicroservice.config.RiskProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rule blocking bursts of activity: more than {@code max-operations} operations on the debited account within the
+ * feature window.
+ */
+@Component
+@RequiredArgsConstructor
+public class VelocityRiskEvaluator implements RiskEvaluator {
+
+    private final RiskProperties properties;
+
+    @Override
+    public String getName() {
+        return "velocity";
+    }
+
+    @Override
+    public Mono<RiskVerdict> evaluate(RiskContext context) {
+        AccountActivity activity = context.getSourceActivity();
+        if (activity != null && activity.count() >= properties.getVelocity().getMaxOperations()) {
+            return Mono.just(RiskVerdict.block("Too many operations in a short time"));
+        }
+        return Mono.just(RiskVerdict.ALLOW);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.transactionmicroservice.scheduling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed time wheel: an array of buckets, each covering one tick, advanced by a single timer thread.
+ * <p>
+ * Adding a timeout is O(1) and lock-free (it is queued and moved into its bucket on the next tick); every tick only
+ * visits the entries of the current bucket, so millions of pending timeouts cost nothing until they are due.
+ * Timeouts further away than one revolution wait in their bucket for the remaining number of rounds.
+ *
+ * @param <T> The type of the scheduled items.
+ */
+public class HashedTimeWheel<T> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final List<Entry<T>>[] buckets;
+    private final Queue<Entry<T>> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpired;
+    private final ScheduledExecutorService timer;
+    private final long startNanos;
+    private long tick; // Solo lo modifica el hilo del timer
+
+    @SuppressWarnings("unchecked")
+    public HashedTimeWheel(long tickMillis, int wheelSize, Consumer<T> onExpired) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be greater than zero");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.onExpired = onExpired;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "time-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.startNanos = System.nanoTime();
+        timer.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules an item to expire after the given delay. Delays shorter than one tick expire on the next tick.
+     *
+     * @param item        The item to hand to the expiration callback.
+     * @param delayMillis The delay in milliseconds.
+     */
+    public void schedule(T item, long delayMillis) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        pendingAdds.offer(new Entry<>(item, deadline));
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void advance() {
+        transferPendingAdds();
+        List<Entry<T>> bucket = buckets[(int) (tick % buckets.length)];
+        Iterator<Entry<T>> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (entry.remainingRounds <= 0) {
+                iterator.remove();
+                try {
+                    onExpired.accept(entry.item);
+                } catch (RuntimeException e) {
+                    // Un callback fallido no debe detener la rueda
+                }
+            } else {
+                entry.remainingRounds--;
+            }
+        }
+        tick++;
+    }
+
+    private void transferPendingAdds() {
+        Entry<T> entry;
+        while ((entry = pendingAdds.poll()) != null) {
+            long ticks = Math.max(tick, entry.deadlineNanos / tickNanos); // Los vencidos van al tick actual
+            entry.remainingRounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks % buckets.length)].add(entry);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        private Entry(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
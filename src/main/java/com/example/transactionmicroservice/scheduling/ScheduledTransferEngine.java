@@ -0,0 +1,221 @@
+package com.example.transactionmicroservice.scheduling;
+
+import com.example.transactionmicroservice.config.SchedulingProperties;
+import com.example.transactionmicroservice.exception.DomainException;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.ScheduledTransferStatus;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.repository.ScheduledTransferRepository;
+import com.example.transactionmicroservice.service.TransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executes the due occurrences of the scheduled transfers.
+ * <p>
+ * Every {@code bucket} the engine loads from MongoDB the occurrences due within the next bucket (one indexed range
+ * query) and places them on a {@link HashedTimeWheel}, so firing them costs no further reads. When an occurrence
+ * expires it is executed with bounded concurrency, after claiming it with a conditional update: only one node wins
+ * the lease on an occurrence, and an occurrence whose lease expired while it was executing is never retried
+ * automatically (the transfer may or may not have happened) but marked {@link ScheduledTransferStatus#NEEDS_REVIEW}.
+ * Together this gives at-most-once execution per occurrence.
+ */
+@Slf4j
+@Component
+public class ScheduledTransferEngine implements SmartLifecycle {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionService transactionService;
+    private final SchedulingProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> wheelKeys = ConcurrentHashMap.newKeySet(); // Ocurrencias ya puestas en la rueda
+    private static final Duration EMIT_TIMEOUT = Duration.ofMillis(100);
+
+    private final Sinks.Many<ScheduledTransfer> expired = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private HashedTimeWheel<ScheduledTransfer> wheel;
+    private volatile boolean running;
+
+    public ScheduledTransferEngine(ScheduledTransferRepository scheduledTransferRepository,
+                                   ReactiveMongoTemplate mongoTemplate,
+                                   TransactionService transactionService,
+                                   SchedulingProperties properties) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.transactionService = transactionService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // Solo el hilo de la rueda emite en el sink, por lo que un sink unicast es suficiente
+        wheel = new HashedTimeWheel<>(properties.getTick().toMillis(), properties.getWheelSize(),
+                scheduledTransfer -> expired.tryEmitNext(scheduledTransfer));
+        // La ejecución no se añade a subscriptions: al parar se deja terminar lo que está en curso
+        expired.asFlux()
+                .flatMap(scheduledTransfer -> execute(scheduledTransfer)
+                        .onErrorResume(e -> {
+                            log.error("Scheduled transfer {} failed", scheduledTransfer.getId(), e);
+                            return Mono.empty();
+                        }), properties.getMaxConcurrency())
+                .subscribe();
+        subscriptions.add(Flux.interval(Duration.ZERO, properties.getBucket())
+                .onBackpressureDrop()
+                .concatMap(tick -> loadNextBucket()
+                        .onErrorResume(e -> {
+                            log.warn("Could not load scheduled transfers", e);
+                            return Mono.empty();
+                        }))
+                .subscribe());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        subscriptions.dispose();
+        if (wheel != null) {
+            wheel.close();
+            // Las transferencias en curso terminan y las drena InFlightMutations; no se disparan más ocurrencias
+            expired.emitComplete(Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Marks the abandoned occurrences for review and places the occurrences due within the next bucket on the wheel.
+     *
+     * @return A Mono that completes when the bucket has been loaded.
+     */
+    Mono<Void> loadNextBucket() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plus(properties.getBucket()).plus(properties.getBucket());
+        return markAbandonedOccurrences(now)
+                .thenMany(scheduledTransferRepository.findByStatusAndNextExecutionBeforeOrderByNextExecutionAsc(
+                        ScheduledTransferStatus.ACTIVE, horizon))
+                .filter(scheduledTransfer -> scheduledTransfer.getExecutingOccurrence() == null)
+                .filter(scheduledTransfer -> wheelKeys.add(occurrenceKey(scheduledTransfer)))
+                .doOnNext(scheduledTransfer -> wheel.schedule(scheduledTransfer,
+                        Duration.between(now, scheduledTransfer.getNextExecution()).toMillis()))
+                .then();
+    }
+
+    /**
+     * Executes one occurrence if this node wins its lease.
+     *
+     * @param scheduledTransfer The definition as loaded when the occurrence was placed on the wheel.
+     * @return A Mono that completes when the occurrence has been executed and recorded.
+     */
+    Mono<Void> execute(ScheduledTransfer scheduledTransfer) {
+        LocalDateTime occurrence = scheduledTransfer.getNextExecution();
+        wheelKeys.remove(occurrenceKey(scheduledTransfer));
+        return claim(scheduledTransfer.getId(), occurrence)
+                .flatMap(claimed -> transactionService.transfer(claimed.getSourceAccountId(),
+                                claimed.getDestinationAccountId(), claimed.getAmount())
+                        .flatMap(transaction -> complete(claimed, occurrence, transaction))
+                        .onErrorResume(e -> fail(claimed, occurrence, e)))
+                .then();
+    }
+
+    private Mono<ScheduledTransfer> claim(String id, LocalDateTime occurrence) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").is(ScheduledTransferStatus.ACTIVE)
+                .and("nextExecution").is(occurrence)
+                .and("executingOccurrence").is(null));
+        Update update = new Update()
+                .set("executingOccurrence", occurrence)
+                .set("leaseOwner", nodeId)
+                .set("leaseUntil", now.plus(properties.getLease()));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                ScheduledTransfer.class);
+    }
+
+    private Mono<ScheduledTransfer> complete(ScheduledTransfer claimed, LocalDateTime occurrence,
+                                             Transaction transaction) {
+        return release(claimed, occurrence, advance(claimed, occurrence)
+                .set("lastTransactionId", transaction.getId())
+                .unset("lastError"));
+    }
+
+    private Mono<ScheduledTransfer> fail(ScheduledTransfer claimed, LocalDateTime occurrence, Throwable error) {
+        if (error instanceof DomainException) {
+            // Rechazo de negocio (saldo insuficiente, cuenta inexistente...): no se movió dinero, se pasa a la siguiente
+            return release(claimed, occurrence, advance(claimed, occurrence).set("lastError", error.getMessage()));
+        }
+        // Error técnico: no se sabe si la transferencia llegó a aplicarse, no se reintenta automáticamente
+        log.warn("Scheduled transfer {} needs review after a failed occurrence", claimed.getId(), error);
+        return release(claimed, occurrence, new Update()
+                .set("status", ScheduledTransferStatus.NEEDS_REVIEW)
+                .set("lastExecution", occurrence)
+                .set("lastError", String.valueOf(error.getMessage())));
+    }
+
+    private Update advance(ScheduledTransfer claimed, LocalDateTime occurrence) {
+        LocalDateTime next = claimed.getCronExpression() == null
+                ? null : CronExpression.parse(claimed.getCronExpression()).next(occurrence);
+        Update update = new Update().set("lastExecution", occurrence);
+        return next == null
+                ? update.set("status", ScheduledTransferStatus.COMPLETED)
+                : update.set("nextExecution", next);
+    }
+
+    private Mono<ScheduledTransfer> release(ScheduledTransfer claimed, LocalDateTime occurrence, Update update) {
+        Query query = Query.query(Criteria.where("_id").is(claimed.getId())
+                .and("executingOccurrence").is(occurrence)
+                .and("leaseOwner").is(nodeId));
+        return mongoTemplate.findAndModify(query, update
+                        .unset("executingOccurrence")
+                        .unset("leaseOwner")
+                        .unset("leaseUntil"),
+                FindAndModifyOptions.options().returnNew(true), ScheduledTransfer.class);
+    }
+
+    private Mono<Void> markAbandonedOccurrences(LocalDateTime now) {
+        Query query = Query.query(Criteria.where("status").is(ScheduledTransferStatus.ACTIVE)
+                .and("executingOccurrence").ne(null)
+                .and("leaseUntil").lt(now));
+        Update update = new Update()
+                .set("status", ScheduledTransferStatus.NEEDS_REVIEW)
+                .set("lastError", "Lease expired while the occurrence was executing")
+                .unset("leaseOwner")
+                .unset("leaseUntil");
+        return mongoTemplate.updateMulti(query, update, ScheduledTransfer.class)
+                .doOnNext(result -> {
+                    if (result.getModifiedCount() > 0) {
+                        log.warn("{} scheduled transfers need review after an expired lease", result.getModifiedCount());
+                    }
+                })
+                .then();
+    }
+
+    private static String occurrenceKey(ScheduledTransfer scheduledTransfer) {
+        return scheduledTransfer.getId() + "@" + scheduledTransfer.getNextExecution();
+    }
+}
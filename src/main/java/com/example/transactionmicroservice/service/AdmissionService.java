@@ -0,0 +1,37 @@
+package com.example.transactionmicroservice.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Admission control, in two priority lanes.
+ * Mutations go through per-client and per-account rate limits and the mutation concurrency limit; history reads
+ * have their own, smaller concurrency budget and are shed first when the node is overloaded.
+ */
+public interface AdmissionService {
+
+    /**
+     * Runs a mutation if the client, the accounts involved and the node have capacity for it.
+     *
+     * @param clientId   The ID of the API client issuing the request (may be null for anonymous clients).
+     * @param accountIds The IDs of the accounts affected by the operation.
+     * @param mutation   Supplies the operation to run once admitted.
+     * @param <T>        The type of the operation result.
+     * @return A Mono with the operation result, or an error with HTTP 429 if the request was rejected.
+     */
+    <T> Mono<T> admit(String clientId, List<String> accountIds, Supplier<Mono<T>> mutation);
+
+    /**
+     * Runs a history read in the low-priority lane. The read is rejected while mutations are waiting for a permit,
+     * and its rows are published on the read scheduler. On the servlet stack the permit is held until the response
+     * has been written, since the rows are serialized after the Flux completes.
+     *
+     * @param read Supplies the query to run once admitted.
+     * @param <T>  The type of the rows.
+     * @return A Flux with the rows, or an error with HTTP 429 if the request was rejected.
+     */
+    <T> Flux<T> admitRead(Supplier<Flux<T>> read);
+}
@@ -1,12 +1,26 @@
 package com.example.transactionmicroservice.service;
 
 import com.example.transactionmicroservice.model.BankAccount;
-import org.springframework.data.util.Pair;
+import com.example.transactionmicroservice.model.MultiTransferResult;
+import com.example.transactionmicroservice.model.TransferLeg;
+import com.example.transactionmicroservice.model.TransferResult;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface BankAccountService {
     Mono<BankAccount> getAccount(String accountId);
     Mono<BankAccount> deposit(String accountId, Double amount);
     Mono<BankAccount> withdraw(String accountId, Double amount);
-    Mono<Pair<BankAccount, BankAccount>> transfer(String sourceAccountId, String destinationAccountId, Double amount);
+    Mono<TransferResult> transfer(String sourceAccountId, String destinationAccountId, Double amount);
+
+    /**
+     * Debits the source once with the total of the legs and credits every destination in parallel. The amount of
+     * the legs that could not be credited is deposited back into the source.
+     *
+     * @param sourceAccountId The ID of the debited account.
+     * @param legs            The credits, with their amounts in the currency of the source account.
+     * @return A Mono with the outcome of every leg and of the refund.
+     */
+    Mono<MultiTransferResult> multiTransfer(String sourceAccountId, List<TransferLeg> legs);
 }
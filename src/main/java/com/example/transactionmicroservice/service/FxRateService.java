@@ -0,0 +1,24 @@
+package com.example.transactionmicroservice.service;
+
+import com.example.transactionmicroservice.fx.FxRateTable;
+
+/**
+ * Service interface giving access to the exchange rates kept in memory.
+ */
+public interface FxRateService {
+
+    /**
+     * Returns the current rate table. The call reads an in-memory snapshot and never performs I/O.
+     *
+     * @return The latest loaded rate table.
+     */
+    FxRateTable current();
+
+    /**
+     * Returns the currency of an account, applying the default currency when the account has none.
+     *
+     * @param currency The currency reported for the account (may be {@code null}).
+     * @return The normalized ISO currency code.
+     */
+    String currencyOf(String currency);
+}
@@ -0,0 +1,62 @@
+package com.example.transactionmicroservice.service;
+
+import com.example.transactionmicroservice.model.ProfilingRecording;
+import com.example.transactionmicroservice.model.ProfilingSummary;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Service interface for on-demand JFR recordings and their per-request-class summaries.
+ */
+public interface ProfilingService {
+
+    /**
+     * Starts a JFR recording that stops by itself after the given duration.
+     *
+     * @param duration How long to record, or null for the configured default (capped by the configured maximum).
+     * @return A Mono containing the started recording, or an error if another recording is in progress.
+     */
+    Mono<ProfilingRecording> start(Duration duration);
+
+    /**
+     * Stops a recording before its duration elapses and writes its file.
+     *
+     * @param id The ID of the recording.
+     * @return A Mono containing the stopped recording.
+     */
+    Mono<ProfilingRecording> stop(String id);
+
+    /**
+     * Retrieves the recordings kept on this node, most recent first.
+     *
+     * @return A Flux containing the recordings.
+     */
+    Flux<ProfilingRecording> findRecordings();
+
+    /**
+     * Retrieves a recording.
+     *
+     * @param id The ID of the recording.
+     * @return A Mono containing the recording.
+     */
+    Mono<ProfilingRecording> findRecording(String id);
+
+    /**
+     * Summarizes a finished recording: allocation hot spots and GC pauses attributed to each request class.
+     *
+     * @param id The ID of the recording.
+     * @return A Mono containing the summary, or an error if the recording has not finished.
+     */
+    Mono<ProfilingSummary> summarize(String id);
+
+    /**
+     * Retrieves the {@code .jfr} file of a finished recording, for JDK Mission Control or {@code jfr print}.
+     *
+     * @param id The ID of the recording.
+     * @return A Mono containing the path of the file, or an error if the recording has not finished.
+     */
+    Mono<Path> findFile(String id);
+}
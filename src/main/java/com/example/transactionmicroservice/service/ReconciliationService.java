@@ -0,0 +1,51 @@
+package com.example.transactionmicroservice.service;
+
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for reconciling the ledger against the balances of the bank-accounts service.
+ */
+public interface ReconciliationService {
+
+    /**
+     * Starts a reconciliation run in the background.
+     *
+     * @return A Mono containing the started run, or an error if another run is in progress.
+     */
+    Mono<ReconciliationRun> start();
+
+    /**
+     * Retrieves a reconciliation run with its progress.
+     *
+     * @param id The ID of the run.
+     * @return A Mono containing the run.
+     */
+    Mono<ReconciliationRun> findRun(String id);
+
+    /**
+     * Retrieves all the reconciliation runs, most recent first.
+     *
+     * @return A Flux containing the runs.
+     */
+    Flux<ReconciliationRun> findRuns();
+
+    /**
+     * Retrieves the discrepancy report of a run.
+     *
+     * @param id The ID of the run.
+     * @return A Flux containing the discrepancies found so far, sorted by account.
+     */
+    Flux<Discrepancy> findDiscrepancies(String id);
+
+    /**
+     * Retrieves the mutations interrupted by a shutdown whose outcome is unknown and must be checked against the
+     * bank-accounts service.
+     *
+     * @return A Flux containing the journal entries awaiting review.
+     */
+    Flux<PendingMutation> findPendingMutations();
+}
@@ -0,0 +1,29 @@
+package com.example.transactionmicroservice.service;
+
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for the fraud-scoring stage executed before a deposit, withdrawal or transfer.
+ */
+public interface RiskService {
+
+    /**
+     * Evaluates an operation before it is executed.
+     *
+     * @param type                 The type of the operation.
+     * @param sourceAccountId      The debited account, or {@code null} for deposits.
+     * @param destinationAccountId The credited account, or {@code null} for withdrawals.
+     * @param amount               The amount of the operation.
+     * @return A Mono that completes when the operation is allowed, or signals an error when it is rejected.
+     */
+    Mono<Void> assess(TransactionType type, String sourceAccountId, String destinationAccountId, Double amount);
+
+    /**
+     * Adds an executed transaction to the recent activity of its debited account; credits are not activity.
+     *
+     * @param transaction The executed transaction.
+     */
+    void record(Transaction transaction);
+}
@@ -0,0 +1,45 @@
+package com.example.transactionmicroservice.service;
+
+import com.example.transactionmicroservice.dto.ScheduledTransferRequestDto;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for managing scheduled (one-off or recurring) transfers.
+ */
+public interface ScheduledTransferService {
+
+    /**
+     * Creates a scheduled transfer.
+     *
+     * @param request The definition of the transfer and its recurrence.
+     * @return A Mono containing the saved scheduled transfer.
+     */
+    Mono<ScheduledTransfer> create(ScheduledTransferRequestDto request);
+
+    /**
+     * Retrieves a scheduled transfer by its ID.
+     *
+     * @param id The ID of the scheduled transfer.
+     * @return A Mono containing the scheduled transfer.
+     */
+    Mono<ScheduledTransfer> findById(String id);
+
+    /**
+     * Retrieves the scheduled transfers debiting a specific account.
+     *
+     * @param accountId The ID of the source account.
+     * @return A Flux containing the scheduled transfers of the account.
+     */
+    Flux<ScheduledTransfer> findBySourceAccountId(String accountId);
+
+    /**
+     * Cancels a scheduled transfer so no further occurrences are executed.
+     *
+     * @param id The ID of the scheduled transfer.
+     * @return A Mono containing the cancelled scheduled transfer, SCHEDULED_TRANSFER_NOT_FOUND, or
+     * SCHEDULED_TRANSFER_COMPLETED if the transfer has already completed.
+     */
+    Mono<ScheduledTransfer> cancel(String id);
+}
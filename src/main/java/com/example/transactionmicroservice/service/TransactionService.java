@@ -1,9 +1,13 @@
 package com.example.transactionmicroservice.service;
 
+import com.example.transactionmicroservice.model.MultiTransfer;
 import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransferLeg;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Service interface for managing transactions.
  * Defines operations for deposits, withdrawals, transfers, and retrieving transaction histories.
@@ -38,6 +42,16 @@ public interface TransactionService {
      */
     Mono<Transaction> transfer(String sourceAccountId, String destinationAccountId, Double amount);
 
+    /**
+     * Performs a transfer from one account to several destinations with a single debit, crediting the legs in
+     * parallel and refunding to the source the legs that could not be credited.
+     *
+     * @param sourceAccountId The ID of the account from which the funds will be transferred.
+     * @param legs            The destinations and amounts, in the currency of the source account.
+     * @return A Mono containing the saved parent transaction, its credited legs and the failed ones.
+     */
+    Mono<MultiTransfer> multiTransfer(String sourceAccountId, List<TransferLeg> legs);
+
     /**
      * Retrieves the global transaction history.
      * Includes all transactions in the system, sorted by date.
@@ -54,4 +68,14 @@ public interface TransactionService {
      * @return A Flux containing all transactions related to the specified account, sorted by date in descending order.
      */
     Flux<Transaction> getAccountTransactionHistory(String accountId);
+
+    /**
+     * Retrieves the most recent transactions of a specific account.
+     *
+     * @param accountId The ID of the account whose transactions are to be retrieved.
+     * @param limit     The maximum number of transactions to return.
+     * @return A Flux containing at most {@code limit} transactions related to the account, sorted by date in
+     * descending order, or an INVALID_LIMIT error when {@code limit} is not positive.
+     */
+    Flux<Transaction> getRecentAccountTransactions(String accountId, int limit);
 }
@@ -0,0 +1,53 @@
+package com.example.transactionmicroservice.service;
+
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.AccountType;
+
+/**
+ * Service interface enforcing the daily limit and velocity rules on the money leaving an account.
+ */
+public interface WithdrawalLimitService {
+
+    /**
+     * Returns the rate that converts an amount in the currency of an account into the currency the amount rules are
+     * expressed in ({@code transactions.limits.currency}). Callers convert a debit once with it and pass the
+     * converted amount to {@link #tryConsume} and to its refunds, so a rate refresh in between does not change what
+     * is given back.
+     *
+     * @param currency The currency of the debited account (may be {@code null} for the default currency).
+     * @return The exchange rate, or {@link Double#NaN} when there is no rate for the currency.
+     */
+    double limitRate(String currency);
+
+    /**
+     * Checks the rules of the account type and, if they allow it, counts the debit against the account.
+     *
+     * @param accountType The type of the debited account.
+     * @param accountId   The ID of the debited account.
+     * @param amount      The amount debited, converted with {@link #limitRate}.
+     * @param debitedAt   Time of the debit in epoch milliseconds.
+     * @return {@code null} when the debit is allowed, otherwise the error describing the exceeded limit
+     * ({@code UNSUPPORTED_CURRENCY_PAIR} when the amount could not be converted and the rule limits the amount).
+     */
+    ErrorCode tryConsume(AccountType accountType, String accountId, Double amount, long debitedAt);
+
+    /**
+     * Gives back a debit counted by {@link #tryConsume} whose operation then certainly failed. Debits with an
+     * unknown outcome (timeouts, 5xx) must stay counted, since the money may have left the account.
+     *
+     * @param accountId The ID of the debited account.
+     * @param amount    The amount passed to {@link #tryConsume}.
+     * @param debitedAt The time passed to {@link #tryConsume}, so the debit leaves the window it was counted in.
+     */
+    void refund(String accountId, Double amount, long debitedAt);
+
+    /**
+     * Gives back part of a debit counted by {@link #tryConsume} that was returned to the account, e.g. the rejected
+     * legs of a multi-leg transfer. The debit itself stays counted.
+     *
+     * @param accountId The ID of the debited account.
+     * @param amount    The amount returned to the account, converted with the rate of the debit.
+     * @param debitedAt The time passed to {@link #tryConsume}, so the amount leaves the window it was counted in.
+     */
+    void refundAmount(String accountId, Double amount, long debitedAt);
+}
@@ -0,0 +1,198 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.AdmissionProperties;
+import com.example.transactionmicroservice.config.ResponseCompletionFilter;
+import com.example.transactionmicroservice.ratelimit.ConcurrencyLimiter;
+import com.example.transactionmicroservice.ratelimit.RateLimitExceededException;
+import com.example.transactionmicroservice.ratelimit.TokenBucket;
+import com.example.transactionmicroservice.service.AdmissionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Service
+public class AdmissionServiceImpl implements AdmissionService {
+
+    static final String ANONYMOUS_CLIENT = "anonymous";
+    static final String MUTATION_LANE = "mutation";
+    static final String READ_LANE = "read";
+
+    private final AdmissionProperties properties;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final ConcurrencyLimiter readLimiter;
+    private final Scheduler readScheduler;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+
+    private final Counter clientRejections;
+    private final Counter accountRejections;
+    private final Counter overloadRejections;
+    private final Counter readOverloadRejections;
+    private final Counter readPriorityRejections;
+    private final Timer mutationLatency;
+    private final Timer readLatency;
+
+    public AdmissionServiceImpl(AdmissionProperties properties, MeterRegistry meterRegistry,
+                                @Qualifier("readScheduler") Scheduler readScheduler) {
+        this.properties = properties;
+        this.concurrencyLimiter = new ConcurrencyLimiter(properties.getMaxConcurrent(),
+                properties.getMaxQueueSize(), properties.getMaxQueueTime());
+        AdmissionProperties.Reads reads = properties.getReads();
+        this.readLimiter = new ConcurrencyLimiter(reads.getMaxConcurrent(), reads.getMaxQueueSize(),
+                reads.getMaxQueueTime());
+        this.readScheduler = readScheduler;
+        this.clientBuckets = buckets(properties.getClient(), properties.getMaxTrackedKeys());
+        this.accountBuckets = buckets(properties.getAccount(), properties.getMaxTrackedKeys());
+
+        this.clientRejections = rejectionCounter(meterRegistry, MUTATION_LANE, "client");
+        this.accountRejections = rejectionCounter(meterRegistry, MUTATION_LANE, "account");
+        this.overloadRejections = rejectionCounter(meterRegistry, MUTATION_LANE, "overload");
+        this.readOverloadRejections = rejectionCounter(meterRegistry, READ_LANE, "overload");
+        this.readPriorityRejections = rejectionCounter(meterRegistry, READ_LANE, "priority");
+        this.mutationLatency = latencyTimer(meterRegistry, MUTATION_LANE);
+        this.readLatency = latencyTimer(meterRegistry, READ_LANE);
+        registerGauges(meterRegistry, MUTATION_LANE, concurrencyLimiter);
+        registerGauges(meterRegistry, READ_LANE, readLimiter);
+    }
+
+    @Override
+    public <T> Mono<T> admit(String clientId, List<String> accountIds, Supplier<Mono<T>> mutation) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(mutation);
+        }
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            String clientKey = clientId == null || clientId.isBlank() ? ANONYMOUS_CLIENT : clientId;
+            TokenBucket clientBucket = bucket(clientBuckets, clientKey, properties.getClient(), now);
+            long clientWait = clientBucket.tryAcquire(now);
+            if (clientWait > 0) {
+                clientRejections.increment();
+                return Mono.error(new RateLimitExceededException("Rate limit exceeded for client", clientWait));
+            }
+            // Una petición rechazada devuelve los tokens que ya tomó: no consume el cupo del cliente ni del origen
+            List<TokenBucket> acquired = new ArrayList<>(accountIds.size() + 1);
+            acquired.add(clientBucket);
+            for (String accountId : accountIds) {
+                if (accountId == null) {
+                    continue;
+                }
+                TokenBucket accountBucket = bucket(accountBuckets, accountId, properties.getAccount(), now);
+                long accountWait = accountBucket.tryAcquire(now);
+                if (accountWait > 0) {
+                    release(acquired);
+                    accountRejections.increment();
+                    return Mono.error(new RateLimitExceededException("Rate limit exceeded for account", accountWait));
+                }
+                acquired.add(accountBucket);
+            }
+            long start = System.nanoTime();
+            return concurrencyLimiter.acquire()
+                    .doOnError(RateLimitExceededException.class, ex -> {
+                        release(acquired);
+                        overloadRejections.increment();
+                    })
+                    .then(Mono.defer(() -> Mono.defer(mutation).doFinally(signal -> {
+                        concurrencyLimiter.release();
+                        mutationLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    })));
+        });
+    }
+
+    @Override
+    public <T> Flux<T> admitRead(Supplier<Flux<T>> read) {
+        if (!properties.isEnabled()) {
+            return Flux.defer(read).publishOn(readScheduler);
+        }
+        // En MVC la respuesta se serializa después de completarse el Flux: el permiso se mantiene hasta escribirla
+        Consumer<Runnable> onResponseWritten = ResponseCompletionFilter.current();
+        return Flux.defer(() -> {
+            AdmissionProperties.Reads reads = properties.getReads();
+            if (reads.isYieldToMutations() && concurrencyLimiter.getQueueDepth() > 0) {
+                // Las mutaciones ya esperan permiso: la lectura se descarta antes de competir por Mongo y CPU
+                readPriorityRejections.increment();
+                return Flux.error(new RateLimitExceededException("Server is busy, try the history again later",
+                        reads.getMaxQueueTime().toNanos()));
+            }
+            long start = System.nanoTime();
+            return readLimiter.acquire()
+                    .doOnError(RateLimitExceededException.class, ex -> readOverloadRejections.increment())
+                    .thenMany(Flux.defer(() -> Flux.defer(read).publishOn(readScheduler).doFinally(signal -> {
+                        Runnable release = () -> {
+                            readLimiter.release();
+                            readLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        };
+                        if (onResponseWritten == null) {
+                            release.run();
+                        } else {
+                            onResponseWritten.accept(release);
+                        }
+                    })));
+        });
+    }
+
+    private static TokenBucket bucket(Cache<String, TokenBucket> buckets, String key, AdmissionProperties.Limit limit,
+                                      long now) {
+        return buckets.get(key, k -> new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), now));
+    }
+
+    /**
+     * Buckets by key, bounded to {@code maxTrackedKeys}. A bucket not used for the time it takes to refill is full
+     * again and holds no state, so it expires then; beyond the bound W-TinyLFU evicts the least used keys in amortized
+     * constant time, so rotating client ids cannot turn admission into a scan of every bucket.
+     */
+    private static Cache<String, TokenBucket> buckets(AdmissionProperties.Limit limit, int maxTrackedKeys) {
+        long refillNanos = (long) Math.ceil(limit.getBurst() * 1e9 / limit.getRatePerSecond());
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofNanos(refillNanos))
+                .build();
+    }
+
+    private static void release(List<TokenBucket> buckets) {
+        long now = System.nanoTime();
+        buckets.forEach(bucket -> bucket.release(now));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String lane, String reason) {
+        return Counter.builder("transactions.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("lane", lane)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String lane) {
+        return Timer.builder("transactions.admission.latency")
+                .description("Time from admission to completion of the admitted requests, queueing included")
+                .tag("lane", lane)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void registerGauges(MeterRegistry meterRegistry, String lane, ConcurrencyLimiter limiter) {
+        Gauge.builder("transactions.admission.queue.depth", limiter, ConcurrencyLimiter::getQueueDepth)
+                .description("Requests waiting for a concurrency permit")
+                .tag("lane", lane)
+                .register(meterRegistry);
+        Gauge.builder("transactions.admission.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                .description("Requests currently executing")
+                .tag("lane", lane)
+                .register(meterRegistry);
+    }
+}
@@ -1,87 +1,333 @@
 package com.example.transactionmicroservice.service.impl;
 
 import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.config.MultiTransferProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
 import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.LegResult;
+import com.example.transactionmicroservice.model.LegStatus;
+import com.example.transactionmicroservice.model.MultiTransferResult;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.TransferLeg;
+import com.example.transactionmicroservice.model.TransferResult;
+import com.example.transactionmicroservice.ratelimit.RateLimitExceededException;
 import com.example.transactionmicroservice.service.BankAccountService;
+import com.example.transactionmicroservice.service.FxRateService;
+import com.example.transactionmicroservice.service.WithdrawalLimitService;
+import com.example.transactionmicroservice.shutdown.InFlightMutation;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Service
 @RequiredArgsConstructor
 public class BankAccountServiceImpl implements BankAccountService {
 
     private final BankAccountClient bankAccountClient;
+    private final WithdrawalLimitService withdrawalLimitService;
+    private final FxRateService fxRateService;
+    private final MultiTransferProperties multiTransferProperties;
 
     @Override
     public Mono<BankAccount> getAccount(String accountId) {
-        validateAccountId(accountId);
+        ErrorCode error = validateAccountId(accountId);
+        if (error != null) {
+            return error.asMono();
+        }
         return bankAccountClient.getAccount(accountId)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found")));
+                .switchIfEmpty(ErrorCode.ACCOUNT_NOT_FOUND.asMono());
     }
 
     @Override
     public Mono<BankAccount> deposit(String accountId, Double amount) {
-        validateAccountId(accountId);
-        validateAmount(amount);
+        ErrorCode error = firstError(validateAccountId(accountId), validateAmount(amount));
+        if (error != null) {
+            return error.asMono();
+        }
         return bankAccountClient.deposit(accountId, amount)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found")));
+                .transform(InFlightMutation.step(MutationPhase.CREDITING, MutationPhase.APPLIED))
+                .switchIfEmpty(ErrorCode.ACCOUNT_NOT_FOUND.asMono());
     }
 
     public Mono<BankAccount> withdraw(String accountId, Double amount) {
-        validateAccountId(accountId);
-        validateAmount(amount);
-        return getAccount(accountId)
+        ErrorCode error = firstError(validateAccountId(accountId), validateAmount(amount));
+        if (error != null) {
+            return error.asMono();
+        }
+        return Mono.deferContextual(context -> getAccount(accountId)
                 .flatMap(account -> {
                     BigDecimal balance = account.getBalance();
                     BigDecimal amountToWithdraw = BigDecimal.valueOf(amount);
                     if (balance.compareTo(amountToWithdraw) < 0) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient balance"));
+                        return ErrorCode.INSUFFICIENT_BALANCE.asMono();
                     }
-                    return bankAccountClient.withdraw(accountId, amount);
-                });
+                    long debitedAt = System.currentTimeMillis();
+                    double limitAmount = amount * withdrawalLimitService.limitRate(account.getCurrency());
+                    ErrorCode limitError = withdrawalLimitService.tryConsume(account.getAccountType(), accountId,
+                            limitAmount, debitedAt);
+                    if (limitError != null) {
+                        return limitError.asMono();
+                    }
+                    InFlightMutation.onDropped(context,
+                            () -> withdrawalLimitService.refund(accountId, limitAmount, debitedAt));
+                    return bankAccountClient.withdraw(accountId, amount)
+                            .transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.APPLIED))
+                            .doOnError(BankAccountServiceImpl::isNotApplied,
+                                    e -> withdrawalLimitService.refund(accountId, limitAmount, debitedAt));
+                }));
     }
 
-    public Mono<Pair<BankAccount, BankAccount>> transfer(String sourceAccountId, String destinationAccountId, Double amount) {
-        validateAccountId(sourceAccountId);
-        validateAccountId(destinationAccountId);
-        validateAmount(amount);
+    public Mono<TransferResult> transfer(String sourceAccountId, String destinationAccountId, Double amount) {
+        ErrorCode error = firstError(firstError(validateAccountId(sourceAccountId), validateAccountId(destinationAccountId)),
+                validateAmount(amount));
+        if (error != null) {
+            return error.asMono();
+        }
 
         if (sourceAccountId.equals(destinationAccountId)) {
-            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Source and destination accounts must be different"));
+            return ErrorCode.SAME_SOURCE_AND_DESTINATION.asMono();
         }
 
-        return getAccount(sourceAccountId)
-                .flatMap(sourceAccount -> {
+        // Ambas cuentas se consultan en paralelo (el cliente las agrupa en una sola petición)
+        return Mono.deferContextual(context -> Mono.zip(getAccount(sourceAccountId), getAccount(destinationAccountId))
+                .flatMap(accounts -> {
+                    BankAccount sourceAccount = accounts.getT1();
                     BigDecimal balance = sourceAccount.getBalance();
                     BigDecimal amountToWithdraw = BigDecimal.valueOf(amount);
                     if (balance.compareTo(amountToWithdraw) < 0) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient balance"));
+                        return ErrorCode.INSUFFICIENT_BALANCE.<TransferResult>asMono();
                     }
+                    FxConversion conversion = convert(sourceAccount, accounts.getT2(), amount);
+                    if (conversion == null) {
+                        return ErrorCode.UNSUPPORTED_CURRENCY_PAIR.<TransferResult>asMono();
+                    }
+                    long debitedAt = System.currentTimeMillis();
+                    double limitAmount = amount * withdrawalLimitService.limitRate(sourceAccount.getCurrency());
+                    ErrorCode limitError = withdrawalLimitService.tryConsume(sourceAccount.getAccountType(),
+                            sourceAccountId, limitAmount, debitedAt);
+                    if (limitError != null) {
+                        return limitError.<TransferResult>asMono();
+                    }
+                    InFlightMutation.onDropped(context,
+                            () -> withdrawalLimitService.refund(sourceAccountId, limitAmount, debitedAt));
+                    // Las fases permiten retomar el depósito si un apagado corta la transferencia tras el retiro
                     return bankAccountClient.withdraw(sourceAccountId, amount)
-                            .thenReturn(sourceAccount); // Retorna la cuenta origen actualizada tras el retiro
+                            .transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.DEBITED,
+                                    mutation -> mutation.setConversion(conversion)))
+                            .doOnError(BankAccountServiceImpl::isNotApplied,
+                                    e -> withdrawalLimitService.refund(sourceAccountId, limitAmount, debitedAt))
+                            .then(bankAccountClient.deposit(destinationAccountId, conversion.getDestinationAmount())
+                                    .transform(InFlightMutation.step(MutationPhase.CREDITING, MutationPhase.APPLIED)))
+                            .map(destinationAccount -> TransferResult.builder()
+                                    .sourceAccount(sourceAccount)
+                                    .destinationAccount(destinationAccount)
+                                    .conversion(conversion)
+                                    .build());
+                }));
+    }
+
+    @Override
+    public Mono<MultiTransferResult> multiTransfer(String sourceAccountId, List<TransferLeg> legs) {
+        ErrorCode error = firstError(validateAccountId(sourceAccountId), validateLegs(sourceAccountId, legs));
+        if (error != null) {
+            return error.asMono();
+        }
+        double total = legs.stream().map(leg -> BigDecimal.valueOf(leg.getAmount()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
+        // Una sola consulta del origen; los destinos solo se consultan para conocer su moneda (el cliente los agrupa)
+        Mono<Map<String, BankAccount>> destinations = Flux.fromIterable(legs)
+                .map(TransferLeg::getDestinationAccountId)
+                .distinct()
+                .flatMap(accountId -> getAccount(accountId).map(account -> Map.entry(accountId, account)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        return Mono.deferContextual(context -> Mono.zip(getAccount(sourceAccountId), destinations)
+                .flatMap(accounts -> {
+                    BankAccount sourceAccount = accounts.getT1();
+                    if (sourceAccount.getBalance().compareTo(BigDecimal.valueOf(total)) < 0) {
+                        return ErrorCode.INSUFFICIENT_BALANCE.<MultiTransferResult>asMono();
+                    }
+                    List<LegResult> planned = new ArrayList<>(legs.size());
+                    for (TransferLeg leg : legs) {
+                        FxConversion conversion = convert(sourceAccount, accounts.getT2().get(leg.getDestinationAccountId()),
+                                leg.getAmount());
+                        if (conversion == null) {
+                            return ErrorCode.UNSUPPORTED_CURRENCY_PAIR.<MultiTransferResult>asMono();
+                        }
+                        planned.add(LegResult.builder().leg(leg).conversion(conversion).build());
+                    }
+                    long debitedAt = System.currentTimeMillis();
+                    double limitRate = withdrawalLimitService.limitRate(sourceAccount.getCurrency());
+                    ErrorCode limitError = withdrawalLimitService.tryConsume(sourceAccount.getAccountType(),
+                            sourceAccountId, total * limitRate, debitedAt);
+                    if (limitError != null) {
+                        return limitError.<MultiTransferResult>asMono();
+                    }
+                    InFlightMutation.onDropped(context,
+                            () -> withdrawalLimitService.refund(sourceAccountId, total * limitRate, debitedAt));
+                    // Un único débito; si el nodo se apaga después, la operación queda para revisión (no se reanuda)
+                    return bankAccountClient.withdraw(sourceAccountId, total)
+                            .transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.CREDITING))
+                            .doOnError(BankAccountServiceImpl::isNotApplied,
+                                    e -> withdrawalLimitService.refund(sourceAccountId, total * limitRate, debitedAt))
+                            .then(creditLegs(sourceAccountId, sourceAccount, planned, total, limitRate, debitedAt));
+                }));
+    }
+
+    /**
+     * Credits the legs in parallel (bounded by {@code transactions.multi-transfer.leg-concurrency}) and gives back
+     * to the source, in a single deposit, the amount of the legs that were rejected. Legs whose outcome is unknown
+     * (timeout, connection error, 5xx) may have been credited, so they are not refunded and are left for review.
+     */
+    private Mono<MultiTransferResult> creditLegs(String sourceAccountId, BankAccount sourceAccount,
+                                                  List<LegResult> planned, double total, double limitRate,
+                                                  long debitedAt) {
+        String sourceCurrency = planned.get(0).getConversion().getSourceCurrency();
+        // Si un apagado corta los abonos, el diario refleja qué tramos se acreditaron y cuáles seguían en vuelo
+        List<LegResult> progress = new CopyOnWriteArrayList<>(planned);
+        return Flux.range(0, planned.size())
+                .flatMapSequential(index -> credit(planned.get(index)).doOnNext(leg -> progress.set(index, leg)),
+                        multiTransferProperties.getLegConcurrency())
+                .collectList()
+                .flatMap(results -> {
+                    MultiTransferResult.MultiTransferResultBuilder result = MultiTransferResult.builder()
+                            .sourceAccount(sourceAccount)
+                            .sourceCurrency(sourceCurrency)
+                            .debitedAmount(total)
+                            .legs(results);
+                    double refund = results.stream().filter(leg -> leg.getStatus() == LegStatus.REJECTED)
+                            .map(leg -> BigDecimal.valueOf(leg.getLeg().getAmount()))
+                            .reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
+                    if (refund == 0) {
+                        return Mono.just(result.build());
+                    }
+                    return bankAccountClient.deposit(sourceAccountId, refund)
+                            .doOnNext(account -> refundLimits(sourceAccountId, refund, total, limitRate, debitedAt))
+                            .map(account -> result.refundedAmount(refund).build())
+                            .switchIfEmpty(Mono.fromSupplier(() -> result.refundError(
+                                    ErrorCode.ACCOUNT_NOT_FOUND.getDetail()).build()))
+                            .onErrorResume(e -> Mono.just(result.refundError(String.valueOf(e.getMessage())).build()));
                 })
-                .zipWhen(sourceAccount -> bankAccountClient.deposit(destinationAccountId, amount)
-                        .map(destinationAccount -> destinationAccount)) // Actualiza y retorna la cuenta destino
-                .map(tuple -> Pair.of(tuple.getT1(), tuple.getT2())); // Combina las dos cuentas en un Pair
+                .transform(InFlightMutation.step(MutationPhase.CREDITING, MutationPhase.APPLIED,
+                        mutation -> mutation.setLegs(progress)));
+    }
+
+    /**
+     * Gives back to the daily limits what the refund deposit returned to the source, so they match the net debit
+     * that is recorded (and rehydrated after a restart). The rate of the debit is reused, so exactly what was
+     * counted is given back.
+     */
+    private void refundLimits(String sourceAccountId, double refund, double total, double limitRate, long debitedAt) {
+        if (refund == total) {
+            // Todos los abonos rechazados: no se registra la operación y el débito no cuenta
+            withdrawalLimitService.refund(sourceAccountId, total * limitRate, debitedAt);
+        } else {
+            withdrawalLimitService.refundAmount(sourceAccountId, refund * limitRate, debitedAt);
+        }
+    }
+
+    private Mono<LegResult> credit(LegResult leg) {
+        return bankAccountClient.deposit(leg.getLeg().getDestinationAccountId(), leg.getConversion().getDestinationAmount())
+                .map(account -> leg.toBuilder().status(LegStatus.CREDITED).build())
+                .switchIfEmpty(Mono.fromSupplier(() -> failed(leg, LegStatus.REJECTED,
+                        ErrorCode.ACCOUNT_NOT_FOUND.getDetail())))
+                .onErrorResume(e -> Mono.just(failed(leg, isRejection(e) ? LegStatus.REJECTED : LegStatus.UNKNOWN,
+                        e.getMessage())));
+    }
+
+    private static LegResult failed(LegResult leg, LegStatus status, String error) {
+        return leg.toBuilder()
+                .status(status)
+                .error(error == null ? "Credit failed" : error)
+                .build();
+    }
+
+    /**
+     * Indicates whether a failed credit was certainly not applied: the Bank Account Microservice answered with a
+     * client error. Timeouts, connection errors and 5xx responses leave the outcome unknown.
+     */
+    private static boolean isRejection(Throwable error) {
+        return error instanceof ResponseStatusException statusException
+                && statusException.getStatusCode().is4xxClientError()
+                && statusException.getStatusCode().value() != HttpStatus.REQUEST_TIMEOUT.value();
+    }
+
+    /**
+     * Indicates whether a failed debit was certainly not applied: rejected by the Bank Account Microservice, or
+     * shed by the client before it was sent. Only those give their amount back to the withdrawal limits.
+     */
+    private static boolean isNotApplied(Throwable error) {
+        return isRejection(error) || error instanceof RateLimitExceededException;
     }
 
+    /**
+     * Converts the amount of a transfer into the currency of the destination account using the in-memory rate
+     * table (no I/O).
+     *
+     * @return The conversion, or {@code null} when there is no rate between the two currencies.
+     */
+    private FxConversion convert(BankAccount sourceAccount, BankAccount destinationAccount, Double amount) {
+        String sourceCurrency = fxRateService.currencyOf(sourceAccount.getCurrency());
+        String destinationCurrency = fxRateService.currencyOf(destinationAccount.getCurrency());
+        double rate = fxRateService.current().rate(sourceCurrency, destinationCurrency);
+        if (Double.isNaN(rate)) {
+            return null;
+        }
+        double destinationAmount = rate == 1 ? amount
+                : BigDecimal.valueOf(amount * rate).setScale(2, RoundingMode.HALF_EVEN).doubleValue();
+        return FxConversion.builder()
+                .sourceCurrency(sourceCurrency)
+                .destinationCurrency(destinationCurrency)
+                .rate(rate)
+                .destinationAmount(destinationAmount)
+                .build();
+    }
 
-    // Métodos de validación privados
-    private void validateAccountId(String accountId) {
+    // Métodos de validación privados: devuelven el error encontrado (o null) en lugar de lanzar excepciones
+    private ErrorCode validateAccountId(String accountId) {
         if (accountId == null || accountId.isBlank()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Account ID must not be null or blank");
+            return ErrorCode.ACCOUNT_ID_REQUIRED;
         }
+        return null;
     }
 
-    private void validateAmount(Double amount) {
+    private ErrorCode validateLegs(String sourceAccountId, List<TransferLeg> legs) {
+        if (legs == null || legs.isEmpty() || legs.size() > multiTransferProperties.getMaxLegs()) {
+            return ErrorCode.TOO_MANY_LEGS;
+        }
+        for (TransferLeg leg : legs) {
+            if (leg == null) {
+                return ErrorCode.ACCOUNT_ID_REQUIRED;
+            }
+            ErrorCode error = firstError(validateAccountId(leg.getDestinationAccountId()), validateAmount(leg.getAmount()));
+            if (error != null) {
+                return error;
+            }
+            if (leg.getDestinationAccountId().equals(sourceAccountId)) {
+                return ErrorCode.SAME_SOURCE_AND_DESTINATION;
+            }
+        }
+        return null;
+    }
+
+    private ErrorCode validateAmount(Double amount) {
         if (amount == null || amount <= 0) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Amount must be greater than zero");
+            return ErrorCode.INVALID_AMOUNT;
         }
+        return null;
+    }
+
+    private static ErrorCode firstError(ErrorCode first, ErrorCode second) {
+        return first != null ? first : second;
     }
 }
@@ -0,0 +1,90 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.FxProperties;
+import com.example.transactionmicroservice.fx.FxRateProvider;
+import com.example.transactionmicroservice.fx.FxRateTable;
+import com.example.transactionmicroservice.service.FxRateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+public class FxRateServiceImpl implements FxRateService, SmartLifecycle {
+
+    private static final Duration INITIAL_LOAD_TIMEOUT = Duration.ofSeconds(10);
+
+    private final FxProperties properties;
+    private final FxRateProvider rateProvider;
+    // Copy-on-write: cada recarga publica una tabla inmutable nueva, las lecturas no toman ningún lock
+    private final AtomicReference<FxRateTable> table;
+    private Disposable refresh;
+
+    public FxRateServiceImpl(FxProperties properties, FxRateProvider rateProvider) {
+        this.properties = properties;
+        this.rateProvider = rateProvider;
+        this.table = new AtomicReference<>(new FxRateTable(currencyOf(null), Map.of(), Instant.EPOCH));
+    }
+
+    @Override
+    public FxRateTable current() {
+        return table.get();
+    }
+
+    @Override
+    public String currencyOf(String currency) {
+        return currency == null || currency.isBlank() ? properties.getDefaultCurrency() : currency.toUpperCase();
+    }
+
+    /**
+     * Loads the rate table once and keeps replacing it in the background.
+     *
+     * @return A Mono that completes when the table has been replaced.
+     */
+    Mono<FxRateTable> reload() {
+        return rateProvider.fetch()
+                .doOnNext(loaded -> {
+                    table.set(loaded);
+                    log.debug("Loaded {} exchange rates (base {})", loaded.size(), loaded.getBaseCurrency());
+                });
+    }
+
+    @Override
+    public void start() {
+        try {
+            reload().block(INITIAL_LOAD_TIMEOUT);
+        } catch (RuntimeException e) {
+            // Sin tabla solo se permiten transferencias entre cuentas de la misma moneda
+            log.warn("Could not load the exchange rates, retrying in {}", properties.getRefreshInterval(), e);
+        }
+        refresh = Flux.interval(properties.getRefreshInterval(), properties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> reload()
+                        .onErrorResume(e -> {
+                            log.warn("Could not refresh the exchange rates, keeping the previous table", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (refresh != null) {
+            refresh.dispose();
+            refresh = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresh != null;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.DiagnosticsProperties;
+import com.example.transactionmicroservice.diagnostics.RecordingSummarizer;
+import com.example.transactionmicroservice.diagnostics.RequestEvent;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.ProfilingRecording;
+import com.example.transactionmicroservice.model.ProfilingSummary;
+import com.example.transactionmicroservice.service.ProfilingService;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class ProfilingServiceImpl implements ProfilingService {
+
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final DiagnosticsProperties properties;
+    private final RecordingSummarizer summarizer;
+    private final Scheduler blockingScheduler;
+    private final Map<String, Recording> recordings = new LinkedHashMap<>(); // En orden de inicio; acceso sincronizado
+
+    public ProfilingServiceImpl(DiagnosticsProperties properties, RecordingSummarizer summarizer,
+                                @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.properties = properties;
+        this.summarizer = summarizer;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @Override
+    public Mono<ProfilingRecording> start(Duration duration) {
+        if (!properties.isEnabled()) {
+            return ErrorCode.PROFILING_DISABLED.asMono();
+        }
+        // La configuración JFR se lee de disco y el inicio crea el repositorio de la grabación
+        return Mono.fromCallable(() -> begin(duration)).subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Mono<ProfilingRecording> stop(String id) {
+        return recording(id)
+                .publishOn(blockingScheduler) // stop() escribe el fichero de la grabación
+                .map(recording -> {
+                    if (recording.getState() == RecordingState.RUNNING) {
+                        recording.stop();
+                    }
+                    return toRecording(id, recording);
+                });
+    }
+
+    @Override
+    public Flux<ProfilingRecording> findRecordings() {
+        return Flux.defer(() -> {
+            List<ProfilingRecording> found = new ArrayList<>();
+            synchronized (recordings) {
+                recordings.forEach((id, recording) -> found.add(0, toRecording(id, recording)));
+            }
+            return Flux.fromIterable(found);
+        });
+    }
+
+    @Override
+    public Mono<ProfilingRecording> findRecording(String id) {
+        return recording(id).map(recording -> toRecording(id, recording));
+    }
+
+    @Override
+    public Mono<ProfilingSummary> summarize(String id) {
+        return findFile(id)
+                .publishOn(blockingScheduler)
+                .map(file -> {
+                    try {
+                        return summarizer.summarize(id, file);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not read the recording " + id, e);
+                    }
+                });
+    }
+
+    @Override
+    public Mono<Path> findFile(String id) {
+        return recording(id).flatMap(recording -> recording.getState() == RecordingState.STOPPED
+                || recording.getState() == RecordingState.CLOSED
+                ? Mono.just(recording.getDestination())
+                : ErrorCode.PROFILING_RECORDING_NOT_FINISHED.asMono());
+    }
+
+    /**
+     * Closes the recordings still open when the node stops; their files are kept.
+     */
+    @PreDestroy
+    public void close() {
+        synchronized (recordings) {
+            recordings.values().forEach(Recording::close);
+        }
+    }
+
+    private ProfilingRecording begin(Duration requested) throws IOException, ParseException {
+        Duration duration = requested == null ? properties.getDefaultDuration()
+                : requested.compareTo(properties.getMaxDuration()) > 0 ? properties.getMaxDuration() : requested;
+        synchronized (recordings) {
+            if (recordings.values().stream().anyMatch(recording -> recording.getState() == RecordingState.RUNNING)) {
+                throw ErrorCode.PROFILING_ALREADY_RUNNING.exception();
+            }
+            Files.createDirectories(properties.getDirectory());
+            String id = LocalDateTime.now().format(ID_FORMAT);
+            Recording recording = new Recording(Configuration.getConfiguration(properties.getSettings()));
+            recording.enable(RequestEvent.NAME);
+            recording.setName("transactions-" + id);
+            recording.setDuration(duration);
+            recording.setToDisk(true);
+            recording.setDestination(properties.getDirectory().resolve(id + ".jfr"));
+            recording.start();
+            recordings.put(id, recording);
+            prune();
+            log.info("Started profiling recording {} for {}", id, duration);
+            return toRecording(id, recording);
+        }
+    }
+
+    /**
+     * Drops the oldest finished recordings beyond {@code max-recordings}, with their files.
+     */
+    private void prune() throws IOException {
+        Iterator<Recording> iterator = recordings.values().iterator();
+        int excess = recordings.size() - properties.getMaxRecordings();
+        while (excess > 0 && iterator.hasNext()) {
+            Recording recording = iterator.next();
+            if (recording.getState() != RecordingState.RUNNING) {
+                iterator.remove();
+                recording.close();
+                if (recording.getDestination() != null) {
+                    Files.deleteIfExists(recording.getDestination());
+                }
+                excess--;
+            }
+        }
+    }
+
+    private Mono<Recording> recording(String id) {
+        return Mono.defer(() -> {
+            synchronized (recordings) {
+                return Mono.justOrEmpty(recordings.get(id));
+            }
+        }).switchIfEmpty(ErrorCode.PROFILING_RECORDING_NOT_FOUND.asMono());
+    }
+
+    private static ProfilingRecording toRecording(String id, Recording recording) {
+        return ProfilingRecording.builder()
+                .id(id)
+                .state(recording.getState().name())
+                .startedAt(recording.getStartTime() == null ? null
+                        : LocalDateTime.ofInstant(recording.getStartTime(), ZoneId.systemDefault()))
+                .durationSeconds(recording.getDuration() == null ? 0 : recording.getDuration().toSeconds())
+                .sizeBytes(recording.getSize())
+                .build();
+    }
+}
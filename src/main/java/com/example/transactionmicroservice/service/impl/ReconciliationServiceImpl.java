@@ -0,0 +1,58 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.ReconciliationProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import com.example.transactionmicroservice.reconciliation.ReconciliationEngine;
+import com.example.transactionmicroservice.repository.DiscrepancyRepository;
+import com.example.transactionmicroservice.repository.PendingMutationRepository;
+import com.example.transactionmicroservice.repository.ReconciliationRunRepository;
+import com.example.transactionmicroservice.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private final ReconciliationEngine reconciliationEngine;
+    private final ReconciliationRunRepository runRepository;
+    private final DiscrepancyRepository discrepancyRepository;
+    private final PendingMutationRepository pendingMutationRepository;
+    private final ReconciliationProperties properties;
+
+    @Override
+    public Mono<ReconciliationRun> start() {
+        if (!properties.isEnabled()) {
+            return ErrorCode.RECONCILIATION_DISABLED.asMono();
+        }
+        return reconciliationEngine.begin();
+    }
+
+    @Override
+    public Mono<ReconciliationRun> findRun(String id) {
+        return runRepository.findById(id)
+                .switchIfEmpty(ErrorCode.RECONCILIATION_RUN_NOT_FOUND.asMono());
+    }
+
+    @Override
+    public Flux<ReconciliationRun> findRuns() {
+        return runRepository.findAllByOrderByStartedAtDesc();
+    }
+
+    @Override
+    public Flux<Discrepancy> findDiscrepancies(String id) {
+        return findRun(id)
+                .flatMapMany(run -> discrepancyRepository.findByRunIdOrderByAccountIdAsc(run.getId()));
+    }
+
+    @Override
+    public Flux<PendingMutation> findPendingMutations() {
+        return pendingMutationRepository.findByStatus(PendingMutationStatus.NEEDS_REVIEW);
+    }
+}
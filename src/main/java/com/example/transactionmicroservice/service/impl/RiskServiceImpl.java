@@ -0,0 +1,151 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.RiskProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.risk.AccountActivity;
+import com.example.transactionmicroservice.risk.ActivityRingBuffer;
+import com.example.transactionmicroservice.risk.RiskContext;
+import com.example.transactionmicroservice.risk.RiskEvaluator;
+import com.example.transactionmicroservice.risk.RiskVerdict;
+import com.example.transactionmicroservice.service.RiskService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class RiskServiceImpl implements RiskService {
+
+    private final RiskProperties properties;
+    private final List<RiskEvaluator> evaluators;
+    private final Cache<String, ActivityRingBuffer> activity;
+    private final RiskVerdict unavailableVerdict;
+
+    private final Timer featuresTimer;
+    private final Timer totalTimer;
+    private final Map<String, Timer> evaluatorTimers = new HashMap<>();
+    private final Counter budgetExceeded;
+    private final Counter rejections;
+
+    public RiskServiceImpl(RiskProperties properties, List<RiskEvaluator> evaluators, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.evaluators = evaluators;
+        // Una cuenta sin operaciones en la ventana no aporta features: caduca sola, sin recorrer el mapa
+        this.activity = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedAccounts())
+                .expireAfterAccess(properties.getFeatureWindow())
+                .build();
+        // Sin veredicto a tiempo se permite (fail open) o se rechaza (fail closed) la operación
+        this.unavailableVerdict = properties.isFailOpen()
+                ? RiskVerdict.ALLOW : RiskVerdict.block("Risk evaluation unavailable");
+
+        this.featuresTimer = stageTimer(meterRegistry, "features");
+        this.totalTimer = stageTimer(meterRegistry, "total");
+        for (RiskEvaluator evaluator : evaluators) {
+            evaluatorTimers.put(evaluator.getName(), stageTimer(meterRegistry, evaluator.getName()));
+        }
+        this.budgetExceeded = Counter.builder("transactions.risk.budget.exceeded")
+                .description("Risk evaluations that did not finish within the latency budget")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("transactions.risk.rejected")
+                .description("Operations rejected by the risk evaluation")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> assess(TransactionType type, String sourceAccountId, String destinationAccountId, Double amount) {
+        if (!properties.isEnabled() || evaluators.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            RiskContext context = RiskContext.builder()
+                    .type(type)
+                    .sourceAccountId(sourceAccountId)
+                    .destinationAccountId(destinationAccountId)
+                    .amount(amount == null ? 0 : amount)
+                    .sourceActivity(activityOf(sourceAccountId))
+                    .destinationActivity(activityOf(destinationAccountId))
+                    .build();
+            featuresTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            return Flux.fromIterable(evaluators)
+                    .flatMap(evaluator -> evaluate(evaluator, context))
+                    .reduce(RiskVerdict.ALLOW, (highest, verdict) -> verdict.score() > highest.score() ? verdict : highest)
+                    .timeout(properties.getBudget(), Mono.fromSupplier(() -> {
+                        budgetExceeded.increment();
+                        return unavailableVerdict;
+                    }))
+                    .flatMap(verdict -> {
+                        if (verdict.score() >= properties.getBlockThreshold()) {
+                            rejections.increment();
+                            log.info("Operation {} rejected by risk evaluation: {}", type, verdict.reason());
+                            return ErrorCode.RISK_REJECTED.<Void>asMono();
+                        }
+                        return Mono.<Void>empty();
+                    })
+                    .doFinally(signal -> totalTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public void record(Transaction transaction) {
+        if (!properties.isEnabled() || transaction.getAmount() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Solo el débito cuenta como actividad: los abonos recibidos no deben frenar los débitos de la cuenta
+        recordActivity(transaction.getSourceAccountId(), transaction.getAmount(), now);
+    }
+
+    private Mono<RiskVerdict> evaluate(RiskEvaluator evaluator, RiskContext context) {
+        Timer timer = evaluatorTimers.get(evaluator.getName());
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return evaluator.evaluate(context)
+                    .onErrorResume(e -> {
+                        log.warn("Risk evaluator {} failed", evaluator.getName(), e);
+                        return Mono.just(unavailableVerdict);
+                    })
+                    .doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private AccountActivity activityOf(String accountId) {
+        ActivityRingBuffer buffer = accountId == null ? null : activity.getIfPresent(accountId);
+        if (buffer == null) {
+            return AccountActivity.NONE;
+        }
+        long now = System.currentTimeMillis();
+        return buffer.snapshot(now - properties.getFeatureWindow().toMillis(), now);
+    }
+
+    private void recordActivity(String accountId, double amount, long now) {
+        if (accountId != null) {
+            activity.get(accountId, id -> new ActivityRingBuffer(properties.getRingSize()))
+                    .record(now, amount);
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("transactions.risk.stage")
+                .description("Latency of each stage of the risk evaluation")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
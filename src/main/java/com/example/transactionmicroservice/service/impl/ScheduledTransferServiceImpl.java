@@ -0,0 +1,97 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.dto.ScheduledTransferRequestDto;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.ScheduledTransferStatus;
+import com.example.transactionmicroservice.repository.ScheduledTransferRepository;
+import com.example.transactionmicroservice.service.ScheduledTransferService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class ScheduledTransferServiceImpl implements ScheduledTransferService {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<ScheduledTransfer> create(ScheduledTransferRequestDto request) {
+        ErrorCode error = validate(request);
+        if (error != null) {
+            return error.asMono();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String cron = request.getCronExpression() == null || request.getCronExpression().isBlank()
+                ? null : request.getCronExpression().trim();
+        if (cron != null && !CronExpression.isValidExpression(cron)) {
+            return ErrorCode.INVALID_SCHEDULE.asMono();
+        }
+        // La primera ocurrencia es la indicada o, si no hay, la siguiente según la expresión cron
+        LocalDateTime firstExecution = request.getFirstExecution() != null
+                ? request.getFirstExecution()
+                : cron != null ? CronExpression.parse(cron).next(now) : null;
+        if (firstExecution == null || firstExecution.isBefore(now)) {
+            return ErrorCode.INVALID_SCHEDULE.asMono();
+        }
+        return scheduledTransferRepository.save(ScheduledTransfer.builder()
+                .sourceAccountId(request.getSourceAccountId())
+                .destinationAccountId(request.getDestinationAccountId())
+                .amount(request.getAmount())
+                .cronExpression(cron)
+                .status(ScheduledTransferStatus.ACTIVE)
+                .nextExecution(firstExecution)
+                .createdAt(now)
+                .build());
+    }
+
+    @Override
+    public Mono<ScheduledTransfer> findById(String id) {
+        return scheduledTransferRepository.findById(id)
+                .switchIfEmpty(ErrorCode.SCHEDULED_TRANSFER_NOT_FOUND.asMono());
+    }
+
+    @Override
+    public Flux<ScheduledTransfer> findBySourceAccountId(String accountId) {
+        return scheduledTransferRepository.findBySourceAccountId(accountId);
+    }
+
+    @Override
+    public Mono<ScheduledTransfer> cancel(String id) {
+        // Solo se cambia el estado, y solo si sigue pendiente: no pisa lo que el motor escriba a la vez
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").in(ScheduledTransferStatus.ACTIVE, ScheduledTransferStatus.NEEDS_REVIEW));
+        return mongoTemplate.findAndModify(query, new Update().set("status", ScheduledTransferStatus.CANCELLED),
+                        FindAndModifyOptions.options().returnNew(true), ScheduledTransfer.class)
+                .switchIfEmpty(Mono.defer(() -> findById(id)))
+                .flatMap(scheduledTransfer -> scheduledTransfer.getStatus() == ScheduledTransferStatus.COMPLETED
+                        ? ErrorCode.SCHEDULED_TRANSFER_COMPLETED.asMono()
+                        : Mono.just(scheduledTransfer));
+    }
+
+    // Devuelve el error encontrado (o null) en lugar de lanzar excepciones
+    private static ErrorCode validate(ScheduledTransferRequestDto request) {
+        if (request.getSourceAccountId() == null || request.getSourceAccountId().isBlank()
+                || request.getDestinationAccountId() == null || request.getDestinationAccountId().isBlank()) {
+            return ErrorCode.ACCOUNT_ID_REQUIRED;
+        }
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            return ErrorCode.INVALID_AMOUNT;
+        }
+        if (request.getSourceAccountId().equals(request.getDestinationAccountId())) {
+            return ErrorCode.SAME_SOURCE_AND_DESTINATION;
+        }
+        return null;
+    }
+}
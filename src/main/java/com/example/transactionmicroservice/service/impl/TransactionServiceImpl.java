@@ -1,12 +1,28 @@
 package com.example.transactionmicroservice.service.impl;
 
+import com.example.transactionmicroservice.cache.AccountHistoryCache;
 import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.exception.ErrorCode;
 import com.example.transactionmicroservice.factory.TransactionFactory;
+import com.example.transactionmicroservice.model.LegResult;
+import com.example.transactionmicroservice.model.LegStatus;
+import com.example.transactionmicroservice.model.MultiTransfer;
+import com.example.transactionmicroservice.model.MultiTransferResult;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
 import com.example.transactionmicroservice.model.Transaction;
 import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.model.TransferLeg;
+import com.example.transactionmicroservice.repository.MongoUnitOfWork;
+import com.example.transactionmicroservice.repository.PendingMutationRepository;
 import com.example.transactionmicroservice.repository.TransactionRepository;
 import com.example.transactionmicroservice.service.BankAccountService;
+import com.example.transactionmicroservice.service.FxRateService;
+import com.example.transactionmicroservice.service.RiskService;
 import com.example.transactionmicroservice.service.TransactionService;
+import com.example.transactionmicroservice.shutdown.InFlightMutation;
+import com.example.transactionmicroservice.shutdown.InFlightMutations;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -16,6 +32,11 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +45,12 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository; // Repository to manage transactions in the database.
     private final BankAccountClient bankAccountClient; // Client to interact with the Bank Account microservice.
     private final BankAccountService bankAccountService; // Inyectado automáticamente por Spring
+    private final RiskService riskService; // Evaluación de fraude previa a cada operación
+    private final FxRateService fxRateService; // Moneda por defecto de las cuentas que no la informan
+    private final AccountHistoryCache historyCache; // Transacciones recientes por cuenta, actualizada en cada guardado
+    private final InFlightMutations inFlightMutations; // Operaciones en curso, drenadas al apagar el nodo
+    private final PendingMutationRepository pendingMutationRepository; // Devoluciones fallidas, para revisión manual
+    private final MongoUnitOfWork unitOfWork; // Escrituras de varios documentos en una transacción de MongoDB
 
     /**
      * Performs a deposit to a specified bank account.
@@ -34,14 +61,19 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Mono<Transaction> deposit(String accountId, Double amount) {
-        // Use BankAccountService to perform the deposit with validations
-        return bankAccountService.deposit(accountId, amount)
-                .flatMap(updatedAccount -> {
-                    // Use TransactionFactory to create the transaction
-                    Transaction transaction = TransactionFactory.createDepositTransaction(accountId, amount);
-                    // Save the transaction in the database
-                    return transactionRepository.save(transaction);
-                });
+        // Use BankAccountService to perform the deposit with validations once the risk evaluation allows it
+        return inFlightMutations.track(new InFlightMutation(TransactionType.DEPOSIT, null, accountId, amount),
+                riskService.assess(TransactionType.DEPOSIT, null, accountId, amount)
+                        .then(Mono.defer(() -> bankAccountService.deposit(accountId, amount)))
+                        .flatMap(updatedAccount -> {
+                            // Use TransactionFactory to create the transaction
+                            Transaction transaction = TransactionFactory.createDepositTransaction(accountId, amount,
+                                    fxRateService.currencyOf(updatedAccount.getCurrency()));
+                            // Save the transaction in the database
+                            return save(transaction);
+                        })
+                        .doOnNext(riskService::record)
+                        .doOnNext(historyCache::record));
     }
 
 
@@ -54,14 +86,19 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Mono<Transaction> withdraw(String accountId, Double amount) {
-        // Use BankAccountService to handle the withdrawal with validations
-        return bankAccountService.withdraw(accountId, amount)
-                .flatMap(updatedAccount -> {
-                    // Use TransactionFactory to create the withdrawal transaction
-                    Transaction transaction = TransactionFactory.createWithdrawTransaction(accountId, amount);
-                    // Save the transaction in the database
-                    return transactionRepository.save(transaction);
-                });
+        // Use BankAccountService to handle the withdrawal with validations once the risk evaluation allows it
+        return inFlightMutations.track(new InFlightMutation(TransactionType.WITHDRAWAL, accountId, null, amount),
+                riskService.assess(TransactionType.WITHDRAWAL, accountId, null, amount)
+                        .then(Mono.defer(() -> bankAccountService.withdraw(accountId, amount)))
+                        .flatMap(updatedAccount -> {
+                            // Use TransactionFactory to create the withdrawal transaction
+                            Transaction transaction = TransactionFactory.createWithdrawTransaction(accountId, amount,
+                                    fxRateService.currencyOf(updatedAccount.getCurrency()));
+                            // Save the transaction in the database
+                            return save(transaction);
+                        })
+                        .doOnNext(riskService::record)
+                        .doOnNext(historyCache::record));
     }
 
     /**
@@ -74,18 +111,137 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Mono<Transaction> transfer(String sourceAccountId, String destinationAccountId, Double amount) {
-        return bankAccountService.transfer(sourceAccountId, destinationAccountId, amount)
-                .flatMap(accounts -> {
-                    Transaction transaction = TransactionFactory.createTransferTransaction(
-                            sourceAccountId,          // The account from which the funds are transferred
-                            destinationAccountId,     // The account to which the funds are deposited
-                            amount                    // The amount being transferred
-                    );
-
-                    // Save the transaction record in the database using the TransactionRepository
-                    // This ensures that the transfer details are persisted for future reference.
-                    return transactionRepository.save(transaction);
-                });
+        InFlightMutation mutation = new InFlightMutation(TransactionType.TRANSFER, sourceAccountId,
+                destinationAccountId, amount);
+        return inFlightMutations.track(mutation,
+                riskService.assess(TransactionType.TRANSFER, sourceAccountId, destinationAccountId, amount)
+                        .then(Mono.defer(() -> bankAccountService.transfer(sourceAccountId, destinationAccountId, amount)))
+                        .flatMap(result -> {
+                            Transaction transaction = TransactionFactory.createTransferTransaction(
+                                    sourceAccountId,          // The account from which the funds are transferred
+                                    destinationAccountId,     // The account to which the funds are deposited
+                                    amount,                   // The amount being transferred
+                                    result.getConversion()    // Currencies and exchange rate applied
+                            );
+
+                            // Save the transaction record in the database using the TransactionRepository
+                            // This ensures that the transfer details are persisted for future reference.
+                            return save(transaction);
+                        })
+                        .doOnNext(riskService::record)
+                        .doOnNext(historyCache::record));
+    }
+
+    /**
+     * Performs a transfer from one account to several destinations with a single debit.
+     * <p>
+     * The parent {@link TransactionType#MULTI_TRANSFER} transaction records the net debit and every credited leg is
+     * recorded as a child transfer; all of them are inserted in one round trip. When every leg was rejected and the
+     * debit was refunded nothing is recorded and the request fails. Legs whose credit has an unknown outcome, or a
+     * refund that failed, are journaled for review with the outcome of every leg, since the source may be missing
+     * their amount. The transactions and the journal entry are written in one {@link MongoUnitOfWork}.
+     *
+     * @param sourceAccountId The ID of the account from which the funds will be transferred.
+     * @param legs            The destinations and amounts, in the currency of the source account.
+     * @return A Mono containing the saved parent transaction, its credited legs and the failed ones.
+     */
+    @Override
+    public Mono<MultiTransfer> multiTransfer(String sourceAccountId, List<TransferLeg> legs) {
+        // Total solo informativo para el seguimiento y el riesgo; los tramos se validan en BankAccountService
+        Double total = legs == null ? null : legs.stream().filter(Objects::nonNull).map(TransferLeg::getAmount)
+                .filter(Objects::nonNull)
+                .map(BigDecimal::valueOf).reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
+        return inFlightMutations.track(new InFlightMutation(TransactionType.MULTI_TRANSFER, sourceAccountId, null, total),
+                riskService.assess(TransactionType.MULTI_TRANSFER, sourceAccountId, null, total)
+                        .then(Mono.defer(() -> bankAccountService.multiTransfer(sourceAccountId, legs)))
+                        .flatMap(result -> {
+                            boolean credited = result.getLegs().stream().anyMatch(LegResult::isCredited);
+                            if (!credited && !needsReview(result)) {
+                                return ErrorCode.TRANSFER_LEGS_FAILED.<MultiTransfer>asMono();
+                            }
+                            MultiTransfer multiTransfer = toMultiTransfer(sourceAccountId, result);
+                            List<Transaction> transactions = new ArrayList<>(multiTransfer.getLegs().size() + 1);
+                            transactions.add(multiTransfer.getTransaction());
+                            transactions.addAll(multiTransfer.getLegs());
+                            // El padre y sus tramos en un solo insertMany; un corte aquí queda para revisión
+                            return unitOfWork.execute(() -> transactionRepository.insertAll(transactions)
+                                            .then(needsReview(result) ? journalForReview(multiTransfer, result)
+                                                    : Mono.empty()))
+                                    .transform(InFlightMutation.step(MutationPhase.APPLIED, MutationPhase.RECORDED))
+                                    .thenReturn(multiTransfer);
+                        })
+                        .doOnNext(multiTransfer -> {
+                            // Un solo débito por el neto: los tramos no son débitos adicionales de la cuenta origen
+                            riskService.record(multiTransfer.getTransaction());
+                            historyCache.record(multiTransfer.getTransaction());
+                            multiTransfer.getLegs().forEach(historyCache::record);
+                        }));
+    }
+
+    private static MultiTransfer toMultiTransfer(String sourceAccountId, MultiTransferResult result) {
+        double netDebit = BigDecimal.valueOf(result.getDebitedAmount())
+                .subtract(BigDecimal.valueOf(result.getRefundedAmount())).doubleValue();
+        Transaction parent = TransactionFactory.createMultiTransferTransaction(sourceAccountId, netDebit,
+                result.getSourceCurrency());
+        return MultiTransfer.builder()
+                .transaction(parent)
+                .legs(result.getLegs().stream()
+                        .filter(LegResult::isCredited)
+                        .map(leg -> TransactionFactory.createTransferLegTransaction(parent.getId(), sourceAccountId,
+                                leg.getLeg().getDestinationAccountId(), leg.getLeg().getAmount(), leg.getConversion()))
+                        .toList())
+                .failedLegs(result.getLegs().stream().filter(leg -> !leg.isCredited()).toList())
+                .refundedAmount(result.getRefundedAmount())
+                .build();
+    }
+
+    private static boolean needsReview(MultiTransferResult result) {
+        return result.getRefundError() != null
+                || result.getLegs().stream().anyMatch(leg -> leg.getStatus() == LegStatus.UNKNOWN);
+    }
+
+    /**
+     * Journals a multi-leg transfer with legs whose credit has an unknown outcome (not refunded) or rejected legs
+     * that could not be refunded to the source.
+     */
+    private Mono<Void> journalForReview(MultiTransfer multiTransfer, MultiTransferResult result) {
+        Transaction parent = multiTransfer.getTransaction();
+        boolean refundFailed = result.getRefundError() != null;
+        List<LegResult> review = multiTransfer.getFailedLegs().stream()
+                .filter(leg -> leg.getStatus() == LegStatus.UNKNOWN || refundFailed)
+                .toList();
+        double pending = review.stream().map(leg -> BigDecimal.valueOf(leg.getLeg().getAmount()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
+        long unknown = review.stream().filter(leg -> leg.getStatus() == LegStatus.UNKNOWN).count();
+        String error = Stream.of(
+                        unknown == 0 ? null : "Outcome of " + unknown + " credits unknown, not refunded",
+                        refundFailed ? "Refund of the rejected legs failed: " + result.getRefundError() : null)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining("; "));
+        return pendingMutationRepository.save(PendingMutation.builder()
+                        .id(parent.getId())
+                        .type(TransactionType.MULTI_TRANSFER)
+                        .sourceAccountId(parent.getSourceAccountId())
+                        .amount(pending)
+                        .phase(MutationPhase.APPLIED)
+                        .sourceCurrency(parent.getCurrency())
+                        .transaction(parent)
+                        .legs(result.getLegs())
+                        .status(PendingMutationStatus.NEEDS_REVIEW)
+                        .lastError(error)
+                        .interruptedAt(LocalDateTime.now())
+                        .build())
+                .then();
+    }
+
+    /**
+     * Saves the transaction of a mutation, recording it on the in-flight mutation so a shutdown during the save
+     * can be resumed (the id is assigned before saving, so saving it again is idempotent).
+     */
+    private Mono<Transaction> save(Transaction transaction) {
+        return transactionRepository.save(transaction)
+                .transform(InFlightMutation.step(MutationPhase.RECORDING, MutationPhase.RECORDED,
+                        mutation -> mutation.setTransaction(transaction)));
     }
 
     /**
@@ -95,8 +251,8 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Flux<Transaction> getGlobalTransactionHistory() {
-        // Retrieve all transactions from the database, sorted by date in descending order
-        return transactionRepository.findAllByOrderByDateDesc();
+        // Retrieve all transactions, sorted by date in descending order (served by secondaries when configured)
+        return transactionRepository.findGlobalHistory();
     }
 
     /**
@@ -107,7 +263,23 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Flux<Transaction> getAccountTransactionHistory(String accountId) {
-        // Retrieve all transactions related to the specified account from the database
-        return transactionRepository.findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId);
+        // Served from the history cache when it holds the whole history of the account, otherwise from the database
+        return historyCache.get(accountId, Integer.MAX_VALUE, transactionRepository::findAccountHistory);
+    }
+
+    /**
+     * Retrieves the most recent transactions of a specific account.
+     *
+     * @param accountId The ID of the account whose transactions are to be retrieved.
+     * @param limit     The maximum number of transactions to return.
+     * @return A Flux containing the most recent transactions of the account, sorted by date in descending order.
+     */
+    @Override
+    public Flux<Transaction> getRecentAccountTransactions(String accountId, int limit) {
+        if (limit < 1) {
+            return ErrorCode.INVALID_LIMIT.<Transaction>asMono().flux();
+        }
+        // Las páginas dentro de la ventana cacheada no consultan la base de datos
+        return historyCache.get(accountId, limit, transactionRepository::findAccountHistory);
     }
 }
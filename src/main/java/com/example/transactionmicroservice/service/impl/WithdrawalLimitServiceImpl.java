@@ -0,0 +1,136 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.WithdrawalLimitsProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.limits.SlidingWindowCounters;
+import com.example.transactionmicroservice.model.AccountType;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.repository.TransactionRepository;
+import com.example.transactionmicroservice.service.FxRateService;
+import com.example.transactionmicroservice.service.WithdrawalLimitService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+
+@Slf4j
+@Service
+public class WithdrawalLimitServiceImpl implements WithdrawalLimitService {
+
+    private final WithdrawalLimitsProperties properties;
+    private final TransactionRepository transactionRepository;
+    private final FxRateService fxRateService;
+    private final SlidingWindowCounters debits;
+    private final Counter countRejections;
+    private final Counter amountRejections;
+
+    public WithdrawalLimitServiceImpl(WithdrawalLimitsProperties properties,
+                                      TransactionRepository transactionRepository,
+                                      FxRateService fxRateService,
+                                      MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionRepository = transactionRepository;
+        this.fxRateService = fxRateService;
+        this.debits = new SlidingWindowCounters(properties.getWindow(), properties.getBuckets(), properties.getStripes());
+        this.countRejections = rejectionCounter(meterRegistry, "count");
+        this.amountRejections = rejectionCounter(meterRegistry, "amount");
+    }
+
+    @Override
+    public double limitRate(String currency) {
+        return fxRateService.current().rate(fxRateService.currencyOf(currency),
+                fxRateService.currencyOf(properties.getCurrency()));
+    }
+
+    @Override
+    public ErrorCode tryConsume(AccountType accountType, String accountId, Double amount, long debitedAt) {
+        WithdrawalLimitsProperties.Rule rule = accountType == null ? null : properties.getRules().get(accountType);
+        if (!properties.isEnabled() || rule == null) {
+            return null;
+        }
+        long maxAmount = rule.getMaxAmount() < 0 ? -1 : toCents(rule.getMaxAmount());
+        if (maxAmount >= 0 && Double.isNaN(amount)) {
+            // Sin tipo de cambio no se puede comparar con el importe máximo
+            return ErrorCode.UNSUPPORTED_CURRENCY_PAIR;
+        }
+        int result = debits.tryRecord(accountId, toCents(amount), rule.getMaxCount(), maxAmount, debitedAt);
+        if (result == SlidingWindowCounters.COUNT_EXCEEDED) {
+            countRejections.increment();
+            return ErrorCode.DAILY_COUNT_LIMIT_EXCEEDED;
+        }
+        if (result == SlidingWindowCounters.AMOUNT_EXCEEDED) {
+            amountRejections.increment();
+            return ErrorCode.DAILY_AMOUNT_LIMIT_EXCEEDED;
+        }
+        return null;
+    }
+
+    @Override
+    public void refund(String accountId, Double amount, long debitedAt) {
+        if (properties.isEnabled()) {
+            debits.remove(accountId, toCents(amount), debitedAt);
+        }
+    }
+
+    @Override
+    public void refundAmount(String accountId, Double amount, long debitedAt) {
+        if (properties.isEnabled()) {
+            debits.removeAmount(accountId, toCents(amount), debitedAt);
+        }
+    }
+
+    /**
+     * Rebuilds the counters from the debits stored in MongoDB within the current window.
+     * <p>
+     * Only transactions created before the application was ready are loaded, so debits counted by requests
+     * served during the rehydration are not counted twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rehydrate(LocalDateTime.now())
+                    .subscribe(count -> log.info("Withdrawal limits rehydrated from {} transactions", count),
+                            error -> log.warn("Could not rehydrate the withdrawal limits", error));
+        }
+    }
+
+    /**
+     * Counts the withdrawals and outgoing transfers (one per multi-leg transfer) created in the window ending at
+     * {@code until}, converting their amounts at the current rates.
+     *
+     * @param until The end (exclusive) of the window.
+     * @return A Mono containing the number of transactions loaded.
+     */
+    Mono<Long> rehydrate(LocalDateTime until) {
+        ZoneId zone = ZoneId.systemDefault();
+        return transactionRepository.findByTypeInAndDateBetween(
+                        EnumSet.of(TransactionType.WITHDRAWAL, TransactionType.TRANSFER, TransactionType.MULTI_TRANSFER),
+                        until.minus(properties.getWindow()), until)
+                // Los tramos de una transferencia múltiple no son débitos: el débito es el de su padre
+                .filter(transaction -> transaction.getSourceAccountId() != null && transaction.getAmount() != null
+                        && transaction.getDate() != null && transaction.getParentTransactionId() == null)
+                .doOnNext(transaction -> debits.record(transaction.getSourceAccountId(),
+                        toCents(transaction.getAmount() * limitRate(transaction.getCurrency())),
+                        transaction.getDate().atZone(zone).toInstant().toEpochMilli()))
+                .count();
+    }
+
+    private static long toCents(double amount) {
+        // Un importe sin tipo de cambio (NaN) solo cuenta como débito
+        return Double.isNaN(amount) ? 0 : Math.round(amount * 100);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("transactions.limits.rejected")
+                .description("Debits rejected by the daily limit and velocity rules")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
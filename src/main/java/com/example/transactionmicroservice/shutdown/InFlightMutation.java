@@ -0,0 +1,150 @@
+package com.example.transactionmicroservice.shutdown;
+
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.LegResult;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A deposit, withdrawal or transfer being executed by this node, tracked by {@link InFlightMutations}.
+ * <p>
+ * The mutation travels in the Reactor context of its chain, so the services mark its progress with
+ * {@link #step(MutationPhase, MutationPhase)} around each remote call without changing their signatures.
+ * <p>
+ * Cancelling the chain does not stop a step that is starting on another thread, so the drain freezes the phase with
+ * {@link #abort()}: reading the phase and refusing any later step happen under the same lock as each transition,
+ * and the journaled phase is always the last one whose call may have been sent.
+ */
+@Getter
+public class InFlightMutation {
+
+    private static final Consumer<InFlightMutation> NO_DETAILS = mutation -> {
+    };
+
+    private final String id = UUID.randomUUID().toString();
+    private final TransactionType type;
+    private final String sourceAccountId;
+    private final String destinationAccountId;
+    private final Double amount;
+    private volatile MutationPhase phase = MutationPhase.ADMITTED; // Solo cambia con el monitor de la instancia
+    @Getter(AccessLevel.NONE)
+    private boolean aborted; // Protegido por this: ningún paso empieza ni avanza después del aborto
+    private volatile FxConversion conversion; // Conversión de la transferencia, necesaria para acreditar el destino
+    private volatile Transaction transaction; // Transacción que se está guardando
+    private volatile List<LegResult> legs; // Tramos de una transferencia múltiple, actualizados según se abonan
+    @Getter(AccessLevel.NONE)
+    private volatile Runnable onDropped; // Deshace lo reservado en este nodo si se descarta sin mover dinero
+
+    public InFlightMutation(TransactionType type, String sourceAccountId, String destinationAccountId, Double amount) {
+        this.type = type;
+        this.sourceAccountId = sourceAccountId;
+        this.destinationAccountId = destinationAccountId;
+        this.amount = amount;
+    }
+
+    /**
+     * Marks the phase of the mutation of the current chain around a remote call. Chains that are not tracked (e.g.
+     * internal callers) are left untouched.
+     *
+     * @param during The phase while the call is in flight.
+     * @param after  The phase once the call succeeded.
+     * @return An operator for {@link Mono#transform(Function)}.
+     */
+    public static <T> Function<Mono<T>, Mono<T>> step(MutationPhase during, MutationPhase after) {
+        return step(during, after, NO_DETAILS);
+    }
+
+    /**
+     * Same as {@link #step(MutationPhase, MutationPhase)}, recording on the mutation the details needed to resume
+     * it before the call is made.
+     */
+    public static <T> Function<Mono<T>, Mono<T>> step(MutationPhase during, MutationPhase after,
+                                                      Consumer<InFlightMutation> details) {
+        return call -> Mono.deferContextual(context -> {
+            InFlightMutation mutation = context.getOrDefault(InFlightMutation.class, null);
+            if (mutation == null) {
+                return call;
+            }
+            if (!mutation.advance(during, details)) {
+                // El drenaje ya leyó la fase: la llamada no se envía y la fase registrada sigue siendo válida
+                return mutation.interruption();
+            }
+            return call.doOnSuccess(value -> mutation.advance(after, NO_DETAILS));
+        });
+    }
+
+    /**
+     * Freezes the mutation at its current phase: the steps that have not started yet will not send their call.
+     *
+     * @return The phase the mutation was aborted in.
+     */
+    synchronized MutationPhase abort() {
+        aborted = true;
+        return phase;
+    }
+
+    /**
+     * @return The error ending the chain of an aborted mutation: retryable if no money had moved yet.
+     */
+    <T> Mono<T> interruption() {
+        return phase == MutationPhase.ADMITTED
+                ? ErrorCode.SHUTTING_DOWN.asMono()
+                : ErrorCode.MUTATION_INTERRUPTED.asMono();
+    }
+
+    private synchronized boolean advance(MutationPhase next, Consumer<InFlightMutation> details) {
+        if (aborted) {
+            return false;
+        }
+        details.accept(this);
+        phase = next;
+        return true;
+    }
+
+    /**
+     * Registers on the mutation of the chain an action undoing what this node reserved for it, such as the
+     * withdrawal limit. The action runs if the mutation is cancelled or aborted while still
+     * {@link MutationPhase#ADMITTED}; once a remote call is in flight its outcome is unknown and nothing is undone.
+     *
+     * @param context The context of the chain; chains that are not tracked are left untouched.
+     * @param undo    The action to run.
+     */
+    public static void onDropped(ContextView context, Runnable undo) {
+        InFlightMutation mutation = context.getOrDefault(InFlightMutation.class, null);
+        if (mutation != null) {
+            mutation.onDropped = undo;
+        }
+    }
+
+    void dropped() {
+        Runnable undo = onDropped;
+        // También congela la fase: un paso que arranque a la vez ya no envía su llamada tras deshacer la reserva
+        if (abort() == MutationPhase.ADMITTED && undo != null) {
+            onDropped = null;
+            undo.run();
+        }
+    }
+
+    public void setConversion(FxConversion conversion) {
+        this.conversion = conversion;
+    }
+
+    public void setTransaction(Transaction transaction) {
+        this.transaction = transaction;
+    }
+
+    public void setLegs(List<LegResult> legs) {
+        this.legs = legs;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.transactionmicroservice.shutdown;
+
+import com.example.transactionmicroservice.config.ShutdownProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.repository.PendingMutationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the mutations executing on this node and drains them on shutdown.
+ * <p>
+ * When the context closes (SIGTERM) the tracker stops admitting mutations ({@link ErrorCode#SHUTTING_DOWN}, safe to
+ * retry on another node) and waits up to {@code transactions.shutdown.drain-timeout} for the running ones. Whatever
+ * is still running then is cancelled and journaled in {@code pending_mutations} according to its
+ * {@link MutationPhase}: mutations that had not moved money are simply dropped, the resumable ones are completed by
+ * {@link PendingMutationResumer} on the next start and the ones cut during a remote call are left for review.
+ * <p>
+ * The tracker stops after the components that start mutations (default phase) and before the web server's graceful
+ * shutdown, so both HTTP and scheduled mutations are drained while MongoDB and the bank-accounts client are still up.
+ */
+@Slf4j
+@Component
+public class InFlightMutations implements SmartLifecycle {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final ShutdownProperties properties;
+    private final PendingMutationRepository pendingMutationRepository;
+    private final Map<String, InFlightMutation> inFlight = new ConcurrentHashMap<>();
+    private final Sinks.Empty<Void> abort = Sinks.empty();
+    private volatile boolean draining;
+    private volatile boolean running;
+
+    public InFlightMutations(ShutdownProperties properties, PendingMutationRepository pendingMutationRepository,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pendingMutationRepository = pendingMutationRepository;
+        Gauge.builder("transactions.mutations.in.flight", inFlight, Map::size)
+                .description("Mutations executing on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a mutation while tracking it.
+     *
+     * @param mutation The mutation, whose phase the chain updates through the Reactor context.
+     * @param chain    The mutation chain.
+     * @param <T>      The type of the result.
+     * @return The result of the chain; SHUTTING_DOWN if the node is draining, or MUTATION_INTERRUPTED if the chain
+     * was cancelled by the end of the drain after moving money.
+     */
+    public <T> Mono<T> track(InFlightMutation mutation, Mono<T> chain) {
+        return Mono.defer(() -> {
+            if (draining) {
+                return ErrorCode.SHUTTING_DOWN.<T>asMono();
+            }
+            inFlight.put(mutation.getId(), mutation);
+            Mono<T> aborted = abort.asMono().then(Mono.defer(mutation::interruption));
+            // La cadena se cancela al abortar el drenaje o si el llamante deja de esperar
+            return Mono.firstWithSignal(chain.doOnCancel(mutation::dropped)
+                            .contextWrite(Context.of(InFlightMutation.class, mutation)), aborted)
+                    .doFinally(signal -> inFlight.remove(mutation.getId()));
+        });
+    }
+
+    /**
+     * @return The number of mutations executing on this node.
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drain().block();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        drain().doFinally(signal -> callback.run()).subscribe();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Se detiene después de los componentes que lanzan operaciones y antes del apagado ordenado del servidor web
+        return SmartLifecycle.DEFAULT_PHASE - 512;
+    }
+
+    /**
+     * Stops admitting mutations, waits for the running ones and journals the ones still running at the deadline.
+     *
+     * @return A Mono that completes when every mutation has finished or been journaled.
+     */
+    Mono<Void> drain() {
+        draining = true;
+        log.info("Draining {} in-flight mutations (up to {})", inFlight.size(), properties.getDrainTimeout());
+        return Flux.interval(Duration.ZERO, POLL_INTERVAL)
+                .filter(tick -> inFlight.isEmpty())
+                .next()
+                .then()
+                .timeout(properties.getDrainTimeout(), Mono.defer(this::abortUnfinished))
+                .doFinally(signal -> running = false);
+    }
+
+    private Mono<Void> abortUnfinished() {
+        List<InFlightMutation> unfinished = List.copyOf(inFlight.values());
+        // Cancelar no detiene un paso que arranca en otro hilo: cada fase se lee y se congela en un solo paso
+        // atómico, así que ninguna llamada remota sale después de leerla
+        List<PendingMutation> journal = unfinished.stream()
+                .filter(mutation -> {
+                    MutationPhase phase = mutation.abort();
+                    return phase != MutationPhase.ADMITTED && phase != MutationPhase.RECORDED;
+                })
+                .map(InFlightMutations::toPendingMutation)
+                .toList();
+        abort.tryEmitEmpty();
+        log.warn("{} mutations did not finish in time, {} journaled for resumption or review",
+                unfinished.size(), journal.size());
+        return pendingMutationRepository.saveAll(journal)
+                .doOnError(e -> log.error("Could not journal the interrupted mutations {}",
+                        journal.stream().map(PendingMutation::getId).toList(), e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private static PendingMutation toPendingMutation(InFlightMutation mutation) {
+        FxConversion conversion = mutation.getConversion();
+        return PendingMutation.builder()
+                .id(mutation.getId())
+                .type(mutation.getType())
+                .sourceAccountId(mutation.getSourceAccountId())
+                .destinationAccountId(mutation.getDestinationAccountId())
+                .amount(mutation.getAmount())
+                .phase(mutation.getPhase())
+                .sourceCurrency(conversion == null ? null : conversion.getSourceCurrency())
+                .destinationCurrency(conversion == null ? null : conversion.getDestinationCurrency())
+                .exchangeRate(conversion == null ? null : conversion.getRate())
+                .destinationAmount(conversion == null ? null : conversion.getDestinationAmount())
+                .transaction(mutation.getTransaction())
+                .legs(mutation.getLegs() == null ? null : List.copyOf(mutation.getLegs()))
+                .status(mutation.getPhase().isResumable()
+                        ? PendingMutationStatus.RESUMABLE
+                        : PendingMutationStatus.NEEDS_REVIEW)
+                .interruptedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.transactionmicroservice.shutdown;
+
+import com.example.transactionmicroservice.cache.AccountHistoryCache;
+import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.config.ShutdownProperties;
+import com.example.transactionmicroservice.factory.TransactionFactory;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Completes, when the application starts, the mutations that a previous shutdown journaled as
+ * {@link PendingMutationStatus#RESUMABLE}: transfers already debited get their deposit and every resumed mutation
+ * gets its transaction saved (with the id assigned before the shutdown, so saving it twice is harmless).
+ * <p>
+ * Each entry is claimed with a conditional update, so with several nodes starting at once every entry is resumed by
+ * a single node. An entry that fails to resume is marked {@link PendingMutationStatus#NEEDS_REVIEW}.
+ */
+@Slf4j
+@Component
+public class PendingMutationResumer {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final BankAccountClient bankAccountClient;
+    private final TransactionRepository transactionRepository;
+    private final AccountHistoryCache historyCache;
+    private final ShutdownProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public PendingMutationResumer(ReactiveMongoTemplate mongoTemplate, BankAccountClient bankAccountClient,
+                                  TransactionRepository transactionRepository, AccountHistoryCache historyCache,
+                                  ShutdownProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.bankAccountClient = bankAccountClient;
+        this.transactionRepository = transactionRepository;
+        this.historyCache = historyCache;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isResumeOnStartup()) {
+            return;
+        }
+        resumeAll().subscribe(
+                null,
+                error -> log.warn("Could not resume the interrupted mutations: {}", error.getMessage()));
+    }
+
+    /**
+     * Claims and resumes every resumable journal entry, one at a time.
+     *
+     * @return A Mono that completes when no resumable entry is left.
+     */
+    Mono<Void> resumeAll() {
+        return claim()
+                .flatMap(pending -> resume(pending)
+                        .then(Mono.defer(() -> mongoTemplate.remove(pending)))
+                        .doOnNext(removed -> log.info("Resumed {} {} interrupted in phase {}",
+                                pending.getType(), pending.getId(), pending.getPhase()))
+                        .then()
+                        .onErrorResume(e -> markForReview(pending, e))
+                        .then(Mono.defer(this::resumeAll)));
+    }
+
+    private Mono<PendingMutation> claim() {
+        Query query = Query.query(Criteria.where("status").is(PendingMutationStatus.RESUMABLE));
+        Update update = new Update().set("status", PendingMutationStatus.RESUMING).set("node", nodeId);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                PendingMutation.class);
+    }
+
+    private Mono<Transaction> resume(PendingMutation pending) {
+        Mono<Transaction> transaction = pending.getPhase() == MutationPhase.DEBITED
+                ? bankAccountClient.deposit(pending.getDestinationAccountId(), pending.getDestinationAmount())
+                        .thenReturn(TransactionFactory.createTransferTransaction(pending.getSourceAccountId(),
+                                pending.getDestinationAccountId(), pending.getAmount(), conversionOf(pending)))
+                : Mono.justOrEmpty(pending.getTransaction());
+        return transaction
+                .switchIfEmpty(Mono.error(new IllegalStateException("Nothing to resume in phase " + pending.getPhase())))
+                .flatMap(transactionRepository::save)
+                .doOnNext(historyCache::record);
+    }
+
+    private Mono<Void> markForReview(PendingMutation pending, Throwable error) {
+        log.error("Could not resume {} {}, marking it for review", pending.getType(), pending.getId(), error);
+        Update update = new Update().set("status", PendingMutationStatus.NEEDS_REVIEW).set("lastError", error.toString());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(pending.getId())), update,
+                        PendingMutation.class)
+                .then();
+    }
+
+    private static FxConversion conversionOf(PendingMutation pending) {
+        return FxConversion.builder()
+                .sourceCurrency(pending.getSourceCurrency())
+                .destinationCurrency(pending.getDestinationCurrency())
+                .rate(pending.getExchangeRate() == null ? 1 : pending.getExchangeRate())
+                .destinationAmount(pending.getDestinationAmount())
+                .build();
+    }
+}
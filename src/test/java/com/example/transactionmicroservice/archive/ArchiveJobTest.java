@@ -0,0 +1,161 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.config.ArchiveProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ArchiveJobTest {
+
+    private static final YearMonth CURRENT = YearMonth.now();
+
+    @TempDir
+    Path directory;
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final Map<YearMonth, List<Transaction>> collection = new TreeMap<>();
+    private final List<YearMonth> deleted = new ArrayList<>();
+    private ArchiveProperties properties;
+    private ArchiveStore archiveStore;
+    private ArchiveJob archiveJob;
+
+    @BeforeEach
+    void setup() {
+        properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+        properties.setRetainMonths(2);
+        properties.setRefreshInterval(Duration.ofMillis(1));
+        archiveStore = new ArchiveStore(properties, Schedulers.immediate());
+        archiveJob = new ArchiveJob(mongoTemplate, archiveStore, properties, Schedulers.immediate());
+        // Colección simulada: las consultas se resuelven por el mes de su rango de fechas
+        when(mongoTemplate.findOne(any(Query.class), eq(Transaction.class))).thenAnswer(invocation ->
+                Mono.justOrEmpty(collection.values().stream().flatMap(List::stream).findFirst()));
+        when(mongoTemplate.count(any(Query.class), eq(Transaction.class))).thenAnswer(invocation ->
+                Mono.just((long) month(invocation.getArgument(0)).size()));
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenAnswer(invocation ->
+                Flux.fromIterable(month(invocation.getArgument(0))));
+        when(mongoTemplate.remove(any(Query.class), eq(Transaction.class))).thenAnswer(invocation -> {
+            YearMonth month = YearMonth.from(from(invocation.getArgument(0)));
+            // El segmento tiene que estar escrito y publicado antes de borrar un solo documento
+            assertTrue(Files.exists(segment(month)), "segment of " + month + " written before the delete");
+            assertTrue(archiveStore.contains(month));
+            deleted.add(month);
+            List<Transaction> removed = collection.remove(month);
+            return Mono.just(DeleteResult.acknowledged(removed == null ? 0 : removed.size()));
+        });
+    }
+
+    @Test
+    void archiveClosedMonths_shouldArchiveOnlyTheMonthsBeforeTheRetainedOnes() {
+        insert(CURRENT.minusMonths(4), 3);
+        insert(CURRENT.minusMonths(3), 2);
+        insert(CURRENT.minusMonths(2), 1); // Primer mes retenido
+        insert(CURRENT, 1);
+
+        StepVerifier.create(archiveJob.archiveClosedMonths()).verifyComplete();
+
+        assertEquals(List.of(CURRENT.minusMonths(4), CURRENT.minusMonths(3)), deleted);
+        assertEquals(List.of(CURRENT.minusMonths(2), CURRENT), List.copyOf(collection.keySet()));
+        assertFalse(Files.exists(segment(CURRENT.minusMonths(2))));
+        assertEquals(CURRENT.minusMonths(2).atDay(1).atStartOfDay(), archiveStore.archivedUntil().orElseThrow());
+    }
+
+    @Test
+    void archiveClosedMonths_shouldWriteTheSegmentBeforeDeletingTheMonth() {
+        YearMonth month = CURRENT.minusMonths(3);
+        insert(month, 2);
+
+        StepVerifier.create(archiveJob.archiveClosedMonths()).verifyComplete();
+
+        InOrder order = inOrder(mongoTemplate);
+        order.verify(mongoTemplate).count(argThat(query -> from(query).equals(month.atDay(1).atStartOfDay())),
+                eq(Transaction.class));
+        order.verify(mongoTemplate).find(any(Query.class), eq(Transaction.class));
+        order.verify(mongoTemplate).remove(any(Query.class), eq(Transaction.class));
+        assertEquals(2, archiveStore.findGlobalHistory(CURRENT.atDay(1).atStartOfDay()).count().block());
+    }
+
+    @Test
+    void archiveClosedMonths_shouldNotDeleteWhenTheCountDoesNotMatch() {
+        YearMonth month = CURRENT.minusMonths(3);
+        insert(month, 2);
+        // Un documento insertado entre el count y el find: el mes ya no está cerrado como se esperaba
+        when(mongoTemplate.count(any(Query.class), eq(Transaction.class))).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(archiveJob.archiveClosedMonths())
+                .expectErrorMatches(error -> error instanceof IllegalStateException
+                        && error.getMessage().contains("counted 3"))
+                .verify();
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Transaction.class));
+        assertFalse(Files.exists(segment(month)));
+        assertFalse(archiveStore.contains(month));
+        assertEquals(2, collection.get(month).size());
+    }
+
+    @Test
+    void archiveClosedMonths_shouldOnlyDeleteWhenTheSegmentAlreadyExists() throws IOException {
+        YearMonth month = CURRENT.minusMonths(3);
+        insert(month, 2);
+        // Ejecución anterior cortada tras escribir el segmento y antes de borrar
+        SegmentWriter writer = new SegmentWriter();
+        collection.get(month).forEach(writer::add);
+        archiveStore.write(month, writer);
+
+        StepVerifier.create(archiveJob.archiveClosedMonths()).verifyComplete();
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Transaction.class));
+        assertEquals(List.of(month), deleted);
+        assertEquals(2, archiveStore.findGlobalHistory(CURRENT.atDay(1).atStartOfDay()).count().block());
+    }
+
+    private void insert(YearMonth month, int count) {
+        List<Transaction> transactions = collection.computeIfAbsent(month, key -> new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            transactions.add(Transaction.builder().id(month + "-" + i).type(TransactionType.DEPOSIT).amount(10.0)
+                    .date(month.atDay(1).atTime(12, i)).sourceAccountId("acc-1").build());
+        }
+    }
+
+    private List<Transaction> month(Query query) {
+        return collection.getOrDefault(YearMonth.from(from(query)), List.of());
+    }
+
+    private static LocalDateTime from(Query query) {
+        return (LocalDateTime) ((Document) query.getQueryObject().get("date")).get("$gte");
+    }
+
+    private Path segment(YearMonth month) {
+        return directory.resolve("transactions-" + month + ".seg");
+    }
+}
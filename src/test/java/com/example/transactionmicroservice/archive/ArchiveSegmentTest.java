@@ -0,0 +1,131 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void segment_shouldRoundTripEveryField() throws IOException {
+        Transaction deposit = Transaction.builder().id("0000018d0a0b0c0d0001").type(TransactionType.DEPOSIT)
+                .amount(150.25).date(START.plusSeconds(5)).sourceAccountId("acc-1").currency("USD").build();
+        Transaction transfer = Transaction.builder().id("legacy-id").type(TransactionType.TRANSFER)
+                .amount(10.0).date(START.plusDays(3).plusNanos(7_000_000)).sourceAccountId("acc-1")
+                .destinationAccountId("acc-2").currency("USD").destinationCurrency("EUR")
+                .destinationAmount(9.2).exchangeRate(0.92).parentTransactionId("0000018d0a0b0c0d0000").build();
+
+        List<Transaction> read = write(deposit, transfer).findAll();
+
+        assertEquals(2, read.size());
+        assertSame(transfer.getType(), read.get(0).getType());
+        assertEquals(transfer.getId(), read.get(0).getId());
+        assertEquals(transfer.getDate(), read.get(0).getDate());
+        assertEquals("acc-2", read.get(0).getDestinationAccountId());
+        assertEquals("EUR", read.get(0).getDestinationCurrency());
+        assertEquals(9.2, read.get(0).getDestinationAmount());
+        assertEquals(0.92, read.get(0).getExchangeRate());
+        assertEquals("0000018d0a0b0c0d0000", read.get(0).getParentTransactionId());
+        assertEquals(deposit.getId(), read.get(1).getId());
+        assertEquals(150.25, read.get(1).getAmount());
+        assertEquals(deposit.getDate(), read.get(1).getDate());
+        assertNull(read.get(1).getDestinationAccountId());
+        assertNull(read.get(1).getExchangeRate());
+        assertNull(read.get(1).getParentTransactionId());
+    }
+
+    @Test
+    void segment_shouldReadVersionOneSegmentsWithoutParentIds() throws IOException {
+        ArchiveSegment current = write(transaction("01", "acc-1", null, 0), transaction("02", "acc-2", null, 1));
+        // Un segmento v1 es el actual sin la última columna (ids de padre: un varint 0 por fila) y con el magic v1
+        byte[] bytes = Files.readAllBytes(current.getPath());
+        byte[] legacy = Arrays.copyOf(bytes, bytes.length - Integer.BYTES - current.getRows());
+        System.arraycopy(SegmentFormat.MAGIC_V1, 0, legacy, 0, SegmentFormat.MAGIC_V1.length);
+        Path legacyPath = directory.resolve("legacy.seg");
+        Files.write(legacyPath, legacy);
+
+        List<Transaction> read = ArchiveSegment.open(legacyPath).findAll();
+
+        assertEquals(List.of("02", "01"), read.stream().map(Transaction::getId).toList());
+        assertNull(read.get(0).getParentTransactionId());
+    }
+
+    @Test
+    void typeCodes_shouldStayFixedWhateverTheOrderOfTheEnum() {
+        // Códigos ya escritos en segmentos existentes: cambiarlos cambiaría el tipo de filas archivadas
+        assertEquals(1, SegmentFormat.typeCode(TransactionType.DEPOSIT));
+        assertEquals(2, SegmentFormat.typeCode(TransactionType.WITHDRAWAL));
+        assertEquals(3, SegmentFormat.typeCode(TransactionType.TRANSFER));
+        assertEquals(4, SegmentFormat.typeCode(TransactionType.MULTI_TRANSFER));
+        for (TransactionType type : TransactionType.values()) {
+            assertSame(type, SegmentFormat.type(SegmentFormat.typeCode(type)));
+        }
+        assertNull(SegmentFormat.type(0));
+        assertThrows(IllegalArgumentException.class, () -> SegmentFormat.type(99));
+    }
+
+    @Test
+    void segment_shouldKeepAmountsThatAreNotWholeCents() throws IOException {
+        Transaction transaction = Transaction.builder().id("a1").type(TransactionType.WITHDRAWAL)
+                .amount(1.0 / 3).date(START).sourceAccountId("acc-1").build();
+
+        assertEquals(1.0 / 3, write(transaction).findAll().get(0).getAmount());
+    }
+
+    @Test
+    void findByAccount_shouldReturnOnlyTheAccountTransactionsNewestFirst() throws IOException {
+        ArchiveSegment segment = write(
+                transaction("01", "acc-1", null, 0),
+                transaction("02", "acc-2", null, 1),
+                transaction("03", "acc-2", "acc-1", 2),
+                transaction("04", "acc-3", null, 3));
+
+        assertEquals(List.of("03", "01"), segment.findByAccount("acc-1").stream().map(Transaction::getId).toList());
+        assertTrue(segment.findByAccount("acc-9").isEmpty());
+    }
+
+    @Test
+    void segment_shouldBeSmallerThanTheDocuments() throws IOException {
+        SegmentWriter writer = new SegmentWriter();
+        for (int i = 0; i < 10_000; i++) {
+            writer.add(transaction(String.format("%020x", i), "acc-" + (i % 100), null, i));
+        }
+        Path path = directory.resolve("large.seg");
+        writer.writeTo(path);
+
+        // Cada documento BSON ocupa más de 100 bytes; el segmento debe quedarse en una fracción de eso
+        assertTrue(Files.size(path) < 10_000 * 25, "Segment size " + Files.size(path));
+        assertEquals(100, ArchiveSegment.open(path).findByAccount("acc-7").size());
+    }
+
+    private ArchiveSegment write(Transaction... transactions) throws IOException {
+        SegmentWriter writer = new SegmentWriter();
+        for (Transaction transaction : transactions) {
+            writer.add(transaction);
+        }
+        Path path = directory.resolve("segment.seg");
+        writer.writeTo(path);
+        return ArchiveSegment.open(path);
+    }
+
+    private static Transaction transaction(String id, String source, String destination, int minutes) {
+        return Transaction.builder().id(id).type(destination == null ? TransactionType.DEPOSIT : TransactionType.TRANSFER)
+                .amount(25.5).date(START.plusMinutes(minutes)).sourceAccountId(source)
+                .destinationAccountId(destination).currency("USD").build();
+    }
+}
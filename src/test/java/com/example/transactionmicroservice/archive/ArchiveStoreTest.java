@@ -0,0 +1,66 @@
+package com.example.transactionmicroservice.archive;
+
+import com.example.transactionmicroservice.config.ArchiveProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveStoreTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void refresh_shouldOpenSegmentsWrittenByAnotherNode() throws IOException {
+        ArchiveStore reader = store();
+        ArchiveStore archiver = store();
+        assertEquals(Optional.empty(), reader.archivedUntil());
+
+        archiver.write(JANUARY, writer(JANUARY));
+        Files.writeString(directory.resolve("transactions-2024-02.seg.tmp"), "partial"); // Segmento a medio escribir
+
+        assertEquals(1, reader.refresh());
+        assertEquals(0, reader.refresh());
+        assertEquals(Optional.of(LocalDateTime.of(2024, 2, 1, 0, 0)), reader.archivedUntil());
+        StepVerifier.create(reader.findAccountHistory("acc-1", reader.archivedUntil().orElseThrow()))
+                .assertNext(transaction -> assertEquals("01", transaction.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void constructor_shouldOpenTheExistingSegments() throws IOException {
+        store().write(JANUARY, writer(JANUARY));
+
+        ArchiveStore restarted = store();
+
+        assertTrue(restarted.contains(JANUARY));
+    }
+
+    private ArchiveStore store() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+        return new ArchiveStore(properties, Schedulers.immediate());
+    }
+
+    private static SegmentWriter writer(YearMonth month) {
+        SegmentWriter writer = new SegmentWriter();
+        writer.add(Transaction.builder().id("01").type(TransactionType.DEPOSIT).amount(10.0)
+                .date(month.atDay(2).atStartOfDay()).sourceAccountId("acc-1").build());
+        return writer;
+    }
+}
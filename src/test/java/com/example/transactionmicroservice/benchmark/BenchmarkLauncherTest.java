@@ -0,0 +1,29 @@
+package com.example.transactionmicroservice.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this package. Excluded from the normal build, run with {@code mvn test -Pbenchmark}
+ * and pick benchmarks with {@code -Dbenchmark.include=<regex>}. Results are written to
+ * {@code target/jmh-result.json}. The GC profiler is attached, so results include the allocation per operation.
+ */
+@Tag("benchmark")
+class BenchmarkLauncherTest {
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", BenchmarkLauncherTest.class.getPackageName() + ".*"))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.transactionmicroservice.benchmark;
+
+import com.example.transactionmicroservice.config.GlobalExceptionHandler;
+import com.example.transactionmicroservice.exception.DomainException;
+import com.example.transactionmicroservice.service.impl.BankAccountServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a rejected request (invalid amount) from validation to the error response entity.
+ * <p>
+ * {@code legacyRejection} reproduces the former path: a {@link ResponseStatusException} thrown with a full stack
+ * trace and a fresh error map. {@code domainRejection} runs the current path through
+ * {@link BankAccountServiceImpl} and {@link GlobalExceptionHandler#handleDomainException}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final BankAccountServiceImpl bankAccountService = new BankAccountServiceImpl(null, null, null, null);
+
+    @Benchmark
+    public ResponseEntity<?> legacyRejection() {
+        try {
+            legacyValidateAmount(-1.0);
+            return null;
+        } catch (ResponseStatusException ex) {
+            return handler.handleResponseStatusException(ex);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> domainRejection() {
+        DomainException[] error = new DomainException[1];
+        bankAccountService.deposit("123", -1.0)
+                .subscribe(account -> { }, ex -> error[0] = (DomainException) ex);
+        return handler.handleDomainException(error[0]);
+    }
+
+    private static void legacyValidateAmount(Double amount) {
+        if (amount == null || amount <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Amount must be greater than zero");
+        }
+    }
+}
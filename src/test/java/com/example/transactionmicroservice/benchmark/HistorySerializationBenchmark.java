@@ -0,0 +1,91 @@
+package com.example.transactionmicroservice.benchmark;
+
+import com.example.transactionmicroservice.mapper.TransactionJsonSerializer;
+import com.example.transactionmicroservice.mapper.TransactionMapper;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per row of writing a page of history rows to one JSON generator, as in a large history response.
+ * <p>
+ * {@code responseDto} reproduces the former path: {@link TransactionMapper#toResponseDto} followed by bean
+ * serialization of the DTO. {@code transactionSerializer} writes the entity with {@link TransactionJsonSerializer}.
+ * Both produce the same bytes; scores and allocation are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(HistorySerializationBenchmark.ROWS)
+public class HistorySerializationBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private final ObjectWriter dtoWriter = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writer();
+    private final ObjectWriter entityWriter = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .addModule(new SimpleModule().addSerializer(new TransactionJsonSerializer()))
+            .build()
+            .writer();
+    private final Transaction row = Transaction.builder()
+            .id("0192a4c3b7d20001000a")
+            .type(TransactionType.TRANSFER)
+            .amount(120.5)
+            .date(LocalDateTime.of(2024, 3, 14, 15, 9, 26))
+            .sourceAccountId("1042")
+            .destinationAccountId("2077")
+            .currency("EUR")
+            .destinationCurrency("USD")
+            .destinationAmount(130.14)
+            .exchangeRate(1.08)
+            .build();
+
+    @Benchmark
+    public void responseDto() throws IOException {
+        try (JsonGenerator generator = dtoWriter.createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (int i = 0; i < ROWS; i++) {
+                dtoWriter.writeValue(generator, TransactionMapper.toResponseDto(row));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    @Benchmark
+    public void transactionSerializer() throws IOException {
+        try (JsonGenerator generator = entityWriter.createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (int i = 0; i < ROWS; i++) {
+                entityWriter.writeValue(generator, row);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.transactionmicroservice.benchmark;
+
+import com.example.transactionmicroservice.dto.TransactionResponseDto;
+import com.example.transactionmicroservice.mapper.TransactionMapper;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.repository.TransactionCodec;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode cost of one history row, from the raw BSON returned by the driver to the response DTO.
+ * <p>
+ * {@code mappingConverter} reproduces the former path: the driver builds an {@code org.bson.Document} and Spring
+ * Data's {@link MappingMongoConverter} populates the entity reflectively. {@code transactionCodec} decodes the same
+ * bytes with {@link TransactionCodec}. The launcher attaches the GC profiler, so {@code gc.alloc.rate.norm} gives
+ * the bytes allocated per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDecodeBenchmark {
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final TransactionCodec transactionCodec = new TransactionCodec();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    private MappingMongoConverter converter;
+    private RawBsonDocument row;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        Document document = new Document();
+        converter.write(Transaction.builder()
+                .id("0192a4c3b7d20001000a")
+                .type(TransactionType.TRANSFER)
+                .amount(120.5)
+                .date(LocalDateTime.of(2024, 3, 14, 15, 9, 26))
+                .sourceAccountId("1042")
+                .destinationAccountId("2077")
+                .currency("EUR")
+                .destinationCurrency("USD")
+                .destinationAmount(130.14)
+                .exchangeRate(1.08)
+                .build(), document);
+        row = new RawBsonDocument(document, documentCodec);
+    }
+
+    @Benchmark
+    public TransactionResponseDto mappingConverter() {
+        Document document = documentCodec.decode(reader(), decoderContext);
+        return TransactionMapper.toResponseDto(converter.read(Transaction.class, document));
+    }
+
+    @Benchmark
+    public TransactionResponseDto transactionCodec() {
+        return TransactionMapper.toResponseDto(transactionCodec.decode(reader(), decoderContext));
+    }
+
+    private BsonBinaryReader reader() {
+        return new BsonBinaryReader(row.getByteBuffer().asNIO());
+    }
+}
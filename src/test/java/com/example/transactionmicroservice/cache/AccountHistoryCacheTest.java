@@ -0,0 +1,124 @@
+package com.example.transactionmicroservice.cache;
+
+import com.example.transactionmicroservice.config.HistoryCacheProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountHistoryCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final List<Transaction> stored = new ArrayList<>(); // Historial en Mongo, el más reciente primero
+    private final Function<String, Flux<Transaction>> loader = accountId -> Flux.defer(() -> {
+        queries.incrementAndGet();
+        return Flux.fromIterable(new ArrayList<>(stored));
+    });
+
+    @Test
+    void get_shouldServeRecentPagesFromMemory() {
+        AccountHistoryCache cache = cache(3);
+        for (int i = 5; i >= 1; i--) {
+            stored.add(deposit("t" + i));
+        }
+
+        StepVerifier.create(cache.get("123", 2, loader).map(Transaction::getId))
+                .expectNext("t5", "t4")
+                .verifyComplete();
+        StepVerifier.create(cache.get("123", 3, loader).map(Transaction::getId))
+                .expectNext("t5", "t4", "t3")
+                .verifyComplete();
+        assertEquals(1, queries.get());
+
+        // Más allá de la ventana cacheada se consulta Mongo
+        StepVerifier.create(cache.get("123", 5, loader)).expectNextCount(5).verifyComplete();
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void record_shouldWriteThroughCachedAccounts() {
+        AccountHistoryCache cache = cache(3);
+        stored.add(deposit("t1"));
+        cache.get("123", 3, loader).blockLast();
+
+        cache.record(deposit("t2"));
+
+        // La cuenta tiene todo su historial en memoria: también se sirve el historial completo
+        StepVerifier.create(cache.get("123", Integer.MAX_VALUE, loader).map(Transaction::getId))
+                .expectNext("t2", "t1")
+                .verifyComplete();
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void invalidate_shouldKeepEntriesThatAlreadyContainTheChange() {
+        AccountHistoryCache cache = cache(3);
+        stored.add(deposit("t1"));
+        cache.get("123", 3, loader).blockLast();
+
+        cache.invalidate("123", "t1");
+        cache.get("123", 1, loader).blockLast();
+        assertEquals(1, queries.get());
+
+        cache.invalidate("123", "t9");
+        cache.get("123", 1, loader).blockLast();
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void get_shouldNotCacheLoadsRacingWithWrites() {
+        AccountHistoryCache cache = cache(3);
+        stored.add(deposit("t1"));
+        Function<String, Flux<Transaction>> racingLoader = accountId -> loader.apply(accountId)
+                .doOnComplete(() -> cache.record(deposit("t2")));
+
+        cache.get("123", 3, racingLoader).blockLast();
+
+        assertNull(cache.cache().getIfPresent("123"));
+    }
+
+    @Test
+    void get_shouldReloadEntriesExpiredSinceTheyWereLoaded() {
+        AtomicLong now = new AtomicLong();
+        HistoryCacheProperties properties = new HistoryCacheProperties();
+        properties.setEntriesPerAccount(3);
+        properties.setExpireAfterWrite(Duration.ofSeconds(90));
+        AccountHistoryCache cache = new AccountHistoryCache(properties, new SimpleMeterRegistry(), now::get);
+        stored.add(deposit("t1"));
+        cache.get("123", 1, loader).blockLast();
+
+        // Escribir a través de la caché no alarga la vida de la entrada
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        cache.record(deposit("t2"));
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        cache.get("123", 1, loader).blockLast();
+        assertEquals(2, queries.get());
+    }
+
+    private static AccountHistoryCache cache(int entriesPerAccount) {
+        HistoryCacheProperties properties = new HistoryCacheProperties();
+        properties.setEntriesPerAccount(entriesPerAccount);
+        return new AccountHistoryCache(properties, new SimpleMeterRegistry());
+    }
+
+    private static Transaction deposit(String id) {
+        return Transaction.builder()
+                .id(id)
+                .type(TransactionType.DEPOSIT)
+                .amount(10.0)
+                .destinationAccountId("123")
+                .build();
+    }
+}
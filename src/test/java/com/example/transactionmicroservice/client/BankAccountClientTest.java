@@ -0,0 +1,175 @@
+package com.example.transactionmicroservice.client;
+
+import com.example.transactionmicroservice.config.BankAccountsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BankAccountClientTest {
+
+    private final List<String> requestedUris = new CopyOnWriteArrayList<>();
+
+    @Test
+    void getAccount_shouldCoalesceConcurrentLookupsIntoOneBatchRequest() {
+        BankAccountClient client = client(true, path -> path.startsWith("/accounts/batch")
+                ? json(HttpStatus.OK, "[{\"id\":1,\"balance\":10},{\"id\":2,\"balance\":20}]")
+                : json(HttpStatus.OK, "{\"id\":3,\"balance\":30}"));
+
+        StepVerifier.create(Mono.zip(client.getAccount("1"), client.getAccount("2"), client.getAccount("1")))
+                .expectNextMatches(accounts -> accounts.getT1().getId() == 1L
+                        && accounts.getT2().getId() == 2L
+                        && accounts.getT3().getId() == 1L)
+                .verifyComplete();
+
+        assertEquals(1, requestedUris.size());
+        assertTrue(requestedUris.get(0).contains("ids=1,2"));
+    }
+
+    @Test
+    void getAccount_shouldResolveIdsMissingFromBatchIndividually() {
+        BankAccountClient client = client(true, path -> path.startsWith("/accounts/batch")
+                ? json(HttpStatus.OK, "[{\"id\":1,\"balance\":10}]")
+                : json(HttpStatus.NOT_FOUND, "Account not found"));
+
+        StepVerifier.create(client.getAccount("1").zipWith(client.getAccount("9").onErrorResume(
+                        error -> Mono.empty()).hasElement()))
+                .expectNextMatches(result -> result.getT1().getId() == 1L && !result.getT2())
+                .verifyComplete();
+
+        assertTrue(requestedUris.stream().anyMatch(uri -> uri.endsWith("/accounts/9")));
+    }
+
+    @Test
+    void getAccount_shouldFallBackToSingleLookupsWhenBatchEndpointIsMissing() {
+        BankAccountClient client = client(true, path -> path.startsWith("/accounts/batch")
+                ? json(HttpStatus.NOT_FOUND, "Not found")
+                : json(HttpStatus.OK, "{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + ",\"balance\":10}"));
+
+        StepVerifier.create(Mono.zip(client.getAccount("1"), client.getAccount("2")))
+                .expectNextMatches(accounts -> accounts.getT1().getId() == 1L && accounts.getT2().getId() == 2L)
+                .verifyComplete();
+        StepVerifier.create(Mono.zip(client.getAccount("3"), client.getAccount("4")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // The batch endpoint is only probed once
+        assertEquals(1, requestedUris.stream().filter(uri -> uri.contains("/accounts/batch")).count());
+    }
+
+    @Test
+    void getAccount_shouldProbeTheBatchEndpointAgainAfterRetryAfter() throws InterruptedException {
+        BankAccountsProperties properties = properties(true);
+        properties.getBatch().setRetryAfter(Duration.ofMillis(100));
+        BankAccountClient client = client(properties, path -> path.startsWith("/accounts/batch")
+                ? json(HttpStatus.NOT_FOUND, "Not found")
+                : json(HttpStatus.OK, "{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + ",\"balance\":10}"));
+
+        Mono.zip(client.getAccount("1"), client.getAccount("2")).block();
+        Thread.sleep(150);
+        Mono.zip(client.getAccount("3"), client.getAccount("4")).block();
+
+        assertEquals(2, requestedUris.stream().filter(uri -> uri.contains("/accounts/batch")).count());
+    }
+
+    @Test
+    void getAccount_shouldLookUpRejectedBatchesIdByIdAndKeepBatching() {
+        BankAccountClient client = client(true, path -> path.startsWith("/accounts/batch")
+                ? json(HttpStatus.BAD_REQUEST, "Invalid id: x")
+                : path.endsWith("/x")
+                ? json(HttpStatus.BAD_REQUEST, "Invalid id: x")
+                : json(HttpStatus.OK, "{\"id\":1,\"balance\":10}"));
+
+        StepVerifier.create(client.getAccount("1").zipWith(client.getAccount("x").onErrorResume(
+                        error -> Mono.empty()).hasElement()))
+                .expectNextMatches(result -> result.getT1().getId() == 1L && !result.getT2())
+                .verifyComplete();
+        StepVerifier.create(Mono.zip(client.getAccount("1"), client.getAccount("x")))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        // Un 400 no desactiva la consulta agrupada
+        assertEquals(2, requestedUris.stream().filter(uri -> uri.contains("/accounts/batch")).count());
+    }
+
+    @Test
+    void getAccount_shouldPropagateErrorsWhenBatchingIsDisabled() {
+        BankAccountClient client = client(false, path -> json(HttpStatus.INTERNAL_SERVER_ERROR, "boom"));
+
+        StepVerifier.create(client.getAccount("1"))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException
+                        && error.getMessage().contains("Error fetching account: boom"))
+                .verify();
+        assertEquals(List.of("http://bank/accounts/1"), requestedUris);
+    }
+
+    @Test
+    void concurrencyLimit_shouldBePublishedAndReleasedAfterEachCall() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BankAccountClient client = client(false, path -> json(HttpStatus.SERVICE_UNAVAILABLE, "busy"), meterRegistry);
+
+        StepVerifier.create(client.getAccount("1"))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        // Arranca con el límite inicial; solo el 503 puede reducirlo, si cierra la primera ventana
+        double limit = meterRegistry.get("transactions.bank-accounts.limit").gauge().value();
+        assertTrue(limit == 20.0 || limit == 18.0, "limit " + limit);
+        assertEquals(0.0, meterRegistry.get("transactions.bank-accounts.in.flight").gauge().value());
+    }
+
+    private BankAccountClient client(boolean batching, Function<String, Mono<ClientResponse>> responses) {
+        return client(batching, responses, new SimpleMeterRegistry());
+    }
+
+    private BankAccountClient client(boolean batching, Function<String, Mono<ClientResponse>> responses,
+                                     SimpleMeterRegistry meterRegistry) {
+        return client(properties(batching), responses, meterRegistry);
+    }
+
+    private BankAccountClient client(BankAccountsProperties properties,
+                                     Function<String, Mono<ClientResponse>> responses) {
+        return client(properties, responses, new SimpleMeterRegistry());
+    }
+
+    private BankAccountClient client(BankAccountsProperties properties,
+                                     Function<String, Mono<ClientResponse>> responses,
+                                     SimpleMeterRegistry meterRegistry) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://bank")
+                .exchangeFunction(request -> {
+                    requestedUris.add(request.url().toString());
+                    return responses.apply(request.url().getPath());
+                })
+                .build();
+        return new BankAccountClient(webClient, properties, meterRegistry);
+    }
+
+    private static BankAccountsProperties properties(boolean batching) {
+        BankAccountsProperties properties = new BankAccountsProperties();
+        properties.getBatch().setEnabled(batching);
+        properties.getBatch().setWindow(Duration.ofMillis(20));
+        return properties;
+    }
+
+    private static Mono<ClientResponse> json(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.transactionmicroservice.config;
+
+import com.example.transactionmicroservice.dto.TransactionRequestDto;
+import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeRuntimeHints.Registrar().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersJsonBindingForPayloads() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TransactionRequestDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(BankAccount.class.getMethod("getBalance")).test(hints));
+    }
+
+    @Test
+    void registersDocumentsAndTheirLombokBuilders() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Transaction.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Transaction.TransactionBuilder.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TransactionType.class).test(hints));
+    }
+
+    @Test
+    void registersFxRatesResource() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("fx-rates.properties").test(hints));
+    }
+}
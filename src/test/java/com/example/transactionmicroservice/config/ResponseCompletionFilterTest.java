@@ -0,0 +1,68 @@
+package com.example.transactionmicroservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompletionFilterTest {
+
+    private final ResponseCompletionFilter filter = new ResponseCompletionFilter();
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void doFilter_shouldRunCallbacksWhenASynchronousResponseIsWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            register(request).accept(() -> calls.add("released"));
+            assertTrue(calls.isEmpty());
+        });
+
+        assertEquals(List.of("released"), calls);
+    }
+
+    @Test
+    void doFilter_shouldWaitForTheAsyncDispatchToComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        AtomicReference<Consumer<Runnable>> callbacks = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            request.startAsync();
+            callbacks.set(register(request));
+            callbacks.get().accept(() -> calls.add("released"));
+        });
+        assertTrue(calls.isEmpty());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(List.of("released"), calls);
+
+        // Registrado después de escribir la respuesta: se ejecuta en el acto
+        callbacks.get().accept(() -> calls.add("late"));
+        assertEquals(List.of("released", "late"), calls);
+    }
+
+    @Test
+    void current_shouldBeNullOutsideAServletRequest() {
+        assertNull(ResponseCompletionFilter.current());
+    }
+
+    private static Consumer<Runnable> register(MockHttpServletRequest request) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return ResponseCompletionFilter.current();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.transactionmicroservice.controller;
 
+import com.example.transactionmicroservice.config.DiagnosticsProperties;
+import com.example.transactionmicroservice.diagnostics.RequestProfiler;
+import com.example.transactionmicroservice.dto.MultiTransferRequestDto;
 import com.example.transactionmicroservice.dto.TransactionRequestDto;
 import com.example.transactionmicroservice.dto.TransactionResponseDto;
+import com.example.transactionmicroservice.exception.ErrorCode;
 import com.example.transactionmicroservice.model.Transaction;
 import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.ratelimit.RateLimitExceededException;
+import com.example.transactionmicroservice.service.AdmissionService;
 import com.example.transactionmicroservice.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,9 +36,25 @@ class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private AdmissionService admissionService;
+
+    @Spy
+    private RequestProfiler requestProfiler = new RequestProfiler(new DiagnosticsProperties());
+
     @InjectMocks
     private TransactionController transactionController;
 
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        // Admission control lets every request through unless a test says otherwise
+        lenient().when(admissionService.admit(any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<Mono<?>>) invocation.getArgument(2)).get());
+        lenient().when(admissionService.admitRead(any()))
+                .thenAnswer(invocation -> ((Supplier<Flux<?>>) invocation.getArgument(0)).get());
+    }
+
     @Test
     void deposit_shouldHandleErrorFromService() {
         // Arrange
@@ -38,7 +66,7 @@ class TransactionControllerTest {
                 .thenReturn(Mono.error(new RuntimeException("Deposit service failed")));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.deposit(request);
+        Mono<TransactionResponseDto> result = transactionController.deposit(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -67,7 +95,7 @@ class TransactionControllerTest {
         when(transactionService.withdraw("123", 50.0)).thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.withdraw(request);
+        Mono<TransactionResponseDto> result = transactionController.withdraw(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -92,7 +120,7 @@ class TransactionControllerTest {
                 .thenReturn(Mono.error(new RuntimeException("Withdrawal service failed")));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.withdraw(request);
+        Mono<TransactionResponseDto> result = transactionController.withdraw(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -121,7 +149,7 @@ class TransactionControllerTest {
         when(transactionService.withdraw("123", 50.0)).thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.withdraw(request);
+        Mono<TransactionResponseDto> result = transactionController.withdraw(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -156,7 +184,7 @@ class TransactionControllerTest {
         when(transactionService.transfer("123", "456", 200.0)).thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.transfer(request);
+        Mono<TransactionResponseDto> result = transactionController.transfer(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -183,7 +211,7 @@ class TransactionControllerTest {
                 .thenReturn(Mono.error(new RuntimeException("Transfer service failed")));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.transfer(request);
+        Mono<TransactionResponseDto> result = transactionController.transfer(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -214,7 +242,7 @@ class TransactionControllerTest {
         when(transactionService.transfer("123", "456", 200.0)).thenReturn(Mono.just(transaction));
 
         // Act
-        Mono<TransactionResponseDto> result = transactionController.transfer(request);
+        Mono<TransactionResponseDto> result = transactionController.transfer(request, "client-1");
 
         // Assert
         StepVerifier.create(result)
@@ -236,7 +264,7 @@ class TransactionControllerTest {
         when(transactionService.getGlobalTransactionHistory()).thenReturn(Flux.empty());
 
         // Act
-        Flux<TransactionResponseDto> result = transactionController.getGlobalTransactionHistory();
+        Flux<Transaction> result = transactionController.getGlobalTransactionHistory();
 
         // Assert
         StepVerifier.create(result)
@@ -253,7 +281,7 @@ class TransactionControllerTest {
                 .thenReturn(Flux.error(new RuntimeException("Service failed")));
 
         // Act
-        Flux<TransactionResponseDto> result = transactionController.getGlobalTransactionHistory();
+        Flux<Transaction> result = transactionController.getGlobalTransactionHistory();
 
         // Assert
         StepVerifier.create(result)
@@ -272,7 +300,7 @@ class TransactionControllerTest {
         when(transactionService.getAccountTransactionHistory(accountId)).thenReturn(Flux.empty());
 
         // Act
-        Flux<TransactionResponseDto> result = transactionController.getAccountTransactionHistory(accountId);
+        Flux<Transaction> result = transactionController.getAccountTransactionHistory(accountId, null);
 
         // Assert
         StepVerifier.create(result)
@@ -291,7 +319,7 @@ class TransactionControllerTest {
                 .thenReturn(Flux.error(new RuntimeException("Service failed")));
 
         // Act
-        Flux<TransactionResponseDto> result = transactionController.getAccountTransactionHistory(accountId);
+        Flux<Transaction> result = transactionController.getAccountTransactionHistory(accountId, null);
 
         // Assert
         StepVerifier.create(result)
@@ -301,4 +329,57 @@ class TransactionControllerTest {
 
         verify(transactionService, times(1)).getAccountTransactionHistory(accountId);
     }
+
+    @Test
+    void deposit_shouldPropagateAdmissionRejection() {
+        // Arrange
+        TransactionRequestDto request = new TransactionRequestDto();
+        request.setAccountId("123");
+        request.setAmount(100.0);
+
+        doReturn(Mono.error(new RateLimitExceededException("Rate limit exceeded for client", 1_500_000_000L)))
+                .when(admissionService).admit(eq("client-1"), any(), any());
+
+        // Act
+        Mono<TransactionResponseDto> result = transactionController.deposit(request, "client-1");
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMatches(error -> error instanceof RateLimitExceededException &&
+                        ((RateLimitExceededException) error).getRetryAfterSeconds() == 2)
+                .verify();
+
+        verify(transactionService, never()).deposit(any(), any());
+    }
+
+    @Test
+    void multiTransfer_shouldLeaveMissingLegsToTheServiceValidation() {
+        // Arrange
+        MultiTransferRequestDto withoutLegs = new MultiTransferRequestDto();
+        withoutLegs.setSourceAccountId("123");
+        MultiTransferRequestDto withNullLeg = new MultiTransferRequestDto();
+        withNullLeg.setSourceAccountId("123");
+        withNullLeg.setLegs(Arrays.asList(null, leg("456")));
+
+        when(transactionService.multiTransfer(eq("123"), any())).thenReturn(ErrorCode.TOO_MANY_LEGS.asMono());
+
+        // Act & Assert
+        StepVerifier.create(transactionController.multiTransfer(withoutLegs, "client-1"))
+                .expectErrorMatches(error -> error == ErrorCode.TOO_MANY_LEGS.exception())
+                .verify();
+        StepVerifier.create(transactionController.multiTransfer(withNullLeg, "client-1"))
+                .expectErrorMatches(error -> error == ErrorCode.TOO_MANY_LEGS.exception())
+                .verify();
+
+        verify(admissionService).admit(eq("client-1"), eq(List.of("123")), any());
+        verify(admissionService).admit(eq("client-1"), eq(List.of("123", "456")), any());
+        verify(transactionService).multiTransfer("123", null);
+    }
+
+    private static MultiTransferRequestDto.Leg leg(String destinationAccountId) {
+        MultiTransferRequestDto.Leg leg = new MultiTransferRequestDto.Leg();
+        leg.setDestinationAccountId(destinationAccountId);
+        leg.setAmount(10.0);
+        return leg;
+    }
 }
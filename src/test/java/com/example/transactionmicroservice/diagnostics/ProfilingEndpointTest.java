@@ -0,0 +1,73 @@
+package com.example.transactionmicroservice.diagnostics;
+
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.ProfilingSummary;
+import com.example.transactionmicroservice.service.ProfilingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProfilingEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ProfilingService profilingService;
+
+    private ProfilingEndpoint endpoint;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        endpoint = new ProfilingEndpoint(profilingService);
+    }
+
+    @Test
+    void start_shouldUseTheRequestedSecondsOrTheDefault() {
+        when(profilingService.start(any())).thenReturn(Mono.empty());
+
+        endpoint.start(30L).block();
+        endpoint.start(null).block();
+
+        verify(profilingService).start(Duration.ofSeconds(30));
+        verify(profilingService).start(null);
+    }
+
+    @Test
+    void content_shouldServeTheSummaryAsJsonAndTheRecordingAsAFile() {
+        ProfilingSummary summary = ProfilingSummary.builder().recordingId("rec").build();
+        Path file = directory.resolve("rec.jfr");
+        when(profilingService.summarize("rec")).thenReturn(Mono.just(summary));
+        when(profilingService.findFile("rec")).thenReturn(Mono.just(file));
+
+        WebEndpointResponse<Object> json = endpoint.content("rec", ProfilingEndpoint.SUMMARY);
+        WebEndpointResponse<Object> jfr = endpoint.content("rec", ProfilingEndpoint.FILE);
+
+        assertSame(summary, json.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, json.getContentType());
+        assertEquals(file.toFile(), ((FileSystemResource) jfr.getBody()).getFile());
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, jfr.getContentType());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.content("rec", "other").getStatus());
+    }
+
+    @Test
+    void content_shouldPropagateTheErrorsOfTheService() {
+        when(profilingService.findFile("rec")).thenReturn(ErrorCode.PROFILING_RECORDING_NOT_FINISHED.asMono());
+
+        assertSame(ErrorCode.PROFILING_RECORDING_NOT_FINISHED.exception(),
+                assertThrows(RuntimeException.class, () -> endpoint.content("rec", ProfilingEndpoint.FILE)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.transactionmicroservice.diagnostics;
+
+import com.example.transactionmicroservice.config.DiagnosticsProperties;
+import com.example.transactionmicroservice.config.ResponseCompletionFilter;
+import com.example.transactionmicroservice.model.ProfilingSummary;
+import com.example.transactionmicroservice.model.TransactionType;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordingSummarizerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void summarize_shouldAttributeAllocationsAndPausesToTheRequestsInFlight() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.setEnabled(true);
+        RequestProfiler profiler = new RequestProfiler(properties);
+        Path file = directory.resolve("test.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(RequestEvent.NAME);
+            recording.enable(RecordingSummarizer.ALLOCATION_SAMPLE).with("throttle", "1000/s").withStackTrace();
+            recording.enable(RecordingSummarizer.GARBAGE_COLLECTION);
+            recording.start();
+            // Peticiones síncronas: el evento se confirma antes de que block() devuelva el control. La lectura va
+            // primero porque cada muestra pesa lo asignado por su hilo desde la anterior
+            profiler.profile("GET /api/transactions", null, Flux.defer(() -> {
+                sleep(Duration.ofMillis(50));
+                return Flux.just(1);
+            })).blockLast();
+            profiler.profile("POST /api/transactions/transfer", TransactionType.TRANSFER,
+                    Mono.fromSupplier(RecordingSummarizerTest::allocate)).block();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        ProfilingSummary summary = new RecordingSummarizer(properties).summarize("test", file);
+
+        // Otros hilos de la JVM asignan durante las peticiones: el reparto se comprueba con eventos sintéticos
+        assertEquals(2, summary.getRequestClasses().size());
+        ProfilingSummary.RequestClass transfer = requestClass(summary, "POST /api/transactions/transfer");
+        assertEquals("TRANSFER", transfer.getTransactionType());
+        assertEquals(1, transfer.getRequests());
+        assertTrue(transfer.getAllocatedBytes() > 0);
+        assertTrue(requestClass(summary, "GET /api/transactions").getP50Millis() >= 50);
+        assertFalse(summary.getGarbageCollectors().isEmpty());
+        assertTrue(summary.getAllocationHotSpots().stream()
+                .anyMatch(spot -> spot.getFrame().startsWith("RecordingSummarizerTest.allocate")));
+    }
+
+    @Test
+    void summarize_shouldMeasureServletRequestsUntilTheResponseIsWritten() throws Exception {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.setEnabled(true);
+        RequestProfiler profiler = new RequestProfiler(properties);
+        Path file = directory.resolve("servlet.jfr");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+
+        try (Recording recording = new Recording()) {
+            recording.enable(RequestEvent.NAME);
+            recording.start();
+            // Como en MVC: el Flux se completa en el manejo de la petición y el cuerpo se escribe después
+            new ResponseCompletionFilter().doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+                try {
+                    request.startAsync();
+                    profiler.profile("GET /api/transactions", null, Flux.just(1)).blockLast();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            });
+            sleep(Duration.ofMillis(50)); // Serialización del cuerpo
+            ((MockAsyncContext) request.getAsyncContext()).complete();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        ProfilingSummary summary = new RecordingSummarizer(properties).summarize("servlet", file);
+
+        ProfilingSummary.RequestClass history = requestClass(summary, "GET /api/transactions");
+        assertEquals(1, history.getRequests());
+        assertTrue(history.getP50Millis() >= 50);
+    }
+
+    @Test
+    void summarize_shouldSplitSamplesAmongTheRequestClassesInFlight() {
+        RecordingSummarizer.Summary events = new RecordingSummarizer(new DiagnosticsProperties()).summary();
+        events.request("POST /api/transactions/transfer", "TRANSFER", "success", ms(0), ms(100));
+        events.request("POST /api/transactions/transfer", "TRANSFER", "error", ms(10), ms(30));
+        events.request("GET /api/transactions", null, "success", ms(20), ms(60));
+        events.allocation(ms(5), 1_000, "byte[]", "TransferService.transfer:10"); // Solo transferencias
+        events.allocation(ms(25), 3_000, "byte[]", "TransferService.transfer:10"); // 2 transferencias y 1 lectura
+        events.allocation(ms(150), 500, "char[]", "Other.run:1"); // Ninguna petición en vuelo
+        events.collection(ms(40), ms(41), "G1New", ms(2), ms(2)); // 1 transferencia y 1 lectura
+
+        ProfilingSummary summary = events.build("test");
+
+        ProfilingSummary.RequestClass transfer = requestClass(summary, "POST /api/transactions/transfer");
+        ProfilingSummary.RequestClass history = requestClass(summary, "GET /api/transactions");
+        assertEquals(2, transfer.getRequests());
+        assertEquals(1, transfer.getErrors());
+        assertEquals(1_000 + 2_000, transfer.getAllocatedBytes());
+        assertEquals(1_000, history.getAllocatedBytes());
+        assertEquals(1.0, transfer.getGcPauseMillis());
+        assertEquals(1.0, history.getGcPauseMillis());
+        assertEquals(500, summary.getUnattributedBytes());
+        assertEquals(4_500, summary.getSampledBytes());
+        assertEquals("TransferService.transfer:10", summary.getAllocationHotSpots().get(0).getFrame());
+        assertEquals(100 * 4_000 / 4_500.0, summary.getAllocationHotSpots().get(0).getPercent(), 1e-9);
+        assertEquals(150, summary.getDurationMillis());
+    }
+
+    private static long ms(long millis) {
+        return millis * 1_000_000;
+    }
+
+    private static ProfilingSummary.RequestClass requestClass(ProfilingSummary summary, String endpoint) {
+        return summary.getRequestClasses().stream()
+                .filter(requestClass -> endpoint.equals(requestClass.getEndpoint()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int allocate() {
+        // Bloques grandes: se asignan fuera de la TLAB y cada muestra pesa lo que ocupa el bloque
+        List<byte[]> blocks = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            blocks.add(new byte[1 << 20]);
+            if (blocks.size() == 16) {
+                blocks.clear();
+            }
+        }
+        System.gc();
+        return blocks.size();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.transactionmicroservice.factory;
+
+import com.example.transactionmicroservice.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdGeneratorTest {
+
+    @Test
+    void nextId_shouldBeUniqueAndLexicographicallyOrdered() {
+        TransactionIdGenerator generator = new TransactionIdGenerator(7);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(String::compareTo);
+        assertEquals(ids, sorted);
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertTrue(ids.stream().allMatch(id -> id.length() == TransactionIdGenerator.ID_LENGTH));
+    }
+
+    @Test
+    void nextId_shouldBeUniqueAcrossThreadsAndNodes() {
+        TransactionIdGenerator nodeA = new TransactionIdGenerator(1);
+        TransactionIdGenerator nodeB = new TransactionIdGenerator(2);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 200_000).parallel()
+                .forEach(i -> ids.add(i % 2 == 0 ? nodeA.nextId() : nodeB.nextId()));
+
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    void constructor_shouldRejectOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIdGenerator(0x10000));
+    }
+
+    @Test
+    void factory_shouldAssignIdWhoseOrderMatchesDate() {
+        Transaction first = TransactionFactory.createDepositTransaction("123", 10.0, "USD");
+        Transaction second = TransactionFactory.createWithdrawTransaction("123", 5.0, "USD");
+
+        assertNotNull(first.getId());
+        assertEquals(TransactionIdGenerator.dateOf(first.getId()), first.getDate());
+        assertTrue(first.getId().compareTo(second.getId()) < 0);
+        assertFalse(second.getDate().isBefore(first.getDate()));
+    }
+}
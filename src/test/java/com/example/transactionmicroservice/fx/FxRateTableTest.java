@@ -0,0 +1,27 @@
+package com.example.transactionmicroservice.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateTableTest {
+
+    private final FxRateTable table = new FxRateTable("USD", Map.of("EUR", 0.92, "PEN", 3.75), Instant.now());
+
+    @Test
+    void rate_shouldConvertThroughTheBaseCurrency() {
+        assertEquals(1, table.rate("EUR", "EUR"));
+        assertEquals(0.92, table.rate("USD", "EUR"), 1e-9);
+        assertEquals(1 / 3.75, table.rate("PEN", "USD"), 1e-9);
+        assertEquals(0.92 / 3.75, table.rate("PEN", "EUR"), 1e-9);
+    }
+
+    @Test
+    void rate_shouldBeUnknownForMissingCurrencies() {
+        assertTrue(Double.isNaN(table.rate("USD", "JPY")));
+        assertTrue(Double.isNaN(table.rate("JPY", "EUR")));
+    }
+}
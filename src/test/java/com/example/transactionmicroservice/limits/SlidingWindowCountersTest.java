@@ -0,0 +1,100 @@
+package com.example.transactionmicroservice.limits;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCountersTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long START = 1_000 * HOUR;
+
+    private final SlidingWindowCounters counters = new SlidingWindowCounters(Duration.ofDays(1), 24, 4);
+
+    @Test
+    void tryRecord_shouldRejectWhenCountOrAmountWouldBeExceeded() {
+        assertEquals(SlidingWindowCounters.ACCEPTED, counters.tryRecord("123", 1_000, 2, 2_500, START));
+        assertEquals(SlidingWindowCounters.AMOUNT_EXCEEDED, counters.tryRecord("123", 2_000, 2, 2_500, START));
+        assertEquals(SlidingWindowCounters.ACCEPTED, counters.tryRecord("123", 1_000, 2, 2_500, START));
+        assertEquals(SlidingWindowCounters.COUNT_EXCEEDED, counters.tryRecord("123", 1, 2, 2_500, START));
+
+        assertEquals(2, counters.count("123", START));
+        assertEquals(2_000, counters.amount("123", START));
+        assertEquals(0, counters.count("456", START));
+    }
+
+    @Test
+    void tryRecord_shouldForgetEventsLeavingTheWindow() {
+        counters.tryRecord("123", 1_000, -1, -1, START);
+        counters.tryRecord("123", 500, -1, -1, START + 12 * HOUR);
+
+        assertEquals(2, counters.count("123", START + 23 * HOUR));
+        assertEquals(1, counters.count("123", START + 24 * HOUR));
+        assertEquals(500, counters.amount("123", START + 24 * HOUR));
+        assertEquals(0, counters.count("123", START + 48 * HOUR));
+    }
+
+    @Test
+    void record_shouldPlacePastEventsInTheirBucket() {
+        counters.record("123", 700, START - 2 * HOUR);
+        counters.record("123", 300, START - 30 * HOUR); // Fuera de la ventana
+
+        assertEquals(1, counters.count("123", START));
+        assertEquals(0, counters.count("123", START + 22 * HOUR));
+    }
+
+    @Test
+    void remove_shouldNeverLeaveNegativeTotals() {
+        counters.tryRecord("123", 1_000, -1, -1, START);
+        counters.remove("123", 1_000, START);
+        counters.remove("123", 1_000, START);
+
+        assertEquals(0, counters.count("123", START));
+        assertEquals(0, counters.amount("123", START));
+    }
+
+    @Test
+    void remove_shouldTakeTheEventOutOfTheBucketItWasRecordedIn() {
+        counters.tryRecord("123", 1_000, -1, -1, START);
+        counters.tryRecord("123", 500, -1, -1, START + 12 * HOUR);
+        counters.remove("123", 1_000, START);
+
+        assertEquals(1, counters.count("123", START + 12 * HOUR));
+        assertEquals(500, counters.amount("123", START + 12 * HOUR));
+        // El evento de las 12 h sigue contando hasta salir de la ventana, sin heredar el hueco del retirado
+        assertEquals(1, counters.count("123", START + 24 * HOUR));
+        assertEquals(500, counters.amount("123", START + 24 * HOUR));
+    }
+
+    @Test
+    void remove_shouldIgnoreEventsAlreadyOutsideTheWindow() {
+        counters.tryRecord("123", 1_000, -1, -1, START);
+        counters.tryRecord("123", 500, -1, -1, START + 30 * HOUR);
+        counters.remove("123", 1_000, START);
+
+        assertEquals(1, counters.count("123", START + 30 * HOUR));
+        assertEquals(500, counters.amount("123", START + 30 * HOUR));
+    }
+
+    @Test
+    void removeAmount_shouldKeepTheEventCounted() {
+        counters.tryRecord("123", 1_000, -1, -1, START);
+        counters.removeAmount("123", 400, START);
+
+        assertEquals(1, counters.count("123", START));
+        assertEquals(600, counters.amount("123", START));
+    }
+
+    @Test
+    void counters_shouldKeepEveryKeyWhenTheTablesGrow() {
+        for (int i = 0; i < 10_000; i++) {
+            counters.tryRecord("account-" + i, i, -1, -1, START);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, counters.amount("account-" + i, START));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.transactionmicroservice.load;
+
+import com.example.transactionmicroservice.TransactionMicroServiceApplication;
+import com.example.transactionmicroservice.simulator.BankAccountsSimulator;
+import com.example.transactionmicroservice.simulator.SimulatorSettings;
+import com.example.transactionmicroservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the deposit endpoint under the three execution modes: Tomcat on platform threads, Tomcat on virtual
+ * threads and the pure Netty (WebFlux) server. Each mode starts its own application instance against the same
+ * simulator and MongoDB.
+ * <p>
+ * Run with {@code mvn test -Pload-test -Dtest=ExecutionModeComparisonTest}; results are printed and written to
+ * {@code target/execution-mode-report.txt}.
+ */
+@Tag("load")
+class ExecutionModeComparisonTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 256);
+
+    @Test
+    void compareExecutionModesOnDeposit() throws IOException {
+        Map<String, String[]> modes = new LinkedHashMap<>();
+        modes.put("tomcat-platform-threads", new String[]{"--spring.threads.virtual.enabled=false"});
+        modes.put("tomcat-virtual-threads", new String[]{"--spring.threads.virtual.enabled=true"});
+        modes.put("netty", new String[]{"--spring.main.web-application-type=reactive"});
+
+        SimulatorSettings settings = SimulatorSettings.fromSystemProperties();
+        List<LoadDriver.LoadResult> results = new ArrayList<>();
+        try (BankAccountsSimulator simulator = new BankAccountsSimulator(settings).start(0)) {
+            for (Map.Entry<String, String[]> mode : modes.entrySet()) {
+                results.add(runMode(mode.getKey(), mode.getValue(), simulator, settings.getAccountCount()));
+            }
+        }
+
+        String report = results.stream().map(LoadDriver.LoadResult::summary).collect(Collectors.joining("\n"));
+        System.out.println(report);
+        Files.writeString(Path.of("target", "execution-mode-report.txt"), report + "\n");
+    }
+
+    private static LoadDriver.LoadResult runMode(String name, String[] modeArgs, BankAccountsSimulator simulator,
+                                                 int accounts) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + EmbeddedMongo.uri(),
+                "--spring.data.mongodb.database=microservicetransactionsdb-load",
+                "--microservices.bank-accounts.base-url=" + simulator.getBaseUrl(),
+                "--transactions.admission.enabled=false",
+                "--transactions.limits.enabled=false",
+                "--transactions.risk.block-threshold=2"));
+        args.addAll(List.of(modeArgs));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionMicroServiceApplication.class)
+                .run(args.toArray(String[]::new))) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            WebClient client = WebClient.create("http://localhost:" + port + "/api");
+            LoadDriver.run(name + " (warm-up)", REQUESTS / 5, CONCURRENCY, i -> deposit(client, i, accounts));
+            return LoadDriver.run("deposit " + name, REQUESTS, CONCURRENCY, i -> deposit(client, i, accounts));
+        }
+    }
+
+    private static Mono<String> deposit(WebClient client, int i, int accounts) {
+        return client.post().uri("/transactions/deposit")
+                .bodyValue(Map.of("type", "DEPOSIT", "accountId", String.valueOf(1 + i % accounts), "amount", 10.0))
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
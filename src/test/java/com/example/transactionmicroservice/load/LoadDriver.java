@@ -0,0 +1,53 @@
+package com.example.transactionmicroservice.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop load generator: keeps {@code concurrency} requests in flight until {@code requests} have completed,
+ * recording the latency of each one.
+ */
+class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    static LoadResult run(String name, int requests, int concurrency, IntFunction<Mono<?>> request) {
+        Histogram histogram = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long requestStart = System.nanoTime();
+                    return request.apply(i)
+                            .doOnError(error -> errors.incrementAndGet())
+                            .onErrorResume(error -> Mono.empty())
+                            .doFinally(signal -> histogram.recordValue(System.nanoTime() - requestStart));
+                }, concurrency)
+                .blockLast(Duration.ofMinutes(30));
+        long elapsed = System.nanoTime() - start;
+        return new LoadResult(name, requests, errors.get(), elapsed, histogram);
+    }
+
+    record LoadResult(String name, long requests, long errors, long elapsedNanos, Histogram latencies) {
+
+        double throughput() {
+            return requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        String summary() {
+            return String.format("%-28s requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms",
+                    name, requests, errors, throughput(),
+                    latencies.getValueAtPercentile(50) / 1e6,
+                    latencies.getValueAtPercentile(99) / 1e6,
+                    latencies.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.transactionmicroservice.load;
+
+import com.example.transactionmicroservice.simulator.BankAccountsSimulator;
+import com.example.transactionmicroservice.simulator.SimulatorSettings;
+import com.example.transactionmicroservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the packaged build flavours on what matters for scale-to-zero and autoscaling: time from process start
+ * to the first successful request, resident memory after startup and under load, and deposit throughput.
+ * <p>
+ * Each flavour is measured only when its artifact exists, so build the ones to compare first:
+ * <ul>
+ *     <li>{@code mvn package -DskipTests} for the plain JAR,</li>
+ *     <li>{@code mvn package -Pcds -DskipTests} for the extracted JAR with its AppCDS archive,</li>
+ *     <li>{@code mvn -Pnative native:compile -DskipTests} for the native binary.</li>
+ * </ul>
+ * Run with {@code mvn test -Pload-test -Dtest=StartupFootprintComparisonTest}; results are printed and written to
+ * {@code target/startup-report.txt}. Resident memory is read from {@code /proc}, so it is only reported on Linux.
+ */
+@Tag("load")
+class StartupFootprintComparisonTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 256);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path TARGET = Path.of("target");
+
+    @Test
+    void compareStartupAndFootprint() throws Exception {
+        String jar = "transactionmicroservice-0.0.1-SNAPSHOT.jar";
+        Map<String, List<String>> flavours = new LinkedHashMap<>();
+        if (Files.exists(TARGET.resolve(jar))) {
+            flavours.put("jvm", List.of(java(), "-jar", TARGET.resolve(jar).toString()));
+        }
+        Path cds = TARGET.resolve("cds");
+        if (Files.exists(cds.resolve("application.jsa"))) {
+            flavours.put("jvm-appcds", List.of(java(), "-XX:SharedArchiveFile=" + cds.resolve("application.jsa"),
+                    "-jar", cds.resolve(jar).toString()));
+        }
+        if (Files.exists(TARGET.resolve("transactionmicroservice"))) {
+            flavours.put("native", List.of(TARGET.resolve("transactionmicroservice").toString()));
+        }
+
+        SimulatorSettings settings = SimulatorSettings.fromSystemProperties();
+        List<String> lines = new ArrayList<>();
+        try (BankAccountsSimulator simulator = new BankAccountsSimulator(settings).start(0)) {
+            for (Map.Entry<String, List<String>> flavour : flavours.entrySet()) {
+                lines.add(measure(flavour.getKey(), flavour.getValue(), simulator, settings.getAccountCount()));
+            }
+        }
+        if (lines.isEmpty()) {
+            lines.add("No build artifacts found in target/: package the application before running this comparison");
+        }
+
+        String report = String.join("\n", lines);
+        System.out.println(report);
+        Files.writeString(TARGET.resolve("startup-report.txt"), report + "\n");
+    }
+
+    private static String measure(String name, List<String> command, BankAccountsSimulator simulator, int accounts)
+            throws Exception {
+        int port = freePort();
+        List<String> args = new ArrayList<>(command);
+        args.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.data.mongodb.uri=" + EmbeddedMongo.uri(),
+                "--spring.data.mongodb.database=microservicetransactionsdb-startup",
+                "--microservices.bank-accounts.base-url=" + simulator.getBaseUrl(),
+                "--transactions.admission.enabled=false",
+                "--transactions.limits.enabled=false",
+                "--transactions.risk.block-threshold=2"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(args).redirectErrorStream(true)
+                .redirectOutput(TARGET.resolve("startup-" + name + ".log").toFile())
+                .start();
+        try {
+            WebClient client = WebClient.create("http://localhost:" + port + "/api");
+            awaitFirstResponse(client, process);
+            long firstRequestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long idleRss = residentKilobytes(process.pid());
+
+            LoadDriver.run(name + " (warm-up)", REQUESTS / 5, CONCURRENCY, i -> deposit(client, i, accounts));
+            LoadDriver.LoadResult result = LoadDriver.run("deposit " + name, REQUESTS, CONCURRENCY,
+                    i -> deposit(client, i, accounts));
+            long loadedRss = residentKilobytes(process.pid());
+
+            return String.format("%-12s first-request=%d ms rss-idle=%d MB rss-loaded=%d MB%n  %s",
+                    name, firstRequestMillis, idleRss / 1024, loadedRss / 1024, result.summary());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void awaitFirstResponse(WebClient client, Process process) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Process exited during startup with code " + process.exitValue());
+            }
+            Boolean ok = client.get().uri("/transactions/account/1?limit=1")
+                    .exchangeToMono(response -> Mono.just(response.statusCode().is2xxSuccessful()))
+                    .onErrorReturn(false)
+                    .block(Duration.ofSeconds(5));
+            if (Boolean.TRUE.equals(ok)) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No successful response within " + STARTUP_TIMEOUT);
+    }
+
+    private static long residentKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("\\D", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static Mono<String> deposit(WebClient client, int i, int accounts) {
+        return client.post().uri("/transactions/deposit")
+                .bodyValue(Map.of("type", "DEPOSIT", "accountId", String.valueOf(1 + i % accounts), "amount", 10.0))
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.transactionmicroservice.load;
+
+import com.example.transactionmicroservice.config.RiskProperties;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.simulator.BankAccountsSimulator;
+import com.example.transactionmicroservice.simulator.SimulatorSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load scenario for every TransactionController endpoint, run against the in-process
+ * {@link BankAccountsSimulator} and a real MongoDB ({@code spring.data.mongodb.uri}).
+ * <p>
+ * Run with {@code mvn test -Pload-test}; tune it with the {@code load.requests}, {@code load.concurrency} and
+ * {@code simulator.*} system properties. Throughput and latency percentiles are printed and written to
+ * {@code target/load-report.txt}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.data.mongodb.database=microservicetransactionsdb-load",
+        "transactions.admission.enabled=false",
+        "transactions.limits.enabled=false",
+        // La evaluación de riesgo se ejecuta (y se mide) pero nunca rechaza operaciones
+        "transactions.risk.block-threshold=2"
+})
+class TransactionLoadScenarioTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 2_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final SimulatorSettings SETTINGS = SimulatorSettings.fromSystemProperties();
+    private static final BankAccountsSimulator SIMULATOR = new BankAccountsSimulator(SETTINGS).start(0);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RiskProperties riskProperties;
+
+    @DynamicPropertySource
+    static void bankAccountsProperties(DynamicPropertyRegistry registry) {
+        registry.add("microservices.bank-accounts.base-url", SIMULATOR::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopSimulator() {
+        SIMULATOR.close();
+    }
+
+    @Test
+    void runLoadScenario() throws IOException {
+        mongoTemplate.dropCollection(Transaction.class).block();
+        WebClient client = WebClient.create("http://localhost:" + port + "/api");
+        int accounts = SETTINGS.getAccountCount();
+        List<LoadDriver.LoadResult> results = new ArrayList<>();
+
+        results.add(LoadDriver.run("POST /transactions/deposit", REQUESTS, CONCURRENCY,
+                i -> post(client, "/transactions/deposit", Map.of("type", "DEPOSIT",
+                        "accountId", account(i, accounts), "amount", 10.0))));
+        results.add(LoadDriver.run("POST /transactions/withdraw", REQUESTS, CONCURRENCY,
+                i -> post(client, "/transactions/withdraw", Map.of("type", "WITHDRAWAL",
+                        "accountId", account(i, accounts), "amount", 5.0))));
+        results.add(LoadDriver.run("POST /transactions/transfer", REQUESTS, CONCURRENCY,
+                i -> post(client, "/transactions/transfer", Map.of("type", "TRANSFER",
+                        "accountId", account(i, accounts),
+                        "sourceAccountId", account(i, accounts),
+                        "destinationAccountId", account(i + 1, accounts), "amount", 1.0))));
+        results.add(LoadDriver.run("GET /transactions/account/{id}", REQUESTS, CONCURRENCY,
+                i -> client.get().uri("/transactions/account/{id}", account(i, accounts))
+                        .retrieve().bodyToFlux(String.class).then()));
+        results.add(LoadDriver.run("GET /transactions", Math.max(1, REQUESTS / 100), Math.min(4, CONCURRENCY),
+                i -> client.get().uri("/transactions").retrieve().bodyToFlux(String.class).then()));
+
+        String report = results.stream().map(LoadDriver.LoadResult::summary).collect(Collectors.joining("\n"))
+                + "\n" + riskStageReport();
+        System.out.println(report);
+        Files.writeString(Path.of("target", "load-report.txt"), report + "\n");
+
+        // La evaluación de riesgo no debe añadir más que su presupuesto al p99 de las mutaciones
+        assertTrue(riskP99Millis("total") <= riskProperties.getBudget().toMillis(), "Risk stage p99 above its budget:\n" + report);
+    }
+
+    private String riskStageReport() {
+        return meterRegistry.find("transactions.risk.stage").timers().stream()
+                .map(timer -> String.format("risk stage %-16s count=%d p99=%.3fms max=%.3fms",
+                        timer.getId().getTag("stage"), timer.count(), riskP99Millis(timer),
+                        timer.max(TimeUnit.MILLISECONDS)))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private double riskP99Millis(String stage) {
+        return riskP99Millis(meterRegistry.get("transactions.risk.stage").tag("stage", stage).timer());
+    }
+
+    private static double riskP99Millis(Timer timer) {
+        return Arrays.stream(timer.takeSnapshot().percentileValues())
+                .filter(value -> value.percentile() == 0.99)
+                .mapToDouble(value -> value.value(TimeUnit.MILLISECONDS))
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static Mono<String> post(WebClient client, String uri, Map<String, Object> body) {
+        return client.post().uri(uri).bodyValue(body).retrieve().bodyToMono(String.class);
+    }
+
+    private static String account(int i, int accounts) {
+        return String.valueOf(1 + (i % accounts));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.transactionmicroservice.mapper;
+
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionJsonSerializerTest {
+
+    // Misma configuración de fechas que el ObjectMapper de Spring Boot
+    private final ObjectMapper dtoMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper entityMapper = dtoMapper.copy()
+            .registerModule(new SimpleModule().addSerializer(new TransactionJsonSerializer()));
+
+    @Test
+    void writesTheSameJsonAsTheResponseDto() throws JsonProcessingException {
+        List<Transaction> transactions = List.of(
+                Transaction.builder().id("a1").type(TransactionType.DEPOSIT).amount(100.0)
+                        .date(LocalDateTime.of(2024, 3, 14, 15, 9)).sourceAccountId("1").currency("EUR").build(),
+                Transaction.builder().id("a2").type(TransactionType.TRANSFER).amount(120.5)
+                        .date(LocalDateTime.of(2024, 3, 14, 15, 9, 26, 535_000_000))
+                        .sourceAccountId("1").destinationAccountId("2").currency("EUR")
+                        .destinationCurrency("USD").destinationAmount(130.14).exchangeRate(1.08).build(),
+                Transaction.builder().id("a6").type(TransactionType.TRANSFER).amount(10.0)
+                        .date(LocalDateTime.of(2024, 3, 14, 15, 9)).sourceAccountId("1").destinationAccountId("3")
+                        .parentTransactionId("a5").build(),
+                Transaction.builder().id("a3").build());
+
+        for (Transaction transaction : transactions) {
+            assertEquals(dtoMapper.writeValueAsString(TransactionMapper.toResponseDto(withType(transaction))),
+                    entityMapper.writeValueAsString(withType(transaction)));
+        }
+    }
+
+    @Test
+    void writesNullTypeAndDate() throws JsonProcessingException {
+        String json = entityMapper.writeValueAsString(Transaction.builder().id("a4").build());
+
+        assertEquals("{\"id\":\"a4\",\"type\":null,\"amount\":null,\"date\":null,\"sourceAccountId\":null,"
+                + "\"destinationAccountId\":null,\"accountId\":null,\"currency\":null,\"destinationCurrency\":null,"
+                + "\"destinationAmount\":null,\"exchangeRate\":null,\"parentTransactionId\":null}", json);
+    }
+
+    @Test
+    void writesDatesLikeTheIsoFormatter() {
+        char[] buffer = new char[40];
+        for (LocalDateTime date : List.of(LocalDateTime.of(2024, 1, 2, 3, 4),
+                LocalDateTime.of(2024, 12, 31, 23, 59, 59, 500_000_000),
+                LocalDateTime.of(999, 1, 1, 0, 0, 0, 123_456_789),
+                LocalDateTime.of(2024, 6, 1, 0, 0, 0, 1_000),
+                LocalDateTime.of(12345, 6, 1, 0, 0, 1))) {
+            int length = TransactionJsonSerializer.writeIso(date, buffer);
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    void honoursConfiguredDateFormat() throws JsonProcessingException {
+        ObjectMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .withConfigOverride(LocalDateTime.class,
+                        override -> override.setFormat(JsonFormat.Value.forPattern("dd/MM/yyyy HH:mm")))
+                .addModule(new SimpleModule().addSerializer(new TransactionJsonSerializer()))
+                .build();
+
+        String json = mapper.writeValueAsString(Transaction.builder().id("a5").type(TransactionType.DEPOSIT)
+                .date(LocalDateTime.of(2024, 3, 14, 15, 9)).build());
+
+        assertTrue(json.contains("\"date\":\"14/03/2024 15:09\""), json);
+    }
+
+    @Test
+    void keepsTheDateFormatOfEachMapperWhenShared() throws JsonProcessingException {
+        // Una sola instancia registrada en dos mappers, como el @JsonComponent compartido
+        TransactionJsonSerializer serializer = new TransactionJsonSerializer();
+        ObjectMapper iso = dtoMapper.copy().registerModule(new SimpleModule().addSerializer(serializer));
+        ObjectMapper pattern = JsonMapper.builder()
+                .findAndAddModules()
+                .withConfigOverride(LocalDateTime.class,
+                        override -> override.setFormat(JsonFormat.Value.forPattern("dd/MM/yyyy HH:mm")))
+                .addModule(new SimpleModule().addSerializer(serializer))
+                .build();
+        Transaction transaction = Transaction.builder().id("a7").type(TransactionType.DEPOSIT)
+                .date(LocalDateTime.of(2024, 3, 14, 15, 9)).build();
+
+        assertTrue(iso.writeValueAsString(transaction).contains("\"date\":\"2024-03-14T15:09:00\""));
+        assertTrue(pattern.writeValueAsString(transaction).contains("\"date\":\"14/03/2024 15:09\""));
+        assertTrue(iso.writeValueAsString(transaction).contains("\"date\":\"2024-03-14T15:09:00\""));
+    }
+
+    private static Transaction withType(Transaction transaction) {
+        // TransactionMapper.toResponseDto requiere tipo
+        if (transaction.getType() == null) {
+            transaction.setType(TransactionType.WITHDRAWAL);
+        }
+        return transaction;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.transactionmicroservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BASE_LATENCY = 20 * MS;
+    private static final int STATIC_POOL = 500;
+
+    @Test
+    void limit_shouldShrinkWhenLatencyGrowsAndOnOverload() {
+        long[] now = {0};
+        GradientConcurrencyLimit limit = limit(() -> now[0]);
+        lowLoad(limit, now, 10 * MS);
+        assertEquals(10 * MS, limit.getMinRtt());
+        int initial = limit.getLimit();
+
+        window(limit, now, 40 * MS, initial, false); // Latencia x4: la cola crece en el servicio
+        assertTrue(limit.getLimit() < initial, "limit " + limit.getLimit());
+
+        int beforeDrop = limit.getLimit();
+        window(limit, now, 10 * MS, beforeDrop, true);
+        assertEquals(Math.max(4, (int) (beforeDrop * 0.9)), limit.getLimit());
+    }
+
+    @Test
+    void limit_shouldNotGrowWhileTheCallerDoesNotUseIt() {
+        long[] now = {0};
+        GradientConcurrencyLimit limit = limit(() -> now[0]);
+        lowLoad(limit, now, 10 * MS);
+        int initial = limit.getLimit();
+
+        window(limit, now, 10 * MS, 2, false);
+        assertEquals(initial, limit.getLimit());
+
+        window(limit, now, 10 * MS, initial, false);
+        assertTrue(limit.getLimit() > initial);
+    }
+
+    @Test
+    void limit_shouldKeepTheInitialLimitUntilLatencyIsMeasured() {
+        long[] now = {0};
+        GradientConcurrencyLimit limit = limit(() -> now[0]);
+
+        assertEquals(20, limit.getLimit());
+        assertEquals(0, limit.getMinRtt());
+    }
+
+    @Test
+    void limit_shouldMeasureMinRttWithoutDroppingTheLimit() {
+        long[] now = {0};
+        GradientConcurrencyLimit limit = limit(() -> now[0]);
+        lowLoad(limit, now, 10 * MS);
+
+        // Más de un minuto a plena carga dentro de la tolerancia: el límite nunca baja para medir minRtt
+        for (int i = 0; i < 600; i++) {
+            window(limit, now, 12 * MS, limit.getLimit(), false);
+            assertTrue(limit.getLimit() >= 20, "limit " + limit.getLimit());
+        }
+        assertEquals(10 * MS, limit.getMinRtt());
+    }
+
+    @Test
+    void limit_shouldRemeasureMinRttWhenTheServiceGetsSlower() {
+        long[] now = {0};
+        GradientConcurrencyLimit limit = limit(() -> now[0]);
+        lowLoad(limit, now, 10 * MS);
+
+        // El servicio pasa a tardar el triple incluso sin carga: el límite baja hasta que hay llamadas con poca
+        // concurrencia, y con ellas se vuelve a medir minRtt
+        for (int i = 0; i < 20 && limit.getLimit() > 4; i++) {
+            window(limit, now, 30 * MS, limit.getLimit(), false);
+        }
+        assertEquals(4, limit.getLimit());
+        lowLoad(limit, now, 30 * MS);
+        assertEquals(30 * MS, limit.getMinRtt());
+
+        window(limit, now, 30 * MS, limit.getLimit(), false);
+        assertTrue(limit.getLimit() > 4, "limit " + limit.getLimit());
+    }
+
+    /**
+     * Open-loop traffic at 1.3x the capacity of a bank-accounts stub whose capacity drops to 40% for the middle
+     * third of the run. A static pool lets every request in, so calls queue inside the stub and latency explodes;
+     * the adaptive limit follows the knee, sheds the excess on the caller side and keeps the goodput.
+     */
+    @Test
+    void simulation_shouldKeepThroughputWhileBoundingLatencyUnderOverload() {
+        Simulation.Result fixed = new Simulation(1.3, true, false).run();
+        Simulation.Result adaptive = new Simulation(1.3, true, true).run();
+        String results = "static " + fixed + ", adaptive " + adaptive;
+
+        assertTrue(adaptive.p99Rtt() < 3 * BASE_LATENCY, results);
+        assertTrue(fixed.p99Rtt() > 10 * BASE_LATENCY, results);
+        assertTrue(adaptive.goodput() > 0.85 * adaptive.capacity(), results);
+        assertTrue(adaptive.goodput() > 1.5 * fixed.goodput(), results);
+    }
+
+    @Test
+    void simulation_shouldNotShedBelowCapacity() {
+        Simulation.Result adaptive = new Simulation(0.7, false, true).run();
+
+        assertTrue(adaptive.shed() < 0.001 * adaptive.requests(), "shed " + adaptive);
+        assertTrue(adaptive.p99Rtt() < 2 * BASE_LATENCY, "p99 " + adaptive);
+    }
+
+    private static GradientConcurrencyLimit limit(LongSupplier clock) {
+        return new GradientConcurrencyLimit(20, 4, 500, 100 * MS, 50, 0.5, 0.25, 0.9, clock);
+    }
+
+    private static void lowLoad(GradientConcurrencyLimit limit, long[] now, long rtt) {
+        for (int i = 0; i < 50; i++) {
+            now[0] += rtt;
+            limit.onSample(rtt, 4, false);
+        }
+    }
+
+    private static void window(GradientConcurrencyLimit limit, long[] now, long rtt, int inFlight, boolean dropped) {
+        for (int i = 0; i < 11; i++) {
+            now[0] += 10 * MS;
+            limit.onSample(rtt, inFlight, dropped);
+        }
+    }
+
+    /**
+     * Discrete-event simulation in virtual time of the caller-side limiter (FIFO queue, 500 ms maximum wait) in front
+     * of a stub with {@code capacity} workers: calls beyond that share them, so latency grows linearly with
+     * concurrency past the knee.
+     */
+    private static final class Simulation {
+
+        private static final long DURATION = TimeUnit.SECONDS.toNanos(90);
+        private static final long MAX_QUEUE_TIME = TimeUnit.MILLISECONDS.toNanos(500);
+        private static final long DEADLINE = TimeUnit.SECONDS.toNanos(1);
+        private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(2);
+
+        private final double load;
+        private final boolean degraded;
+        private final boolean adaptive;
+        private final Random random = new Random(42);
+        private final PriorityQueue<long[]> completions = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        private final ArrayDeque<Long> queue = new ArrayDeque<>();
+        private long now;
+        private int inFlight;
+        private long[] rtts = new long[1 << 16];
+        private int completed;
+        private long good;
+        private long shed;
+        private long requests;
+
+        Simulation(double load, boolean degraded, boolean adaptive) {
+            this.load = load;
+            this.degraded = degraded;
+            this.adaptive = adaptive;
+        }
+
+        Result run() {
+            GradientConcurrencyLimit limit = adaptive ? limit(() -> now) : null;
+            IntSupplier permits = adaptive ? limit::getLimit : () -> STATIC_POOL;
+            double fullRate = 20.0 / BASE_LATENCY; // Llamadas por ns con la capacidad normal
+            double capacitySum = 0;
+            long nextArrival = 0;
+            while (nextArrival < DURATION || !completions.isEmpty()) {
+                if (!completions.isEmpty() && (completions.peek()[0] <= nextArrival || nextArrival >= DURATION)) {
+                    long[] call = completions.poll();
+                    now = call[0];
+                    inFlight--;
+                    long rtt = now - call[2];
+                    if (limit != null) {
+                        limit.onSample(rtt, (int) call[3], rtt > TIMEOUT);
+                    }
+                    record(rtt, now - call[1]);
+                    drain(permits);
+                } else {
+                    now = nextArrival;
+                    requests++;
+                    if (queue.size() < 1000) {
+                        queue.add(now);
+                    } else {
+                        shed++;
+                    }
+                    drain(permits);
+                    capacitySum += capacity(now);
+                    nextArrival += (long) (-Math.log(1 - random.nextDouble()) / (load * fullRate));
+                }
+            }
+            long[] sorted = Arrays.copyOf(rtts, completed);
+            Arrays.sort(sorted);
+            double seconds = DURATION / 1e9;
+            return new Result(sorted[(int) (0.99 * completed)], good / seconds, shed, requests,
+                    capacitySum / requests / BASE_LATENCY * 1e9);
+        }
+
+        private void drain(IntSupplier permits) {
+            while (!queue.isEmpty() && inFlight < permits.getAsInt()) {
+                long arrival = queue.poll();
+                if (now - arrival > MAX_QUEUE_TIME) {
+                    shed++;
+                    continue;
+                }
+                inFlight++;
+                double jitter = 0.5 + random.nextDouble();
+                long latency = (long) (BASE_LATENCY * jitter * Math.max(1.0, inFlight / capacity(now)));
+                completions.add(new long[]{now + latency, arrival, now, inFlight});
+            }
+        }
+
+        private void record(long rtt, long total) {
+            if (completed == rtts.length) {
+                rtts = Arrays.copyOf(rtts, completed * 2);
+            }
+            rtts[completed++] = rtt;
+            if (total <= DEADLINE && rtt <= TIMEOUT) {
+                good++;
+            }
+        }
+
+        private double capacity(long at) {
+            return degraded && at > DURATION / 3 && at < 2 * DURATION / 3 ? 8 : 20;
+        }
+
+        record Result(long p99Rtt, double goodput, long shed, long requests, double capacity) {
+            @Override
+            public String toString() {
+                return String.format("p99 rtt=%d ms goodput=%.0f/s (capacity %.0f/s) shed=%d of %d",
+                        p99Rtt / MS, goodput, capacity, shed, requests);
+            }
+        }
+    }
+}
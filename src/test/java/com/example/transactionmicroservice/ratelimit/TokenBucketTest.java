@@ -0,0 +1,45 @@
+package com.example.transactionmicroservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_shouldAllowTheBurstAndThenTheRate() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(SECOND));
+    }
+
+    @Test
+    void release_shouldGiveTheTokenBack() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+
+        bucket.release(0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0) > 0);
+    }
+
+    @Test
+    void release_shouldNotGrowTheBucketAboveItsBurst() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+
+        bucket.release(0);
+        bucket.release(0);
+
+        assertTrue(bucket.isIdle(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0) > 0);
+    }
+}
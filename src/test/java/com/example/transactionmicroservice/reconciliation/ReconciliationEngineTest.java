@@ -0,0 +1,263 @@
+package com.example.transactionmicroservice.reconciliation;
+
+import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.config.ReconciliationProperties;
+import com.example.transactionmicroservice.model.AccountBaseline;
+import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.Discrepancy;
+import com.example.transactionmicroservice.model.DiscrepancyReason;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.ReconciliationRun;
+import com.example.transactionmicroservice.model.ReconciliationStatus;
+import com.example.transactionmicroservice.repository.AccountBaselineRepository;
+import com.example.transactionmicroservice.repository.DiscrepancyRepository;
+import com.example.transactionmicroservice.repository.ReconciliationRunRepository;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReconciliationEngineTest {
+
+    private static final String ACCOUNT = "123";
+
+    @Mock
+    private LedgerBalances ledgerBalances;
+
+    @Mock
+    private BankAccountClient bankAccountClient;
+
+    @Mock
+    private AccountBaselineRepository baselineRepository;
+
+    @Mock
+    private DiscrepancyRepository discrepancyRepository;
+
+    @Mock
+    private ReconciliationRunRepository runRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private ReconciliationEngine engine;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setConfirmDelay(Duration.ofMillis(10));
+        properties.setHeartbeatInterval(Duration.ofMillis(10));
+        engine = new ReconciliationEngine(ledgerBalances, bankAccountClient, runRepository, baselineRepository,
+                discrepancyRepository, mongoTemplate, properties, new SimpleMeterRegistry());
+        when(baselineRepository.save(any(AccountBaseline.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(discrepancyRepository.save(any(Discrepancy.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.find(any(Query.class), eq(PendingMutation.class))).thenReturn(Flux.empty());
+    }
+
+    @Test
+    void reconcile_shouldTakeBaselineTheFirstTime() {
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.empty());
+        when(bankAccountClient.getAccount(ACCOUNT)).thenReturn(Mono.just(account("1000.00")));
+
+        StepVerifier.create(engine.reconcile("run", ledger("250.50")))
+                .expectNext(ReconciliationEngine.Outcome.BASELINED)
+                .verifyComplete();
+
+        ArgumentCaptor<AccountBaseline> baseline = ArgumentCaptor.forClass(AccountBaseline.class);
+        verify(baselineRepository).save(baseline.capture());
+        assertEquals(0, new BigDecimal("749.50").compareTo(baseline.getValue().getOffset()));
+    }
+
+    @Test
+    void reconcile_shouldMatchLedgerPlusBaseline() {
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.just(baseline("100")));
+        when(bankAccountClient.getAccount(ACCOUNT)).thenReturn(Mono.just(account("350.50")));
+
+        StepVerifier.create(engine.reconcile("run", ledger("250.50")))
+                .expectNext(ReconciliationEngine.Outcome.MATCHED)
+                .verifyComplete();
+
+        verify(ledgerBalances, never()).forAccount(any());
+        verify(discrepancyRepository, never()).save(any());
+    }
+
+    @Test
+    void reconcile_shouldIgnoreMismatchesThatDisappearOnRecheck() {
+        // El saldo ya refleja un depósito cuya transacción se guarda entre las dos lecturas
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.just(baseline("0")));
+        when(bankAccountClient.getAccount(ACCOUNT)).thenReturn(Mono.just(account("300")));
+        when(ledgerBalances.forAccount(ACCOUNT)).thenReturn(Mono.just(ledger("300")));
+
+        StepVerifier.create(engine.reconcile("run", ledger("250")))
+                .expectNext(ReconciliationEngine.Outcome.MATCHED)
+                .verifyComplete();
+
+        verify(discrepancyRepository, never()).save(any());
+    }
+
+    @Test
+    void reconcile_shouldReportConfirmedMismatches() {
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.just(baseline("0")));
+        when(bankAccountClient.getAccount(ACCOUNT)).thenReturn(Mono.just(account("200")));
+        when(ledgerBalances.forAccount(ACCOUNT)).thenReturn(Mono.just(ledger("250")));
+
+        StepVerifier.create(engine.reconcile("run", ledger("250")))
+                .expectNext(ReconciliationEngine.Outcome.DISCREPANCY)
+                .verifyComplete();
+
+        ArgumentCaptor<Discrepancy> discrepancy = ArgumentCaptor.forClass(Discrepancy.class);
+        verify(discrepancyRepository).save(discrepancy.capture());
+        assertEquals("run:" + ACCOUNT, discrepancy.getValue().getId());
+        assertEquals(DiscrepancyReason.BALANCE_MISMATCH, discrepancy.getValue().getReason());
+        assertEquals(0, new BigDecimal("-50").compareTo(discrepancy.getValue().getDifference()));
+        assertNull(discrepancy.getValue().getPendingMutationIds());
+    }
+
+    @Test
+    void reconcile_shouldLinkInterruptedMutationsAwaitingReview() {
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.just(baseline("0")));
+        when(bankAccountClient.getAccount(ACCOUNT)).thenReturn(Mono.just(account("200")));
+        when(ledgerBalances.forAccount(ACCOUNT)).thenReturn(Mono.just(ledger("250")));
+        when(mongoTemplate.find(any(Query.class), eq(PendingMutation.class)))
+                .thenReturn(Flux.just(PendingMutation.builder().id("mutation").build()));
+
+        StepVerifier.create(engine.reconcile("run", ledger("250")))
+                .expectNext(ReconciliationEngine.Outcome.DISCREPANCY)
+                .verifyComplete();
+
+        ArgumentCaptor<Discrepancy> discrepancy = ArgumentCaptor.forClass(Discrepancy.class);
+        verify(discrepancyRepository).save(discrepancy.capture());
+        assertEquals(List.of("mutation"), discrepancy.getValue().getPendingMutationIds());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(PendingMutation.class));
+        assertEquals(PendingMutationStatus.NEEDS_REVIEW, query.getValue().getQueryObject().get("status"));
+        assertEquals(3, ((List<?>) query.getValue().getQueryObject().get("$or")).size());
+    }
+
+    @Test
+    void reconcile_shouldReportMissingAccounts() {
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.empty());
+        when(bankAccountClient.getAccount(ACCOUNT))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+
+        StepVerifier.create(engine.reconcile("run", ledger("10")))
+                .expectNext(ReconciliationEngine.Outcome.DISCREPANCY)
+                .verifyComplete();
+
+        verify(bankAccountClient, times(1)).getAccount(ACCOUNT);
+    }
+
+    @Test
+    void reconcile_shouldCountLookupErrorsAsFailures() {
+        when(baselineRepository.findById(ACCOUNT)).thenReturn(Mono.empty());
+        when(bankAccountClient.getAccount(ACCOUNT))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE)));
+
+        StepVerifier.create(engine.reconcile("run", ledger("10")))
+                .expectNext(ReconciliationEngine.Outcome.FAILED)
+                .verifyComplete();
+
+        verify(baselineRepository, never()).save(any());
+    }
+
+    @Test
+    void execute_shouldRefreshTheRunWhileABatchIsSlow() {
+        when(ledgerBalances.streamAfter(null)).thenReturn(Flux.never());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReconciliationRun.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.withVirtualTime(() -> engine.execute(run("run", "owner")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(35))
+                .thenCancel()
+                .verify();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).updateFirst(query.capture(), any(Update.class), eq(ReconciliationRun.class));
+        assertEquals("owner", query.getValue().getQueryObject().get("owner"));
+    }
+
+    @Test
+    void execute_shouldStopWhenTheRunWasTakenOver() {
+        when(ledgerBalances.streamAfter(null)).thenReturn(Flux.never());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReconciliationRun.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        StepVerifier.create(engine.execute(run("run", "owner")))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        // Ni se termina ni se marca como fallida una ejecución que ya es de otro
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(ReconciliationRun.class));
+        assertFalse(update.getValue().modifies("status"));
+    }
+
+    @Test
+    void claimStaleRun_shouldSkipRunsExecutingOnThisNode() {
+        when(runRepository.insert(any(ReconciliationRun.class))).thenAnswer(invocation -> {
+            ReconciliationRun run = invocation.getArgument(0);
+            run.setId("local");
+            return Mono.just(run);
+        });
+        when(ledgerBalances.streamAfter(null)).thenReturn(Flux.never());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReconciliationRun.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ReconciliationRun.class))).thenReturn(Mono.empty());
+        ReconciliationRun begun = engine.begin().block();
+
+        engine.claimStaleRun().block();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(ReconciliationRun.class));
+        Collection<?> excluded = (Collection<?>) ((Document) query.getValue().getQueryObject().get("_id")).get("$nin");
+        assertTrue(excluded.contains("local"));
+        // Cada ejecución tiene su propio token aunque sea del mismo nodo
+        assertNotEquals(begun.getOwner(), update.getValue().getUpdateObject().get("$set", Document.class).get("owner"));
+        engine.stop();
+    }
+
+    private static ReconciliationRun run(String id, String owner) {
+        return ReconciliationRun.builder().id(id).owner(owner).status(ReconciliationStatus.RUNNING).build();
+    }
+
+    private static LedgerBalance ledger(String live) {
+        return new LedgerBalance(ACCOUNT, BigDecimal.ZERO, new BigDecimal(live));
+    }
+
+    private static AccountBaseline baseline(String offset) {
+        return AccountBaseline.builder().accountId(ACCOUNT).offset(new BigDecimal(offset)).build();
+    }
+
+    private static BankAccount account(String balance) {
+        return BankAccount.builder().balance(new BigDecimal(balance)).build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.support.EmbeddedMongo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Multi-document transactions against a single-node replica set ({@code mvn test -Pmongo-replica-set}; use
+ * {@code -Dmongo.test.replica-set-uri=mongodb://...} for a local one).
+ */
+@Tag("mongo-replica-set")
+@SpringBootTest(properties = {
+        "spring.data.mongodb.database=microservicetransactionsdb-rs",
+        "transactions.mongo.transactions.enabled=true",
+        "transactions.mongo.transactions.max-attempts=10"
+})
+class MongoUnitOfWorkReplicaSetTest {
+
+    @Autowired
+    private MongoUnitOfWork unitOfWork;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PendingMutationRepository pendingMutationRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", EmbeddedMongo::replicaSetUri);
+    }
+
+    @BeforeEach
+    void clean() {
+        // Las colecciones deben existir antes de escribir en ellas dentro de una transacción
+        Flux.just("transactions", "pending_mutations", "counters")
+                .concatMap(name -> mongoTemplate.collectionExists(name)
+                        .flatMap(exists -> exists ? mongoTemplate.remove(new Query(), name).then()
+                                : mongoTemplate.createCollection(name).then()))
+                .blockLast();
+    }
+
+    @Test
+    void execute_shouldCommitEveryWriteTogether() {
+        StepVerifier.create(unitOfWork.execute(() -> transactionRepository.insertAll(List.of(transaction("t1"), transaction("t2")))
+                        .then(pendingMutationRepository.save(review("t1")))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2L, transactionRepository.count().block());
+        assertEquals(1L, pendingMutationRepository.count().block());
+    }
+
+    @Test
+    void execute_shouldRollBackEveryWriteOnFailure() {
+        StepVerifier.create(unitOfWork.execute(() -> transactionRepository.insertAll(List.of(transaction("t1"), transaction("t2")))
+                        .then(Mono.error(new IllegalStateException("journal unavailable")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(0L, transactionRepository.count().block());
+    }
+
+    @Test
+    void execute_shouldRetryWriteConflicts() {
+        mongoTemplate.insert(new Document("_id", "counter").append("value", 0), "counters").block();
+        int writers = 8;
+
+        // Transacciones concurrentes sobre el mismo documento: el servidor aborta las que entran en conflicto con
+        // TransientTransactionError y la unidad de trabajo las repite
+        Flux.range(0, writers)
+                .flatMap(i -> unitOfWork.execute(() -> mongoTemplate.updateFirst(
+                                Query.query(Criteria.where("_id").is("counter")), new Update().inc("value", 1), "counters")
+                        .delayElement(Duration.ofMillis(20))), writers)
+                .blockLast(Duration.ofSeconds(30));
+
+        Document counter = mongoTemplate.findById("counter", Document.class, "counters").block();
+        assertEquals(writers, counter.getInteger("value"));
+        assertTrue(meterRegistry.get("transactions.mongo.transaction.retries").counter().count() > 0);
+    }
+
+    private static Transaction transaction(String id) {
+        return Transaction.builder()
+                .id(id)
+                .type(TransactionType.DEPOSIT)
+                .amount(10.0)
+                .destinationAccountId("1")
+                .participants(Transaction.participantsOf(null, "1"))
+                .build();
+    }
+
+    private static PendingMutation review(String id) {
+        return PendingMutation.builder()
+                .id(id)
+                .type(TransactionType.MULTI_TRANSFER)
+                .status(PendingMutationStatus.NEEDS_REVIEW)
+                .build();
+    }
+}
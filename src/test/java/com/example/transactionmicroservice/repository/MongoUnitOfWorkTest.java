@@ -0,0 +1,114 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.config.MongoTransactionProperties;
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MongoUnitOfWorkTest {
+
+    private MongoTransactionProperties properties;
+    private TransactionalOperator transactionalOperator;
+    private ObjectProvider<TransactionalOperator> provider;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        properties = new MongoTransactionProperties();
+        properties.setEnabled(true);
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(transactionalOperator);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void execute_shouldRerunTheTransactionOnTransientErrors() {
+        MongoUnitOfWork unitOfWork = new MongoUnitOfWork(properties, provider, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(unitOfWork.execute(() -> attempts.incrementAndGet() < 3
+                        ? Mono.error(new DataIntegrityViolationException("Write conflict",
+                                labeled(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)))
+                        : Mono.just("committed")))
+                .expectNext("committed")
+                .verifyComplete();
+
+        assertEquals(3, attempts.get());
+        verify(transactionalOperator, times(3)).transactional(any(Mono.class));
+        assertEquals(2.0, meterRegistry.get("transactions.mongo.transaction.retries").counter().count());
+    }
+
+    @Test
+    void execute_shouldGiveUpAfterMaxAttemptsAndOnPermanentErrors() {
+        MongoUnitOfWork unitOfWork = new MongoUnitOfWork(properties, provider, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+        MongoException transientError = labeled(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+
+        StepVerifier.create(unitOfWork.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(transientError);
+                }))
+                .expectErrorMatches(error -> error == transientError)
+                .verify();
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+        StepVerifier.create(unitOfWork.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(new MongoException(11000, "duplicate key"));
+                }))
+                .expectError(MongoException.class)
+                .verify();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void execute_shouldRunWithoutTransactionWhenDisabled() {
+        properties.setEnabled(false);
+        MongoUnitOfWork unitOfWork = new MongoUnitOfWork(properties, provider, meterRegistry);
+
+        StepVerifier.create(unitOfWork.execute(() -> Mono.just("saved")))
+                .expectNext("saved")
+                .verifyComplete();
+        verifyNoInteractions(transactionalOperator);
+    }
+
+    @Test
+    void hasLabel_shouldLookThroughTranslatedExceptions() {
+        MongoException unknownCommit = labeled(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL);
+
+        assertTrue(MongoUnitOfWork.hasLabel(new IllegalStateException(unknownCommit),
+                MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL));
+        assertFalse(MongoUnitOfWork.hasLabel(unknownCommit, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL));
+    }
+
+    private static MongoException labeled(String label) {
+        MongoException error = new MongoException(112, "WriteConflict");
+        error.addLabel(label);
+        return error;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.config.MongoReadProperties;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadRoutingTest {
+
+    private final ReadRouting readRouting = new ReadRouting(properties());
+
+    @Test
+    void apply_shouldRouteHistoryToSecondariesWithBoundedStaleness() {
+        Query query = readRouting.apply(ReadRouting.ACCOUNT_HISTORY, new Query(), "123");
+
+        assertEquals("secondaryPreferred", query.getReadPreference().getName());
+        assertEquals(90, ((TaggableReadPreference) query.getReadPreference()).getMaxStaleness(TimeUnit.SECONDS));
+        assertEquals(ReadConcern.LOCAL, query.getReadConcern());
+    }
+
+    @Test
+    void apply_shouldReadOwnWritesFromThePrimary() {
+        readRouting.markWritten("123");
+
+        assertEquals(ReadPreference.primary(),
+                readRouting.apply(ReadRouting.ACCOUNT_HISTORY, new Query(), "123").getReadPreference());
+        assertEquals("secondaryPreferred",
+                readRouting.apply(ReadRouting.ACCOUNT_HISTORY, new Query(), "456").getReadPreference().getName());
+    }
+
+    @Test
+    void apply_shouldDefaultToThePrimaryForUnconfiguredQueries() {
+        Query query = readRouting.apply("summary", new Query(), null);
+
+        assertEquals(ReadPreference.primary(), query.getReadPreference());
+        assertFalse(query.hasReadConcern());
+    }
+
+    private static MongoReadProperties properties() {
+        MongoReadProperties.QueryRead accountHistory = new MongoReadProperties.QueryRead();
+        accountHistory.setReadPreference("secondaryPreferred");
+        accountHistory.setMaxStaleness(Duration.ofSeconds(90));
+        accountHistory.setReadConcern("local");
+        MongoReadProperties properties = new MongoReadProperties();
+        properties.getQueries().put(ReadRouting.ACCOUNT_HISTORY, accountHistory);
+        return properties;
+    }
+}
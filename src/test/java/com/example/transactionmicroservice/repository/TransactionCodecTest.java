@@ -0,0 +1,121 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCodecTest {
+
+    private final TransactionCodec codec = new TransactionCodec();
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void decodesDocumentsWrittenByTheMappingConverter() {
+        Transaction original = transfer();
+        Document document = new Document();
+        converter.write(original, document);
+
+        Transaction decoded = decode(new RawBsonDocument(document, new DocumentCodec()));
+
+        assertSameTransaction(original, decoded);
+    }
+
+    @Test
+    void encodesDocumentsReadableByTheMappingConverter() {
+        Transaction original = transfer();
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), original, EncoderContext.builder().build());
+        Document document = new DocumentCodec().decode(
+                new BsonBinaryReader(ByteBuffer.wrap(buffer.toByteArray())), DecoderContext.builder().build());
+
+        Document written = new Document();
+        converter.write(original, written);
+        assertEquals(written, document);
+        assertSameTransaction(original, converter.read(Transaction.class, document));
+    }
+
+    @Test
+    void toleratesNullsIntegersObjectIdsAndUnknownFields() {
+        ObjectId id = new ObjectId();
+        BsonDocument document = BsonDocument.parse("{_id: {$oid: '" + id.toHexString() + "'}, type: 'DEPOSIT',"
+                + " amount: 25, sourceAccountId: '7', destinationAccountId: null, legacy: {nested: [1, 2]}}");
+
+        Transaction decoded = decode(new RawBsonDocument(document, new BsonDocumentCodec()));
+
+        assertEquals(id.toHexString(), decoded.getId());
+        assertEquals(TransactionType.DEPOSIT, decoded.getType());
+        assertEquals(25.0, decoded.getAmount());
+        assertEquals("7", decoded.getSourceAccountId());
+        assertNull(decoded.getDestinationAccountId());
+        assertNull(decoded.getDate());
+    }
+
+    private Transaction decode(RawBsonDocument document) {
+        return codec.decode(new BsonBinaryReader(document.getByteBuffer().asNIO()), DecoderContext.builder().build());
+    }
+
+    private static Transaction transfer() {
+        return Transaction.builder()
+                .id("0192a4c3b7d20001000a")
+                .type(TransactionType.TRANSFER)
+                .amount(120.5)
+                .date(LocalDateTime.of(2024, 3, 14, 15, 9, 26, 535_000_000))
+                .sourceAccountId("1")
+                .destinationAccountId("2")
+                .currency("EUR")
+                .destinationCurrency("USD")
+                .destinationAmount(130.14)
+                .exchangeRate(1.08)
+                .parentTransactionId("0192a4c3b7d200000009")
+                .participants(Transaction.participantsOf("1", "2"))
+                .build();
+    }
+
+    private static void assertSameTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getSourceAccountId(), actual.getSourceAccountId());
+        assertEquals(expected.getDestinationAccountId(), actual.getDestinationAccountId());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+        assertEquals(expected.getDestinationCurrency(), actual.getDestinationCurrency());
+        assertEquals(expected.getDestinationAmount(), actual.getDestinationAmount());
+        assertEquals(expected.getExchangeRate(), actual.getExchangeRate());
+        assertEquals(expected.getParentTransactionId(), actual.getParentTransactionId());
+        assertEquals(expected.getParticipants(), actual.getParticipants());
+    }
+}
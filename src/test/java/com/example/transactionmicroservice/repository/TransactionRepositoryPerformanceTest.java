@@ -0,0 +1,265 @@
+package com.example.transactionmicroservice.repository;
+
+import com.example.transactionmicroservice.config.MongoIndexInitializer;
+import com.example.transactionmicroservice.factory.TransactionIdGenerator;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.support.EmbeddedMongo;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Performance suite for the TransactionRepository queries against a real MongoDB seeded with
+ * {@code mongo.perf.documents} (default 1,000,000) synthetic transactions.
+ * <p>
+ * For every repository method it checks the query plan (index scan, no blocking in-memory SORT, no COLLSCAN),
+ * the ratio of documents examined to documents returned, and a latency budget, so index regressions fail the
+ * build. Run with {@code mvn test -Pmongo-perf}; use {@code -Dmongo.test.uri=mongodb://...} for a local server.
+ */
+@Tag("mongo-perf")
+@SpringBootTest(properties = "spring.data.mongodb.database=microservicetransactionsdb-perf")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionRepositoryPerformanceTest {
+
+    private static final int DOCUMENTS = Integer.getInteger("mongo.perf.documents", 1_000_000);
+    private static final int ACCOUNTS = Integer.getInteger("mongo.perf.accounts", 10_000);
+    private static final long FIRST_PAGE_BUDGET_MS = Long.getLong("mongo.perf.first-page-budget-ms", 50);
+    private static final long ACCOUNT_HISTORY_BUDGET_MS = Long.getLong("mongo.perf.account-history-budget-ms", 150);
+    private static final long REHYDRATION_BUDGET_MS = Long.getLong("mongo.perf.rehydration-budget-ms", 200);
+    private static final int PAGE = 100;
+    private static final int BATCH = 10_000;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    @Autowired
+    private ParticipantsBackfill participantsBackfill;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", EmbeddedMongo::uri);
+    }
+
+    @BeforeAll
+    void seed() {
+        Long existing = mongoTemplate.getCollection("transactions").flatMap(c -> Mono.from(c.countDocuments())).block();
+        if (existing == null || existing != DOCUMENTS) {
+            mongoTemplate.dropCollection("transactions").block();
+            TransactionIdGenerator idGenerator = new TransactionIdGenerator(1);
+            Random random = new Random(42);
+            LocalDateTime start = LocalDateTime.now().minusDays(365);
+            Flux.range(0, DOCUMENTS / BATCH)
+                    .concatMap(batch -> mongoTemplate.getCollection("transactions")
+                            .flatMap(c -> Mono.from(c.insertMany(syntheticBatch(idGenerator, random, start)))))
+                    .blockLast();
+        }
+        mongoIndexInitializer.ensureIndexes().block();
+        participantsBackfill.run().block(); // Los documentos sintéticos se insertan sin participants
+    }
+
+    @Test
+    void findAllByOrderByDateDesc_shouldWalkTheDateIndex() {
+        Document stats = explain(new Document(), PAGE);
+
+        assertIndexedWithoutSort(stats, "date_desc");
+        assertExaminedRatio(stats);
+        assertWithinBudget("findAllByOrderByDateDesc (first page)", FIRST_PAGE_BUDGET_MS,
+                () -> transactionRepository.findAllByOrderByDateDesc().take(PAGE).then());
+    }
+
+    @Test
+    void findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc_shouldMergeTwoIndexScans() {
+        String accountId = "42";
+        Document filter = new Document("$or", Arrays.asList(
+                new Document("sourceAccountId", accountId), new Document("destinationAccountId", accountId)));
+        Document stats = explain(filter, 0);
+
+        assertIndexedWithoutSort(stats, "source_date", "destination_date");
+        assertExaminedRatio(stats);
+        assertTrue(nReturned(stats) > 0, "The sample account must have transactions");
+        assertWithinBudget("findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc", ACCOUNT_HISTORY_BUDGET_MS,
+                () -> transactionRepository
+                        .findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId).then());
+    }
+
+    @Test
+    void findByParticipantsOrderByDateDesc_shouldScanOneIndexFasterThanTheOr() {
+        String accountId = "42";
+        Document stats = explain(new Document("participants", accountId), 0);
+
+        assertIndexedWithoutSort(stats, "participants_date");
+        assertFalse(stages(stats).contains("SORT_MERGE"), "Unexpected merge of index scans in " + stages(stats));
+        assertExaminedRatio(stats);
+        assertTrue(nReturned(stats) > 0, "The sample account must have transactions");
+        double participants = assertWithinBudget("findByParticipantsOrderByDateDesc", ACCOUNT_HISTORY_BUDGET_MS,
+                () -> transactionRepository.findByParticipantsOrderByDateDesc(accountId).then());
+        double or = assertWithinBudget("findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc",
+                ACCOUNT_HISTORY_BUDGET_MS, () -> transactionRepository
+                        .findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId).then());
+        // Margen para el ruido de la medición: lo que se comprueba es que no empeora respecto al $or
+        assertTrue(participants <= or * 1.2, "participants p95 " + participants + " ms vs $or p95 " + or + " ms");
+    }
+
+    @Test
+    void findByTypeOrderByDateDesc_shouldWalkTheTypeIndex() {
+        Document stats = explain(new Document("type", TransactionType.TRANSFER.name()), PAGE);
+
+        assertIndexedWithoutSort(stats, "type_date");
+        assertExaminedRatio(stats);
+        assertWithinBudget("findByTypeOrderByDateDesc (first page)", FIRST_PAGE_BUDGET_MS,
+                () -> transactionRepository.findByTypeOrderByDateDesc(TransactionType.TRANSFER.name()).take(PAGE).then());
+    }
+
+    @Test
+    void findByTypeInAndDateBetween_shouldScanTheTypeIndexWithinTheWindow() {
+        // Consulta de la rehidratación de los límites de retirada: débitos del último día
+        List<TransactionType> types = List.of(TransactionType.WITHDRAWAL, TransactionType.TRANSFER,
+                TransactionType.MULTI_TRANSFER);
+        LocalDateTime until = LocalDateTime.now();
+        LocalDateTime from = until.minusDays(1);
+        Document filter = new Document("type", new Document("$in", types.stream().map(Enum::name).toList()))
+                .append("date", new Document("$gt", from).append("$lt", until));
+        Document stats = explain(filter, null, 0);
+
+        assertIndexedWithoutSort(stats, "type_date");
+        assertExaminedRatio(stats);
+        assertTrue(nReturned(stats) > 0, "The window must contain debits");
+        assertWithinBudget("findByTypeInAndDateBetween (one day)", REHYDRATION_BUDGET_MS,
+                () -> transactionRepository.findByTypeInAndDateBetween(types, from, until).then());
+    }
+
+    /**
+     * Runs the find command equivalent to a derived query (filter + sort by date descending) with explain.
+     */
+    private Document explain(Document filter, int limit) {
+        return explain(filter, new Document("date", -1), limit);
+    }
+
+    /**
+     * Runs the find command equivalent to a derived query with explain ({@code sort} may be null).
+     */
+    private Document explain(Document filter, Document sort, int limit) {
+        Document find = new Document("find", "transactions")
+                .append("filter", filter);
+        if (sort != null) {
+            find.append("sort", sort);
+        }
+        if (limit > 0) {
+            find.append("limit", limit);
+        }
+        return mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "executionStats")).block();
+    }
+
+    private static void assertIndexedWithoutSort(Document explain, String... expectedIndexes) {
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        collectStages(winningPlan, stages, indexes);
+
+        assertTrue(stages.contains("IXSCAN"), "Expected an index scan but the plan was " + stages);
+        assertFalse(stages.contains("COLLSCAN"), "Unexpected collection scan in " + stages);
+        assertFalse(stages.contains("SORT"), "Unexpected in-memory sort in " + stages);
+        for (String index : expectedIndexes) {
+            assertTrue(indexes.contains(index), "Expected index " + index + " but the plan used " + indexes);
+        }
+    }
+
+    private static List<String> stages(Document explain) {
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan", Document.class), stages,
+                new ArrayList<>());
+        return stages;
+    }
+
+    private static void assertExaminedRatio(Document explain) {
+        Document stats = explain.get("executionStats", Document.class);
+        long returned = Math.max(1, stats.get("nReturned", Number.class).longValue());
+        double docsRatio = stats.get("totalDocsExamined", Number.class).doubleValue() / returned;
+        double keysRatio = stats.get("totalKeysExamined", Number.class).doubleValue() / returned;
+        assertTrue(docsRatio <= 1.0, "Examined " + docsRatio + " documents per document returned");
+        assertTrue(keysRatio <= 1.1, "Examined " + keysRatio + " index keys per document returned");
+    }
+
+    private static long nReturned(Document explain) {
+        return explain.get("executionStats", Document.class).get("nReturned", Number.class).longValue();
+    }
+
+    private static double assertWithinBudget(String name, long budgetMs, Supplier<Mono<Void>> query) {
+        for (int i = 0; i < 5; i++) {
+            query.get().block(); // Calentamiento de caché y conexiones
+        }
+        long[] samples = new long[20];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            query.get().block(Duration.ofSeconds(30));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double p95 = samples[(int) Math.ceil(samples.length * 0.95) - 1] / 1e6;
+        System.out.printf("%-60s p95=%.2f ms (budget %d ms)%n", name, p95, budgetMs);
+        assertTrue(p95 <= budgetMs, name + " p95 " + p95 + " ms exceeds the budget of " + budgetMs + " ms");
+        return p95;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectStages(Object node, List<String> stages, List<String> indexes) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (document.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            document.values().forEach(value -> collectStages(value, stages, indexes));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages, indexes));
+        }
+    }
+
+    private static List<Document> syntheticBatch(TransactionIdGenerator idGenerator, Random random, LocalDateTime start) {
+        List<Document> documents = new ArrayList<>(BATCH);
+        TransactionType[] types = TransactionType.values();
+        for (int i = 0; i < BATCH; i++) {
+            TransactionType type = types[random.nextInt(types.length)];
+            String source = String.valueOf(1 + random.nextInt(ACCOUNTS));
+            String destination = String.valueOf(1 + random.nextInt(ACCOUNTS));
+            Document document = new Document("_id", idGenerator.nextId())
+                    .append("type", type.name())
+                    .append("amount", 1 + random.nextInt(100_000) / 100.0)
+                    .append("date", start.plusSeconds(random.nextInt(365 * 24 * 3600)));
+            if (type != TransactionType.DEPOSIT) {
+                document.append("sourceAccountId", source);
+            }
+            if (type != TransactionType.WITHDRAWAL) {
+                document.append("destinationAccountId", destination);
+            }
+            documents.add(document);
+        }
+        return documents;
+    }
+}
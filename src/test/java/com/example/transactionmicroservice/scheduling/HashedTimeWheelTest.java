@@ -0,0 +1,49 @@
+package com.example.transactionmicroservice.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimeWheelTest {
+
+    @Test
+    void schedule_shouldExpireItemsInDeadlineOrder() throws InterruptedException {
+        List<String> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        try (HashedTimeWheel<String> wheel = new HashedTimeWheel<>(10, 8, item -> {
+            expired.add(item);
+            latch.countDown();
+        })) {
+            // 150ms supera una vuelta completa de la rueda (8 x 10ms)
+            wheel.schedule("late", 150);
+            wheel.schedule("overdue", -1_000);
+            wheel.schedule("soon", 40);
+
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        }
+
+        assertEquals(List.of("overdue", "soon", "late"), expired);
+    }
+
+    @Test
+    void schedule_shouldNotExpireItemsBeforeTheirDeadline() throws InterruptedException {
+        long[] expiredAt = new long[1];
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (HashedTimeWheel<String> wheel = new HashedTimeWheel<>(10, 4, item -> {
+            expiredAt[0] = System.nanoTime();
+            latch.countDown();
+        })) {
+            wheel.schedule("item", 100);
+
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(expiredAt[0] - start) >= 90);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.transactionmicroservice.scheduling;
+
+import com.example.transactionmicroservice.config.SchedulingProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.ScheduledTransferStatus;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.repository.ScheduledTransferRepository;
+import com.example.transactionmicroservice.service.TransactionService;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ScheduledTransferEngineTest {
+
+    private static final LocalDateTime OCCURRENCE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private final SchedulingProperties properties = new SchedulingProperties();
+    private ScheduledTransferEngine engine;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        engine = new ScheduledTransferEngine(scheduledTransferRepository, mongoTemplate, transactionService,
+                properties);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ScheduledTransfer.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+    }
+
+    @Test
+    void execute_shouldSkipOccurrencesClaimedByAnotherNode() {
+        whenFindAndModify().thenReturn(Mono.empty());
+
+        StepVerifier.create(engine.execute(scheduled("0 0 0 1 * *"))).verifyComplete();
+
+        Document claim = queries(1).get(0).getQueryObject();
+        assertEquals(ScheduledTransferStatus.ACTIVE, claim.get("status"));
+        assertEquals(OCCURRENCE, claim.get("nextExecution"));
+        assertTrue(claim.containsKey("executingOccurrence"));
+        assertNull(claim.get("executingOccurrence"));
+        verify(transactionService, never()).transfer(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void execute_shouldAdvanceToTheNextOccurrenceAndReleaseTheLease() {
+        whenFindAndModify().thenReturn(Mono.just(scheduled("0 0 0 1 * *")));
+        when(transactionService.transfer("123", "456", 50.0))
+                .thenReturn(Mono.just(Transaction.builder().id("tx").build()));
+
+        StepVerifier.create(engine.execute(scheduled("0 0 0 1 * *"))).verifyComplete();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(ScheduledTransfer.class));
+        Document set = set(updates.getAllValues().get(1));
+        assertEquals(LocalDateTime.of(2030, 2, 1, 0, 0), set.get("nextExecution"));
+        assertEquals(OCCURRENCE, set.get("lastExecution"));
+        assertEquals("tx", set.get("lastTransactionId"));
+        assertFalse(set.containsKey("status"));
+        assertLeaseReleased(updates.getAllValues().get(1));
+        // Solo libera el lease que tiene este nodo sobre esta ocurrencia
+        Document release = queries(2).get(1).getQueryObject();
+        assertEquals(OCCURRENCE, release.get("executingOccurrence"));
+        assertEquals(queries(2).get(0).getQueryObject().get("_id"), release.get("_id"));
+        assertNotNull(release.get("leaseOwner"));
+    }
+
+    @Test
+    void execute_shouldCompleteOneOffTransfers() {
+        whenFindAndModify().thenReturn(Mono.just(scheduled(null)));
+        when(transactionService.transfer("123", "456", 50.0))
+                .thenReturn(Mono.just(Transaction.builder().id("tx").build()));
+
+        StepVerifier.create(engine.execute(scheduled(null))).verifyComplete();
+
+        Update release = updates(2).get(1);
+        assertEquals(ScheduledTransferStatus.COMPLETED, set(release).get("status"));
+        assertLeaseReleased(release);
+    }
+
+    @Test
+    void execute_shouldSkipToTheNextOccurrenceOnBusinessRejections() {
+        whenFindAndModify().thenReturn(Mono.just(scheduled("0 0 0 1 * *")));
+        when(transactionService.transfer("123", "456", 50.0))
+                .thenReturn(ErrorCode.INSUFFICIENT_BALANCE.asMono());
+
+        StepVerifier.create(engine.execute(scheduled("0 0 0 1 * *"))).verifyComplete();
+
+        Update release = updates(2).get(1);
+        assertEquals(LocalDateTime.of(2030, 2, 1, 0, 0), set(release).get("nextExecution"));
+        assertEquals(ErrorCode.INSUFFICIENT_BALANCE.getDetail(), set(release).get("lastError"));
+        assertFalse(set(release).containsKey("status"));
+        assertLeaseReleased(release);
+    }
+
+    @Test
+    void execute_shouldMarkTechnicalFailuresForReview() {
+        // No se sabe si la transferencia llegó a aplicarse: no se pasa a la siguiente ocurrencia
+        whenFindAndModify().thenReturn(Mono.just(scheduled("0 0 0 1 * *")));
+        when(transactionService.transfer("123", "456", 50.0))
+                .thenReturn(Mono.error(new IllegalStateException("connection reset")));
+
+        StepVerifier.create(engine.execute(scheduled("0 0 0 1 * *"))).verifyComplete();
+
+        Update release = updates(2).get(1);
+        assertEquals(ScheduledTransferStatus.NEEDS_REVIEW, set(release).get("status"));
+        assertEquals("connection reset", set(release).get("lastError"));
+        assertFalse(set(release).containsKey("nextExecution"));
+        assertLeaseReleased(release);
+    }
+
+    @Test
+    void loadNextBucket_shouldMarkOccurrencesWithExpiredLeasesForReview() {
+        when(scheduledTransferRepository.findByStatusAndNextExecutionBeforeOrderByNextExecutionAsc(
+                eq(ScheduledTransferStatus.ACTIVE), any(LocalDateTime.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(engine.loadNextBucket()).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(ScheduledTransfer.class));
+        Document abandoned = query.getValue().getQueryObject();
+        assertEquals(ScheduledTransferStatus.ACTIVE, abandoned.get("status"));
+        assertTrue(((Document) abandoned.get("leaseUntil")).containsKey("$lt"));
+        assertTrue(((Document) abandoned.get("executingOccurrence")).containsKey("$ne"));
+        assertEquals(ScheduledTransferStatus.NEEDS_REVIEW, set(update.getValue()).get("status"));
+    }
+
+    @Test
+    void loadNextBucket_shouldPlaceEachOccurrenceOnTheWheelOnce() {
+        properties.setTick(Duration.ofMillis(10));
+        properties.setBucket(Duration.ofHours(1));
+        ScheduledTransfer due = scheduled(null);
+        due.setNextExecution(LocalDateTime.now().plus(Duration.ofMillis(300)));
+        ScheduledTransfer executing = scheduled(null);
+        executing.setId("executing");
+        executing.setExecutingOccurrence(OCCURRENCE);
+        when(scheduledTransferRepository.findByStatusAndNextExecutionBeforeOrderByNextExecutionAsc(
+                eq(ScheduledTransferStatus.ACTIVE), any(LocalDateTime.class)))
+                .thenReturn(Flux.just(due, executing));
+        whenFindAndModify().thenReturn(Mono.empty());
+
+        engine.start();
+        try {
+            // La carga del arranque y estas dos ven la misma ocurrencia antes de que venza
+            engine.loadNextBucket().block();
+            engine.loadNextBucket().block();
+
+            verify(mongoTemplate, timeout(2_000)).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(ScheduledTransfer.class));
+            verify(mongoTemplate, after(200).times(1)).findAndModify(any(Query.class), any(Update.class),
+                    any(FindAndModifyOptions.class), eq(ScheduledTransfer.class));
+            assertEquals("scheduled", queries(1).get(0).getQueryObject().get("_id"));
+        } finally {
+            engine.stop();
+        }
+    }
+
+    private OngoingStubbing<Mono<ScheduledTransfer>> whenFindAndModify() {
+        return when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ScheduledTransfer.class)));
+    }
+
+    private List<Query> queries(int calls) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(calls)).findAndModify(queries.capture(), any(Update.class),
+                any(FindAndModifyOptions.class), eq(ScheduledTransfer.class));
+        return queries.getAllValues();
+    }
+
+    private List<Update> updates(int calls) {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(calls)).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(ScheduledTransfer.class));
+        return updates.getAllValues();
+    }
+
+    private static Document set(Update update) {
+        return update.getUpdateObject().get("$set", Document.class);
+    }
+
+    private static void assertLeaseReleased(Update update) {
+        Document unset = update.getUpdateObject().get("$unset", Document.class);
+        assertTrue(unset.keySet().containsAll(List.of("executingOccurrence", "leaseOwner", "leaseUntil")));
+    }
+
+    private static ScheduledTransfer scheduled(String cronExpression) {
+        return ScheduledTransfer.builder()
+                .id("scheduled")
+                .sourceAccountId("123")
+                .destinationAccountId("456")
+                .amount(50.0)
+                .cronExpression(cronExpression)
+                .status(ScheduledTransferStatus.ACTIVE)
+                .nextExecution(OCCURRENCE)
+                .build();
+    }
+}
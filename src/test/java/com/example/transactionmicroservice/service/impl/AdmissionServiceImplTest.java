@@ -0,0 +1,202 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.AdmissionProperties;
+import com.example.transactionmicroservice.config.ResponseCompletionFilter;
+import com.example.transactionmicroservice.ratelimit.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdmissionServiceImplTest {
+
+    private AdmissionProperties properties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new AdmissionProperties();
+        properties.setClient(new AdmissionProperties.Limit(1, 2));
+        properties.setAccount(new AdmissionProperties.Limit(1, 10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void admit_shouldRejectClientOverItsBurst() {
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        StepVerifier.create(admissionService.admit("client-1", List.of("1"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        StepVerifier.create(admissionService.admit("client-1", List.of("2"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        StepVerifier.create(admissionService.admit("client-1", List.of("3"), () -> Mono.just("ok")))
+                .expectErrorMatches(error -> error instanceof RateLimitExceededException
+                        && ((RateLimitExceededException) error).getRetryAfterSeconds() >= 1)
+                .verify();
+
+        // Other clients keep their own bucket
+        StepVerifier.create(admissionService.admit("client-2", List.of("3"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        assertEquals(1.0, meterRegistry.get("transactions.admission.rejected").tag("reason", "client").counter().count());
+    }
+
+    @Test
+    void admit_shouldRejectAccountOverItsBurst() {
+        properties.setClient(new AdmissionProperties.Limit(100, 100));
+        properties.setAccount(new AdmissionProperties.Limit(1, 1));
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        StepVerifier.create(admissionService.admit("client-1", List.of("1"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        StepVerifier.create(admissionService.admit("client-2", List.of("1"), () -> Mono.just("ok")))
+                .expectError(RateLimitExceededException.class)
+                .verify();
+        assertEquals(1.0, meterRegistry.get("transactions.admission.rejected").tag("reason", "account").counter().count());
+    }
+
+    @Test
+    void admit_shouldGiveTokensBackWhenAnotherBucketRejects() {
+        properties.setAccount(new AdmissionProperties.Limit(1, 1));
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        StepVerifier.create(admissionService.admit("client-1", List.of("1"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        // Transferencia de 2 a 1: la cuenta destino rechaza, el cliente y el origen recuperan su token
+        StepVerifier.create(admissionService.admit("client-1", List.of("2", "1"), () -> Mono.just("ok")))
+                .expectError(RateLimitExceededException.class)
+                .verify();
+
+        StepVerifier.create(admissionService.admit("client-1", List.of("2"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        assertEquals(0.0, meterRegistry.get("transactions.admission.rejected").tag("reason", "client").counter().count());
+    }
+
+    @Test
+    void admit_shouldQueueAndShedWhenConcurrencyIsExhausted() {
+        properties.setClient(new AdmissionProperties.Limit(100, 100));
+        properties.setAccount(new AdmissionProperties.Limit(100, 100));
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueueSize(1);
+        properties.setMaxQueueTime(Duration.ofMillis(100));
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        Sinks.One<String> first = Sinks.one();
+        admissionService.admit("client-1", List.of("1"), first::asMono).subscribe();
+
+        // Waits in the queue and is shed after max-queue-time
+        StepVerifier.create(admissionService.admit("client-1", List.of("2"), () -> Mono.just("queued")))
+                .expectError(RateLimitExceededException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1.0, meterRegistry.get("transactions.admission.rejected").tag("reason", "overload").counter().count());
+
+        // Waits in the queue and runs as soon as the first operation completes
+        StepVerifier.create(admissionService.admit("client-1", List.of("3"), () -> Mono.just("queued")))
+                .then(() -> assertEquals(1.0, meterRegistry.get("transactions.admission.queue.depth").tag("lane", "mutation").gauge().value()))
+                .then(() -> first.tryEmitValue("done"))
+                .expectNext("queued")
+                .verifyComplete();
+        assertEquals(0.0, meterRegistry.get("transactions.admission.in.flight").tag("lane", "mutation").gauge().value());
+    }
+
+    @Test
+    void admitRead_shouldShedReadsWhileMutationsAreQueueing() {
+        properties.setClient(new AdmissionProperties.Limit(100, 100));
+        properties.setAccount(new AdmissionProperties.Limit(100, 100));
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueueTime(Duration.ofSeconds(5));
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        Sinks.One<String> first = Sinks.one();
+        admissionService.admit("client-1", List.of("1"), first::asMono).subscribe();
+        StepVerifier.create(admissionService.admitRead(() -> Flux.just("row")))
+                .expectNext("row").verifyComplete(); // Mutaciones en curso pero ninguna esperando
+
+        Mono<String> queued = admissionService.admit("client-1", List.of("2"), () -> Mono.just("queued")).cache();
+        queued.subscribe();
+        StepVerifier.create(admissionService.admitRead(() -> Flux.just("row")))
+                .expectError(RateLimitExceededException.class)
+                .verify();
+        assertEquals(1.0, meterRegistry.get("transactions.admission.rejected")
+                .tag("lane", "read").tag("reason", "priority").counter().count());
+
+        first.tryEmitValue("done");
+        StepVerifier.create(queued).expectNext("queued").verifyComplete();
+        StepVerifier.create(admissionService.admitRead(() -> Flux.just("row")))
+                .expectNext("row").verifyComplete();
+        assertEquals(2, meterRegistry.get("transactions.admission.latency").tag("lane", "read").timer().count());
+    }
+
+    @Test
+    void admitRead_shouldNotTakePermitsFromMutations() {
+        properties.getReads().setMaxConcurrent(1);
+        properties.getReads().setMaxQueueSize(0);
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        Sinks.Many<String> report = Sinks.many().unicast().onBackpressureBuffer();
+        admissionService.admitRead(report::asFlux).subscribe();
+
+        // El carril de lectura está lleno: la siguiente lectura se descarta, las mutaciones siguen entrando
+        StepVerifier.create(admissionService.admitRead(() -> Flux.just("row")))
+                .expectError(RateLimitExceededException.class)
+                .verify();
+        StepVerifier.create(admissionService.admit("client-1", List.of("1"), () -> Mono.just("ok")))
+                .expectNext("ok").verifyComplete();
+        assertEquals(1.0, meterRegistry.get("transactions.admission.rejected")
+                .tag("lane", "read").tag("reason", "overload").counter().count());
+        assertEquals(1.0, meterRegistry.get("transactions.admission.in.flight").tag("lane", "read").gauge().value());
+
+        report.tryEmitComplete();
+        assertEquals(0.0, meterRegistry.get("transactions.admission.in.flight").tag("lane", "read").gauge().value());
+        assertEquals(1, meterRegistry.get("transactions.admission.latency").tag("lane", "mutation").timer().count());
+    }
+
+    @Test
+    void admitRead_shouldHoldThePermitUntilTheServletResponseIsWritten() throws Exception {
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+
+        // Como en MVC: el Flux se completa en el manejo de la petición y el cuerpo se escribe en el dispatch asíncrono
+        new ResponseCompletionFilter().doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            try {
+                request.startAsync();
+                assertEquals(List.of("row"), admissionService.admitRead(() -> Flux.just("row")).collectList().block());
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        assertEquals(1.0, meterRegistry.get("transactions.admission.in.flight").tag("lane", "read").gauge().value());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(0.0, meterRegistry.get("transactions.admission.in.flight").tag("lane", "read").gauge().value());
+        assertEquals(1, meterRegistry.get("transactions.admission.latency").tag("lane", "read").timer().count());
+    }
+
+    @Test
+    void admit_shouldBypassLimitsWhenDisabled() {
+        properties.setEnabled(false);
+        properties.setClient(new AdmissionProperties.Limit(1, 1));
+        AdmissionServiceImpl admissionService = new AdmissionServiceImpl(properties, meterRegistry, Schedulers.immediate());
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(admissionService.admit("client-1", List.of("1"), () -> Mono.just("ok")))
+                    .expectNext("ok").verifyComplete();
+        }
+    }
+}
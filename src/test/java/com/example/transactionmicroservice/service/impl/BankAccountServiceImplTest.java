@@ -0,0 +1,412 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.config.GlobalExceptionHandler;
+import com.example.transactionmicroservice.config.MultiTransferProperties;
+import com.example.transactionmicroservice.exception.DomainException;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.AccountType;
+import com.example.transactionmicroservice.fx.FxRateTable;
+import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.LegResult;
+import com.example.transactionmicroservice.model.LegStatus;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.model.TransferLeg;
+import com.example.transactionmicroservice.service.FxRateService;
+import com.example.transactionmicroservice.service.WithdrawalLimitService;
+import com.example.transactionmicroservice.shutdown.InFlightMutation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BankAccountServiceImplTest {
+
+    @Mock
+    private BankAccountClient bankAccountClient;
+
+    @Mock
+    private WithdrawalLimitService withdrawalLimitService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Spy
+    private MultiTransferProperties multiTransferProperties = new MultiTransferProperties();
+
+    @InjectMocks
+    private BankAccountServiceImpl bankAccountService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(fxRateService.current()).thenReturn(new FxRateTable("USD", Map.of("EUR", 0.9), Instant.now()));
+        when(fxRateService.currencyOf(any())).thenAnswer(invocation ->
+                invocation.getArgument(0) == null ? "USD" : invocation.getArgument(0));
+        when(withdrawalLimitService.limitRate(any())).thenReturn(1.0);
+    }
+
+    @Test
+    void deposit_shouldSignalInvalidAmountWithoutCallingClient() {
+        StepVerifier.create(bankAccountService.deposit("123", -5.0))
+                .expectErrorMatches(error -> error instanceof DomainException
+                        && ((DomainException) error).getErrorCode() == ErrorCode.INVALID_AMOUNT
+                        && error.getStackTrace().length == 0)
+                .verify();
+
+        verify(bankAccountClient, never()).deposit(any(), any());
+    }
+
+    @Test
+    void getAccount_shouldSignalBlankAccountId() {
+        StepVerifier.create(bankAccountService.getAccount(" "))
+                .expectErrorMatches(error -> error == ErrorCode.ACCOUNT_ID_REQUIRED.exception())
+                .verify();
+    }
+
+    @Test
+    void getAccount_shouldSignalNotFoundWhenClientReturnsEmpty() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.empty());
+
+        StepVerifier.create(bankAccountService.getAccount("123"))
+                .expectErrorMatches(error -> error == ErrorCode.ACCOUNT_NOT_FOUND.exception())
+                .verify();
+    }
+
+    @Test
+    void withdraw_shouldSignalInsufficientBalance() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(BankAccount.builder()
+                .id(123L)
+                .balance(BigDecimal.TEN)
+                .accountType(AccountType.SAVINGS)
+                .build()));
+
+        StepVerifier.create(bankAccountService.withdraw("123", 50.0))
+                .expectErrorMatches(error -> error == ErrorCode.INSUFFICIENT_BALANCE.exception())
+                .verify();
+
+        verify(bankAccountClient, never()).withdraw(any(), any());
+    }
+
+    @Test
+    void withdraw_shouldSignalExceededLimitWithoutCallingClient() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(BankAccount.builder()
+                .id(123L)
+                .balance(BigDecimal.valueOf(5000))
+                .accountType(AccountType.SAVINGS)
+                .build()));
+        when(withdrawalLimitService.tryConsume(eq(AccountType.SAVINGS), eq("123"), eq(50.0), anyLong()))
+                .thenReturn(ErrorCode.DAILY_COUNT_LIMIT_EXCEEDED);
+
+        StepVerifier.create(bankAccountService.withdraw("123", 50.0))
+                .expectErrorMatches(error -> error == ErrorCode.DAILY_COUNT_LIMIT_EXCEEDED.exception())
+                .verify();
+
+        verify(bankAccountClient, never()).withdraw(any(), any());
+    }
+
+    @Test
+    void withdraw_shouldRefundLimitAtTheDebitTimeWhenClientRejectsIt() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(BankAccount.builder()
+                .id(123L)
+                .balance(BigDecimal.valueOf(5000))
+                .accountType(AccountType.SAVINGS)
+                .build()));
+        when(bankAccountClient.withdraw("123", 50.0)).thenReturn(Mono.error(
+                new ResponseStatusException(HttpStatus.CONFLICT, "Error withdrawing: account frozen")));
+
+        StepVerifier.create(bankAccountService.withdraw("123", 50.0))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        ArgumentCaptor<Long> consumedAt = ArgumentCaptor.forClass(Long.class);
+        verify(withdrawalLimitService).tryConsume(eq(AccountType.SAVINGS), eq("123"), eq(50.0), consumedAt.capture());
+        verify(withdrawalLimitService).refund("123", 50.0, consumedAt.getValue());
+    }
+
+    @Test
+    void withdraw_shouldKeepLimitConsumedWhenTheOutcomeIsUnknown() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(BankAccount.builder()
+                .id(123L)
+                .balance(BigDecimal.valueOf(5000))
+                .accountType(AccountType.SAVINGS)
+                .build()));
+        when(bankAccountClient.withdraw("123", 50.0)).thenReturn(Mono.error(new IllegalStateException("timeout")));
+
+        StepVerifier.create(bankAccountService.withdraw("123", 50.0))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // El retiro pudo aplicarse: el débito sigue contando para los límites
+        verify(withdrawalLimitService, never()).refund(any(), any(), anyLong());
+    }
+
+    @Test
+    void transfer_shouldCreditConvertedAmountInDestinationCurrency() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "EUR")));
+        when(bankAccountClient.withdraw("123", 100.0)).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.deposit("456", 90.0)).thenReturn(Mono.just(account(456L, "EUR")));
+
+        StepVerifier.create(bankAccountService.transfer("123", "456", 100.0))
+                .assertNext(result -> {
+                    assertEquals("USD", result.getConversion().getSourceCurrency());
+                    assertEquals("EUR", result.getConversion().getDestinationCurrency());
+                    assertEquals(0.9, result.getConversion().getRate(), 1e-9);
+                    assertEquals(90.0, result.getConversion().getDestinationAmount());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void transfer_shouldRejectCurrenciesWithoutRateBeforeWithdrawing() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "JPY")));
+
+        StepVerifier.create(bankAccountService.transfer("123", "456", 100.0))
+                .expectErrorMatches(error -> error == ErrorCode.UNSUPPORTED_CURRENCY_PAIR.exception())
+                .verify();
+
+        verify(bankAccountClient, never()).withdraw(any(), any());
+    }
+
+    @Test
+    void transfer_shouldSignalSameSourceAndDestination() {
+        StepVerifier.create(bankAccountService.transfer("123", "123", 10.0))
+                .expectErrorMatches(error -> error == ErrorCode.SAME_SOURCE_AND_DESTINATION.exception())
+                .verify();
+    }
+
+    @Test
+    void multiTransfer_shouldDebitOnceAndCreditEveryLeg() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "EUR")));
+        when(bankAccountClient.getAccount("789")).thenReturn(Mono.just(account(789L, "USD")));
+        when(bankAccountClient.withdraw("123", 150.0)).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.deposit("456", 90.0)).thenReturn(Mono.just(account(456L, "EUR")));
+        when(bankAccountClient.deposit("789", 50.0)).thenReturn(Mono.just(account(789L, "USD")));
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 100.0), leg("789", 50.0))))
+                .assertNext(result -> {
+                    assertEquals(150.0, result.getDebitedAmount());
+                    assertEquals(0.0, result.getRefundedAmount());
+                    assertEquals(List.of("456", "789"), result.getLegs().stream()
+                            .map(leg -> leg.getLeg().getDestinationAccountId()).toList());
+                    assertTrue(result.getLegs().stream().allMatch(LegResult::isCredited));
+                    assertEquals(90.0, result.getLegs().get(0).getConversion().getDestinationAmount());
+                })
+                .verifyComplete();
+
+        verify(bankAccountClient, times(1)).withdraw(any(), any());
+        verify(withdrawalLimitService).tryConsume(eq(AccountType.CHECKING), eq("123"), eq(150.0), anyLong());
+    }
+
+    @Test
+    void multiTransfer_shouldRefundRejectedLegsInOneDeposit() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "USD")));
+        when(bankAccountClient.getAccount("789")).thenReturn(Mono.just(account(789L, "USD")));
+        when(bankAccountClient.withdraw("123", 60.0)).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.deposit("456", 10.0)).thenReturn(Mono.just(account(456L, "USD")));
+        when(bankAccountClient.deposit("789", 20.0)).thenReturn(Mono.error(
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error depositing: account closed")));
+        when(bankAccountClient.deposit("789", 30.0)).thenReturn(Mono.empty());
+        when(bankAccountClient.deposit("123", 50.0)).thenReturn(Mono.just(account(123L, "USD")));
+
+        StepVerifier.create(bankAccountService.multiTransfer("123",
+                        List.of(leg("456", 10.0), leg("789", 20.0), leg("789", 30.0))))
+                .assertNext(result -> {
+                    assertEquals(50.0, result.getRefundedAmount());
+                    assertNull(result.getRefundError());
+                    assertTrue(result.getLegs().get(0).isCredited());
+                    assertEquals(LegStatus.REJECTED, result.getLegs().get(1).getStatus());
+                    assertTrue(result.getLegs().get(1).getError().contains("account closed"));
+                    assertEquals(LegStatus.REJECTED, result.getLegs().get(2).getStatus());
+                })
+                .verifyComplete();
+
+        verify(bankAccountClient).deposit("123", 50.0);
+        // El débito sigue contando, pero solo por el neto que se registra
+        ArgumentCaptor<Long> consumedAt = ArgumentCaptor.forClass(Long.class);
+        verify(withdrawalLimitService).tryConsume(eq(AccountType.CHECKING), eq("123"), eq(60.0), consumedAt.capture());
+        verify(withdrawalLimitService).refundAmount("123", 50.0, consumedAt.getValue());
+        verify(withdrawalLimitService, never()).refund(any(), any(), anyLong());
+    }
+
+    @Test
+    void multiTransfer_shouldCountAndRefundTheLimitsInTheirCurrency() {
+        when(withdrawalLimitService.limitRate("EUR")).thenReturn(2.0);
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "EUR")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "EUR")));
+        when(bankAccountClient.getAccount("789")).thenReturn(Mono.just(account(789L, "EUR")));
+        when(bankAccountClient.withdraw("123", 30.0)).thenReturn(Mono.just(account(123L, "EUR")));
+        when(bankAccountClient.deposit("456", 10.0)).thenReturn(Mono.just(account(456L, "EUR")));
+        when(bankAccountClient.deposit("789", 20.0)).thenReturn(Mono.error(
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error depositing: account closed")));
+        when(bankAccountClient.deposit("123", 20.0)).thenReturn(Mono.just(account(123L, "EUR")));
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 10.0), leg("789", 20.0))))
+                .assertNext(result -> assertEquals(20.0, result.getRefundedAmount()))
+                .verifyComplete();
+
+        ArgumentCaptor<Long> consumedAt = ArgumentCaptor.forClass(Long.class);
+        verify(withdrawalLimitService).tryConsume(eq(AccountType.CHECKING), eq("123"), eq(60.0), consumedAt.capture());
+        verify(withdrawalLimitService).refundAmount("123", 40.0, consumedAt.getValue());
+    }
+
+    @Test
+    void multiTransfer_shouldGiveTheLimitsBackOnlyOnceTheRefundIsDeposited() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "USD")));
+        when(bankAccountClient.withdraw("123", 10.0)).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.deposit("456", 10.0)).thenReturn(Mono.error(
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error depositing: account closed")));
+        when(bankAccountClient.deposit("123", 10.0))
+                .thenReturn(Mono.error(new IllegalStateException("connection reset")))
+                .thenReturn(Mono.just(account(123L, "USD")));
+
+        // La devolución falla: el dinero sigue fuera de la cuenta y el débito cuenta entero
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 10.0))))
+                .assertNext(result -> assertEquals("connection reset", result.getRefundError()))
+                .verifyComplete();
+        verify(withdrawalLimitService, never()).refund(any(), any(), anyLong());
+        verify(withdrawalLimitService, never()).refundAmount(any(), any(), anyLong());
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 10.0))))
+                .assertNext(result -> assertEquals(10.0, result.getRefundedAmount()))
+                .verifyComplete();
+        verify(withdrawalLimitService).refund(eq("123"), eq(10.0), anyLong());
+        verify(withdrawalLimitService, never()).refundAmount(any(), any(), anyLong());
+    }
+
+    @Test
+    void multiTransfer_shouldNotRefundLegsWithUnknownOutcome() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "USD")));
+        when(bankAccountClient.getAccount("789")).thenReturn(Mono.just(account(789L, "USD")));
+        when(bankAccountClient.withdraw("123", 30.0)).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.deposit("456", 10.0)).thenReturn(Mono.error(new IllegalStateException("timeout")));
+        when(bankAccountClient.deposit("789", 20.0)).thenReturn(Mono.error(
+                new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Error depositing: upstream")));
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 10.0), leg("789", 20.0))))
+                .assertNext(result -> {
+                    assertEquals(0.0, result.getRefundedAmount());
+                    assertTrue(result.getLegs().stream().allMatch(leg -> leg.getStatus() == LegStatus.UNKNOWN));
+                    assertEquals("timeout", result.getLegs().get(0).getError());
+                })
+                .verifyComplete();
+
+        verify(bankAccountClient, never()).deposit(eq("123"), any());
+        verify(withdrawalLimitService, never()).refund(any(), any(), anyLong());
+    }
+
+    @Test
+    void multiTransfer_shouldTrackTheOutcomeOfEveryLegWhileCrediting() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "USD")));
+        when(bankAccountClient.getAccount("789")).thenReturn(Mono.just(account(789L, "USD")));
+        when(bankAccountClient.withdraw("123", 30.0)).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.deposit("456", 10.0)).thenReturn(Mono.just(account(456L, "USD")));
+        when(bankAccountClient.deposit("789", 20.0)).thenReturn(Mono.never());
+        InFlightMutation mutation = new InFlightMutation(TransactionType.MULTI_TRANSFER, "123", null, 30.0);
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 10.0), leg("789", 20.0)))
+                        .contextWrite(Context.of(InFlightMutation.class, mutation)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenCancel()
+                .verify();
+
+        // Lo que quedaría en el diario si un apagado cortara aquí la operación
+        assertEquals(MutationPhase.CREDITING, mutation.getPhase());
+        assertEquals(List.of(LegStatus.CREDITED, LegStatus.PENDING),
+                mutation.getLegs().stream().map(LegResult::getStatus).toList());
+        assertEquals("789", mutation.getLegs().get(1).getLeg().getDestinationAccountId());
+    }
+
+    @Test
+    void multiTransfer_shouldRejectInsufficientBalanceBeforeDebiting() {
+        when(bankAccountClient.getAccount("123")).thenReturn(Mono.just(account(123L, "USD")));
+        when(bankAccountClient.getAccount("456")).thenReturn(Mono.just(account(456L, "USD")));
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 600.0), leg("456", 600.0))))
+                .expectErrorMatches(error -> error == ErrorCode.INSUFFICIENT_BALANCE.exception())
+                .verify();
+
+        verify(bankAccountClient, never()).withdraw(any(), any());
+        verify(bankAccountClient, times(1)).getAccount("456");
+    }
+
+    @Test
+    void multiTransfer_shouldRejectTooManyLegs() {
+        multiTransferProperties.setMaxLegs(1);
+
+        StepVerifier.create(bankAccountService.multiTransfer("123", List.of(leg("456", 1.0), leg("789", 1.0))))
+                .expectErrorMatches(error -> error == ErrorCode.TOO_MANY_LEGS.exception())
+                .verify();
+
+        verify(bankAccountClient, never()).getAccount(any());
+    }
+
+    @Test
+    void multiTransfer_shouldRejectMissingLegs() {
+        StepVerifier.create(bankAccountService.multiTransfer("123", null))
+                .expectErrorMatches(error -> error == ErrorCode.TOO_MANY_LEGS.exception())
+                .verify();
+        StepVerifier.create(bankAccountService.multiTransfer("123", Arrays.asList(leg("456", 1.0), null)))
+                .expectErrorMatches(error -> error == ErrorCode.ACCOUNT_ID_REQUIRED.exception())
+                .verify();
+
+        verify(bankAccountClient, never()).getAccount(any());
+    }
+
+    @Test
+    void handler_shouldWritePreEncodedProblemDetails() {
+        ResponseEntity<byte[]> response = new GlobalExceptionHandler()
+                .handleDomainException(ErrorCode.INSUFFICIENT_BALANCE.exception());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getHeaders().getContentType());
+        String body = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"status\":400"));
+        assertTrue(body.contains("\"code\":\"INSUFFICIENT_BALANCE\""));
+        assertTrue(body.contains("\"detail\":\"Insufficient balance\""));
+    }
+
+    private static TransferLeg leg(String destinationAccountId, Double amount) {
+        return TransferLeg.builder().destinationAccountId(destinationAccountId).amount(amount).build();
+    }
+
+    private static BankAccount account(Long id, String currency) {
+        return BankAccount.builder()
+                .id(id)
+                .balance(BigDecimal.valueOf(1000))
+                .accountType(AccountType.CHECKING)
+                .currency(currency)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.DiagnosticsProperties;
+import com.example.transactionmicroservice.diagnostics.RecordingSummarizer;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilingServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    private DiagnosticsProperties properties;
+    private ProfilingServiceImpl profilingService;
+
+    @BeforeEach
+    void setup() {
+        properties = new DiagnosticsProperties();
+        properties.setEnabled(true);
+        properties.setSettings("default");
+        properties.setDirectory(directory);
+        properties.setMaxDuration(Duration.ofMinutes(1));
+        profilingService = new ProfilingServiceImpl(properties, new RecordingSummarizer(properties),
+                Schedulers.immediate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        profilingService.close();
+    }
+
+    @Test
+    void recording_shouldRunOneAtATimeAndBeSummarizedOnceStopped() {
+        String id = profilingService.start(Duration.ofHours(1)).block().getId();
+
+        StepVerifier.create(profilingService.findRecording(id))
+                .assertNext(recording -> {
+                    assertEquals("RUNNING", recording.getState());
+                    assertEquals(60, recording.getDurationSeconds()); // Limitada por max-duration
+                })
+                .verifyComplete();
+        StepVerifier.create(profilingService.start(null))
+                .expectErrorMatches(error -> error == ErrorCode.PROFILING_ALREADY_RUNNING.exception())
+                .verify();
+        StepVerifier.create(profilingService.summarize(id))
+                .expectErrorMatches(error -> error == ErrorCode.PROFILING_RECORDING_NOT_FINISHED.exception())
+                .verify();
+
+        StepVerifier.create(profilingService.stop(id))
+                .assertNext(recording -> assertNotEquals("RUNNING", recording.getState())) // Con destino JFR la cierra al parar
+                .verifyComplete();
+        StepVerifier.create(profilingService.findFile(id))
+                .assertNext(file -> assertTrue(Files.exists(file)))
+                .verifyComplete();
+        StepVerifier.create(profilingService.summarize(id))
+                .assertNext(summary -> assertEquals(id, summary.getRecordingId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void recording_shouldKeepOnlyTheLatestRecordings() {
+        properties.setMaxRecordings(1);
+        String first = profilingService.start(null).block().getId();
+        profilingService.stop(first).block();
+        Path firstFile = profilingService.findFile(first).block();
+
+        String second = profilingService.start(null).block().getId();
+
+        StepVerifier.create(profilingService.findRecordings())
+                .assertNext(recording -> assertEquals(second, recording.getId()))
+                .verifyComplete();
+        assertTrue(Files.notExists(firstFile));
+        StepVerifier.create(profilingService.findRecording(first))
+                .expectErrorMatches(error -> error == ErrorCode.PROFILING_RECORDING_NOT_FOUND.exception())
+                .verify();
+    }
+
+    @Test
+    void start_shouldFailWhenDiagnosticsAreDisabled() {
+        properties.setEnabled(false);
+
+        StepVerifier.create(profilingService.start(null))
+                .expectErrorMatches(error -> error == ErrorCode.PROFILING_DISABLED.exception())
+                .verify();
+    }
+}
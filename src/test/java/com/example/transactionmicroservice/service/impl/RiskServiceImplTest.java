@@ -0,0 +1,123 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.RiskProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.risk.AmountAnomalyRiskEvaluator;
+import com.example.transactionmicroservice.risk.RiskContext;
+import com.example.transactionmicroservice.risk.RiskEvaluator;
+import com.example.transactionmicroservice.risk.RiskVerdict;
+import com.example.transactionmicroservice.risk.VelocityRiskEvaluator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskServiceImplTest {
+
+    private final RiskProperties properties = new RiskProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        // Presupuesto holgado para que un JIT aún frío no active el fail open en las pruebas de reglas
+        properties.setBudget(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void assess_shouldRejectBurstOfDebits() {
+        properties.getVelocity().setMaxOperations(3);
+        RiskServiceImpl riskService = riskService(new VelocityRiskEvaluator(properties));
+        for (int i = 0; i < 3; i++) {
+            riskService.record(withdrawal("123", 10.0));
+        }
+
+        StepVerifier.create(riskService.assess(TransactionType.WITHDRAWAL, "123", null, 10.0))
+                .expectErrorMatches(error -> error == ErrorCode.RISK_REJECTED.exception())
+                .verify();
+        StepVerifier.create(riskService.assess(TransactionType.WITHDRAWAL, "456", null, 10.0))
+                .verifyComplete();
+    }
+
+    @Test
+    void assess_shouldNotCountCreditsAsActivity() {
+        properties.getVelocity().setMaxOperations(3);
+        RiskServiceImpl riskService = riskService(new VelocityRiskEvaluator(properties));
+        for (int i = 0; i < 3; i++) {
+            riskService.record(Transaction.builder().type(TransactionType.TRANSFER)
+                    .sourceAccountId("s" + i).destinationAccountId("456").amount(10.0).build());
+            riskService.record(Transaction.builder().type(TransactionType.DEPOSIT)
+                    .destinationAccountId("456").amount(10.0).build());
+        }
+
+        StepVerifier.create(riskService.assess(TransactionType.WITHDRAWAL, "456", null, 10.0))
+                .verifyComplete();
+    }
+
+    @Test
+    void assess_shouldScoreAmountsFarAboveTheRecentAverage() {
+        RiskServiceImpl riskService = riskService(new AmountAnomalyRiskEvaluator(properties));
+        riskService.record(withdrawal("123", 10.0));
+        riskService.record(withdrawal("123", 30.0));
+
+        StepVerifier.create(riskService.assess(TransactionType.TRANSFER, "123", "456", 40.0))
+                .verifyComplete();
+        StepVerifier.create(riskService.assess(TransactionType.TRANSFER, "123", "456", 5_000.0))
+                .expectErrorMatches(error -> error == ErrorCode.RISK_REJECTED.exception())
+                .verify();
+    }
+
+    @Test
+    void assess_shouldFailOpenWhenTheBudgetIsExceeded() {
+        properties.setBudget(Duration.ofMillis(20));
+        RiskServiceImpl riskService = riskService(slowEvaluator());
+
+        StepVerifier.create(riskService.assess(TransactionType.WITHDRAWAL, "123", null, 10.0))
+                .verifyComplete();
+        assertEquals(1, meterRegistry.get("transactions.risk.budget.exceeded").counter().count());
+    }
+
+    @Test
+    void assess_shouldFailClosedWhenConfigured() {
+        properties.setBudget(Duration.ofMillis(20));
+        properties.setFailOpen(false);
+        RiskServiceImpl riskService = riskService(slowEvaluator());
+
+        StepVerifier.create(riskService.assess(TransactionType.WITHDRAWAL, "123", null, 10.0))
+                .expectErrorMatches(error -> error == ErrorCode.RISK_REJECTED.exception())
+                .verify();
+    }
+
+    private RiskServiceImpl riskService(RiskEvaluator... evaluators) {
+        return new RiskServiceImpl(properties, List.of(evaluators), meterRegistry);
+    }
+
+    private static RiskEvaluator slowEvaluator() {
+        return new RiskEvaluator() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public Mono<RiskVerdict> evaluate(RiskContext context) {
+                return Mono.just(RiskVerdict.ALLOW).delayElement(Duration.ofSeconds(1));
+            }
+        };
+    }
+
+    private static Transaction withdrawal(String accountId, Double amount) {
+        return Transaction.builder()
+                .type(TransactionType.WITHDRAWAL)
+                .sourceAccountId(accountId)
+                .amount(amount)
+                .build();
+    }
+}
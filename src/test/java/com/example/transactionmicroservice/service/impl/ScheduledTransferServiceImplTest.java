@@ -0,0 +1,154 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.dto.ScheduledTransferRequestDto;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.ScheduledTransfer;
+import com.example.transactionmicroservice.model.ScheduledTransferStatus;
+import com.example.transactionmicroservice.repository.ScheduledTransferRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ScheduledTransferServiceImplTest {
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ScheduledTransferServiceImpl scheduledTransferService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(scheduledTransferRepository.save(any(ScheduledTransfer.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void create_shouldComputeFirstExecutionFromCronExpression() {
+        ScheduledTransferRequestDto request = request("0 0 0 1 * *", null);
+
+        StepVerifier.create(scheduledTransferService.create(request))
+                .assertNext(scheduledTransfer -> {
+                    assertEquals(ScheduledTransferStatus.ACTIVE, scheduledTransfer.getStatus());
+                    assertEquals(1, scheduledTransfer.getNextExecution().getDayOfMonth());
+                    assertEquals(0, scheduledTransfer.getNextExecution().getHour());
+                    assertTrue(scheduledTransfer.getNextExecution().isAfter(LocalDateTime.now()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void create_shouldRejectInvalidCronExpression() {
+        StepVerifier.create(scheduledTransferService.create(request("every month", null)))
+                .expectErrorMatches(error -> error == ErrorCode.INVALID_SCHEDULE.exception())
+                .verify();
+
+        verify(scheduledTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void create_shouldRejectOneOffTransferInThePast() {
+        StepVerifier.create(scheduledTransferService.create(request(null, LocalDateTime.now().minusDays(1))))
+                .expectErrorMatches(error -> error == ErrorCode.INVALID_SCHEDULE.exception())
+                .verify();
+    }
+
+    @Test
+    void create_shouldRejectMissingAccountsAndInvalidAmounts() {
+        ScheduledTransferRequestDto missingSource = request("0 0 0 1 * *", null);
+        missingSource.setSourceAccountId(null);
+        ScheduledTransferRequestDto missingAmount = request("0 0 0 1 * *", null);
+        missingAmount.setAmount(null);
+        ScheduledTransferRequestDto negativeAmount = request("0 0 0 1 * *", null);
+        negativeAmount.setAmount(-5.0);
+
+        StepVerifier.create(scheduledTransferService.create(missingSource))
+                .expectErrorMatches(error -> error == ErrorCode.ACCOUNT_ID_REQUIRED.exception())
+                .verify();
+        StepVerifier.create(scheduledTransferService.create(missingAmount))
+                .expectErrorMatches(error -> error == ErrorCode.INVALID_AMOUNT.exception())
+                .verify();
+        StepVerifier.create(scheduledTransferService.create(negativeAmount))
+                .expectErrorMatches(error -> error == ErrorCode.INVALID_AMOUNT.exception())
+                .verify();
+        verify(scheduledTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void cancel_shouldOnlySetTheStatusOfPendingTransfers() {
+        ScheduledTransfer cancelled = ScheduledTransfer.builder().id("st").status(ScheduledTransferStatus.CANCELLED)
+                .build();
+        whenFindAndModify().thenReturn(Mono.just(cancelled));
+
+        StepVerifier.create(scheduledTransferService.cancel("st"))
+                .expectNext(cancelled)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(ScheduledTransfer.class));
+        assertTrue(((Document) query.getValue().getQueryObject().get("status")).containsKey("$in"));
+        assertEquals(new Document("$set", new Document("status", ScheduledTransferStatus.CANCELLED)),
+                update.getValue().getUpdateObject());
+        verify(scheduledTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void cancel_shouldRejectCompletedTransfers() {
+        whenFindAndModify().thenReturn(Mono.empty());
+        when(scheduledTransferRepository.findById("st")).thenReturn(Mono.just(
+                ScheduledTransfer.builder().id("st").status(ScheduledTransferStatus.COMPLETED).build()));
+
+        StepVerifier.create(scheduledTransferService.cancel("st"))
+                .expectErrorMatches(error -> error == ErrorCode.SCHEDULED_TRANSFER_COMPLETED.exception())
+                .verify();
+    }
+
+    @Test
+    void cancel_shouldSignalNotFound() {
+        whenFindAndModify().thenReturn(Mono.empty());
+        when(scheduledTransferRepository.findById("missing")).thenReturn(Mono.empty());
+
+        StepVerifier.create(scheduledTransferService.cancel("missing"))
+                .expectErrorMatches(error -> error == ErrorCode.SCHEDULED_TRANSFER_NOT_FOUND.exception())
+                .verify();
+    }
+
+    private OngoingStubbing<Mono<ScheduledTransfer>> whenFindAndModify() {
+        return when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ScheduledTransfer.class)));
+    }
+
+    private static ScheduledTransferRequestDto request(String cronExpression, LocalDateTime firstExecution) {
+        ScheduledTransferRequestDto request = new ScheduledTransferRequestDto();
+        request.setSourceAccountId("123");
+        request.setDestinationAccountId("456");
+        request.setAmount(50.0);
+        request.setCronExpression(cronExpression);
+        request.setFirstExecution(firstExecution);
+        return request;
+    }
+}
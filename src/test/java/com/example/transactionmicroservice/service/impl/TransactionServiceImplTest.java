@@ -1,17 +1,34 @@
 package com.example.transactionmicroservice.service.impl;
 
+import com.example.transactionmicroservice.cache.AccountHistoryCache;
+import com.example.transactionmicroservice.config.RiskProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
 import com.example.transactionmicroservice.model.AccountType;
 import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.LegResult;
+import com.example.transactionmicroservice.model.LegStatus;
+import com.example.transactionmicroservice.model.MultiTransferResult;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
 import com.example.transactionmicroservice.model.Transaction;
 import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.model.TransferLeg;
+import com.example.transactionmicroservice.model.TransferResult;
+import com.example.transactionmicroservice.repository.MongoUnitOfWork;
+import com.example.transactionmicroservice.repository.PendingMutationRepository;
 import com.example.transactionmicroservice.repository.TransactionRepository;
+import com.example.transactionmicroservice.risk.AmountAnomalyRiskEvaluator;
+import com.example.transactionmicroservice.risk.VelocityRiskEvaluator;
 import com.example.transactionmicroservice.service.BankAccountService;
+import com.example.transactionmicroservice.service.FxRateService;
+import com.example.transactionmicroservice.service.RiskService;
+import com.example.transactionmicroservice.shutdown.InFlightMutations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
@@ -19,9 +36,19 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceImplTest {
@@ -35,10 +62,33 @@ class TransactionServiceImplTest {
     @Mock
     private BankAccountService bankAccountService;
 
+    @Mock
+    private RiskService riskService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private AccountHistoryCache historyCache;
+
+    @Mock
+    private InFlightMutations inFlightMutations;
+
+    @Mock
+    private PendingMutationRepository pendingMutationRepository;
+
+    @Mock
+    private MongoUnitOfWork unitOfWork;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(riskService.assess(any(), any(), any(), any())).thenReturn(Mono.empty());
+        // La caché delega siempre en la consulta a la base de datos
+        when(historyCache.get(any(), anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Function<String, Flux<Transaction>>>getArgument(2).apply(invocation.getArgument(0)));
+        when(inFlightMutations.track(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(unitOfWork.execute(any())).thenAnswer(invocation -> invocation.<Supplier<Mono<?>>>getArgument(0).get());
     }
 
     @Test
@@ -80,6 +130,19 @@ class TransactionServiceImplTest {
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
+    @Test
+    void withdraw_shouldNotCallBankAccountServiceWhenRiskRejects() {
+        when(riskService.assess(TransactionType.WITHDRAWAL, "123", null, 500.0))
+                .thenReturn(ErrorCode.RISK_REJECTED.asMono());
+
+        StepVerifier.create(transactionService.withdraw("123", 500.0))
+                .expectErrorMatches(error -> error == ErrorCode.RISK_REJECTED.exception())
+                .verify();
+
+        verify(bankAccountService, never()).withdraw(any(), any());
+        verify(riskService, never()).record(any());
+    }
+
     @Test
     void deposit_shouldCreateTransactionAndUpdateBalance() {
         String accountId = "123";
@@ -332,7 +395,7 @@ class TransactionServiceImplTest {
 
         // Mock the behavior of BankAccountService
         when(bankAccountService.transfer(sourceAccountId, destinationAccountId, amount))
-                .thenReturn(Mono.just(Pair.of(updatedSourceAccount, updatedDestinationAccount)));
+                .thenReturn(Mono.just(transferResult(updatedSourceAccount, updatedDestinationAccount, amount)));
 
         // Mock the behavior of TransactionRepository
         when(transactionRepository.save(any(Transaction.class)))
@@ -501,7 +564,7 @@ class TransactionServiceImplTest {
 
         // Simula el comportamiento de BankAccountService para devolver las cuentas actualizadas
         when(bankAccountService.transfer(sourceAccountId, destinationAccountId, amount))
-                .thenReturn(Mono.just(Pair.of(updatedSourceAccount, updatedDestinationAccount)));
+                .thenReturn(Mono.just(transferResult(updatedSourceAccount, updatedDestinationAccount, amount)));
 
         // Simula un error al guardar la transacción en TransactionRepository
         when(transactionRepository.save(any(Transaction.class)))
@@ -524,7 +587,7 @@ class TransactionServiceImplTest {
 
     @Test
     void getGlobalTransactionHistory_shouldReturnEmptyFlux() {
-        when(transactionRepository.findAllByOrderByDateDesc()).thenReturn(Flux.empty());
+        when(transactionRepository.findGlobalHistory()).thenReturn(Flux.empty());
 
         Flux<Transaction> result = transactionService.getGlobalTransactionHistory();
 
@@ -532,7 +595,7 @@ class TransactionServiceImplTest {
                 .expectNextCount(0) // No transactions should be emitted
                 .verifyComplete();
 
-        verify(transactionRepository, times(1)).findAllByOrderByDateDesc();
+        verify(transactionRepository, times(1)).findGlobalHistory();
     }
 
     @Test
@@ -553,7 +616,7 @@ class TransactionServiceImplTest {
                 .sourceAccountId("123")
                 .build();
 
-        when(transactionRepository.findAllByOrderByDateDesc()).thenReturn(Flux.just(transaction1, transaction2));
+        when(transactionRepository.findGlobalHistory()).thenReturn(Flux.just(transaction1, transaction2));
 
         Flux<Transaction> result = transactionService.getGlobalTransactionHistory();
 
@@ -562,7 +625,7 @@ class TransactionServiceImplTest {
                 .expectNext(transaction2)
                 .verifyComplete();
 
-        verify(transactionRepository, times(1)).findAllByOrderByDateDesc();
+        verify(transactionRepository, times(1)).findGlobalHistory();
     }
 
     @Test
@@ -583,7 +646,7 @@ class TransactionServiceImplTest {
                 .sourceAccountId("123")
                 .build();
 
-        when(transactionRepository.findAllByOrderByDateDesc()).thenReturn(Flux.just(transaction1, transaction2));
+        when(transactionRepository.findGlobalHistory()).thenReturn(Flux.just(transaction1, transaction2));
 
         Flux<Transaction> result = transactionService.getGlobalTransactionHistory();
 
@@ -592,12 +655,12 @@ class TransactionServiceImplTest {
                 .expectNextMatches(transaction -> transaction.getDate().isBefore(transaction1.getDate()))
                 .verifyComplete();
 
-        verify(transactionRepository, times(1)).findAllByOrderByDateDesc();
+        verify(transactionRepository, times(1)).findGlobalHistory();
     }
 
     @Test
     void getGlobalTransactionHistory_shouldPropagateError() {
-        when(transactionRepository.findAllByOrderByDateDesc())
+        when(transactionRepository.findGlobalHistory())
                 .thenReturn(Flux.error(new RuntimeException("Database error")));
 
         Flux<Transaction> result = transactionService.getGlobalTransactionHistory();
@@ -607,14 +670,14 @@ class TransactionServiceImplTest {
                         throwable.getMessage().equals("Database error"))
                 .verify();
 
-        verify(transactionRepository, times(1)).findAllByOrderByDateDesc();
+        verify(transactionRepository, times(1)).findGlobalHistory();
     }
 
     @Test
     void getAccountTransactionHistory_shouldReturnEmptyFlux() {
         String accountId = "123";
 
-        when(transactionRepository.findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId))
+        when(transactionRepository.findAccountHistory(accountId))
                 .thenReturn(Flux.empty());
 
         Flux<Transaction> result = transactionService.getAccountTransactionHistory(accountId);
@@ -624,7 +687,7 @@ class TransactionServiceImplTest {
                 .verifyComplete();
 
         verify(transactionRepository, times(1))
-                .findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId);
+                .findAccountHistory(accountId);
     }
 
     @Test
@@ -647,7 +710,7 @@ class TransactionServiceImplTest {
                 .sourceAccountId(accountId)
                 .build();
 
-        when(transactionRepository.findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId))
+        when(transactionRepository.findAccountHistory(accountId))
                 .thenReturn(Flux.just(transaction1, transaction2));
 
         Flux<Transaction> result = transactionService.getAccountTransactionHistory(accountId);
@@ -658,7 +721,7 @@ class TransactionServiceImplTest {
                 .verifyComplete();
 
         verify(transactionRepository, times(1))
-                .findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId);
+                .findAccountHistory(accountId);
     }
 
     @Test
@@ -681,7 +744,7 @@ class TransactionServiceImplTest {
                 .sourceAccountId(accountId)
                 .build();
 
-        when(transactionRepository.findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId))
+        when(transactionRepository.findAccountHistory(accountId))
                 .thenReturn(Flux.just(transaction1, transaction2));
 
         Flux<Transaction> result = transactionService.getAccountTransactionHistory(accountId);
@@ -692,14 +755,14 @@ class TransactionServiceImplTest {
                 .verifyComplete();
 
         verify(transactionRepository, times(1))
-                .findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId);
+                .findAccountHistory(accountId);
     }
 
     @Test
     void getAccountTransactionHistory_shouldPropagateError() {
         String accountId = "123";
 
-        when(transactionRepository.findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId))
+        when(transactionRepository.findAccountHistory(accountId))
                 .thenReturn(Flux.error(new RuntimeException("Database error")));
 
         Flux<Transaction> result = transactionService.getAccountTransactionHistory(accountId);
@@ -710,7 +773,179 @@ class TransactionServiceImplTest {
                 .verify();
 
         verify(transactionRepository, times(1))
-                .findBySourceAccountIdOrDestinationAccountIdOrderByDateDesc(accountId, accountId);
+                .findAccountHistory(accountId);
+    }
+
+    @Test
+    void getRecentAccountTransactions_shouldRejectNonPositiveLimits() {
+        StepVerifier.create(transactionService.getRecentAccountTransactions("123", 0))
+                .expectErrorMatches(error -> error == ErrorCode.INVALID_LIMIT.exception())
+                .verify();
+        StepVerifier.create(transactionService.getRecentAccountTransactions("123", -5))
+                .expectErrorMatches(error -> error == ErrorCode.INVALID_LIMIT.exception())
+                .verify();
+
+        verifyNoInteractions(historyCache, transactionRepository);
+    }
+
+    @Test
+    void multiTransfer_shouldInsertParentAndCreditedLegsTogether() {
+        List<TransferLeg> legs = List.of(leg("456", 100.0), leg("789", 50.0));
+        when(bankAccountService.multiTransfer("123", legs)).thenReturn(Mono.just(MultiTransferResult.builder()
+                .sourceCurrency("USD")
+                .debitedAmount(150.0)
+                .legs(List.of(legResult(legs.get(0), LegStatus.CREDITED, null),
+                        legResult(legs.get(1), LegStatus.REJECTED, "closed")))
+                .refundedAmount(50.0)
+                .build()));
+        when(transactionRepository.insertAll(any())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<Collection<Transaction>>getArgument(0)));
+
+        StepVerifier.create(transactionService.multiTransfer("123", legs))
+                .assertNext(multiTransfer -> {
+                    Transaction parent = multiTransfer.getTransaction();
+                    assertEquals(TransactionType.MULTI_TRANSFER, parent.getType());
+                    assertEquals(100.0, parent.getAmount());
+                    assertEquals(1, multiTransfer.getLegs().size());
+                    assertEquals(parent.getId(), multiTransfer.getLegs().get(0).getParentTransactionId());
+                    assertEquals("456", multiTransfer.getLegs().get(0).getDestinationAccountId());
+                    assertEquals("closed", multiTransfer.getFailedLegs().get(0).getError());
+                })
+                .verifyComplete();
+
+        verify(transactionRepository, times(1)).insertAll(argThat(transactions -> transactions.size() == 2));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(pendingMutationRepository, never()).save(any());
+    }
+
+    @Test
+    void multiTransfer_shouldFailWithoutRecordingWhenNoLegWasCredited() {
+        List<TransferLeg> legs = List.of(leg("456", 100.0));
+        when(bankAccountService.multiTransfer("123", legs)).thenReturn(Mono.just(MultiTransferResult.builder()
+                .sourceCurrency("USD")
+                .debitedAmount(100.0)
+                .legs(List.of(legResult(legs.get(0), LegStatus.REJECTED, "closed")))
+                .refundedAmount(100.0)
+                .build()));
+
+        StepVerifier.create(transactionService.multiTransfer("123", legs))
+                .expectErrorMatches(error -> error == ErrorCode.TRANSFER_LEGS_FAILED.exception())
+                .verify();
+
+        verify(transactionRepository, never()).insertAll(any());
     }
 
+    @Test
+    void multiTransfer_shouldJournalFailedRefundForReview() {
+        List<TransferLeg> legs = List.of(leg("456", 100.0), leg("789", 50.0));
+        when(bankAccountService.multiTransfer("123", legs)).thenReturn(Mono.just(MultiTransferResult.builder()
+                .sourceCurrency("USD")
+                .debitedAmount(150.0)
+                .legs(List.of(legResult(legs.get(0), LegStatus.CREDITED, null),
+                        legResult(legs.get(1), LegStatus.REJECTED, "closed")))
+                .refundError("connection reset")
+                .build()));
+        when(transactionRepository.insertAll(any())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<Collection<Transaction>>getArgument(0)));
+        when(pendingMutationRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(transactionService.multiTransfer("123", legs))
+                .assertNext(multiTransfer -> assertEquals(150.0, multiTransfer.getTransaction().getAmount()))
+                .verifyComplete();
+
+        verify(pendingMutationRepository).save(argThat(pending -> pending.getStatus() == PendingMutationStatus.NEEDS_REVIEW
+                && pending.getAmount() == 50.0
+                && pending.getLastError().contains("connection reset")));
+        verify(unitOfWork, times(1)).execute(any()); // Tramos y revisión en la misma transacción
+    }
+
+    @Test
+    void multiTransfer_shouldJournalLegsWithUnknownOutcomeForReview() {
+        List<TransferLeg> legs = List.of(leg("456", 100.0), leg("789", 50.0));
+        when(bankAccountService.multiTransfer("123", legs)).thenReturn(Mono.just(MultiTransferResult.builder()
+                .sourceCurrency("USD")
+                .debitedAmount(150.0)
+                .legs(List.of(legResult(legs.get(0), LegStatus.UNKNOWN, "timeout"),
+                        legResult(legs.get(1), LegStatus.REJECTED, "closed")))
+                .refundedAmount(50.0)
+                .build()));
+        when(transactionRepository.insertAll(any())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<Collection<Transaction>>getArgument(0)));
+        when(pendingMutationRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Ningún tramo acreditado, pero uno pudo aplicarse: se registra el débito neto en lugar de fallar
+        StepVerifier.create(transactionService.multiTransfer("123", legs))
+                .assertNext(multiTransfer -> {
+                    assertEquals(100.0, multiTransfer.getTransaction().getAmount());
+                    assertTrue(multiTransfer.getLegs().isEmpty());
+                })
+                .verifyComplete();
+
+        verify(pendingMutationRepository).save(argThat(pending -> pending.getStatus() == PendingMutationStatus.NEEDS_REVIEW
+                && pending.getAmount() == 100.0
+                && pending.getLegs().size() == 2
+                && pending.getLegs().get(0).getStatus() == LegStatus.UNKNOWN
+                && pending.getLastError().contains("unknown")));
+    }
+
+    @Test
+    void multiTransfer_shouldCountAsASingleDebitForTheRiskEvaluation() {
+        RiskProperties riskProperties = new RiskProperties();
+        riskProperties.setBudget(Duration.ofSeconds(1)); // Sin fail open por un JIT aún frío
+        RiskServiceImpl riskService = new RiskServiceImpl(riskProperties,
+                List.of(new VelocityRiskEvaluator(riskProperties), new AmountAnomalyRiskEvaluator(riskProperties)),
+                new SimpleMeterRegistry());
+        TransactionServiceImpl service = new TransactionServiceImpl(transactionRepository, null, bankAccountService,
+                riskService, fxRateService, historyCache, inFlightMutations, pendingMutationRepository, unitOfWork);
+        List<TransferLeg> legs = IntStream.range(0, 12).mapToObj(i -> leg("dest-" + i, 10.0)).toList();
+        when(bankAccountService.multiTransfer("123", legs)).thenReturn(Mono.just(MultiTransferResult.builder()
+                .sourceCurrency("USD")
+                .debitedAmount(120.0)
+                .legs(legs.stream().map(leg -> legResult(leg, LegStatus.CREDITED, null)).toList())
+                .refundedAmount(0.0)
+                .build()));
+        when(transactionRepository.insertAll(any())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<Collection<Transaction>>getArgument(0)));
+        when(bankAccountService.transfer("123", "456", 120.0)).thenReturn(Mono.just(transferResult(
+                BankAccount.builder().accountNumber("123").build(),
+                BankAccount.builder().accountNumber("456").build(), 120.0)));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Contados como 12 débitos superarían velocity.max-operations=10 y su media haría anómalo el total de 120
+        StepVerifier.create(service.multiTransfer("123", legs)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.multiTransfer("123", legs)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.transfer("123", "456", 120.0)).expectNextCount(1).verifyComplete();
+    }
+
+    private static TransferLeg leg(String destinationAccountId, Double amount) {
+        return TransferLeg.builder().destinationAccountId(destinationAccountId).amount(amount).build();
+    }
+
+    private static LegResult legResult(TransferLeg leg, LegStatus status, String error) {
+        return LegResult.builder()
+                .leg(leg)
+                .conversion(FxConversion.builder()
+                        .sourceCurrency("USD")
+                        .destinationCurrency("USD")
+                        .rate(1)
+                        .destinationAmount(leg.getAmount())
+                        .build())
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    private static TransferResult transferResult(BankAccount source, BankAccount destination, Double amount) {
+        return TransferResult.builder()
+                .sourceAccount(source)
+                .destinationAccount(destination)
+                .conversion(FxConversion.builder()
+                        .sourceCurrency("USD")
+                        .destinationCurrency("USD")
+                        .rate(1)
+                        .destinationAmount(amount)
+                        .build())
+                .build();
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.transactionmicroservice.service.impl;
+
+import com.example.transactionmicroservice.config.WithdrawalLimitsProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.fx.FxRateTable;
+import com.example.transactionmicroservice.model.AccountType;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.repository.TransactionRepository;
+import com.example.transactionmicroservice.service.FxRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WithdrawalLimitServiceImplTest {
+
+    private final WithdrawalLimitsProperties properties = new WithdrawalLimitsProperties();
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final FxRateService fxRateService = mock(FxRateService.class);
+
+    @BeforeEach
+    void setup() {
+        WithdrawalLimitsProperties.Rule rule = new WithdrawalLimitsProperties.Rule();
+        rule.setMaxAmount(100);
+        properties.getRules().put(AccountType.CHECKING, rule);
+        when(fxRateService.current()).thenReturn(new FxRateTable("USD", Map.of("EUR", 0.5), Instant.now()));
+        when(fxRateService.currencyOf(any())).thenAnswer(invocation ->
+                invocation.getArgument(0) == null ? "USD" : invocation.getArgument(0));
+    }
+
+    @Test
+    void tryConsume_shouldCompareTheAmountsInTheCurrencyOfTheRules() {
+        WithdrawalLimitServiceImpl limits = limits();
+        long now = System.currentTimeMillis();
+
+        // 40 EUR = 80 USD: el segundo débito de 40 EUR superaría los 100 USD de la regla
+        assertNull(limits.tryConsume(AccountType.CHECKING, "123", 40.0 * limits.limitRate("EUR"), now));
+        assertEquals(ErrorCode.DAILY_AMOUNT_LIMIT_EXCEEDED,
+                limits.tryConsume(AccountType.CHECKING, "123", 40.0 * limits.limitRate("EUR"), now));
+        assertNull(limits.tryConsume(AccountType.CHECKING, "123", 20.0 * limits.limitRate(null), now));
+    }
+
+    @Test
+    void tryConsume_shouldRejectAmountsWithoutARate() {
+        WithdrawalLimitServiceImpl limits = limits();
+
+        assertEquals(ErrorCode.UNSUPPORTED_CURRENCY_PAIR, limits.tryConsume(AccountType.CHECKING, "123",
+                10.0 * limits.limitRate("JPY"), System.currentTimeMillis()));
+    }
+
+    @Test
+    void rehydrate_shouldConvertTheStoredDebits() {
+        LocalDateTime now = LocalDateTime.now();
+        when(transactionRepository.findByTypeInAndDateBetween(any(), any(), any())).thenReturn(Flux.just(
+                Transaction.builder().type(TransactionType.WITHDRAWAL).sourceAccountId("123").amount(45.0)
+                        .currency("EUR").date(now.minusHours(1)).build()));
+        WithdrawalLimitServiceImpl limits = limits();
+
+        assertEquals(1L, limits.rehydrate(now).block());
+        assertEquals(ErrorCode.DAILY_AMOUNT_LIMIT_EXCEEDED,
+                limits.tryConsume(AccountType.CHECKING, "123", 20.0, System.currentTimeMillis()));
+        assertNull(limits.tryConsume(AccountType.CHECKING, "123", 10.0, System.currentTimeMillis()));
+    }
+
+    private WithdrawalLimitServiceImpl limits() {
+        return new WithdrawalLimitServiceImpl(properties, transactionRepository, fxRateService, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.transactionmicroservice.shutdown;
+
+import com.example.transactionmicroservice.config.ShutdownProperties;
+import com.example.transactionmicroservice.exception.ErrorCode;
+import com.example.transactionmicroservice.model.FxConversion;
+import com.example.transactionmicroservice.model.LegResult;
+import com.example.transactionmicroservice.model.LegStatus;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.model.TransferLeg;
+import com.example.transactionmicroservice.repository.PendingMutationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InFlightMutationsTest {
+
+    private final PendingMutationRepository pendingMutationRepository = mock(PendingMutationRepository.class);
+    private InFlightMutations inFlightMutations;
+
+    @BeforeEach
+    void setup() {
+        ShutdownProperties properties = new ShutdownProperties();
+        properties.setDrainTimeout(Duration.ofMillis(200));
+        inFlightMutations = new InFlightMutations(properties, pendingMutationRepository, new SimpleMeterRegistry());
+        when(pendingMutationRepository.saveAll(any(Iterable.class)))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<PendingMutation>>getArgument(0)));
+    }
+
+    @Test
+    void track_shouldRecordPhasesFromTheChain() {
+        InFlightMutation mutation = transfer();
+        Mono<String> chain = Mono.just("debited")
+                .transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.DEBITED));
+
+        StepVerifier.create(inFlightMutations.track(mutation, chain))
+                .expectNext("debited")
+                .verifyComplete();
+
+        assertEquals(MutationPhase.DEBITED, mutation.getPhase());
+        assertEquals(0, inFlightMutations.size());
+    }
+
+    @Test
+    void drain_shouldWaitForRunningMutations() {
+        Mono<String> result = inFlightMutations.track(transfer(), Mono.delay(Duration.ofMillis(50)).thenReturn("done"))
+                .cache();
+        result.subscribe();
+
+        StepVerifier.create(inFlightMutations.drain()).verifyComplete();
+
+        StepVerifier.create(result).expectNext("done").verifyComplete();
+        verify(pendingMutationRepository, never()).saveAll(any(Iterable.class));
+    }
+
+    @Test
+    void drain_shouldRejectNewMutations() {
+        StepVerifier.create(inFlightMutations.drain()).verifyComplete();
+
+        StepVerifier.create(inFlightMutations.track(transfer(), Mono.just("late")))
+                .expectErrorMatches(error -> error == ErrorCode.SHUTTING_DOWN.exception())
+                .verify();
+    }
+
+    @Test
+    void drain_shouldJournalMutationsStillRunningAtTheDeadline() {
+        FxConversion conversion = FxConversion.builder().sourceCurrency("USD").destinationCurrency("EUR")
+                .rate(0.9).destinationAmount(90.0).build();
+        // Retiro confirmado, depósito que nunca responde
+        Mono<Object> chain = Mono.just("debited")
+                .transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.DEBITED,
+                        mutation -> mutation.setConversion(conversion)))
+                .then(Mono.never().transform(InFlightMutation.step(MutationPhase.CREDITING, MutationPhase.APPLIED)));
+        Mono<Object> debited = inFlightMutations.track(transfer(), Mono.just("debited")
+                        .transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.DEBITED,
+                                mutation -> mutation.setConversion(conversion)))
+                        .then(Mono.never()))
+                .cache();
+        Mono<Object> crediting = inFlightMutations.track(transfer(), chain).cache();
+        Mono<Object> admitted = inFlightMutations.track(transfer(), Mono.never()).cache();
+        debited.subscribe(v -> { }, e -> { });
+        crediting.subscribe(v -> { }, e -> { });
+        admitted.subscribe(v -> { }, e -> { });
+
+        StepVerifier.create(inFlightMutations.drain()).verifyComplete();
+
+        StepVerifier.create(debited)
+                .expectErrorMatches(error -> error == ErrorCode.MUTATION_INTERRUPTED.exception())
+                .verify();
+        StepVerifier.create(admitted)
+                .expectErrorMatches(error -> error == ErrorCode.SHUTTING_DOWN.exception())
+                .verify();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<PendingMutation>> journal = ArgumentCaptor.forClass(Iterable.class);
+        verify(pendingMutationRepository).saveAll(journal.capture());
+        List<PendingMutation> entries = (List<PendingMutation>) journal.getValue();
+        assertEquals(2, entries.size());
+        PendingMutation resumable = entries.stream().filter(e -> e.getPhase() == MutationPhase.DEBITED).findFirst()
+                .orElseThrow();
+        assertEquals(PendingMutationStatus.RESUMABLE, resumable.getStatus());
+        assertEquals(90.0, resumable.getDestinationAmount());
+        PendingMutation unknown = entries.stream().filter(e -> e.getPhase() == MutationPhase.CREDITING).findFirst()
+                .orElseThrow();
+        assertEquals(PendingMutationStatus.NEEDS_REVIEW, unknown.getStatus());
+    }
+
+    @Test
+    void abort_shouldStopStepsThatStartAfterThePhaseWasRead() {
+        InFlightMutation mutation = transfer();
+        Context context = Context.of(InFlightMutation.class, mutation);
+        AtomicInteger deposits = new AtomicInteger();
+        Mono.just("debited").transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.DEBITED))
+                .contextWrite(context).block();
+
+        // El drenaje lee DEBITED justo cuando el hilo de la cadena va a enviar el depósito
+        assertEquals(MutationPhase.DEBITED, mutation.abort());
+        StepVerifier.create(Mono.fromCallable(deposits::incrementAndGet)
+                        .transform(InFlightMutation.step(MutationPhase.CREDITING, MutationPhase.APPLIED))
+                        .contextWrite(context))
+                .expectErrorMatches(error -> error == ErrorCode.MUTATION_INTERRUPTED.exception())
+                .verify();
+
+        // Se reanudará desde DEBITED sin que el destino llegue a acreditarse dos veces
+        assertEquals(0, deposits.get());
+        assertEquals(MutationPhase.DEBITED, mutation.getPhase());
+    }
+
+    @Test
+    void track_shouldUndoReservationsOnlyOfMutationsDroppedBeforeMovingMoney() {
+        AtomicInteger admittedUndone = new AtomicInteger();
+        AtomicInteger debitingUndone = new AtomicInteger();
+        Mono<Object> admitted = Mono.deferContextual(context -> {
+            InFlightMutation.onDropped(context, admittedUndone::incrementAndGet);
+            return Mono.never();
+        });
+        // Con el retiro en vuelo no se sabe si el dinero salió: el límite sigue consumido
+        Mono<Object> debiting = Mono.deferContextual(context -> {
+            InFlightMutation.onDropped(context, debitingUndone::incrementAndGet);
+            return Mono.never().transform(InFlightMutation.step(MutationPhase.DEBITING, MutationPhase.APPLIED));
+        });
+
+        inFlightMutations.track(transfer(), admitted).subscribe().dispose();
+        inFlightMutations.track(transfer(), debiting).subscribe().dispose();
+
+        assertEquals(1, admittedUndone.get());
+        assertEquals(0, debitingUndone.get());
+        assertEquals(0, inFlightMutations.size());
+    }
+
+    @Test
+    void journal_shouldKeepTheLegsOfAMultiTransferReadable() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        LegResult leg = LegResult.builder()
+                .leg(TransferLeg.builder().destinationAccountId("456").amount(10.0).build())
+                .conversion(FxConversion.builder().sourceCurrency("USD").destinationCurrency("USD").rate(1)
+                        .destinationAmount(10.0).build())
+                .status(LegStatus.UNKNOWN)
+                .error("timeout")
+                .build();
+        Document document = new Document();
+        converter.write(PendingMutation.builder().id("1").type(TransactionType.MULTI_TRANSFER).legs(List.of(leg))
+                .build(), document);
+
+        PendingMutation read = converter.read(PendingMutation.class, document);
+
+        assertEquals(LegStatus.UNKNOWN, read.getLegs().get(0).getStatus());
+        assertEquals("456", read.getLegs().get(0).getLeg().getDestinationAccountId());
+        assertEquals(10.0, read.getLegs().get(0).getConversion().getDestinationAmount());
+        assertEquals("timeout", read.getLegs().get(0).getError());
+    }
+
+    private static InFlightMutation transfer() {
+        return new InFlightMutation(TransactionType.TRANSFER, "123", "456", 100.0);
+    }
+}
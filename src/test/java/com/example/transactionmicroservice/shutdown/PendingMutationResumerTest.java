@@ -0,0 +1,159 @@
+package com.example.transactionmicroservice.shutdown;
+
+import com.example.transactionmicroservice.cache.AccountHistoryCache;
+import com.example.transactionmicroservice.client.BankAccountClient;
+import com.example.transactionmicroservice.config.ShutdownProperties;
+import com.example.transactionmicroservice.model.BankAccount;
+import com.example.transactionmicroservice.model.MutationPhase;
+import com.example.transactionmicroservice.model.PendingMutation;
+import com.example.transactionmicroservice.model.PendingMutationStatus;
+import com.example.transactionmicroservice.model.Transaction;
+import com.example.transactionmicroservice.model.TransactionType;
+import com.example.transactionmicroservice.repository.TransactionRepository;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PendingMutationResumerTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private BankAccountClient bankAccountClient;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountHistoryCache historyCache;
+
+    private PendingMutationResumer resumer;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        resumer = new PendingMutationResumer(mongoTemplate, bankAccountClient, transactionRepository, historyCache,
+                new ShutdownProperties());
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.remove(any(PendingMutation.class))).thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PendingMutation.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    @Test
+    void resumeAll_shouldClaimEveryResumableEntryOnce() {
+        whenClaim().thenReturn(Mono.empty());
+
+        StepVerifier.create(resumer.resumeAll()).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(PendingMutation.class));
+        assertEquals(PendingMutationStatus.RESUMABLE, query.getValue().getQueryObject().get("status"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(PendingMutationStatus.RESUMING, set.get("status"));
+        assertNotNull(set.get("node"));
+    }
+
+    @Test
+    void resumeAll_shouldCreditAndRecordTransfersCutAfterTheDebit() {
+        PendingMutation debited = transfer(MutationPhase.DEBITED);
+        whenClaim().thenReturn(Mono.just(debited), Mono.empty());
+        when(bankAccountClient.deposit("456", 90.0)).thenReturn(Mono.just(BankAccount.builder().build()));
+
+        StepVerifier.create(resumer.resumeAll()).verifyComplete();
+
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(saved.capture());
+        assertEquals(TransactionType.TRANSFER, saved.getValue().getType());
+        assertEquals("123", saved.getValue().getSourceAccountId());
+        assertEquals("456", saved.getValue().getDestinationAccountId());
+        assertEquals(100.0, saved.getValue().getAmount());
+        verify(historyCache).record(saved.getValue());
+        verify(mongoTemplate).remove(debited);
+    }
+
+    @Test
+    void resumeAll_shouldSaveTheTransactionOfMutationsCutWhileRecording() {
+        Transaction transaction = Transaction.builder().id("tx").type(TransactionType.DEPOSIT)
+                .destinationAccountId("456").amount(10.0).build();
+        PendingMutation recording = transfer(MutationPhase.RECORDING);
+        recording.setTransaction(transaction);
+        whenClaim().thenReturn(Mono.just(recording), Mono.empty());
+
+        StepVerifier.create(resumer.resumeAll()).verifyComplete();
+
+        // Se guarda con el id asignado antes del apagado: si ya estaba guardada se sobrescribe
+        verify(transactionRepository).save(transaction);
+        verify(bankAccountClient, never()).deposit(anyString(), anyDouble());
+        verify(mongoTemplate).remove(recording);
+    }
+
+    @Test
+    void resumeAll_shouldMarkEntriesThatFailForReviewAndGoOn() {
+        PendingMutation failing = transfer(MutationPhase.DEBITED);
+        failing.setId("failing");
+        PendingMutation next = transfer(MutationPhase.DEBITED);
+        whenClaim().thenReturn(Mono.just(failing), Mono.just(next), Mono.empty());
+        when(bankAccountClient.deposit("456", 90.0))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE)))
+                .thenReturn(Mono.just(BankAccount.builder().build()));
+
+        StepVerifier.create(resumer.resumeAll()).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(PendingMutation.class));
+        assertEquals("failing", query.getValue().getQueryObject().get("_id"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(PendingMutationStatus.NEEDS_REVIEW, set.get("status"));
+        assertTrue(set.getString("lastError").contains("503"));
+        verify(mongoTemplate, never()).remove(failing);
+        verify(mongoTemplate).remove(next);
+    }
+
+    private OngoingStubbing<Mono<PendingMutation>> whenClaim() {
+        return when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PendingMutation.class)));
+    }
+
+    private static PendingMutation transfer(MutationPhase phase) {
+        return PendingMutation.builder()
+                .id("mutation")
+                .type(TransactionType.TRANSFER)
+                .sourceAccountId("123")
+                .destinationAccountId("456")
+                .amount(100.0)
+                .phase(phase)
+                .sourceCurrency("USD")
+                .destinationCurrency("EUR")
+                .exchangeRate(0.9)
+                .destinationAmount(90.0)
+                .status(PendingMutationStatus.RESUMING)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.transactionmicroservice.simulator;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * In-process simulator of the Bank Account Microservice, used by load tests.
+ * <p>
+ * Implements {@code GET /api/accounts/{id}}, {@code GET /api/accounts/batch?ids=},
+ * {@code PUT /api/accounts/{id}/deposit?amount=} and {@code PUT /api/accounts/{id}/withdraw?amount=} over a fixed
+ * set of accounts (ids {@code 1..accountCount}), adding a configurable latency and error rate to every call.
+ */
+public class BankAccountsSimulator implements AutoCloseable {
+
+    private final SimulatorSettings settings;
+    private final AtomicLongArray balancesInCents;
+    private DisposableServer server;
+
+    public BankAccountsSimulator(SimulatorSettings settings) {
+        this.settings = settings;
+        this.balancesInCents = new AtomicLongArray(settings.getAccountCount() + 1);
+        for (int i = 1; i <= settings.getAccountCount(); i++) {
+            balancesInCents.set(i, settings.getInitialBalanceInCents());
+        }
+    }
+
+    /**
+     * Starts the simulator on the given port (0 picks a free port).
+     *
+     * @return This simulator.
+     */
+    public BankAccountsSimulator start(int port) {
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes
+                        .get("/api/accounts/batch", this::getAccounts)
+                        .get("/api/accounts/{id}", this::getAccount)
+                        .put("/api/accounts/{id}/deposit", (request, response) -> move(request, response, 1))
+                        .put("/api/accounts/{id}/withdraw", (request, response) -> move(request, response, -1)))
+                .bindNow();
+        return this;
+    }
+
+    /**
+     * @return The base URL to configure as {@code microservices.bank-accounts.base-url}.
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.port() + "/api";
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Mono<Void> getAccount(HttpServerRequest request, HttpServerResponse response) {
+        int id = accountIndex(request.param("id"));
+        if (id < 0) {
+            return respond(response, HttpResponseStatus.NOT_FOUND, "Account not found");
+        }
+        return respond(response, HttpResponseStatus.OK, accountJson(id));
+    }
+
+    private Mono<Void> getAccounts(HttpServerRequest request, HttpServerResponse response) {
+        List<String> ids = new QueryStringDecoder(request.uri()).parameters().getOrDefault("ids", List.of());
+        String body = ids.stream()
+                .flatMap(value -> List.of(value.split(",")).stream())
+                .mapToInt(BankAccountsSimulator::accountIndexOrInvalid)
+                .filter(id -> id > 0 && id <= settings.getAccountCount())
+                .mapToObj(this::accountJson)
+                .collect(Collectors.joining(",", "[", "]"));
+        return respond(response, HttpResponseStatus.OK, body);
+    }
+
+    private Mono<Void> move(HttpServerRequest request, HttpServerResponse response, int sign) {
+        int id = accountIndex(request.param("id"));
+        String amount = new QueryStringDecoder(request.uri()).parameters().getOrDefault("amount", List.of("0")).get(0);
+        if (id < 0) {
+            return respond(response, HttpResponseStatus.NOT_FOUND, "Account not found");
+        }
+        long cents = new BigDecimal(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        balancesInCents.addAndGet(id, sign * cents);
+        return respond(response, HttpResponseStatus.OK, accountJson(id));
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, HttpResponseStatus status, String body) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Duration latency = settings.getLatency().sample(random);
+        boolean fail = random.nextDouble() < settings.getErrorRate();
+        HttpResponseStatus finalStatus = fail ? HttpResponseStatus.SERVICE_UNAVAILABLE : status;
+        String finalBody = fail ? "Simulated failure" : body;
+        return Mono.delay(latency)
+                .then(response.status(finalStatus)
+                        .header("Content-Type", finalStatus == HttpResponseStatus.OK ? "application/json" : "text/plain")
+                        .sendString(Mono.just(finalBody))
+                        .then());
+    }
+
+    private String accountJson(int id) {
+        BigDecimal balance = BigDecimal.valueOf(balancesInCents.get(id), 2);
+        return "{\"id\":" + id + ",\"accountNumber\":\"ACC-" + id + "\",\"balance\":" + balance.toPlainString()
+                + ",\"accountType\":\"" + (id % 2 == 0 ? "CHECKING" : "SAVINGS") + "\",\"customerId\":" + id + "}";
+    }
+
+    private int accountIndex(String value) {
+        int id = accountIndexOrInvalid(value);
+        return id > 0 && id <= settings.getAccountCount() ? id : -1;
+    }
+
+    private static int accountIndexOrInvalid(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Runs the simulator as a standalone process, e.g. on a load-test host.
+     * Settings are read from system properties, see {@link SimulatorSettings#fromSystemProperties()}.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = Integer.getInteger("simulator.port", 8082);
+        BankAccountsSimulator simulator = new BankAccountsSimulator(SimulatorSettings.fromSystemProperties()).start(port);
+        System.out.println("Bank accounts simulator listening on " + simulator.getBaseUrl());
+        Thread.currentThread().join();
+    }
+}
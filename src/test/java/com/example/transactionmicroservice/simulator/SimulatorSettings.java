@@ -0,0 +1,73 @@
+package com.example.transactionmicroservice.simulator;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Behaviour of the {@link BankAccountsSimulator}: number of accounts, latency distribution and error rate.
+ */
+@Getter
+@Builder
+public class SimulatorSettings {
+
+    @Builder.Default
+    private int accountCount = 10_000; // Cuentas con ids 1..accountCount
+
+    @Builder.Default
+    private long initialBalanceInCents = 100_000_000L; // Saldo inicial de cada cuenta
+
+    @Builder.Default
+    private LatencyDistribution latency = LatencyDistribution.fixed(Duration.ZERO);
+
+    @Builder.Default
+    private double errorRate = 0.0; // Fracción de respuestas 503
+
+    /**
+     * Reads the settings from the {@code simulator.accounts}, {@code simulator.error-rate},
+     * {@code simulator.latency} ({@code fixed}, {@code uniform} or {@code lognormal}),
+     * {@code simulator.latency.median-ms} and {@code simulator.latency.p99-ms} system properties.
+     */
+    public static SimulatorSettings fromSystemProperties() {
+        long median = Long.getLong("simulator.latency.median-ms", 5);
+        long p99 = Long.getLong("simulator.latency.p99-ms", 50);
+        LatencyDistribution latency = switch (System.getProperty("simulator.latency", "lognormal")) {
+            case "fixed" -> LatencyDistribution.fixed(Duration.ofMillis(median));
+            case "uniform" -> LatencyDistribution.uniform(Duration.ZERO, Duration.ofMillis(2 * median));
+            default -> LatencyDistribution.logNormal(Duration.ofMillis(median), Duration.ofMillis(p99));
+        };
+        return SimulatorSettings.builder()
+                .accountCount(Integer.getInteger("simulator.accounts", 10_000))
+                .errorRate(Double.parseDouble(System.getProperty("simulator.error-rate", "0")))
+                .latency(latency)
+                .build();
+    }
+
+    /**
+     * Latency added to each simulated response.
+     */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+
+        Duration sample(ThreadLocalRandom random);
+
+        static LatencyDistribution fixed(Duration latency) {
+            return random -> latency;
+        }
+
+        static LatencyDistribution uniform(Duration min, Duration max) {
+            return random -> Duration.ofNanos(random.nextLong(min.toNanos(), max.toNanos() + 1));
+        }
+
+        /**
+         * Log-normal latency, the usual shape of remote service response times, defined by its median and p99.
+         */
+        static LatencyDistribution logNormal(Duration median, Duration p99) {
+            double mu = Math.log(Math.max(1, median.toNanos()));
+            double sigma = (Math.log(Math.max(1, p99.toNanos())) - mu) / 2.326; // z(0.99) = 2.326
+            return random -> Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+        }
+    }
+}
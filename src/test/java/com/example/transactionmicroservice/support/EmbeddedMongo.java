@@ -0,0 +1,86 @@
+package com.example.transactionmicroservice.support;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.commands.MongodArguments;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import de.flapdoodle.reverse.transitions.Start;
+import org.bson.Document;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * MongoDB server for integration tests.
+ * <p>
+ * Uses the server given by the {@code mongo.test.uri} system property (e.g. a locally installed binary) or,
+ * when it is not set, starts an embedded {@code mongod} once per JVM.
+ */
+public final class EmbeddedMongo {
+
+    private static final String REPLICA_SET = "rs0";
+
+    private static String uri;
+    private static String replicaSetUri;
+
+    private EmbeddedMongo() {
+    }
+
+    /**
+     * @return The connection string of the test server.
+     */
+    public static synchronized String uri() {
+        if (uri == null) {
+            uri = System.getProperty("mongo.test.uri");
+        }
+        if (uri == null) {
+            TransitionWalker.ReachedState<RunningMongodProcess> running = Mongod.instance().start(Version.Main.V7_0);
+            Runtime.getRuntime().addShutdownHook(new Thread(running::close));
+            ServerAddress address = running.current().getServerAddress();
+            uri = "mongodb://" + address.getHost() + ":" + address.getPort();
+        }
+        return uri;
+    }
+
+    /**
+     * @return The connection string of a single-node replica set, which supports multi-document transactions:
+     * the {@code mongo.test.replica-set-uri} system property or an embedded {@code mongod} started once per JVM.
+     */
+    public static synchronized String replicaSetUri() {
+        if (replicaSetUri == null) {
+            replicaSetUri = System.getProperty("mongo.test.replica-set-uri");
+        }
+        if (replicaSetUri == null) {
+            TransitionWalker.ReachedState<RunningMongodProcess> running = Mongod.instance()
+                    .withMongodArguments(Start.to(MongodArguments.class).initializedWith(MongodArguments.defaults()
+                            .withReplication(Storage.of(REPLICA_SET, 0))
+                            .withUseNoJournal(false)))
+                    .start(Version.Main.V7_0);
+            Runtime.getRuntime().addShutdownHook(new Thread(running::close));
+            ServerAddress address = running.current().getServerAddress();
+            String member = address.getHost() + ":" + address.getPort();
+            initiate(member);
+            replicaSetUri = "mongodb://" + member + "/?replicaSet=" + REPLICA_SET;
+        }
+        return replicaSetUri;
+    }
+
+    private static void initiate(String member) {
+        try (MongoClient client = MongoClients.create("mongodb://" + member + "/?directConnection=true")) {
+            Document config = new Document("_id", REPLICA_SET)
+                    .append("members", List.of(new Document("_id", 0).append("host", member)));
+            Mono.from(client.getDatabase("admin").runCommand(new Document("replSetInitiate", config))).block();
+            // La elección del primario tarda unos segundos tras iniciar el replica set
+            Mono.from(client.getDatabase("admin").runCommand(new Document("hello", 1)))
+                    .filter(hello -> hello.getBoolean("isWritablePrimary", false))
+                    .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(200)))
+                    .block(Duration.ofSeconds(30));
+        }
+    }
+}